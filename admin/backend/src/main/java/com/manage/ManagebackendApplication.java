@@ -4,11 +4,13 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.io.File;
 import java.nio.file.Paths;
 
 @SpringBootApplication
+@EnableScheduling
 public class ManagebackendApplication implements CommandLineRunner {
 
     @Value("${file.upload.path:uploads}")
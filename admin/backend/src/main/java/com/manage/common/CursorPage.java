@@ -0,0 +1,42 @@
+package com.manage.common;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页结果类
+ *
+ * 用于“加载更多”式的深度滚动：客户端携带上一页返回的 nextCursor 请求下一页，
+ * 数据库按索引定位起点，不需要 OFFSET 扫描和 COUNT 查询
+ *
+ * @author System
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    /**
+     * 当前页数据
+     */
+    private List<T> content;
+
+    /**
+     * 下一页游标，没有更多数据时为null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多数据
+     */
+    private boolean hasMore;
+
+    /**
+     * 每页大小
+     */
+    private int size;
+}
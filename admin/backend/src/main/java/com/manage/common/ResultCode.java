@@ -66,7 +66,8 @@ public enum ResultCode {
      */
     BAD_REQUEST(400, "请求参数错误"),
     CONFLICT(409, "资源冲突"),
-    INTERNAL_SERVER_ERROR(500, "服务器内部错误");
+    INTERNAL_SERVER_ERROR(500, "服务器内部错误"),
+    SERVICE_UNAVAILABLE(503, "服务繁忙，请稍后重试");
 
     private final Integer code;
     private final String message;
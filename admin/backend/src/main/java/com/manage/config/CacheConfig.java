@@ -0,0 +1,88 @@
+package com.manage.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地缓存配置类
+ *
+ * 基于Caffeine，所有缓存都开启统计，由actuator自动注册为 cache.gets{result=hit|miss} 等指标
+ *
+ * @author System
+ * @version 1.0
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * 公开产品分页列表（全部、按分类）
+     */
+    public static final String PUBLIC_PRODUCT_PAGES = "publicProductPages";
+
+    /**
+     * 公开产品推荐列表（新品、主要产品、热门推荐）
+     */
+    public static final String PUBLIC_PRODUCT_LISTS = "publicProductLists";
+
+    /**
+     * 公开产品分类
+     */
+    public static final String PUBLIC_PRODUCT_CATEGORIES = "publicProductCategories";
+
+    /**
+     * 公开产品详情
+     */
+    public static final String PUBLIC_PRODUCT_DETAIL = "publicProductDetail";
+
+    /**
+     * 认证用户详情（按用户名），用户变更时由事件失效
+     */
+    public static final String USER_DETAILS = "userDetails";
+
+    @Value("${cache.public-catalog.maximum-size:1000}")
+    private long publicCatalogMaximumSize;
+
+    @Value("${cache.public-catalog.expire-after-write-seconds:600}")
+    private long publicCatalogExpireSeconds;
+
+    @Value("${cache.user-details.maximum-size:1000}")
+    private long userDetailsMaximumSize;
+
+    @Value("${cache.user-details.expire-after-write-seconds:300}")
+    private long userDetailsExpireSeconds;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // 预先注册缓存，保证启动时即可被指标注册器发现
+        cacheManager.registerCustomCache(PUBLIC_PRODUCT_PAGES, publicCatalogCache(publicCatalogMaximumSize));
+        cacheManager.registerCustomCache(PUBLIC_PRODUCT_LISTS, publicCatalogCache(16));
+        cacheManager.registerCustomCache(PUBLIC_PRODUCT_CATEGORIES, publicCatalogCache(4));
+        cacheManager.registerCustomCache(PUBLIC_PRODUCT_DETAIL, publicCatalogCache(publicCatalogMaximumSize));
+        cacheManager.registerCustomCache(USER_DETAILS, Caffeine.newBuilder()
+                .maximumSize(userDetailsMaximumSize)
+                .expireAfterWrite(userDetailsExpireSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    /**
+     * 公开目录缓存：容量上限 + 写入后过期，数据变更时由事件主动失效，过期时间只是兜底
+     */
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> publicCatalogCache(long maximumSize) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(publicCatalogExpireSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+}
@@ -1,6 +1,8 @@
 package com.manage.config;
 
 import com.manage.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -17,11 +19,13 @@ public class JwtConfig {
      * JWT工具类
      */
     @Bean
-    public JwtUtil jwtUtil() {
+    public JwtUtil jwtUtil(MeterRegistry meterRegistry) {
         JwtUtil jwtUtil = new JwtUtil();
         // 手动设置属性值
         jwtUtil.setSecret("mySecretKeyForJWTAuthenticationThatIsSecureEnoughForHMACSHA512AlgorithmAndMeetsThe256BitsRequirement");
         jwtUtil.setExpiration(86400000L);
+        // 已验证token缓存的命中率等指标
+        CaffeineCacheMetrics.monitor(meterRegistry, jwtUtil.getVerifiedTokenCache(), "jwtVerifiedTokens");
         return jwtUtil;
     }
 }
\ No newline at end of file
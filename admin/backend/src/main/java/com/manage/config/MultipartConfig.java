@@ -0,0 +1,40 @@
+package com.manage.config;
+
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Multipart解析配置
+ *
+ * 流式上传接口需要自己读取请求体，不能被预先解析；其余请求与默认配置一致
+ *
+ * @author System
+ * @version 1.0
+ */
+@Configuration
+public class MultipartConfig {
+
+    /**
+     * 流式上传接口路径前缀
+     */
+    public static final String STREAMING_UPLOAD_PATH = "/api/admin/upload/stream/";
+
+    @Bean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+    public MultipartResolver multipartResolver(MultipartProperties multipartProperties) {
+        StandardServletMultipartResolver resolver = new StandardServletMultipartResolver() {
+            @Override
+            public boolean isMultipart(HttpServletRequest request) {
+                String path = request.getRequestURI().substring(request.getContextPath().length());
+                return !path.startsWith(STREAMING_UPLOAD_PATH) && super.isMultipart(request);
+            }
+        };
+        resolver.setResolveLazily(multipartProperties.isResolveLazily());
+        return resolver;
+    }
+}
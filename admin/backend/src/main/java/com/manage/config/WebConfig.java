@@ -1,8 +1,18 @@
 package com.manage.config;
 
+import com.manage.event.ContentDomain;
+import com.manage.event.ContentVersionTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.manage.filter.PublicResponseCacheFilter;
+import com.manage.interceptor.ConditionalGetInterceptor;
+import com.manage.service.ResponseBodyCache;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -15,11 +25,21 @@ import java.io.File;
  * @version 1.0
  */
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private static final String[] PUBLIC_PRODUCT_PATHS = {"/api/public/products", "/api/public/products/**"};
+    private static final String[] PUBLIC_COMPANY_PATHS = {"/api/public/company/**", "/api/company/public/**"};
+    private static final String[] PUBLIC_HOMEPAGE_PATHS = {"/api/public/homepage/**"};
+
     @Value("${file.upload.path:uploads}")
     private String uploadPath;
 
+    @Value("${public.response-cache.enabled:true}")
+    private boolean responseCacheEnabled;
+
+    private final ContentVersionTracker contentVersionTracker;
+
     /**
      * 配置全局 CORS 规则
      * 确保静态资源路径 /api/files/** 支持跨域访问
@@ -49,4 +69,35 @@ public class WebConfig implements WebMvcConfigurer {
                 .addResourceLocations("file:" + absolutePath + File.separator)
                 .setCachePeriod(3600);
     }
+
+    /**
+     * 配置公开接口的条件请求拦截器
+     * 数据未变化时直接返回304，避免重复查询和传输
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConditionalGetInterceptor(contentVersionTracker, ContentDomain.PRODUCT))
+                .addPathPatterns(PUBLIC_PRODUCT_PATHS);
+        registry.addInterceptor(new ConditionalGetInterceptor(contentVersionTracker, ContentDomain.COMPANY))
+                .addPathPatterns(PUBLIC_COMPANY_PATHS);
+        registry.addInterceptor(new ConditionalGetInterceptor(contentVersionTracker, ContentDomain.HOMEPAGE))
+                .addPathPatterns(PUBLIC_HOMEPAGE_PATHS);
+    }
+
+    /**
+     * 注册公开接口响应体缓存过滤器，路径和领域与条件请求拦截器一致
+     * 命中时直接写出缓存的字节，不进入DispatcherServlet
+     */
+    @Bean
+    public FilterRegistrationBean<PublicResponseCacheFilter> publicResponseCacheFilter(ResponseBodyCache responseBodyCache,
+                                                                                      ObjectMapper objectMapper) {
+        PublicResponseCacheFilter filter = new PublicResponseCacheFilter(responseBodyCache, contentVersionTracker, objectMapper)
+                .addRule(ContentDomain.PRODUCT, PUBLIC_PRODUCT_PATHS)
+                .addRule(ContentDomain.COMPANY, PUBLIC_COMPANY_PATHS)
+                .addRule(ContentDomain.HOMEPAGE, PUBLIC_HOMEPAGE_PATHS);
+        FilterRegistrationBean<PublicResponseCacheFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/public/*", "/api/company/public/*");
+        registration.setEnabled(responseCacheEnabled);
+        return registration;
+    }
 }
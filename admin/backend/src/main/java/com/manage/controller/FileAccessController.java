@@ -1,20 +1,23 @@
 package com.manage.controller;
 
+import com.manage.exception.ServiceBusyException;
+import com.manage.service.AccessCounterService;
+import com.manage.service.BlobStorageService;
+import com.manage.service.ImageDerivativeService;
+import com.manage.service.ImageProcessingService;
+import com.manage.util.FileResponseWriter;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -30,211 +33,247 @@ import java.util.Map;
 @Slf4j
 @RestController
 @RequestMapping("/api/files")
+@RequiredArgsConstructor
 public class FileAccessController {
 
     @Value("${file.upload.path:uploads}")
     private String uploadPath;
 
+    @Value("${file.derivative.webp-negotiation:true}")
+    private boolean webpNegotiation;
+
+    private final FileResponseWriter fileResponseWriter;
+    private final ImageDerivativeService imageDerivativeService;
+    private final AccessCounterService accessCounterService;
+    private final BlobStorageService blobStorageService;
+    private final ImageProcessingService imageProcessingService;
+
     /**
-     * 访问上传的文件（支持Range请求，优化视频播放）
+     * 访问上传的文件（支持单段/多段Range请求及If-Range，优化视频拖动播放）
      *
-     * @param request HTTP请求
-     * @return 文件内容
+     * 图片可带 w（宽度）、fmt（jpg/png/webp）、q（质量）参数获取缩放/转码后的派生图，
+     * 如 /api/files/images/a.jpg?w=480&fmt=webp&q=75；未指定fmt时按Accept头自动输出WebP
+     *
+     * @param request  HTTP请求
+     * @param response HTTP响应
      */
     @GetMapping("/**")
-    public ResponseEntity<Resource> accessFile(HttpServletRequest request) {
-        try {
-            // 获取请求路径
-            String requestURI = request.getRequestURI();
-            String contextPath = request.getContextPath();
-            String basePath = contextPath + "/api/files/";
-
-            if (!requestURI.startsWith(basePath)) {
-                return ResponseEntity.notFound().build();
-            }
-
-            String filePath = requestURI.substring(basePath.length());
-
-            // 构建文件完整路径
-            Path fullPath = Paths.get(uploadPath, filePath);
-            File file = fullPath.toFile();
+    public void accessFile(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serveFile(request, response, "/api/files/", false);
+    }
 
-            if (!file.exists() || !file.isFile()) {
-                log.warn("文件不存在：{}", fullPath);
-                return ResponseEntity.notFound().build();
-            }
+    /**
+     * 下载文件（同样支持Range，可断点续传）
+     *
+     * @param request  HTTP请求
+     * @param response HTTP响应
+     */
+    @GetMapping("/download/**")
+    public void downloadFile(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serveFile(request, response, "/api/files/download/", true);
+    }
 
-            // 获取文件MIME类型
-            String contentType = Files.probeContentType(fullPath);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
+    /**
+     * 输出文件内容
+     *
+     * @param request    HTTP请求
+     * @param response   HTTP响应
+     * @param prefix     路由前缀
+     * @param attachment 是否作为附件下载
+     */
+    private void serveFile(HttpServletRequest request, HttpServletResponse response,
+                           String prefix, boolean attachment) throws IOException {
+        Path fullPath = resolveRequestedFile(request, prefix);
+        if (fullPath == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        Path original = fullPath;
+        boolean fellBack = false;
+
+        if (!attachment && imageDerivativeService.supports(fullPath)) {
+            String format = negotiateFormat(request, response, fullPath);
+            boolean derivativeRequest = isDerivativeRequest(request);
+            if (format != null || derivativeRequest) {
+                Path derivative = resolveDerivative(request, response, fullPath, prefix, format, !derivativeRequest);
+                if (derivative == null) {
+                    return;
+                }
+                fullPath = derivative;
+                fellBack = derivative.equals(original);
             }
+        }
 
-            long fileLength = file.length();
-            String rangeHeader = request.getHeader(HttpHeaders.RANGE);
-
-            // 如果没有Range请求，返回完整文件
-            if (rangeHeader == null || rangeHeader.trim().isEmpty()) {
-                Resource resource = new FileSystemResource(file);
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + file.getName() + "\"")
-                        .header(HttpHeaders.ACCEPT_RANGES, "bytes") // 告诉浏览器支持Range请求
-                        .header(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000") // 缓存1年
-                        .header(HttpHeaders.EXPIRES, String.valueOf(System.currentTimeMillis() + 31536000000L))
-                        .header(HttpHeaders.LAST_MODIFIED, String.valueOf(file.lastModified()))
-                        .contentLength(fileLength)
-                        .body(resource);
+        try {
+            if (fellBack) {
+                // 退回原图只是临时结果，要求每次重新验证，处理恢复后客户端可拿到派生图
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            } else if (!attachment && fullPath.equals(original) && imageDerivativeService.supports(original)
+                    && imageProcessingService.isProcessing(relativePath(request, prefix))) {
+                // 后台处理完成后压缩主图会替换同一URL下的原图，处理完成前不能让客户端和CDN长期缓存原图
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            } else if (!attachment) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000"); // 缓存1年
+                response.setDateHeader(HttpHeaders.EXPIRES, System.currentTimeMillis() + 31536000000L);
             }
-
-            // 解析Range请求头（格式：bytes=start-end）
-            long start = 0;
-            long end = fileLength - 1;
-
-            try {
-                String range = rangeHeader.replace("bytes=", "");
-                String[] ranges = range.split("-");
-                
-                if (ranges.length > 0 && !ranges[0].isEmpty()) {
-                    start = Long.parseLong(ranges[0]);
-                }
-                if (ranges.length > 1 && !ranges[1].isEmpty()) {
-                    end = Long.parseLong(ranges[1]);
-                }
-                
-                // 验证范围
-                if (start > end || start < 0 || end >= fileLength) {
-                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
-                            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + fileLength)
-                            .build();
-                }
-            } catch (NumberFormatException e) {
-                log.warn("无效的Range请求头：{}", rangeHeader);
-                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
-                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + fileLength)
-                        .build();
+            // 原图以去重存储的内容哈希作为ETag，派生图仍按文件长度和修改时间
+            String contentHash = fullPath.equals(original)
+                    ? blobStorageService.getContentHash(relativePath(request, prefix))
+                    : null;
+            fileResponseWriter.write(request, response, fullPath,
+                    fileResponseWriter.resolveContentType(fullPath), attachment, contentHash);
+        } catch (IOException e) {
+            // 客户端中断（如视频拖动时浏览器取消请求）属于正常情况
+            log.debug("文件输出中断：{}，原因：{}", fullPath, e.getMessage());
+        } catch (Exception e) {
+            log.error("访问文件失败：{}", e.getMessage());
+            if (!response.isCommitted()) {
+                response.reset();
+                response.sendError(HttpStatus.NOT_FOUND.value());
             }
+        }
 
-            // 使用流式传输，避免大文件占用内存
-            final long contentLength = end - start + 1;
-            final File finalFile = file;
-            final long finalStart = start;
-            
-            // 创建一个自定义的InputStreamResource，延迟打开文件
-            InputStreamResource resource = new InputStreamResource(new java.io.InputStream() {
-                private RandomAccessFile raf;
-                private long remaining = contentLength;
-                private boolean initialized = false;
-                
-                @Override
-                public int read() throws IOException {
-                    if (!initialized) {
-                        raf = new RandomAccessFile(finalFile, "r");
-                        raf.seek(finalStart);
-                        initialized = true;
-                    }
-                    if (remaining <= 0) {
-                        return -1;
-                    }
-                    int result = raf.read();
-                    if (result != -1) {
-                        remaining--;
-                    }
-                    return result;
-                }
-                
-                @Override
-                public int read(byte[] b, int off, int len) throws IOException {
-                    if (!initialized) {
-                        raf = new RandomAccessFile(finalFile, "r");
-                        raf.seek(finalStart);
-                        initialized = true;
-                    }
-                    if (remaining <= 0) {
-                        return -1;
-                    }
-                    int toRead = (int) Math.min(len, remaining);
-                    int bytesRead = raf.read(b, off, toRead);
-                    if (bytesRead > 0) {
-                        remaining -= bytesRead;
-                    }
-                    return bytesRead;
-                }
-                
-                @Override
-                public void close() throws IOException {
-                    if (raf != null) {
-                        raf.close();
-                    }
-                }
-            });
-
-            // 返回206 Partial Content
-            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + file.getName() + "\"")
-                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
-                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + fileLength)
-                    .header(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000")
-                    .header(HttpHeaders.EXPIRES, String.valueOf(System.currentTimeMillis() + 31536000000L))
-                    .header(HttpHeaders.LAST_MODIFIED, String.valueOf(file.lastModified()))
-                    .contentLength(contentLength)
-                    .body(resource);
+        // 缩略图等显式派生图请求不计为原文件的浏览
+        if (attachment || !isDerivativeRequest(request)) {
+            recordAccess(request, response, prefix, attachment);
+        }
+    }
 
-        } catch (Exception e) {
-            log.error("访问文件失败：{}", e.getMessage());
-            return ResponseEntity.notFound().build();
+    /**
+     * 记录浏览/下载次数：只统计实际输出内容的200/206响应，304重新验证和HEAD请求不计数；
+     * 视频拖动和断点续传产生的后续Range请求不重复计数
+     */
+    private void recordAccess(HttpServletRequest request, HttpServletResponse response,
+                              String prefix, boolean attachment) {
+        int status = response.getStatus();
+        if ((status != HttpStatus.OK.value() && status != HttpStatus.PARTIAL_CONTENT.value())
+                || "HEAD".equalsIgnoreCase(request.getMethod())) {
+            return;
+        }
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && !range.replace(" ", "").startsWith("bytes=0-")) {
+            return;
+        }
+        String relativePath = relativePath(request, prefix);
+        if (attachment) {
+            accessCounterService.recordMediaDownload(relativePath);
+        } else {
+            accessCounterService.recordMediaView(relativePath);
         }
     }
 
     /**
-     * 下载文件
+     * 按Accept头协商输出格式：未显式指定fmt（或fmt=auto）的JPEG/PNG图片，浏览器支持WebP时输出WebP；
+     * 参与协商的响应都带上 Vary: Accept，避免共享缓存把WebP返回给不支持的客户端
      *
-     * @param request HTTP请求
-     * @return 文件下载响应
+     * @return 协商出的格式，不需要转换时返回请求中的fmt参数
      */
-    @GetMapping("/download/**")
-    public ResponseEntity<Resource> downloadFile(HttpServletRequest request) {
-        try {
-            // 获取请求路径
-            String requestURI = request.getRequestURI();
-            String contextPath = request.getContextPath();
-            String basePath = contextPath + "/api/files/download/";
-
-            if (!requestURI.startsWith(basePath)) {
-                return ResponseEntity.notFound().build();
-            }
+    private String negotiateFormat(HttpServletRequest request, HttpServletResponse response, Path source) {
+        String format = request.getParameter("fmt");
+        if (!webpNegotiation || (format != null && !"auto".equalsIgnoreCase(format.trim()))) {
+            return format;
+        }
+        String name = source.getFileName().toString().toLowerCase();
+        if (!(name.endsWith(".jpg") || name.endsWith(".jpeg") || name.endsWith(".png"))
+                || !imageDerivativeService.supportsOutputFormat("webp")) {
+            return format;
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.toLowerCase().contains("image/webp") ? "webp" : format;
+    }
 
-            String filePath = requestURI.substring(basePath.length());
+    private boolean isDerivativeRequest(HttpServletRequest request) {
+        return request.getParameter("w") != null || request.getParameter("fmt") != null
+                || request.getParameter("q") != null;
+    }
 
-            // 构建文件完整路径
-            Path fullPath = Paths.get(uploadPath, filePath);
-            File file = fullPath.toFile();
+    /**
+     * 获取派生图；参数非法时返回400，图片处理繁忙时返回503，生成失败时退回原图。
+     * 仅由Accept协商出WebP（未带w/fmt/q）的请求原本就可以直接输出原图，繁忙时同样退回原图
+     *
+     * @param request    HTTP请求
+     * @param response   HTTP响应
+     * @param original   原图路径
+     * @param prefix     路由前缀
+     * @param format     输出格式（已按Accept协商）
+     * @param negotiated 是否仅由Accept协商触发
+     * @return 派生图路径，已写出错误响应时返回null
+     */
+    private Path resolveDerivative(HttpServletRequest request, HttpServletResponse response, Path original,
+                                   String prefix, String format, boolean negotiated) throws IOException {
+        Integer width;
+        Integer quality;
+        try {
+            width = parsePositiveInt(request.getParameter("w"));
+            quality = parsePositiveInt(request.getParameter("q"));
+        } catch (NumberFormatException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "图片参数无效");
+            return null;
+        }
 
-            if (!file.exists() || !file.isFile()) {
-                log.warn("文件不存在：{}", fullPath);
-                return ResponseEntity.notFound().build();
+        String relativePath = relativePath(request, prefix);
+        try {
+            return imageDerivativeService.getDerivative(original, relativePath, width, format, quality);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            return null;
+        } catch (ServiceBusyException e) {
+            if (negotiated) {
+                log.debug("图片处理繁忙，协商请求返回原图：{}", original);
+                return original;
             }
+            // 显式请求派生图时让客户端稍后重试，不退回原图以免大图流量进一步加重负载
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage());
+            return null;
+        } catch (IOException e) {
+            log.warn("生成派生图失败，返回原图：{}，原因：{}", original, e.getMessage());
+            return original;
+        }
+    }
 
-            // 创建文件资源
-            Resource resource = new FileSystemResource(file);
+    private String relativePath(HttpServletRequest request, String prefix) {
+        return request.getRequestURI().substring((request.getContextPath() + prefix).length());
+    }
 
-            // 获取文件MIME类型
-            String contentType = Files.probeContentType(fullPath);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
-            }
+    private Integer parsePositiveInt(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        int parsed = Integer.parseInt(value.trim());
+        if (parsed <= 0) {
+            throw new NumberFormatException(value);
+        }
+        return parsed;
+    }
 
-            // 设置响应头（强制下载）
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getName() + "\"")
-                    .body(resource);
+    /**
+     * 根据请求路径定位上传目录下的文件，拒绝越出上传目录的路径
+     *
+     * @param request HTTP请求
+     * @param prefix  路由前缀
+     * @return 文件路径，不存在或非法时返回null
+     */
+    private Path resolveRequestedFile(HttpServletRequest request, String prefix) {
+        String requestURI = request.getRequestURI();
+        String basePath = request.getContextPath() + prefix;
+        if (!requestURI.startsWith(basePath)) {
+            return null;
+        }
 
-        } catch (Exception e) {
-            log.error("下载文件失败：{}", e.getMessage());
-            return ResponseEntity.notFound().build();
+        String filePath = requestURI.substring(basePath.length());
+        Path root = Paths.get(uploadPath).toAbsolutePath().normalize();
+        Path fullPath = root.resolve(filePath).normalize();
+        if (!fullPath.startsWith(root)) {
+            log.warn("拒绝访问上传目录之外的路径：{}", filePath);
+            return null;
+        }
+        if (!Files.isRegularFile(fullPath)) {
+            log.warn("文件不存在：{}", fullPath);
+            return null;
         }
+        return fullPath;
     }
 
     /**
@@ -272,7 +311,7 @@ public class FileAccessController {
             fileInfo.put("filePath", filePath);
             fileInfo.put("fileSize", file.length());
             fileInfo.put("lastModified", file.lastModified());
-            fileInfo.put("contentType", Files.probeContentType(fullPath));
+            fileInfo.put("contentType", fileResponseWriter.resolveContentType(fullPath));
 
             return ResponseEntity.ok(fileInfo);
 
@@ -4,17 +4,28 @@ import com.manage.common.Result;
 import com.manage.dto.company.CompanyInfoResponse;
 import com.manage.entity.MediaFile;
 import com.manage.entity.User;
+import com.manage.service.BlobStorageService;
 import com.manage.service.CompanyInfoService;
 import com.manage.service.FileUploadService;
+import com.manage.service.ImageAdmissionService;
+import com.manage.service.ImageDerivativeService;
+import com.manage.service.ImageProcessingService;
 import com.manage.service.OperationLogService;
+import com.manage.service.StreamingUploadService;
 import com.manage.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.fileupload.servlet.ServletFileUpload;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
 
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -31,9 +42,14 @@ import java.util.stream.Collectors;
 public class FileUploadController {
 
     private final FileUploadService fileUploadService;
+    private final ImageProcessingService imageProcessingService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ImageAdmissionService imageAdmissionService;
+    private final BlobStorageService blobStorageService;
     private final UserService userService;
     private final OperationLogService operationLogService;
     private final CompanyInfoService companyInfoService;
+    private final StreamingUploadService streamingUploadService;
 
     /**
      * 上传公司Logo并更新数据库
@@ -116,6 +132,8 @@ public class FileUploadController {
     /**
      * 增强图片上传（支持压缩、进度回调等）
      *
+     * 缩略图和宽度变体由后台图片处理任务统一生成，不再接受thumbnail参数
+     *
      * @param file     图片文件
      * @param category 图片分类（必填）
      * @param description 图片描述（可选）
@@ -126,7 +144,6 @@ public class FileUploadController {
      * @param height   目标高度（可选）
      * @param maxSize  最大文件大小（可选）
      * @param watermark 是否添加水印（可选）
-     * @param thumbnail 是否生成缩略图（可选）
      * @return 上传结果
      */
     @PostMapping("/image")
@@ -140,8 +157,7 @@ public class FileUploadController {
             @RequestParam(value = "width", required = false) Integer width,
             @RequestParam(value = "height", required = false) Integer height,
             @RequestParam(value = "maxSize", required = false) Long maxSize,
-            @RequestParam(value = "watermark", defaultValue = "false") Boolean watermark,
-            @RequestParam(value = "thumbnail", defaultValue = "true") Boolean thumbnail) {
+            @RequestParam(value = "watermark", defaultValue = "false") Boolean watermark) {
 
         try {
             if (file.isEmpty()) {
@@ -181,7 +197,6 @@ public class FileUploadController {
             if (watermark) {
                 options.put("watermark", true);
             }
-            options.put("thumbnail", thumbnail);
 
             Map<String, Object> result = fileUploadService.uploadImage(file, category, options);
 
@@ -206,6 +221,8 @@ public class FileUploadController {
     /**
      * 增强图片上传（支持压缩、水印等）
      *
+     * 缩略图和宽度变体由后台图片处理任务统一生成，不再接受thumbnail参数
+     *
      * @param file     图片文件
      * @param category 图片分类
      * @param maxSize  最大文件大小（可选）
@@ -227,7 +244,6 @@ public class FileUploadController {
             @RequestParam(value = "width", required = false) Integer width,
             @RequestParam(value = "height", required = false) Integer height,
             @RequestParam(value = "watermark", defaultValue = "false") Boolean watermark,
-            @RequestParam(value = "thumbnail", defaultValue = "true") Boolean thumbnail,
             @RequestParam(value = "description", required = false) String description,
             @RequestParam(value = "tags", required = false) String tags,
             @RequestParam(value = "relatedId", required = false) Long relatedId,
@@ -256,7 +272,6 @@ public class FileUploadController {
             if (watermark) {
                 options.put("watermark", true);
             }
-            options.put("thumbnail", thumbnail); // 添加缩略图参数
             if (description != null && !description.trim().isEmpty()) {
                 options.put("description", description);
             }
@@ -285,13 +300,73 @@ public class FileUploadController {
         }
     }
 
+    /**
+     * 查询图片后台处理状态（压缩、缩略图、响应式变体），也可订阅 /topic/media/{id}/processing 获取推送
+     *
+     * @param id 媒体文件ID
+     * @return 处理状态
+     */
+    @GetMapping("/image/{id}/status")
+    public Result<Map<String, Object>> getImageProcessingStatus(@PathVariable Long id) {
+        try {
+            return Result.success(imageProcessingService.getProcessingStatus(id));
+        } catch (Exception e) {
+            log.error("查询图片处理状态失败，媒体文件ID：{}，错误：{}", id, e.getMessage());
+            return Result.error("查询图片处理状态失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询派生图（按需缩放/转码）磁盘缓存统计
+     *
+     * @return 缓存统计
+     */
+    @GetMapping("/image/derivatives/statistics")
+    public Result<Map<String, Object>> getImageDerivativeStatistics() {
+        try {
+            return Result.success(imageDerivativeService.getCacheStatistics());
+        } catch (Exception e) {
+            log.error("查询派生图缓存统计失败：{}", e.getMessage());
+            return Result.error("查询派生图缓存统计失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询图片处理准入状态（内存预算、占用、排队和拒绝次数）
+     *
+     * @return 准入状态
+     */
+    @GetMapping("/image/admission")
+    public Result<Map<String, Object>> getImageAdmissionStatus() {
+        try {
+            return Result.success(imageAdmissionService.getStatus());
+        } catch (Exception e) {
+            log.error("查询图片处理准入状态失败：{}", e.getMessage());
+            return Result.error("查询图片处理准入状态失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询去重存储统计（内容块数量、实际占用、去重节省的空间）
+     *
+     * @return 存储统计
+     */
+    @GetMapping("/storage/statistics")
+    public Result<Map<String, Object>> getStorageStatistics() {
+        try {
+            return Result.success(blobStorageService.getStatistics());
+        } catch (Exception e) {
+            log.error("查询去重存储统计失败：{}", e.getMessage());
+            return Result.error("查询去重存储统计失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 增强视频上传（支持转码、切片等）
      *
      * @param file       视频文件
      * @param category   视频分类
      * @param maxSize    最大文件大小（可选）
-     * @param thumbnail  是否生成缩略图（可选）
      * @param description 视频描述（可选）
      * @param tags       视频标签（可选）
      * @param relatedId  关联ID（可选）
@@ -304,7 +379,6 @@ public class FileUploadController {
             @RequestParam(value = "category", required = false) String category,
             @RequestParam(value = "maxSize", required = false) Long maxSize,
             Authentication authentication,
-            @RequestParam(value = "thumbnail", defaultValue = "true") Boolean thumbnail,
             @RequestParam(value = "description", required = false) String description,
             @RequestParam(value = "tags", required = false) String tags,
             @RequestParam(value = "relatedId", required = false) Long relatedId,
@@ -324,9 +398,6 @@ public class FileUploadController {
             if (maxSize != null) {
                 options.put("maxSize", maxSize);
             }
-            if (thumbnail) {
-                options.put("thumbnail", true);
-            }
             if (description != null && !description.trim().isEmpty()) {
                 options.put("description", description);
             }
@@ -412,6 +483,49 @@ public class FileUploadController {
         }
     }
 
+    /**
+     * 流式批量上传：边接收边处理，每个文件的进度推送到 /topic/upload/batch/{batchId}
+     *
+     * 该接口不经过multipart预解析，category和batchId只能放在URL查询串中，请求体中的表单字段被忽略；
+     * 读取查询串之外的请求参数会导致容器提前解析整个请求体
+     *
+     * @param kind    上传类型：images、videos、product-images、editor-images
+     * @param request HTTP请求
+     * @return 上传结果，部分失败时返回成功和失败明细
+     */
+    @PostMapping("/stream/batch/{kind}")
+    public Result<Map<String, Object>> streamBatchUpload(@PathVariable("kind") String kind, HttpServletRequest request) {
+        try {
+            StreamingUploadService.Kind uploadKind = parseUploadKind(kind);
+            if (uploadKind == null) {
+                return Result.error("不支持的上传类型：" + kind);
+            }
+            if (!ServletFileUpload.isMultipartContent(request)) {
+                return Result.error("请求必须为multipart/form-data格式");
+            }
+
+            MultiValueMap<String, String> query = UriComponentsBuilder.newInstance()
+                    .query(request.getQueryString()).build().getQueryParams();
+            Map<String, Object> result = streamingUploadService.upload(request, uploadKind,
+                    decodeQueryParam(query.getFirst("category")), decodeQueryParam(query.getFirst("batchId")));
+
+            int successCount = (Integer) result.get("successCount");
+            int errorCount = (Integer) result.get("errorCount");
+
+            if (successCount == 0) {
+                return Result.error("所有文件上传失败", result);
+            } else if (errorCount == 0) {
+                return Result.success("所有文件上传成功", result);
+            } else {
+                return Result.success("部分文件上传成功", result);
+            }
+
+        } catch (Exception e) {
+            log.error("流式批量上传失败：{}", e.getMessage());
+            return Result.error("批量上传失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 批量上传视频
      *
@@ -531,6 +645,130 @@ public class FileUploadController {
         }
     }
 
+    /**
+     * 初始化分片上传会话
+     *
+     * @param fileName    原始文件名
+     * @param category    文件分类
+     * @param fileSize    文件总大小（字节）
+     * @param chunkSize   分片大小（可选，默认5MB）
+     * @param contentType 文件MIME类型（可选）
+     * @return 上传会话信息
+     */
+    @PostMapping("/multipart/init")
+    public Result<Map<String, Object>> initiateMultipartUpload(
+            @RequestParam("fileName") String fileName,
+            @RequestParam("category") String category,
+            @RequestParam("fileSize") Long fileSize,
+            @RequestParam(value = "chunkSize", required = false) Integer chunkSize,
+            @RequestParam(value = "contentType", required = false) String contentType) {
+        try {
+            if (fileName == null || fileName.trim().isEmpty()) {
+                return Result.error("文件名不能为空");
+            }
+            if (category == null || category.trim().isEmpty()) {
+                return Result.error("文件分类不能为空");
+            }
+
+            Map<String, Object> session = fileUploadService.initiateMultipartUpload(
+                    fileName, category, fileSize, contentType, chunkSize, getCurrentUserId());
+            return Result.success("分片上传初始化成功", session);
+
+        } catch (Exception e) {
+            log.error("初始化分片上传失败：{}", e.getMessage());
+            return Result.error("初始化分片上传失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 上传单个分片，请求体为分片原始字节（application/octet-stream），
+     * 不经过multipart解析，同一分片可重复上传
+     *
+     * @param uploadId   上传ID
+     * @param partNumber 分片序号（从1开始）
+     * @param request    HTTP请求
+     * @return 上传进度
+     */
+    @PutMapping("/multipart/{uploadId}/parts/{partNumber}")
+    public Result<Map<String, Object>> uploadPart(
+            @PathVariable("uploadId") String uploadId,
+            @PathVariable("partNumber") Integer partNumber,
+            HttpServletRequest request) {
+        try {
+            Map<String, Object> status = fileUploadService.uploadPart(uploadId, partNumber, request.getInputStream());
+            return Result.success("分片上传成功", status);
+        } catch (Exception e) {
+            log.error("分片上传失败，上传ID：{}，分片：{}，错误：{}", uploadId, partNumber, e.getMessage());
+            return Result.error("分片上传失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询分片上传进度，断线重连后据此只补传缺失分片
+     *
+     * @param uploadId 上传ID
+     * @return 上传进度
+     */
+    @GetMapping("/multipart/{uploadId}")
+    public Result<Map<String, Object>> getMultipartUploadStatus(@PathVariable("uploadId") String uploadId) {
+        try {
+            return Result.success(fileUploadService.getMultipartUploadStatus(uploadId));
+        } catch (Exception e) {
+            log.error("查询分片上传进度失败：{}", e.getMessage());
+            return Result.error("查询分片上传进度失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 完成分片上传，所有分片到齐后生成正式文件和媒体记录
+     *
+     * @param uploadId 上传ID
+     * @param parts    客户端确认的分片序号列表（可选）
+     * @return 上传结果
+     */
+    @PostMapping("/multipart/{uploadId}/complete")
+    public Result<Map<String, Object>> completeMultipartUpload(
+            @PathVariable("uploadId") String uploadId,
+            @RequestBody(required = false) List<String> parts) {
+        try {
+            String fileUrl = fileUploadService.completeMultipartUpload(uploadId, parts);
+            Map<String, Object> result = fileUploadService.getMultipartUploadStatus(uploadId);
+            result.put("url", fileUrl);
+
+            // 记录操作日志
+            operationLogService.log(
+                "UPLOAD",
+                "video".equals(result.get("fileType")) ? "VIDEO" : "IMAGE",
+                "分片上传了文件: " + result.get("fileName"),
+                "MediaFile",
+                (Long) result.get("mediaFileId"),
+                (String) result.get("fileName")
+            );
+
+            return Result.success("文件上传成功", result);
+        } catch (Exception e) {
+            log.error("完成分片上传失败：{}", e.getMessage());
+            return Result.error("完成分片上传失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 取消分片上传
+     *
+     * @param uploadId 上传ID
+     * @return 取消结果
+     */
+    @DeleteMapping("/multipart/{uploadId}")
+    public Result<String> abortMultipartUpload(@PathVariable("uploadId") String uploadId) {
+        try {
+            fileUploadService.abortMultipartUpload(uploadId);
+            return Result.success("分片上传已取消", uploadId);
+        } catch (Exception e) {
+            log.error("取消分片上传失败：{}", e.getMessage());
+            return Result.error("取消分片上传失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 根据分类查询文件列表
      *
@@ -817,7 +1055,6 @@ public class FileUploadController {
             options.put("height", 1200);         // 产品图片高度限制
             options.put("maxSize", 10 * 1024 * 1024);  // 最大10MB
             // 移除quality参数，让系统使用智能压缩质量（60-85%，基于文件大小自动调整）
-            options.put("thumbnail", true);      // 生成缩略图
             options.put("description", "产品主图");
 
             log.info("开始上传产品主图：{}，大小：{}MB", file.getOriginalFilename(),
@@ -892,7 +1129,6 @@ public class FileUploadController {
                     options.put("height", 1200);         // 产品图片高度限制
                     options.put("maxSize", 10 * 1024 * 1024);  // 最大10MB
                     // 移除quality参数，让系统使用智能压缩质量（60-85%，基于文件大小自动调整）
-                    options.put("thumbnail", true);      // 生成缩略图
                     options.put("description", "产品图片");
 
                     log.info("开始压缩上传产品图片：{}，大小：{}MB", file.getOriginalFilename(),
@@ -1728,4 +1964,35 @@ public class FileUploadController {
                 return category;
         }
     }
+
+    /**
+     * 解析流式批量上传的类型
+     *
+     * @param kind 路径中的上传类型
+     * @return 上传类型，不支持时返回null
+     */
+    private StreamingUploadService.Kind parseUploadKind(String kind) {
+        switch (kind) {
+            case "images":
+                return StreamingUploadService.Kind.IMAGE;
+            case "videos":
+                return StreamingUploadService.Kind.VIDEO;
+            case "product-images":
+                return StreamingUploadService.Kind.PRODUCT_IMAGE;
+            case "editor-images":
+                return StreamingUploadService.Kind.EDITOR_IMAGE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 解码查询串参数
+     *
+     * @param value 原始参数值
+     * @return 解码后的值
+     */
+    private String decodeQueryParam(String value) {
+        return value == null ? null : UriUtils.decode(value, StandardCharsets.UTF_8);
+    }
 }
@@ -3,6 +3,8 @@ package com.manage.controller;
 import com.manage.common.Result;
 import com.manage.entity.OperationLog;
 import com.manage.entity.User;
+import com.manage.service.OperationLogRetentionService;
+import com.manage.service.OperationLogRollupService;
 import com.manage.service.OperationLogService;
 import com.manage.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -30,6 +32,8 @@ import java.util.Map;
 public class OperationLogController {
 
     private final OperationLogService operationLogService;
+    private final OperationLogRetentionService operationLogRetentionService;
+    private final OperationLogRollupService operationLogRollupService;
     private final UserService userService;
 
     /**
@@ -314,6 +318,23 @@ public class OperationLogController {
         }
     }
 
+    /**
+     * 从操作日志表全量重建统计汇总
+     *
+     * @return 重建的汇总行数
+     */
+    @PostMapping("/statistics/rebuild")
+    public Result<Map<String, Object>> rebuildStatistics() {
+        try {
+            Map<String, Object> result = new HashMap<>();
+            result.put("rows", operationLogRollupService.rebuild());
+            return Result.success("重建完成", result);
+        } catch (Exception e) {
+            log.error("重建操作统计汇总失败: {}", e.getMessage());
+            return Result.error("重建失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 复合查询操作日志
      *
@@ -394,6 +415,36 @@ public class OperationLogController {
         }
     }
 
+    /**
+     * 获取日志保留策略和最近一次清理结果
+     *
+     * @return 保留策略与运行状态
+     */
+    @GetMapping("/retention")
+    public Result<Map<String, Object>> getRetentionStatus() {
+        try {
+            return Result.success("查询成功", operationLogRetentionService.getStatus());
+        } catch (Exception e) {
+            log.error("获取日志保留策略失败: {}", e.getMessage());
+            return Result.error("查询失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 立即按保留策略清理过期日志
+     *
+     * @return 清理结果
+     */
+    @PostMapping("/retention/run")
+    public Result<Map<String, Object>> runRetention() {
+        try {
+            return Result.success("清理完成", operationLogRetentionService.purgeExpired());
+        } catch (Exception e) {
+            log.error("按保留策略清理日志失败: {}", e.getMessage());
+            return Result.error("清理失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 获取当前登录用户ID
      */
@@ -1,5 +1,6 @@
 package com.manage.controller;
 
+import com.manage.common.CursorPage;
 import com.manage.common.Result;
 import com.manage.dto.product.ProductImageUploadRequest;
 import com.manage.dto.product.ProductQueryRequest;
@@ -152,6 +153,20 @@ public class ProductController {
         }
     }
 
+    /**
+     * 滚动查询产品列表（键集分页，适合深度翻页）
+     */
+    @GetMapping("/scroll")
+    public Result<CursorPage<ProductResponse>> scrollProducts(@Valid ProductQueryRequest queryRequest) {
+        try {
+            CursorPage<ProductResponse> response = productService.scrollProducts(queryRequest);
+            return Result.success(response);
+        } catch (Exception e) {
+            log.error("滚动查询产品列表失败，错误：{}", e.getMessage());
+            return Result.error("查询产品列表失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 获取上架产品列表
      */
@@ -481,6 +496,24 @@ public class ProductController {
         }
     }
 
+    /**
+     * 调整产品图片顺序
+     */
+    @PutMapping("/{productId}/images/{imageId}/position")
+    public Result<ProductResponse> moveProductImage(@PathVariable Long productId,
+                                                    @PathVariable Long imageId,
+                                                    @RequestParam Integer position) {
+        try {
+            Long userId = getCurrentUserId();
+            ProductResponse response = productService.moveProductImage(productId, imageId, position, userId);
+            log.info("产品图片顺序调整成功，产品ID：{}，图片ID：{}", productId, imageId);
+            return Result.success(response);
+        } catch (Exception e) {
+            log.error("调整产品图片顺序失败，产品ID：{}，图片ID：{}，错误：{}", productId, imageId, e.getMessage());
+            return Result.error("调整图片顺序失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 根据价格区间查找产品
      */
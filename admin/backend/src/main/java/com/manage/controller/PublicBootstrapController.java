@@ -0,0 +1,71 @@
+package com.manage.controller;
+
+import com.manage.service.PublicBootstrapService;
+import com.manage.util.AcceptEncodingUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 公开首页启动数据接口控制器（无需认证）
+ *
+ * 一次返回首页渲染需要的全部公开数据，代替分别请求公司信息、联系方式、Logo、核心团队、资质、
+ * 首页背景、图标配置和推荐产品列表；响应体是后台预先序列化并压缩好的字节，支持ETag条件请求
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/public/bootstrap")
+@RequiredArgsConstructor
+public class PublicBootstrapController {
+
+    private final PublicBootstrapService publicBootstrapService;
+
+    /**
+     * 获取首页启动数据
+     *
+     * @return 启动数据JSON（客户端支持gzip时直接返回压缩后的字节）
+     */
+    @GetMapping
+    public ResponseEntity<byte[]> getBootstrap(HttpServletRequest request, HttpServletResponse response) {
+        PublicBootstrapService.Snapshot snapshot;
+        try {
+            snapshot = publicBootstrapService.getSnapshot();
+        } catch (Exception e) {
+            log.error("获取首页启动数据失败：{}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        // 允许浏览器和前置nginx缓存，但每次使用前必须重新验证
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        // gzip表示使用单独的ETag；checkNotModified会写入ETag、Last-Modified头，命中时同时设置304状态
+        boolean gzip = AcceptEncodingUtil.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String eTag = gzip ? AcceptEncodingUtil.gzipETag(snapshot.getETag()) : snapshot.getETag();
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, snapshot.getLastModified())) {
+            return null;
+        }
+
+        byte[] body = gzip ? snapshot.getGzipped() : snapshot.getJson();
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(body);
+    }
+}
@@ -1,9 +1,16 @@
 package com.manage.controller;
 
+import com.manage.common.CursorPage;
 import com.manage.common.Result;
+import com.manage.dto.product.ProductFacetResponse;
+import com.manage.dto.product.ProductListType;
 import com.manage.dto.product.PublicProductResponse;
 import com.manage.entity.Product;
+import com.manage.event.ContentDomain;
+import com.manage.exception.BusinessException;
+import com.manage.service.ProductFacetService;
 import com.manage.service.ProductService;
+import com.manage.service.SearchService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -15,7 +22,9 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -31,6 +40,13 @@ import java.util.stream.Collectors;
 public class PublicProductController {
 
     private final ProductService productService;
+    private final SearchService searchService;
+    private final ProductFacetService productFacetService;
+
+    /**
+     * 推荐列表单页最大条数
+     */
+    private static final int MAX_PAGE_SIZE = 100;
 
     /**
      * 获取所有产品（不限状态）
@@ -95,6 +111,41 @@ public class PublicProductController {
         }
     }
 
+    /**
+     * 分面筛选产品，同时返回每个筛选项的可选数量
+     *
+     * 每个筛选参数可重复传入或以逗号分隔多个值，同一参数内任一值匹配即可，不同参数需同时满足；
+     * 价格区间取值见返回结果中price分面的名称（如 100-200、1000+）
+     */
+    @GetMapping("/facets")
+    public Result<ProductFacetResponse> browseProducts(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> tag,
+            @RequestParam(required = false) List<String> material,
+            @RequestParam(required = false) List<String> fabricType,
+            @RequestParam(required = false) List<String> price,
+            @RequestParam(defaultValue = "1") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
+        try {
+            Map<String, List<String>> filters = new HashMap<>();
+            filters.put(ProductFacetService.CATEGORY, category);
+            filters.put(ProductFacetService.TAG, tag);
+            filters.put(ProductFacetService.MATERIAL, material);
+            filters.put(ProductFacetService.FABRIC_TYPE, fabricType);
+            filters.put(ProductFacetService.PRICE, price);
+
+            Pageable pageable = PageRequest.of(Math.max(page - 1, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+            ProductFacetService.FacetResult result = productFacetService.browse(filters, pageable);
+            return Result.success(new ProductFacetResponse(
+                    result.getProducts().map(this::convertToPublicResponse), result.getFacets()));
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
+        } catch (Exception e) {
+            log.error("分面筛选产品失败：{}", e.getMessage());
+            return Result.error("获取产品列表失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 搜索产品
      */
@@ -104,11 +155,16 @@ public class PublicProductController {
             @RequestParam(defaultValue = "1") Integer page,
             @RequestParam(defaultValue = "20") Integer size) {
         try {
+            // 全文索引就绪时按相关度排序，否则按创建时间倒序
             Pageable pageable = PageRequest.of(page - 1, size, Sort.by(Sort.Direction.DESC, "createTime"));
             Page<Product> products = productService.searchActiveProducts(keyword, pageable);
-            
-            // 转换为公开响应格式
-            Page<PublicProductResponse> response = products.map(this::convertToPublicResponse);
+
+            // 转换为公开响应格式并附加高亮
+            Page<PublicProductResponse> response = products.map(product -> {
+                PublicProductResponse item = convertToPublicResponse(product);
+                item.setHighlight(searchService.highlight(ContentDomain.PRODUCT, product.getId(), keyword));
+                return item;
+            });
             return Result.success(response);
         } catch (Exception e) {
             log.error("搜索产品失败，关键词：{}，错误：{}", keyword, e.getMessage());
@@ -143,28 +199,11 @@ public class PublicProductController {
             @RequestParam(defaultValue = "1") Integer page,
             @RequestParam(defaultValue = "20") Integer size) {
         try {
-            // 获取上架新品产品列表
-            List<com.manage.dto.product.ProductResponse> newProducts = productService.getActiveNewProducts();
-
-            // 手动分页处理
-            int start = (page - 1) * size;
-            int end = Math.min(start + size, newProducts.size());
-
-            List<com.manage.dto.product.ProductResponse> pageContent;
-            if (start < newProducts.size()) {
-                pageContent = newProducts.subList(start, end);
-            } else {
-                pageContent = new ArrayList<>();
-            }
-
-            // 转换为公开响应格式
-            List<PublicProductResponse> publicProducts = pageContent.stream()
-                    .map(this::convertProductResponseToPublic)
-                    .collect(java.util.stream.Collectors.toList());
-
-            // 创建分页对象
-            Pageable pageable = PageRequest.of(page - 1, size);
-            Page<PublicProductResponse> response = new org.springframework.data.domain.PageImpl<>(publicProducts, pageable, newProducts.size());
+            // 获取上架新品产品列表，分页在数据库完成
+            Pageable pageable = PageRequest.of(Math.max(page - 1, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+            Page<PublicProductResponse> response = productService
+                    .getActiveProductsByListType(ProductListType.NEW, pageable)
+                    .map(PublicProductResponse::fromProductResponse);
 
             return Result.success(response);
         } catch (Exception e) {
@@ -173,6 +212,27 @@ public class PublicProductController {
         }
     }
 
+    /**
+     * 滚动加载新品产品列表（键集分页，适合“加载更多”）
+     *
+     * @param cursor 上一页返回的游标，首页不传
+     * @param size   每页大小
+     * @return 游标分页结果
+     */
+    @GetMapping("/new/scroll")
+    public Result<CursorPage<PublicProductResponse>> scrollNewProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
+        try {
+            return Result.success(scrollProducts(ProductListType.NEW, cursor, size));
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
+        } catch (Exception e) {
+            log.error("滚动加载新品产品列表失败：{}", e.getMessage());
+            return Result.error("获取新品产品列表失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 获取主要产品列表（公开展示）
      */
@@ -181,28 +241,11 @@ public class PublicProductController {
             @RequestParam(defaultValue = "1") Integer page,
             @RequestParam(defaultValue = "20") Integer size) {
         try {
-            // 获取上架主要产品列表
-            List<com.manage.dto.product.ProductResponse> mainProducts = productService.getActiveMainProducts();
-
-            // 手动分页处理
-            int start = (page - 1) * size;
-            int end = Math.min(start + size, mainProducts.size());
-
-            List<com.manage.dto.product.ProductResponse> pageContent;
-            if (start < mainProducts.size()) {
-                pageContent = mainProducts.subList(start, end);
-            } else {
-                pageContent = new ArrayList<>();
-            }
-
-            // 转换为公开响应格式
-            List<PublicProductResponse> publicProducts = pageContent.stream()
-                    .map(this::convertProductResponseToPublic)
-                    .collect(java.util.stream.Collectors.toList());
-
-            // 创建分页对象
-            Pageable pageable = PageRequest.of(page - 1, size);
-            Page<PublicProductResponse> response = new org.springframework.data.domain.PageImpl<>(publicProducts, pageable, mainProducts.size());
+            // 获取上架主要产品列表，分页在数据库完成
+            Pageable pageable = PageRequest.of(Math.max(page - 1, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+            Page<PublicProductResponse> response = productService
+                    .getActiveProductsByListType(ProductListType.MAIN, pageable)
+                    .map(PublicProductResponse::fromProductResponse);
 
             return Result.success(response);
         } catch (Exception e) {
@@ -211,6 +254,27 @@ public class PublicProductController {
         }
     }
 
+    /**
+     * 滚动加载主要产品列表（键集分页，适合“加载更多”）
+     *
+     * @param cursor 上一页返回的游标，首页不传
+     * @param size   每页大小
+     * @return 游标分页结果
+     */
+    @GetMapping("/main/scroll")
+    public Result<CursorPage<PublicProductResponse>> scrollMainProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
+        try {
+            return Result.success(scrollProducts(ProductListType.MAIN, cursor, size));
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
+        } catch (Exception e) {
+            log.error("滚动加载主要产品列表失败：{}", e.getMessage());
+            return Result.error("获取主要产品列表失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 获取热门推荐产品列表（公开展示）
      */
@@ -219,28 +283,11 @@ public class PublicProductController {
             @RequestParam(defaultValue = "1") Integer page,
             @RequestParam(defaultValue = "20") Integer size) {
         try {
-            // 获取上架热门推荐产品列表
-            List<com.manage.dto.product.ProductResponse> featuredProducts = productService.getActiveFeaturedProducts();
-
-            // 手动分页处理
-            int start = (page - 1) * size;
-            int end = Math.min(start + size, featuredProducts.size());
-
-            List<com.manage.dto.product.ProductResponse> pageContent;
-            if (start < featuredProducts.size()) {
-                pageContent = featuredProducts.subList(start, end);
-            } else {
-                pageContent = new ArrayList<>();
-            }
-
-            // 转换为公开响应格式
-            List<PublicProductResponse> publicProducts = pageContent.stream()
-                    .map(this::convertProductResponseToPublic)
-                    .collect(java.util.stream.Collectors.toList());
-
-            // 创建分页对象
-            Pageable pageable = PageRequest.of(page - 1, size);
-            Page<PublicProductResponse> response = new org.springframework.data.domain.PageImpl<>(publicProducts, pageable, featuredProducts.size());
+            // 获取上架热门推荐产品列表，分页在数据库完成
+            Pageable pageable = PageRequest.of(Math.max(page - 1, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+            Page<PublicProductResponse> response = productService
+                    .getActiveProductsByListType(ProductListType.FEATURED, pageable)
+                    .map(PublicProductResponse::fromProductResponse);
 
             return Result.success(response);
         } catch (Exception e) {
@@ -249,6 +296,27 @@ public class PublicProductController {
         }
     }
 
+    /**
+     * 滚动加载热门推荐产品列表（键集分页，适合“加载更多”）
+     *
+     * @param cursor 上一页返回的游标，首页不传
+     * @param size   每页大小
+     * @return 游标分页结果
+     */
+    @GetMapping("/featured/scroll")
+    public Result<CursorPage<PublicProductResponse>> scrollFeaturedProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size) {
+        try {
+            return Result.success(scrollProducts(ProductListType.FEATURED, cursor, size));
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
+        } catch (Exception e) {
+            log.error("滚动加载热门推荐产品列表失败：{}", e.getMessage());
+            return Result.error("获取热门推荐产品列表失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 转换为公开响应格式
      */
@@ -263,18 +331,8 @@ public class PublicProductController {
         response.setMarketPrice(product.getMarketPrice());
         response.setMainImage(product.getMainImage());
         
-        // 处理产品图片列表
-        if (StringUtils.hasText(product.getProductImages())) {
-            try {
-                // 假设productImages是JSON数组格式
-                response.setProductImages(parseProductImages(product.getProductImages()));
-            } catch (Exception e) {
-                log.warn("解析产品图片失败：{}", e.getMessage());
-                response.setProductImages(new ArrayList<>());
-            }
-        } else {
-            response.setProductImages(new ArrayList<>());
-        }
+        // 图片URL由服务层按页批量填充
+        response.setProductImages(product.getImageUrls() != null ? product.getImageUrls() : new ArrayList<>());
         
         response.setSpecifications(product.getSpecifications());
         response.setStockQuantity(product.getStockQuantity());
@@ -316,30 +374,6 @@ public class PublicProductController {
         return response;
     }
 
-    /**
-     * 解析产品图片列表
-     */
-    private List<String> parseProductImages(String productImages) {
-        if (!StringUtils.hasText(productImages)) {
-            return new ArrayList<>();
-        }
-
-        try {
-            // 如果是JSON格式，需要解析
-            if (productImages.startsWith("[") && productImages.endsWith("]")) {
-                // 这里应该使用JSON解析库，为了简化暂时用字符串分割
-                String[] images = productImages.replaceAll("[\\[\\]\"]", "").split(",");
-                return Arrays.asList(images);
-            } else {
-                // 如果是逗号分隔的字符串
-                return Arrays.asList(productImages.split(","));
-            }
-        } catch (Exception e) {
-            log.warn("解析产品图片列表失败：{}", e.getMessage());
-            return new ArrayList<>();
-        }
-    }
-
     /**
      * 解析标签
      */
@@ -356,56 +390,15 @@ public class PublicProductController {
     }
 
     /**
-     * 将ProductResponse转换为PublicProductResponse
+     * 键集分页获取推荐列表并转换为公开响应格式
      */
-    private PublicProductResponse convertProductResponseToPublic(com.manage.dto.product.ProductResponse productResponse) {
-        PublicProductResponse response = new PublicProductResponse();
-        response.setId(productResponse.getId());
-        response.setName(productResponse.getProductName());
-        response.setProductCode(productResponse.getProductCode());
-        response.setDescription(productResponse.getDescription());
-        response.setCategory(productResponse.getCategory());
-        response.setPrice(productResponse.getPrice());
-        response.setMarketPrice(productResponse.getMarketPrice());
-        response.setMainImage(productResponse.getMainImage());
-        response.setProductImages(productResponse.getProductImages());
-        response.setSpecifications(productResponse.getSpecifications());
-        response.setStockQuantity(productResponse.getStockQuantity());
-        response.setTags(productResponse.getTags());
-        response.setStatus(productResponse.getStatus());
-        response.setIsFeatured(productResponse.getIsFeatured());
-        response.setIsNew(productResponse.getIsNew());
-        response.setIsMain(productResponse.getIsMain());
-        response.setSortOrder(productResponse.getSortOrder());
-        response.setSeoKeywords(productResponse.getSeoKeywords());
-        response.setSeoDescription(productResponse.getSeoDescription());
-        response.setCreatedAt(productResponse.getCreateTime());
-        response.setUpdatedAt(productResponse.getUpdateTime());
-
-        // ============ 服装专业属性 ============
-        response.setMaterial(productResponse.getMaterial());
-        response.setFabricType(productResponse.getFabricType());
-        response.setFabricWeight(productResponse.getFabricWeight());
-        response.setWaistStyle(productResponse.getWaistStyle());
-        response.setJeansStyle(productResponse.getJeansStyle());
-        response.setPatternFit(productResponse.getPatternFit());
-        response.setStyle(productResponse.getStyle());
-        response.setCraftsmanship(productResponse.getCraftsmanship());
-        response.setWeavingMethod(productResponse.getWeavingMethod());
-        response.setWashingProcess(productResponse.getWashingProcess());
-        response.setNeedleDetectionProcess(productResponse.getNeedleDetectionProcess());
-        response.setPatternType(productResponse.getPatternType());
-        response.setPrintingMethod(productResponse.getPrintingMethod());
-        response.setFashionElements(productResponse.getFashionElements());
-        response.setLogoPosition(productResponse.getLogoPosition());
-        response.setSupplyType(productResponse.getSupplyType());
-        response.setOrigin(productResponse.getOrigin());
-        response.setFastSampling(productResponse.getFastSampling());
-        response.setModel(productResponse.getModel());
-        response.setSeason(productResponse.getSeason());
-        response.setSalesUnit(productResponse.getSalesUnit());
-        response.setVideoPath(productResponse.getVideoPath());
-
-        return response;
+    private CursorPage<PublicProductResponse> scrollProducts(ProductListType listType, String cursor, Integer size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        CursorPage<com.manage.dto.product.ProductResponse> page =
+                productService.scrollActiveProductsByListType(listType, cursor, pageSize);
+        List<PublicProductResponse> content = page.getContent().stream()
+                .map(PublicProductResponse::fromProductResponse)
+                .collect(Collectors.toList());
+        return new CursorPage<>(content, page.getNextCursor(), page.isHasMore(), page.getSize());
     }
-}
\ No newline at end of file
+}
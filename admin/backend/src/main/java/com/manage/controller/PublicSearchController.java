@@ -0,0 +1,68 @@
+package com.manage.controller;
+
+import com.manage.common.Result;
+import com.manage.dto.search.SearchHitResponse;
+import com.manage.event.ContentDomain;
+import com.manage.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 全站搜索接口控制器（无需认证）
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/public/search")
+@RequiredArgsConstructor
+public class PublicSearchController {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final SearchService searchService;
+
+    /**
+     * 搜索产品、文章和公开媒体文件，按相关度排序并返回高亮片段
+     *
+     * @param keyword 关键词
+     * @param types   结果类型，逗号分隔（PRODUCT、CONTENT、MEDIA），默认全部
+     * @param limit   最大返回条数
+     * @return 搜索结果
+     */
+    @GetMapping
+    public Result<List<SearchHitResponse>> search(
+            @RequestParam String keyword,
+            @RequestParam(required = false) List<String> types,
+            @RequestParam(defaultValue = "20") Integer limit) {
+        try {
+            if (!StringUtils.hasText(keyword)) {
+                return Result.error("搜索关键词不能为空");
+            }
+
+            Set<ContentDomain> domains = EnumSet.of(ContentDomain.PRODUCT, ContentDomain.CONTENT, ContentDomain.MEDIA);
+            if (types != null && !types.isEmpty()) {
+                domains.clear();
+                for (String type : types) {
+                    domains.add(ContentDomain.valueOf(type.trim().toUpperCase()));
+                }
+            }
+
+            List<SearchHitResponse> hits = searchService.search(keyword, domains,
+                    Math.min(Math.max(limit, 1), MAX_LIMIT));
+            return Result.success(hits);
+        } catch (IllegalArgumentException e) {
+            return Result.error("不支持的搜索类型：" + types);
+        } catch (Exception e) {
+            log.error("全站搜索失败，关键词：{}，错误：{}", keyword, e.getMessage());
+            return Result.error("搜索失败：" + e.getMessage());
+        }
+    }
+}
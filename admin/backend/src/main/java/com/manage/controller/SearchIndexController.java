@@ -0,0 +1,55 @@
+package com.manage.controller;
+
+import com.manage.common.Result;
+import com.manage.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 搜索索引管理控制器
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/search")
+@RequiredArgsConstructor
+public class SearchIndexController {
+
+    private final SearchService searchService;
+
+    /**
+     * 获取索引统计信息
+     *
+     * @return 统计信息
+     */
+    @GetMapping("/statistics")
+    public Result<Map<String, Object>> getStatistics() {
+        try {
+            return Result.success(searchService.getIndexStatistics());
+        } catch (Exception e) {
+            log.error("获取搜索索引统计失败：{}", e.getMessage());
+            return Result.error("获取搜索索引统计失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 手动全量重建索引
+     *
+     * @return 重建后的统计信息
+     */
+    @PostMapping("/rebuild")
+    public Result<Map<String, Object>> rebuild() {
+        try {
+            searchService.rebuildIndex();
+            return Result.success("重建完成", searchService.getIndexStatistics());
+        } catch (Exception e) {
+            log.error("重建搜索索引失败：{}", e.getMessage());
+            return Result.error("重建搜索索引失败：" + e.getMessage());
+        }
+    }
+}
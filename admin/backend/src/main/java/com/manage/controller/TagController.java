@@ -0,0 +1,116 @@
+package com.manage.controller;
+
+import com.manage.common.Result;
+import com.manage.dto.tag.TagCountResponse;
+import com.manage.dto.tag.TagMergeRequest;
+import com.manage.dto.tag.TagRetagRequest;
+import com.manage.event.ContentDomain;
+import com.manage.exception.BusinessException;
+import com.manage.service.TagService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+
+/**
+ * 标签管理控制器
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/tags")
+@RequiredArgsConstructor
+public class TagController {
+
+    private static final int MAX_LIMIT = 200;
+
+    private final TagService tagService;
+
+    /**
+     * 标签云：按使用次数降序
+     *
+     * @param domain 领域（PRODUCT、CONTENT、MEDIA），不传时统计全部
+     * @param limit  最大返回数量
+     * @return 标签及使用次数
+     */
+    @GetMapping
+    public Result<List<TagCountResponse>> getTagCloud(
+            @RequestParam(required = false) ContentDomain domain,
+            @RequestParam(defaultValue = "50") Integer limit) {
+        try {
+            return Result.success(tagService.getTagCloud(domain, Math.min(Math.max(limit, 1), MAX_LIMIT)));
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
+        } catch (Exception e) {
+            log.error("获取标签云失败：{}", e.getMessage());
+            return Result.error("获取标签云失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 批量修改一批数据的标签
+     */
+    @PostMapping("/retag")
+    public Result<Integer> retag(@Valid @RequestBody TagRetagRequest request) {
+        try {
+            return Result.success("批量修改标签成功", tagService.retag(request));
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
+        } catch (Exception e) {
+            log.error("批量修改标签失败：{}", e.getMessage());
+            return Result.error("批量修改标签失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 重命名标签（新名称已存在时合并）
+     */
+    @PutMapping("/{id}")
+    public Result<Void> renameTag(@PathVariable Long id, @RequestParam String name) {
+        try {
+            tagService.renameTag(id, name);
+            return Result.success("标签重命名成功");
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
+        } catch (Exception e) {
+            log.error("重命名标签失败，标签ID：{}，错误：{}", id, e.getMessage());
+            return Result.error("重命名标签失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 合并标签
+     */
+    @PostMapping("/merge")
+    public Result<Void> mergeTags(@Valid @RequestBody TagMergeRequest request) {
+        try {
+            tagService.mergeTags(request);
+            return Result.success("标签合并成功");
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
+        } catch (Exception e) {
+            log.error("合并标签失败：{}", e.getMessage());
+            return Result.error("合并标签失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 删除标签并从所有数据中移除
+     */
+    @DeleteMapping("/{id}")
+    public Result<Void> deleteTag(@PathVariable Long id) {
+        try {
+            tagService.deleteTag(id);
+            return Result.success("标签删除成功");
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
+        } catch (Exception e) {
+            log.error("删除标签失败，标签ID：{}，错误：{}", id, e.getMessage());
+            return Result.error("删除标签失败：" + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.manage.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.Map;
+
+/**
+ * 产品分面筛选响应DTO
+ *
+ * @author System
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacetResponse {
+
+    /**
+     * 当前页产品
+     */
+    private Page<PublicProductResponse> products;
+
+    /**
+     * 分面 -> 取值 -> 数量（category、tag、material、fabricType、price）
+     */
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -0,0 +1,58 @@
+package com.manage.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 产品图片响应DTO
+ *
+ * @author System
+ * @version 1.0
+ */
+@Data
+public class ProductImageResponse {
+
+    /**
+     * 图片ID
+     */
+    @JsonProperty("id")
+    private Long id;
+
+    /**
+     * 图片URL
+     */
+    @JsonProperty("url")
+    private String url;
+
+    /**
+     * 排序值
+     */
+    @JsonProperty("sortOrder")
+    private Integer sortOrder;
+
+    /**
+     * 图片宽度（像素）
+     */
+    @JsonProperty("width")
+    private Integer width;
+
+    /**
+     * 图片高度（像素）
+     */
+    @JsonProperty("height")
+    private Integer height;
+
+    /**
+     * 缩略图URL
+     */
+    @JsonProperty("thumbnailUrl")
+    private String thumbnailUrl;
+
+    /**
+     * 宽度变体（宽度 -> URL）
+     */
+    @JsonProperty("variants")
+    private Map<String, String> variants;
+}
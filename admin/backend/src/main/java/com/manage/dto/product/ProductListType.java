@@ -0,0 +1,25 @@
+package com.manage.dto.product;
+
+/**
+ * 产品推荐列表类型
+ *
+ * @author System
+ * @version 1.0
+ */
+public enum ProductListType {
+
+    /**
+     * 新品
+     */
+    NEW,
+
+    /**
+     * 主要产品
+     */
+    MAIN,
+
+    /**
+     * 热门推荐
+     */
+    FEATURED
+}
@@ -25,7 +25,7 @@ public class ProductQueryRequest {
     private Integer size = 10;
 
     /**
-     * 排序字段
+     * 排序字段：createTime、updateTime、sortOrder、price（只允许有索引支撑的列）
      */
     @JsonProperty("sort")
     private String sort = "createTime";
@@ -61,7 +61,7 @@ public class ProductQueryRequest {
     private Boolean isFeatured;
 
     /**
-     * 产品标签
+     * 产品标签（名称精确匹配）
      */
     @JsonProperty("tag")
     private String tag;
@@ -83,4 +83,40 @@ public class ProductQueryRequest {
      */
     @JsonProperty("productCode")
     private String productCode;
-}
\ No newline at end of file
+
+    /**
+     * 是否新品
+     */
+    @JsonProperty("isNew")
+    private Boolean isNew;
+
+    /**
+     * 是否主要产品
+     */
+    @JsonProperty("isMain")
+    private Boolean isMain;
+
+    /**
+     * 材质
+     */
+    @JsonProperty("material")
+    private String material;
+
+    /**
+     * 面料类型
+     */
+    @JsonProperty("fabricType")
+    private String fabricType;
+
+    /**
+     * 是否统计总数；为false时不执行count查询，totalElements只保证能判断是否有下一页
+     */
+    @JsonProperty("withTotal")
+    private Boolean withTotal = true;
+
+    /**
+     * 键集分页游标（滚动查询时使用，首页不传）
+     */
+    @JsonProperty("cursor")
+    private String cursor;
+}
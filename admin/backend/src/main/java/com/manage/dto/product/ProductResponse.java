@@ -64,6 +64,12 @@ public class ProductResponse {
     @JsonProperty("productImages")
     private List<String> productImages;
 
+    /**
+     * 产品图片详情（尺寸、缩略图、宽度变体），仅单个产品的响应中返回
+     */
+    @JsonProperty("images")
+    private List<ProductImageResponse> images;
+
     /**
      * 产品价格
      */
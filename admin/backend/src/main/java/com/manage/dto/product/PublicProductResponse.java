@@ -1,5 +1,6 @@
 package com.manage.dto.product;
 
+import com.manage.dto.search.SearchHighlight;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -245,4 +246,66 @@ public class PublicProductResponse {
      * 产品视频路径
      */
     private String videoPath;
-}
\ No newline at end of file
+
+    /**
+     * 搜索高亮（仅搜索接口返回）
+     */
+    private SearchHighlight highlight;
+
+    /**
+     * 将ProductResponse转换为PublicProductResponse
+     *
+     * @param productResponse 产品响应
+     * @return 公开产品响应
+     */
+    public static PublicProductResponse fromProductResponse(ProductResponse productResponse) {
+        PublicProductResponse response = new PublicProductResponse();
+        response.setId(productResponse.getId());
+        response.setName(productResponse.getProductName());
+        response.setProductCode(productResponse.getProductCode());
+        response.setDescription(productResponse.getDescription());
+        response.setCategory(productResponse.getCategory());
+        response.setPrice(productResponse.getPrice());
+        response.setMarketPrice(productResponse.getMarketPrice());
+        response.setMainImage(productResponse.getMainImage());
+        response.setProductImages(productResponse.getProductImages());
+        response.setSpecifications(productResponse.getSpecifications());
+        response.setStockQuantity(productResponse.getStockQuantity());
+        response.setTags(productResponse.getTags());
+        response.setStatus(productResponse.getStatus());
+        response.setIsFeatured(productResponse.getIsFeatured());
+        response.setIsNew(productResponse.getIsNew());
+        response.setIsMain(productResponse.getIsMain());
+        response.setSortOrder(productResponse.getSortOrder());
+        response.setSeoKeywords(productResponse.getSeoKeywords());
+        response.setSeoDescription(productResponse.getSeoDescription());
+        response.setCreatedAt(productResponse.getCreateTime());
+        response.setUpdatedAt(productResponse.getUpdateTime());
+
+        // ============ 服装专业属性 ============
+        response.setMaterial(productResponse.getMaterial());
+        response.setFabricType(productResponse.getFabricType());
+        response.setFabricWeight(productResponse.getFabricWeight());
+        response.setWaistStyle(productResponse.getWaistStyle());
+        response.setJeansStyle(productResponse.getJeansStyle());
+        response.setPatternFit(productResponse.getPatternFit());
+        response.setStyle(productResponse.getStyle());
+        response.setCraftsmanship(productResponse.getCraftsmanship());
+        response.setWeavingMethod(productResponse.getWeavingMethod());
+        response.setWashingProcess(productResponse.getWashingProcess());
+        response.setNeedleDetectionProcess(productResponse.getNeedleDetectionProcess());
+        response.setPatternType(productResponse.getPatternType());
+        response.setPrintingMethod(productResponse.getPrintingMethod());
+        response.setFashionElements(productResponse.getFashionElements());
+        response.setLogoPosition(productResponse.getLogoPosition());
+        response.setSupplyType(productResponse.getSupplyType());
+        response.setOrigin(productResponse.getOrigin());
+        response.setFastSampling(productResponse.getFastSampling());
+        response.setModel(productResponse.getModel());
+        response.setSeason(productResponse.getSeason());
+        response.setSalesUnit(productResponse.getSalesUnit());
+        response.setVideoPath(productResponse.getVideoPath());
+
+        return response;
+    }
+}
@@ -0,0 +1,29 @@
+package com.manage.dto.search;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * 搜索高亮DTO
+ *
+ * 命中的词用 &lt;em&gt; 包裹，其余内容已做HTML转义
+ *
+ * @author System
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHighlight {
+
+    /**
+     * 高亮后的标题
+     */
+    private String title;
+
+    /**
+     * 高亮后的正文摘要
+     */
+    private String snippet;
+}
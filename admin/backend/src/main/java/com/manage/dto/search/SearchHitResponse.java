@@ -0,0 +1,45 @@
+package com.manage.dto.search;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 全站搜索结果DTO
+ *
+ * @author System
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+public class SearchHitResponse {
+
+    /**
+     * 结果类型：PRODUCT-产品 CONTENT-富文本内容 MEDIA-媒体文件
+     */
+    private String type;
+
+    /**
+     * 业务ID
+     */
+    private Long id;
+
+    /**
+     * 相关度得分
+     */
+    private Double score;
+
+    /**
+     * 原始标题
+     */
+    private String title;
+
+    /**
+     * 展示图片
+     */
+    private String image;
+
+    /**
+     * 高亮信息
+     */
+    private SearchHighlight highlight;
+}
@@ -0,0 +1,36 @@
+package com.manage.dto.tag;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 标签使用次数响应DTO（标签云）
+ *
+ * @author System
+ * @version 1.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagCountResponse {
+
+    /**
+     * 标签ID
+     */
+    @JsonProperty("id")
+    private Long id;
+
+    /**
+     * 标签名称
+     */
+    @JsonProperty("name")
+    private String name;
+
+    /**
+     * 使用次数
+     */
+    @JsonProperty("count")
+    private Long count;
+}
@@ -0,0 +1,32 @@
+package com.manage.dto.tag;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * 合并标签请求DTO
+ *
+ * @author System
+ * @version 1.0
+ */
+@Data
+public class TagMergeRequest {
+
+    /**
+     * 被合并的标签ID（合并后删除）
+     */
+    @NotEmpty(message = "被合并的标签不能为空")
+    @JsonProperty("sourceIds")
+    private List<Long> sourceIds;
+
+    /**
+     * 合并到的标签ID
+     */
+    @NotNull(message = "目标标签不能为空")
+    @JsonProperty("targetId")
+    private Long targetId;
+}
@@ -0,0 +1,47 @@
+package com.manage.dto.tag;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.manage.event.ContentDomain;
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * 批量修改标签请求DTO
+ *
+ * 对一批数据统一添加和移除标签，其余标签保持不变
+ *
+ * @author System
+ * @version 1.0
+ */
+@Data
+public class TagRetagRequest {
+
+    /**
+     * 领域（PRODUCT、CONTENT、MEDIA）
+     */
+    @NotNull(message = "领域不能为空")
+    @JsonProperty("domain")
+    private ContentDomain domain;
+
+    /**
+     * 数据ID列表
+     */
+    @NotEmpty(message = "数据ID列表不能为空")
+    @JsonProperty("entityIds")
+    private List<Long> entityIds;
+
+    /**
+     * 要添加的标签
+     */
+    @JsonProperty("addTags")
+    private List<String> addTags;
+
+    /**
+     * 要移除的标签
+     */
+    @JsonProperty("removeTags")
+    private List<String> removeTags;
+}
@@ -1,5 +1,6 @@
 package com.manage.entity;
 
+import com.manage.event.ContentChangeEntityListener;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -23,6 +24,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "company_info")
+@EntityListeners(ContentChangeEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
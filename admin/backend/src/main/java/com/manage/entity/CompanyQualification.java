@@ -1,5 +1,6 @@
 package com.manage.entity;
 
+import com.manage.event.ContentChangeEntityListener;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -18,6 +19,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "company_qualification")
+@EntityListeners(ContentChangeEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
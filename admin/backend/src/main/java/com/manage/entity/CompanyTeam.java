@@ -1,5 +1,6 @@
 package com.manage.entity;
 
+import com.manage.event.ContentChangeEntityListener;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -17,6 +18,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "company_team")
+@EntityListeners(ContentChangeEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
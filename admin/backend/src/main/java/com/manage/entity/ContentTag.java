@@ -0,0 +1,73 @@
+package com.manage.entity;
+
+import com.manage.event.ContentDomain;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import javax.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 内容标签关联实体类
+ *
+ * 一行表示某个领域（PRODUCT、CONTENT、MEDIA）的一条数据带有某个标签。
+ * 按标签查数据走 (tag_id, domain, entity_id) 索引，只扫描带该标签的行，与表总行数无关；
+ * 数据自身的tags字段保留为按展示顺序拼接的副本，本表由变更事件同步
+ *
+ * @author System
+ * @version 1.0
+ */
+@Entity
+@Table(name = "content_tag",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_content_tag_entity_tag", columnNames = {"domain", "entity_id", "tag_id"})
+        },
+        indexes = {
+                @Index(name = "idx_content_tag_tag_domain_entity", columnList = "tag_id, domain, entity_id")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentTag {
+
+    /**
+     * 关联ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 所属领域
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "domain", nullable = false, length = 20)
+    private ContentDomain domain;
+
+    /**
+     * 数据ID（产品ID、内容ID或媒体文件ID）
+     */
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    /**
+     * 标签ID
+     */
+    @Column(name = "tag_id", nullable = false)
+    private Long tagId;
+
+    /**
+     * 标签在该数据中的展示顺序
+     */
+    @Column(name = "sort_order", nullable = false)
+    private Integer sortOrder;
+
+    /**
+     * 创建时间
+     */
+    @CreationTimestamp
+    @Column(name = "create_time", nullable = false, updatable = false)
+    private LocalDateTime createTime;
+}
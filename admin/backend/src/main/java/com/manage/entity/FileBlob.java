@@ -0,0 +1,60 @@
+package com.manage.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import javax.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 文件内容块实体类
+ *
+ * 按内容SHA-256寻址，相同内容的上传只存一份，上传目录下的每个文件路径都是指向它的硬链接，
+ * 引用计数为指向该内容的文件路径数，归零时删除
+ *
+ * @author System
+ * @version 1.0
+ */
+@Entity
+@Table(name = "file_blob")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileBlob {
+
+    /**
+     * 内容SHA-256（十六进制小写）
+     */
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    /**
+     * 内容大小（字节）
+     */
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    /**
+     * 引用计数
+     */
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount = 0;
+
+    /**
+     * 创建时间
+     */
+    @CreationTimestamp
+    @Column(name = "create_time", nullable = false, updatable = false)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @UpdateTimestamp
+    @Column(name = "update_time")
+    private LocalDateTime updateTime;
+}
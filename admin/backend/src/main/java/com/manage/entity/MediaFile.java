@@ -1,5 +1,6 @@
 package com.manage.entity;
 
+import com.manage.event.ContentChangeEntityListener;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -19,11 +20,37 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "media_file")
+@EntityListeners(ContentChangeEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class MediaFile {
 
+    /**
+     * 图片处理状态：无需处理（视频、文档等）
+     */
+    public static final int PROCESS_NONE = 0;
+
+    /**
+     * 图片处理状态：排队中
+     */
+    public static final int PROCESS_PENDING = 1;
+
+    /**
+     * 图片处理状态：处理中
+     */
+    public static final int PROCESS_RUNNING = 2;
+
+    /**
+     * 图片处理状态：已完成
+     */
+    public static final int PROCESS_DONE = 3;
+
+    /**
+     * 图片处理状态：处理失败
+     */
+    public static final int PROCESS_FAILED = 4;
+
     /**
      * 主键ID
      */
@@ -237,6 +264,24 @@ public class MediaFile {
     @Column(name = "expire_time")
     private LocalDateTime expireTime;
 
+    /**
+     * 图片后台处理状态：0-无需处理 1-排队中 2-处理中 3-已完成 4-处理失败
+     */
+    @Column(name = "process_status")
+    private Integer processStatus = PROCESS_NONE;
+
+    /**
+     * 响应式图片变体（JSON格式，宽度 -> URL）
+     */
+    @Column(name = "variants", columnDefinition = "TEXT")
+    private String variants;
+
+    /**
+     * 内容SHA-256，文件路径是去重存储中该内容的硬链接；历史文件为空
+     */
+    @Column(name = "blob_hash", length = 64)
+    private String blobHash;
+
     /**
      * 元数据（JSON格式）
      */
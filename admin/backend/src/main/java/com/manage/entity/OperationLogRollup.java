@@ -0,0 +1,86 @@
+package com.manage.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 操作日志统计汇总实体类
+ *
+ * 按小时、按天和全量三种粒度记录每个操作类型、模块、用户组合的日志数量，
+ * 日志写入时增量累加、清理时扣减，统计接口只读这张小表
+ *
+ * @author System
+ * @version 1.0
+ */
+@Entity
+@Table(name = "operation_log_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_operation_log_rollup",
+                columnNames = {"granularity", "bucket_start", "operation_type", "operation_module", "user_id"}),
+        indexes = @Index(name = "idx_operation_log_rollup_bucket", columnList = "granularity, bucket_start"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperationLogRollup {
+
+    /**
+     * 粒度：按小时
+     */
+    public static final String GRANULARITY_HOUR = "H";
+
+    /**
+     * 粒度：按天
+     */
+    public static final String GRANULARITY_DAY = "D";
+
+    /**
+     * 粒度：全量（时间桶固定为1970-01-01）
+     */
+    public static final String GRANULARITY_ALL = "A";
+
+    /**
+     * 汇总ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 粒度：H-小时，D-天，A-全量
+     */
+    @Column(name = "granularity", nullable = false, length = 1)
+    private String granularity;
+
+    /**
+     * 时间桶起点
+     */
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    /**
+     * 操作类型
+     */
+    @Column(name = "operation_type", nullable = false, length = 50)
+    private String operationType;
+
+    /**
+     * 操作模块
+     */
+    @Column(name = "operation_module", nullable = false, length = 50)
+    private String operationModule;
+
+    /**
+     * 操作用户ID（未知用户为0）
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * 日志数量
+     */
+    @Column(name = "log_count", nullable = false)
+    private Long logCount;
+}
@@ -1,5 +1,6 @@
 package com.manage.entity;
 
+import com.manage.event.ContentChangeEntityListener;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -13,6 +14,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 产品信息实体类
@@ -22,6 +24,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "product")
+@EntityListeners(ContentChangeEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -78,11 +81,18 @@ public class Product {
     private String mainImage;
 
     /**
-     * 产品图片列表（多张图片，JSON格式存储）
+     * 旧版产品图片列表（JSON格式存储），图片已改存product_image表，
+     * 仅保留给启动时的迁移读取，迁移完成后置空
      */
     @Column(name = "product_images", columnDefinition = "TEXT")
     private String productImages;
 
+    /**
+     * 产品图片URL列表（由服务层从product_image表批量填充，不持久化）
+     */
+    @Transient
+    private List<String> imageUrls;
+
     /**
      * 产品价格
      */
@@ -302,7 +312,7 @@ public class Product {
     /**
      * 排序值
      */
-    @Column(name = "sort_order")
+    @Column(name = "sort_order", nullable = false)
     private Integer sortOrder = 0;
 
     /**
@@ -344,4 +354,15 @@ public class Product {
     @UpdateTimestamp
     @Column(name = "update_time")
     private LocalDateTime updateTime;
-}
\ No newline at end of file
+
+    /**
+     * 排序值为空时按0处理，保证推荐列表的键集分页排序键完整
+     */
+    @PrePersist
+    @PreUpdate
+    public void normalizeSortOrder() {
+        if (sortOrder == null) {
+            sortOrder = 0;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.manage.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import javax.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 产品图片实体类
+ *
+ * 每张图片一行，按排序值升序展示；排序值之间留有间隔，移动一张图片只需改写它自己的排序值。
+ * 尺寸、缩略图和宽度变体在图片后台处理完成后从媒体文件同步过来
+ *
+ * @author System
+ * @version 1.0
+ */
+@Entity
+@Table(name = "product_image",
+        indexes = {
+                @Index(name = "idx_product_image_product_sort", columnList = "product_id, sort_order"),
+                @Index(name = "idx_product_image_url", columnList = "image_url")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImage {
+
+    /**
+     * 相邻图片的排序值间隔
+     */
+    public static final int SORT_STEP = 1024;
+
+    /**
+     * 图片ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 产品ID
+     */
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    /**
+     * 图片URL
+     */
+    @Column(name = "image_url", nullable = false, length = 500)
+    private String imageUrl;
+
+    /**
+     * 排序值（越小越靠前）
+     */
+    @Column(name = "sort_order", nullable = false)
+    private Integer sortOrder;
+
+    /**
+     * 关联的媒体文件ID
+     */
+    @Column(name = "media_file_id")
+    private Long mediaFileId;
+
+    /**
+     * 图片宽度（像素）
+     */
+    @Column(name = "width")
+    private Integer width;
+
+    /**
+     * 图片高度（像素）
+     */
+    @Column(name = "height")
+    private Integer height;
+
+    /**
+     * 缩略图URL
+     */
+    @Column(name = "thumbnail_url", length = 500)
+    private String thumbnailUrl;
+
+    /**
+     * 宽度变体（JSON格式：宽度 -> URL）
+     */
+    @Column(name = "variants", columnDefinition = "TEXT")
+    private String variants;
+
+    /**
+     * 创建时间
+     */
+    @CreationTimestamp
+    @Column(name = "create_time", nullable = false, updatable = false)
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,50 @@
+package com.manage.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import javax.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 标签字典实体类
+ *
+ * 产品、富文本内容和媒体文件共用一套标签，名称唯一（按数据库排序规则不区分大小写）
+ *
+ * @author System
+ * @version 1.0
+ */
+@Entity
+@Table(name = "tag")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tag {
+
+    /**
+     * 标签名称最大长度
+     */
+    public static final int MAX_NAME_LENGTH = 50;
+
+    /**
+     * 标签ID
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 标签名称
+     */
+    @Column(name = "name", nullable = false, length = MAX_NAME_LENGTH, unique = true)
+    private String name;
+
+    /**
+     * 创建时间
+     */
+    @CreationTimestamp
+    @Column(name = "create_time", nullable = false, updatable = false)
+    private LocalDateTime createTime;
+}
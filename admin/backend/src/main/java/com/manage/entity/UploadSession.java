@@ -0,0 +1,176 @@
+package com.manage.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import javax.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 分片上传会话实体类
+ *
+ * 记录一次分片上传的元数据和已接收分片位图，服务重启或客户端断线后可据此续传
+ *
+ * @author System
+ * @version 1.0
+ */
+@Entity
+@Table(name = "upload_session")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession {
+
+    /**
+     * 上传中
+     */
+    public static final int STATUS_UPLOADING = 0;
+
+    /**
+     * 已完成
+     */
+    public static final int STATUS_COMPLETED = 1;
+
+    /**
+     * 已取消
+     */
+    public static final int STATUS_ABORTED = 2;
+
+    /**
+     * 已过期
+     */
+    public static final int STATUS_EXPIRED = 3;
+
+    /**
+     * 上传ID
+     */
+    @Id
+    @Column(name = "upload_id", length = 64)
+    private String uploadId;
+
+    /**
+     * 原始文件名
+     */
+    @Column(name = "original_name", nullable = false, length = 255)
+    private String originalName;
+
+    /**
+     * 目标存储文件名（相对上传根目录）
+     */
+    @Column(name = "storage_name", nullable = false, length = 255)
+    private String storageName;
+
+    /**
+     * 文件分类
+     */
+    @Column(name = "category", nullable = false, length = 50)
+    private String category;
+
+    /**
+     * MIME类型
+     */
+    @Column(name = "mime_type", length = 100)
+    private String mimeType;
+
+    /**
+     * 文件总大小（字节）
+     */
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    /**
+     * 分片大小（字节），最后一个分片可以小于该值
+     */
+    @Column(name = "chunk_size", nullable = false)
+    private Integer chunkSize;
+
+    /**
+     * 分片总数
+     */
+    @Column(name = "total_parts", nullable = false)
+    private Integer totalParts;
+
+    /**
+     * 已接收分片位图，第i个字符为'1'表示第i+1个分片已写入
+     */
+    @Column(name = "received_parts", columnDefinition = "TEXT")
+    private String receivedParts;
+
+    /**
+     * 状态：0-上传中 1-已完成 2-已取消 3-已过期
+     */
+    @Column(name = "status", nullable = false)
+    private Integer status = STATUS_UPLOADING;
+
+    /**
+     * 完成后生成的媒体文件ID
+     */
+    @Column(name = "media_file_id")
+    private Long mediaFileId;
+
+    /**
+     * 完成后的文件URL
+     */
+    @Column(name = "file_url", length = 500)
+    private String fileUrl;
+
+    /**
+     * 上传者ID
+     */
+    @Column(name = "uploaded_by")
+    private Long uploadedBy;
+
+    /**
+     * 会话过期时间，每接收一个分片顺延
+     */
+    @Column(name = "expire_time", nullable = false)
+    private LocalDateTime expireTime;
+
+    /**
+     * 创建时间
+     */
+    @CreationTimestamp
+    @Column(name = "create_time", nullable = false, updatable = false)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @UpdateTimestamp
+    @Column(name = "update_time")
+    private LocalDateTime updateTime;
+
+    /**
+     * 统计已接收的分片数量
+     *
+     * @return 已接收分片数
+     */
+    public int countReceivedParts() {
+        if (receivedParts == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < receivedParts.length(); i++) {
+            if (receivedParts.charAt(i) == '1') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 判断指定分片是否已接收
+     *
+     * @param partNumber 分片序号（从1开始）
+     * @return 是否已接收
+     */
+    public boolean isPartReceived(int partNumber) {
+        return receivedParts != null
+                && partNumber >= 1
+                && partNumber <= receivedParts.length()
+                && receivedParts.charAt(partNumber - 1) == '1';
+    }
+}
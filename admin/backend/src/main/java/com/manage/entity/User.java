@@ -1,5 +1,6 @@
 package com.manage.entity;
 
+import com.manage.event.UserChangeEntityListener;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -20,6 +21,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "user")
+@EntityListeners(UserChangeEntityListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
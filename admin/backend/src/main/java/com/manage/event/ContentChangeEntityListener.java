@@ -0,0 +1,118 @@
+package com.manage.event;
+
+import com.manage.entity.CompanyContact;
+import com.manage.entity.CompanyDepartment;
+import com.manage.entity.CompanyInfo;
+import com.manage.entity.CompanyQualification;
+import com.manage.entity.CompanyTeam;
+import com.manage.entity.HomePageBackground;
+import com.manage.entity.MediaFile;
+import com.manage.entity.Product;
+import com.manage.entity.RichContent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 实体变更监听器
+ *
+ * 挂在公开数据相关的实体上，所有经由JPA的写入（save、saveAll、delete）都会发布 {@link ContentChangedEvent}，
+ * 业务代码无需在每个写方法里手动通知；JPQL批量更新不经过此监听器，需要调用方自行发布事件
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class ContentChangeEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ContentChangeEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        publish(entity, ContentChangedEvent.ChangeType.CREATED);
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        publish(entity, ContentChangedEvent.ChangeType.UPDATED);
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        publish(entity, ContentChangedEvent.ChangeType.DELETED);
+    }
+
+    private void publish(Object entity, ContentChangedEvent.ChangeType changeType) {
+        ContentDomain domain = resolveDomain(entity);
+        if (domain == null) {
+            return;
+        }
+        try {
+            eventPublisher.publishEvent(new ContentChangedEvent(domain, changeType, resolveId(entity), entity));
+        } catch (Exception e) {
+            // 通知失败不能影响业务写入
+            log.warn("发布内容变更事件失败，实体：{}，错误：{}", entity.getClass().getSimpleName(), e.getMessage());
+        }
+    }
+
+    private ContentDomain resolveDomain(Object entity) {
+        if (entity instanceof Product) {
+            return ContentDomain.PRODUCT;
+        }
+        if (entity instanceof CompanyInfo || entity instanceof CompanyContact
+                || entity instanceof CompanyQualification || entity instanceof CompanyTeam
+                || entity instanceof CompanyDepartment) {
+            return ContentDomain.COMPANY;
+        }
+        if (entity instanceof HomePageBackground) {
+            return ContentDomain.HOMEPAGE;
+        }
+        if (entity instanceof RichContent) {
+            return ContentDomain.CONTENT;
+        }
+        if (entity instanceof MediaFile) {
+            return ContentDomain.MEDIA;
+        }
+        return null;
+    }
+
+    private Long resolveId(Object entity) {
+        if (entity instanceof Product) {
+            return ((Product) entity).getId();
+        }
+        if (entity instanceof CompanyInfo) {
+            return ((CompanyInfo) entity).getId();
+        }
+        if (entity instanceof CompanyContact) {
+            return ((CompanyContact) entity).getId();
+        }
+        if (entity instanceof CompanyQualification) {
+            return ((CompanyQualification) entity).getId();
+        }
+        if (entity instanceof CompanyTeam) {
+            return ((CompanyTeam) entity).getId();
+        }
+        if (entity instanceof CompanyDepartment) {
+            return ((CompanyDepartment) entity).getId();
+        }
+        if (entity instanceof HomePageBackground) {
+            return ((HomePageBackground) entity).getId();
+        }
+        if (entity instanceof RichContent) {
+            return ((RichContent) entity).getId();
+        }
+        if (entity instanceof MediaFile) {
+            return ((MediaFile) entity).getId();
+        }
+        return null;
+    }
+}
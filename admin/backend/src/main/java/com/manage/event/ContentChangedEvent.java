@@ -0,0 +1,55 @@
+package com.manage.event;
+
+import lombok.Getter;
+
+/**
+ * 内容变更事件
+ *
+ * 由实体监听器在实体新增、修改、删除后发布，监听方应使用事务提交后监听，避免读取到未提交的数据
+ *
+ * @author System
+ * @version 1.0
+ */
+@Getter
+public class ContentChangedEvent {
+
+    /**
+     * 变更类型
+     */
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    /**
+     * 所属领域
+     */
+    private final ContentDomain domain;
+
+    /**
+     * 变更类型
+     */
+    private final ChangeType changeType;
+
+    /**
+     * 实体ID
+     */
+    private final Long entityId;
+
+    /**
+     * 变更后的实体（删除时为删除前的状态）
+     */
+    private final Object entity;
+
+    /**
+     * 事件发生时间（毫秒）
+     */
+    private final long timestamp;
+
+    public ContentChangedEvent(ContentDomain domain, ChangeType changeType, Long entityId, Object entity) {
+        this.domain = domain;
+        this.changeType = changeType;
+        this.entityId = entityId;
+        this.entity = entity;
+        this.timestamp = System.currentTimeMillis();
+    }
+}
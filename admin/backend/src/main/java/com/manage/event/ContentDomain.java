@@ -0,0 +1,35 @@
+package com.manage.event;
+
+/**
+ * 内容领域枚举，用于标识公开数据的变更范围
+ *
+ * @author System
+ * @version 1.0
+ */
+public enum ContentDomain {
+
+    /**
+     * 产品
+     */
+    PRODUCT,
+
+    /**
+     * 公司信息（基本信息、联系方式、资质、团队、部门）
+     */
+    COMPANY,
+
+    /**
+     * 首页配置（背景、图标）
+     */
+    HOMEPAGE,
+
+    /**
+     * 富文本内容
+     */
+    CONTENT,
+
+    /**
+     * 媒体文件
+     */
+    MEDIA
+}
@@ -0,0 +1,100 @@
+package com.manage.event;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 内容版本跟踪器
+ *
+ * 为每个领域维护一个单调递增的版本号和最后修改时间，事务提交后随 {@link ContentChangedEvent} 递增。
+ * 公开接口据此生成ETag和Last-Modified，不需要查询数据库即可判断客户端缓存是否仍然有效
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class ContentVersionTracker {
+
+    /**
+     * 启动时间戳，拼接进ETag，保证重启后版本号重新计数也不会与旧ETag冲突
+     */
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<ContentDomain, AtomicLong> versions = new EnumMap<>(ContentDomain.class);
+    private final Map<ContentDomain, AtomicLong> lastModified = new EnumMap<>(ContentDomain.class);
+
+    public ContentVersionTracker() {
+        long now = System.currentTimeMillis();
+        for (ContentDomain domain : ContentDomain.values()) {
+            versions.put(domain, new AtomicLong());
+            lastModified.put(domain, new AtomicLong(now));
+        }
+    }
+
+    /**
+     * 事务提交后递增对应领域的版本号
+     *
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        // 使用提交时刻作为修改时间，保证Last-Modified不早于数据真正可见的时间
+        bump(event.getDomain());
+    }
+
+    /**
+     * 手动递增领域版本号（用于不经过实体监听器的批量更新）
+     *
+     * @param domain 领域
+     */
+    public void bump(ContentDomain domain) {
+        long version = versions.get(domain).incrementAndGet();
+        lastModified.get(domain).accumulateAndGet(System.currentTimeMillis(), Math::max);
+        log.debug("内容版本更新，领域：{}，版本：{}", domain, version);
+    }
+
+    /**
+     * 获取领域当前版本号
+     *
+     * @param domain 领域
+     * @return 版本号
+     */
+    public long getVersion(ContentDomain domain) {
+        return versions.get(domain).get();
+    }
+
+    /**
+     * 获取多个领域中最晚的修改时间
+     *
+     * @param domains 领域列表
+     * @return 最后修改时间（毫秒）
+     */
+    public long getLastModified(ContentDomain... domains) {
+        long latest = 0;
+        for (ContentDomain domain : domains) {
+            latest = Math.max(latest, lastModified.get(domain).get());
+        }
+        return latest;
+    }
+
+    /**
+     * 生成多个领域组合的强ETag
+     *
+     * @param domains 领域列表
+     * @return ETag（带引号）
+     */
+    public String getETag(ContentDomain... domains) {
+        StringBuilder builder = new StringBuilder("\"").append(epoch);
+        for (ContentDomain domain : domains) {
+            builder.append('-').append(Long.toString(getVersion(domain), 36));
+        }
+        return builder.append('"').toString();
+    }
+}
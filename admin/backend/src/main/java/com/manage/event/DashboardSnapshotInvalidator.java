@@ -0,0 +1,33 @@
+package com.manage.event;
+
+import com.manage.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 仪表盘统计快照失效处理器
+ *
+ * 媒体文件上传、删除、移动以及产品变更提交后把快照标记为过期
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashboardSnapshotInvalidator {
+
+    private final DashboardService dashboardService;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.getDomain() != ContentDomain.MEDIA && event.getDomain() != ContentDomain.PRODUCT) {
+            return;
+        }
+        dashboardService.invalidate();
+        log.debug("{}变更，仪表盘统计快照已过期，ID：{}", event.getDomain(), event.getEntityId());
+    }
+}
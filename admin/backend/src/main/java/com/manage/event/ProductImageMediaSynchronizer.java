@@ -0,0 +1,61 @@
+package com.manage.event;
+
+import com.manage.entity.MediaFile;
+import com.manage.entity.Product;
+import com.manage.repository.ProductRepository;
+import com.manage.service.ProductImageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * 产品图片媒体信息同步器
+ *
+ * 图片后台处理完成（尺寸、缩略图、宽度变体就绪）后，把结果写入引用该图片的产品图片行，
+ * 并为这些产品发布变更事件，让公开目录缓存失效
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductImageMediaSynchronizer {
+
+    private final ProductImageService productImageService;
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.getDomain() != ContentDomain.MEDIA || !(event.getEntity() instanceof MediaFile)) {
+            return;
+        }
+        MediaFile mediaFile = (MediaFile) event.getEntity();
+        if (!Integer.valueOf(MediaFile.PROCESS_DONE).equals(mediaFile.getProcessStatus())) {
+            return;
+        }
+
+        try {
+            List<Long> productIds = productImageService.syncMediaInfo(mediaFile);
+            if (productIds.isEmpty()) {
+                return;
+            }
+            for (Product product : productRepository.findAllById(productIds)) {
+                eventPublisher.publishEvent(new ContentChangedEvent(ContentDomain.PRODUCT,
+                        ContentChangedEvent.ChangeType.UPDATED, product.getId(), product));
+            }
+            log.debug("图片处理结果已同步到产品图片，媒体文件ID：{}，产品ID：{}", mediaFile.getId(), productIds);
+        } catch (Exception e) {
+            log.warn("同步产品图片媒体信息失败，媒体文件ID：{}，错误：{}", mediaFile.getId(), e.getMessage());
+        }
+    }
+}
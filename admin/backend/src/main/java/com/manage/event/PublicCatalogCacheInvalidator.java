@@ -0,0 +1,51 @@
+package com.manage.event;
+
+import com.manage.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 公开产品目录缓存失效处理器
+ *
+ * 产品新增、修改、上下架、图片变更等写操作提交后：按ID失效对应详情，
+ * 列表和分类依赖多个产品，整体清空；在事务提交后执行，避免并发读取把旧数据重新写回缓存
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PublicCatalogCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.getDomain() != ContentDomain.PRODUCT) {
+            return;
+        }
+
+        Cache detailCache = cacheManager.getCache(CacheConfig.PUBLIC_PRODUCT_DETAIL);
+        if (detailCache != null && event.getEntityId() != null) {
+            detailCache.evict(event.getEntityId());
+        }
+        clear(CacheConfig.PUBLIC_PRODUCT_PAGES);
+        clear(CacheConfig.PUBLIC_PRODUCT_LISTS);
+        clear(CacheConfig.PUBLIC_PRODUCT_CATEGORIES);
+
+        log.debug("产品变更，已失效公开目录缓存，产品ID：{}，变更类型：{}", event.getEntityId(), event.getChangeType());
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.manage.event;
+
+import com.manage.service.ResponseBodyCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 公开接口响应体缓存失效处理器
+ *
+ * 事务提交后移除对应领域的全部缓存响应体；条目本身带有生成时的领域ETag，
+ * 即使失效与写入并发，过期条目也不会被返回，这里只是及时释放内存
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ResponseBodyCacheInvalidator {
+
+    private final ResponseBodyCache responseBodyCache;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        responseBodyCache.evict(event.getDomain());
+        log.debug("{}变更，已失效公开接口响应体缓存，ID：{}", event.getDomain(), event.getEntityId());
+    }
+}
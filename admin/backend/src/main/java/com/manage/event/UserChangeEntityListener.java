@@ -0,0 +1,39 @@
+package com.manage.event;
+
+import com.manage.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 用户实体变更监听器
+ *
+ * 经由JPA的用户修改和删除都会发布 {@link UserChangedEvent}；直接修改数据库的变更依赖缓存过期时间兜底
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class UserChangeEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserChangeEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(User user) {
+        try {
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getUsername()));
+        } catch (Exception e) {
+            // 通知失败不能影响业务写入
+            log.warn("发布用户变更事件失败，用户：{}，错误：{}", user.getUsername(), e.getMessage());
+        }
+    }
+}
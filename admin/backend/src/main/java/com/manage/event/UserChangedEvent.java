@@ -0,0 +1,30 @@
+package com.manage.event;
+
+import lombok.Getter;
+
+/**
+ * 用户变更事件
+ *
+ * 用户修改（密码、状态等）或删除后发布，用于失效认证相关缓存
+ *
+ * @author System
+ * @version 1.0
+ */
+@Getter
+public class UserChangedEvent {
+
+    /**
+     * 用户ID
+     */
+    private final Long userId;
+
+    /**
+     * 用户名
+     */
+    private final String username;
+
+    public UserChangedEvent(Long userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+}
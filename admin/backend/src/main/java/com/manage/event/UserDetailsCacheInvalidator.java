@@ -0,0 +1,35 @@
+package com.manage.event;
+
+import com.manage.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 用户认证缓存失效处理器
+ *
+ * 用户被禁用、修改密码或删除后，下一次请求重新从数据库加载用户详情
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserDetailsCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.USER_DETAILS);
+        if (cache != null && event.getUsername() != null) {
+            cache.evict(event.getUsername());
+            log.debug("用户变更，已失效用户详情缓存：{}", event.getUsername());
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.manage.exception;
 import com.manage.common.Result;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.catalina.connector.ClientAbortException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.AuthenticationException;
@@ -40,6 +42,17 @@ public class GlobalExceptionHandler {
         return Result.error(e.getCode(), e.getMessage());
     }
 
+    /**
+     * 处理服务繁忙异常：返回503并告知客户端多久后重试
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<Result<Void>> handleServiceBusyException(ServiceBusyException e) {
+        log.warn("服务繁忙：{}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Result.error(e.getCode(), e.getMessage()));
+    }
+
     /**
      * 处理参数校验异常（@RequestBody）
      */
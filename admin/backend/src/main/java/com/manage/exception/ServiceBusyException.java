@@ -0,0 +1,22 @@
+package com.manage.exception;
+
+import com.manage.common.ResultCode;
+import lombok.Getter;
+
+/**
+ * 服务繁忙异常
+ * 资源已达上限时抛出，由全局异常处理器转换为503响应并带上Retry-After头
+ *
+ * @author System
+ * @version 1.0
+ */
+@Getter
+public class ServiceBusyException extends BusinessException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(ResultCode.SERVICE_UNAVAILABLE, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -4,6 +4,7 @@ import com.manage.common.ResultCode;
 import com.manage.exception.BusinessException;
 import com.manage.util.JwtUtil;
 import com.manage.service.UserService;
+import io.jsonwebtoken.Claims;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -42,29 +43,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 从请求头中获取token
             String token = getTokenFromRequest(request);
 
-            if (StringUtils.hasText(token)) {
-                // 从token中获取用户名
-                String username = jwtUtil.getUsernameFromToken(token);
+            if (StringUtils.hasText(token) && SecurityContextHolder.getContext().getAuthentication() == null) {
+                // 解析并验证token（签名和过期时间），同一token的后续请求命中已验证缓存
+                Claims claims = jwtUtil.parseToken(token);
+                String username = claims.getSubject();
 
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    // 加载用户详情
+                if (username != null) {
+                    // 加载用户详情（按用户名缓存，用户被禁用或修改密码时失效）
                     UserDetails userDetails = userService.loadUserByUsername(username);
 
-                    // 验证token
-                    if (jwtUtil.validateToken(token, username)) {
-                        // 创建认证token
-                        UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    // 创建认证token
+                    UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                        // 设置到安全上下文
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                        log.debug("用户 {} 认证成功", username);
-                    } else {
-                        log.warn("Token验证失败，用户：{}", username);
-                        throw new BusinessException(ResultCode.TOKEN_INVALID);
-                    }
+                    // 设置到安全上下文
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    log.debug("用户 {} 认证成功", username);
+                } else {
+                    log.warn("Token中缺少用户名");
+                    throw new BusinessException(ResultCode.TOKEN_INVALID);
                 }
             }
         } catch (Exception e) {
@@ -0,0 +1,162 @@
+package com.manage.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.manage.common.ResultCode;
+import com.manage.event.ContentDomain;
+import com.manage.event.ContentVersionTracker;
+import com.manage.service.ResponseBodyCache;
+import com.manage.util.AcceptEncodingUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 公开接口响应体缓存过滤器
+ *
+ * 对配置的公开GET接口缓存最终的响应字节：命中且领域ETag未变化时直接写出（客户端支持时写gzip版本），
+ * 不经过控制器、DTO转换和JSON序列化；未命中时正常处理，成功的JSON响应写入缓存。
+ * gzip表示使用单独的ETag，避免缓存用304确认了另一种编码的副本。
+ * 只缓存业务码为成功的响应，失败结果不会被缓存
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+public class PublicResponseCacheFilter extends OncePerRequestFilter {
+
+    private final ResponseBodyCache responseBodyCache;
+    private final ContentVersionTracker versionTracker;
+    private final ObjectMapper objectMapper;
+    private final Map<String, ContentDomain> rules = new LinkedHashMap<>();
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public PublicResponseCacheFilter(ResponseBodyCache responseBodyCache, ContentVersionTracker versionTracker,
+                                     ObjectMapper objectMapper) {
+        this.responseBodyCache = responseBodyCache;
+        this.versionTracker = versionTracker;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 添加缓存规则
+     *
+     * @param domain   响应所依赖的领域，该领域变更后缓存失效
+     * @param patterns 路径模式（Ant风格）
+     * @return 当前过滤器
+     */
+    public PublicResponseCacheFilter addRule(ContentDomain domain, String... patterns) {
+        for (String pattern : patterns) {
+            rules.put(pattern, domain);
+        }
+        return this;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || resolveDomain(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ContentDomain domain = resolveDomain(request);
+        String key = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+        String eTag = versionTracker.getETag(domain);
+        long lastModified = versionTracker.getLastModified(domain);
+
+        ResponseBodyCache.Entry entry = responseBodyCache.get(key);
+        if (entry != null && entry.getETag().equals(eTag)) {
+            writeCached(request, response, entry);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        byte[] body = wrapper.getContentAsByteArray();
+        // 处理期间领域数据发生变化时，响应可能基于旧数据，不写入缓存
+        if (!isCacheable(wrapper, body) || !eTag.equals(versionTracker.getETag(domain))) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        entry = responseBodyCache.createEntry(domain, wrapper.getContentType(), body, eTag, lastModified);
+        responseBodyCache.put(key, entry);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        writeBody(response, entry, useGzip(request, entry));
+    }
+
+    private void writeCached(HttpServletRequest request, HttpServletResponse response,
+                             ResponseBodyCache.Entry entry) throws IOException {
+        // 与条件请求拦截器保持一致：允许缓存，但每次使用前必须重新验证
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = useGzip(request, entry);
+        String eTag = gzip ? AcceptEncodingUtil.gzipETag(entry.getETag()) : entry.getETag();
+        if (new ServletWebRequest(request, response).checkNotModified(eTag, entry.getLastModified())) {
+            return;
+        }
+        response.setContentType(entry.getContentType());
+        writeBody(response, entry, gzip);
+    }
+
+    private boolean useGzip(HttpServletRequest request, ResponseBodyCache.Entry entry) {
+        return entry.getGzipped() != null
+                && AcceptEncodingUtil.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    private void writeBody(HttpServletResponse response, ResponseBodyCache.Entry entry,
+                           boolean gzip) throws IOException {
+        byte[] body = entry.getBody();
+        if (gzip) {
+            body = entry.getGzipped();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            // 未命中时条件请求处理已写入未压缩表示的ETag，改为gzip表示的ETag
+            if (response.containsHeader(HttpHeaders.ETAG)) {
+                response.setHeader(HttpHeaders.ETAG, AcceptEncodingUtil.gzipETag(entry.getETag()));
+            }
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private boolean isCacheable(ContentCachingResponseWrapper response, byte[] body) {
+        String contentType = response.getContentType();
+        if (response.getStatus() != HttpServletResponse.SC_OK || body.length == 0
+                || contentType == null || !contentType.contains("json")
+                || response.containsHeader(HttpHeaders.CONTENT_ENCODING)
+                || response.containsHeader(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        try {
+            // 控制器出错时仍以200返回Result.error，只缓存成功结果
+            return objectMapper.readTree(body).path("code").asInt(-1) == ResultCode.SUCCESS.getCode();
+        } catch (IOException e) {
+            log.debug("响应体不是有效的JSON，不缓存：{}", e.getMessage());
+            return false;
+        }
+    }
+
+    private ContentDomain resolveDomain(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Map.Entry<String, ContentDomain> rule : rules.entrySet()) {
+            if (pathMatcher.match(rule.getKey(), path)) {
+                return rule.getValue();
+            }
+        }
+        return null;
+    }
+}
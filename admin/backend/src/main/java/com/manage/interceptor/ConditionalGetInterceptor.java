@@ -0,0 +1,58 @@
+package com.manage.interceptor;
+
+import com.manage.event.ContentDomain;
+import com.manage.event.ContentVersionTracker;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 公开接口条件请求拦截器
+ *
+ * 根据领域版本号生成ETag和Last-Modified，在进入控制器之前处理 If-None-Match / If-Modified-Since，
+ * 数据未变化时直接返回304，不再执行服务层查询和序列化。
+ * 未命中时验证器只记录在请求属性中，由 {@link ConditionalGetResponseAdvice} 在结果成功时写入响应头，
+ * 避免失败结果带上ETag后被浏览器一直当作有效缓存
+ *
+ * @author System
+ * @version 1.0
+ */
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    static final String ETAG_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".ETAG";
+    static final String LAST_MODIFIED_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".LAST_MODIFIED";
+
+    private final ContentVersionTracker versionTracker;
+    private final ContentDomain[] domains;
+
+    public ConditionalGetInterceptor(ContentVersionTracker versionTracker, ContentDomain... domains) {
+        this.versionTracker = versionTracker;
+        this.domains = domains;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!"GET".equals(method) && !"HEAD".equals(method)) {
+            return true;
+        }
+
+        // 允许浏览器和前置nginx缓存，但每次使用前必须重新验证
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        String etag = versionTracker.getETag(domains);
+        long lastModified = versionTracker.getLastModified(domains);
+        // 不传响应对象时只做比较，不写响应头
+        if (new ServletWebRequest(request).checkNotModified(etag, lastModified)) {
+            // 命中时写入304（或If-Unmodified-Since失败时的412）状态及ETag、Last-Modified头
+            new ServletWebRequest(request, response).checkNotModified(etag, lastModified);
+            return false;
+        }
+        request.setAttribute(ETAG_ATTRIBUTE, etag);
+        request.setAttribute(LAST_MODIFIED_ATTRIBUTE, lastModified);
+        return true;
+    }
+}
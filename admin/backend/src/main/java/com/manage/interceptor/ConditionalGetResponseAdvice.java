@@ -0,0 +1,51 @@
+package com.manage.interceptor;
+
+import com.manage.common.Result;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 公开接口验证器写入
+ *
+ * 条件请求拦截器未命中时，只有成功的结果才写入ETag和Last-Modified；
+ * 控制器以200返回的Result.error不带验证器，客户端下次请求会重新获取
+ *
+ * @author System
+ * @version 1.0
+ */
+@ControllerAdvice
+public class ConditionalGetResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest)) {
+            return body;
+        }
+        HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+        Object etag = servletRequest.getAttribute(ConditionalGetInterceptor.ETAG_ATTRIBUTE);
+        if (etag == null || (body instanceof Result && !((Result<?>) body).isSuccess())) {
+            return body;
+        }
+        response.getHeaders().setETag((String) etag);
+        Object lastModified = servletRequest.getAttribute(ConditionalGetInterceptor.LAST_MODIFIED_ATTRIBUTE);
+        if (lastModified instanceof Long && (Long) lastModified > 0) {
+            response.getHeaders().setLastModified((Long) lastModified);
+        }
+        return body;
+    }
+}
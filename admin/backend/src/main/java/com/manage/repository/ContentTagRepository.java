@@ -0,0 +1,151 @@
+package com.manage.repository;
+
+import com.manage.entity.ContentTag;
+import com.manage.event.ContentDomain;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 内容标签关联数据访问层接口
+ *
+ * @author System
+ * @version 1.0
+ */
+@Repository
+public interface ContentTagRepository extends JpaRepository<ContentTag, Long> {
+
+    /**
+     * 按展示顺序查询某条数据的标签关联
+     *
+     * @param domain   领域
+     * @param entityId 数据ID
+     * @return 关联列表
+     */
+    List<ContentTag> findByDomainAndEntityIdOrderBySortOrderAsc(ContentDomain domain, Long entityId);
+
+    /**
+     * 查询带有某个标签的全部关联
+     *
+     * @param tagId 标签ID
+     * @return 关联列表
+     */
+    List<ContentTag> findByTagId(Long tagId);
+
+    /**
+     * 统计标签使用次数（标签云），按次数降序
+     *
+     * @param domain   领域，为空时统计全部领域
+     * @param pageable 数量限制
+     * @return [标签ID, 标签名称, 使用次数]
+     */
+    @Query("SELECT t.id, t.name, COUNT(a.id) FROM ContentTag a, Tag t WHERE a.tagId = t.id " +
+           "AND (:domain IS NULL OR a.domain = :domain) " +
+           "GROUP BY t.id, t.name ORDER BY COUNT(a.id) DESC, t.name ASC")
+    List<Object[]> countByTag(@Param("domain") ContentDomain domain, Pageable pageable);
+
+    /**
+     * 删除某条数据的全部标签关联
+     *
+     * @param domain   领域
+     * @param entityId 数据ID
+     * @return 删除行数
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ContentTag a WHERE a.domain = :domain AND a.entityId = :entityId")
+    int deleteByDomainAndEntityId(@Param("domain") ContentDomain domain, @Param("entityId") Long entityId);
+
+    /**
+     * 删除某个标签的全部关联
+     *
+     * @param tagId 标签ID
+     * @return 删除行数
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ContentTag a WHERE a.tagId = :tagId")
+    int deleteByTagId(@Param("tagId") Long tagId);
+
+    /**
+     * 批量查询数据已关联的标签名称
+     *
+     * @param domain    领域
+     * @param entityIds 数据ID列表
+     * @return [数据ID, 标签名称]，按数据ID及展示顺序排列
+     */
+    @Query("SELECT a.entityId, t.name FROM ContentTag a, Tag t WHERE a.tagId = t.id " +
+           "AND a.domain = :domain AND a.entityId IN :entityIds ORDER BY a.entityId, a.sortOrder")
+    List<Object[]> findAssignedNames(@Param("domain") ContentDomain domain, @Param("entityIds") List<Long> entityIds);
+
+    // ============ 关联校对 ============
+
+    /**
+     * 按ID分批查询产品的tags字段
+     *
+     * @param afterId  起始ID（不含）
+     * @param pageable 批量大小
+     * @return [产品ID, tags]，按ID升序
+     */
+    @Query("SELECT p.id, p.tags FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findProductTags(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 按ID分批查询富文本内容的tags字段
+     *
+     * @param afterId  起始ID（不含）
+     * @param pageable 批量大小
+     * @return [内容ID, tags]，按ID升序
+     */
+    @Query("SELECT rc.id, rc.tags FROM RichContent rc WHERE rc.id > :afterId ORDER BY rc.id")
+    List<Object[]> findContentTags(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 按ID分批查询媒体文件的tags字段
+     *
+     * @param afterId  起始ID（不含）
+     * @param pageable 批量大小
+     * @return [媒体文件ID, tags]，按ID升序
+     */
+    @Query("SELECT mf.id, mf.tags FROM MediaFile mf WHERE mf.id > :afterId ORDER BY mf.id")
+    List<Object[]> findMediaFileTags(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 删除已不存在的产品的标签关联
+     *
+     * @return 删除行数
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ContentTag a WHERE a.domain = com.manage.event.ContentDomain.PRODUCT " +
+           "AND NOT EXISTS (SELECT p.id FROM Product p WHERE p.id = a.entityId)")
+    int deleteOrphanProductTags();
+
+    /**
+     * 删除已不存在的富文本内容的标签关联
+     *
+     * @return 删除行数
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ContentTag a WHERE a.domain = com.manage.event.ContentDomain.CONTENT " +
+           "AND NOT EXISTS (SELECT rc.id FROM RichContent rc WHERE rc.id = a.entityId)")
+    int deleteOrphanContentTags();
+
+    /**
+     * 删除已不存在的媒体文件的标签关联
+     *
+     * @return 删除行数
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ContentTag a WHERE a.domain = com.manage.event.ContentDomain.MEDIA " +
+           "AND NOT EXISTS (SELECT mf.id FROM MediaFile mf WHERE mf.id = a.entityId)")
+    int deleteOrphanMediaFileTags();
+}
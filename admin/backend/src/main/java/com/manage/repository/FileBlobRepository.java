@@ -0,0 +1,62 @@
+package com.manage.repository;
+
+import com.manage.entity.FileBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 文件内容块数据访问层接口
+ *
+ * @author System
+ * @version 1.0
+ */
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, String> {
+
+    /**
+     * 增加引用计数
+     *
+     * @param hash 内容哈希
+     * @return 更新行数，为0表示记录不存在
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE FileBlob fb SET fb.refCount = fb.refCount + 1 WHERE fb.hash = :hash")
+    int incrementRefCount(@Param("hash") String hash);
+
+    /**
+     * 减少引用计数（不会减到负数）
+     *
+     * @param hash 内容哈希
+     * @return 更新行数
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE FileBlob fb SET fb.refCount = fb.refCount - 1 WHERE fb.hash = :hash AND fb.refCount > 0")
+    int decrementRefCount(@Param("hash") String hash);
+
+    /**
+     * 删除引用计数已归零的记录
+     *
+     * @param hash 内容哈希
+     * @return 删除行数，为0表示期间又被引用
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM FileBlob fb WHERE fb.hash = :hash AND fb.refCount = 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+
+    /**
+     * 统计内容块数量、实际占用字节数和去重前的逻辑字节数
+     *
+     * @return 单行结果：[数量, 实际字节数, 逻辑字节数]
+     */
+    @Query("SELECT COUNT(fb), COALESCE(SUM(fb.fileSize), 0), COALESCE(SUM(fb.fileSize * fb.refCount), 0) FROM FileBlob fb")
+    List<Object[]> summarize();
+}
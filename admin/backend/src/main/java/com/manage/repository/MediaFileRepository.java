@@ -11,6 +11,7 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -101,12 +102,14 @@ public interface MediaFileRepository extends JpaRepository<MediaFile, Long> {
     List<MediaFile> findByOriginalNameContaining(@Param("originalName") String originalName);
 
     /**
-     * 根据标签查找文件
+     * 根据标签查找文件（标签名称精确匹配，经标签关联表按索引查找）
      *
      * @param tag 标签
      * @return 文件列表
      */
-    @Query("SELECT mf FROM MediaFile mf WHERE mf.tags LIKE %:tag% ORDER BY mf.createTime DESC")
+    @Query("SELECT mf FROM MediaFile mf WHERE mf.id IN (SELECT a.entityId FROM ContentTag a, Tag t " +
+           "WHERE a.tagId = t.id AND a.domain = com.manage.event.ContentDomain.MEDIA AND t.name = :tag) " +
+           "ORDER BY mf.createTime DESC")
     List<MediaFile> findByTag(@Param("tag") String tag);
 
     /**
@@ -241,6 +244,15 @@ public interface MediaFileRepository extends JpaRepository<MediaFile, Long> {
      */
     Optional<MediaFile> findByFilePath(String filePath);
 
+    /**
+     * 查找存储路径对应的内容哈希（未删除且已纳入去重存储的记录）
+     *
+     * @param filePath 文件路径
+     * @return 内容哈希列表
+     */
+    @Query("SELECT mf.blobHash FROM MediaFile mf WHERE mf.filePath = :filePath AND mf.blobHash IS NOT NULL AND mf.status != 3")
+    List<String> findBlobHashesByFilePath(@Param("filePath") String filePath);
+
     /**
      * 根据文件URL查找文件
      *
@@ -366,4 +378,66 @@ public interface MediaFileRepository extends JpaRepository<MediaFile, Long> {
      */
     @Query("SELECT mf.category, COUNT(mf) FROM MediaFile mf WHERE mf.status = :status AND mf.isPublic = :isPublic AND mf.category IS NOT NULL GROUP BY mf.category ORDER BY mf.category")
     List<Object[]> findActiveCategories(@Param("status") Integer status, @Param("isPublic") Boolean isPublic);
-}
\ No newline at end of file
+
+    /**
+     * 按图片处理状态查找更新时间早于指定时间的记录（用于补偿积压或中断的处理任务）
+     *
+     * @param processStatus 图片处理状态
+     * @param before        更新时间上限
+     * @param pageable      数量限制
+     * @return 文件列表
+     */
+    List<MediaFile> findByProcessStatusAndUpdateTimeBeforeOrderByUpdateTimeAsc(Integer processStatus,
+                                                                               LocalDateTime before,
+                                                                               Pageable pageable);
+
+    /**
+     * 判断存储路径对应的文件是否处于指定的图片处理状态（未删除的记录）
+     *
+     * @param filePath        文件路径
+     * @param processStatuses 图片处理状态
+     * @return 是否存在
+     */
+    @Query("SELECT COUNT(mf) > 0 FROM MediaFile mf WHERE mf.filePath = :filePath AND mf.status != 3 " +
+           "AND mf.processStatus IN :processStatuses")
+    boolean existsByFilePathAndProcessStatusIn(@Param("filePath") String filePath,
+                                               @Param("processStatuses") Collection<Integer> processStatuses);
+
+    /**
+     * 统计仪表盘展示的图片数量：已完成，排除产品图片（product、product/*、product-*）和编辑器插图
+     *
+     * @return 图片数量
+     */
+    @Query("SELECT COUNT(mf) FROM MediaFile mf WHERE mf.fileType = 'image' AND mf.status = 1 AND (mf.category IS NULL OR "
+            + "(mf.category <> 'product' AND mf.category NOT LIKE 'product/%' AND mf.category NOT LIKE 'product-%' "
+            + "AND mf.category <> 'editor/images'))")
+    long countDashboardImages();
+
+    /**
+     * 统计指定类型和状态的文件数量
+     *
+     * @param fileType 文件类型
+     * @param status   状态
+     * @return 文件数量
+     */
+    long countByFileTypeAndStatus(String fileType, Integer status);
+
+    /**
+     * 按文件类型和分类统计已完成文件的数量和占用空间
+     *
+     * @return 统计结果：文件类型、分类、数量、总字节数
+     */
+    @Query("SELECT mf.fileType, mf.category, COUNT(mf), COALESCE(SUM(mf.fileSize), 0) FROM MediaFile mf "
+            + "WHERE mf.status = 1 GROUP BY mf.fileType, mf.category")
+    List<Object[]> summarizeStorageByTypeAndCategory();
+
+    /**
+     * 按天统计上传数量（不含上传失败的记录）
+     *
+     * @param since 起始时间
+     * @return 统计结果：日期、数量
+     */
+    @Query(value = "SELECT DATE(create_time) AS upload_date, COUNT(*) FROM media_file "
+            + "WHERE create_time >= :since AND status <> 2 GROUP BY DATE(create_time)", nativeQuery = true)
+    List<Object[]> countUploadsPerDay(@Param("since") LocalDateTime since);
+}
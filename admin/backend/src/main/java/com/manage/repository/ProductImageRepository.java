@@ -0,0 +1,118 @@
+package com.manage.repository;
+
+import com.manage.entity.ProductImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 产品图片数据访问层接口
+ *
+ * @author System
+ * @version 1.0
+ */
+@Repository
+public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
+
+    /**
+     * 按展示顺序查询产品的全部图片
+     *
+     * @param productId 产品ID
+     * @return 图片列表
+     */
+    List<ProductImage> findByProductIdOrderBySortOrderAscIdAsc(Long productId);
+
+    /**
+     * 批量查询多个产品的图片URL，列表页一页只查一次
+     *
+     * @param productIds 产品ID集合
+     * @return [产品ID, 图片URL]，按产品和展示顺序排列
+     */
+    @Query("SELECT pi.productId, pi.imageUrl FROM ProductImage pi WHERE pi.productId IN :productIds " +
+           "ORDER BY pi.productId, pi.sortOrder, pi.id")
+    List<Object[]> findImageUrlsByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * 按URL查询产品中的图片
+     *
+     * @param productId 产品ID
+     * @param imageUrl  图片URL
+     * @return 图片（同一URL重复添加时取最早的一条）
+     */
+    Optional<ProductImage> findFirstByProductIdAndImageUrlOrderByIdAsc(Long productId, String imageUrl);
+
+    /**
+     * 检查产品中是否包含指定图片
+     *
+     * @param productId 产品ID
+     * @param imageUrl  图片URL
+     * @return 包含返回true
+     */
+    boolean existsByProductIdAndImageUrl(Long productId, String imageUrl);
+
+    /**
+     * 检查产品是否已有图片
+     *
+     * @param productId 产品ID
+     * @return 有图片返回true
+     */
+    boolean existsByProductId(Long productId);
+
+    /**
+     * 查询产品当前最大的排序值
+     *
+     * @param productId 产品ID
+     * @return 最大排序值，没有图片时返回null
+     */
+    @Query("SELECT MAX(pi.sortOrder) FROM ProductImage pi WHERE pi.productId = :productId")
+    Integer findMaxSortOrder(@Param("productId") Long productId);
+
+    /**
+     * 查询使用指定图片的产品ID
+     *
+     * @param imageUrl 图片URL
+     * @return 产品ID列表
+     */
+    @Query("SELECT DISTINCT pi.productId FROM ProductImage pi WHERE pi.imageUrl = :imageUrl")
+    List<Long> findProductIdsByImageUrl(@Param("imageUrl") String imageUrl);
+
+    /**
+     * 删除产品的全部图片
+     *
+     * @param productId 产品ID
+     * @return 删除行数
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProductImage pi WHERE pi.productId = :productId")
+    int deleteByProductId(@Param("productId") Long productId);
+
+    /**
+     * 同步媒体文件的尺寸、缩略图和宽度变体到所有引用该URL的产品图片
+     *
+     * @param imageUrl     图片URL
+     * @param mediaFileId  媒体文件ID
+     * @param width        宽度
+     * @param height       高度
+     * @param thumbnailUrl 缩略图URL
+     * @param variants     宽度变体JSON
+     * @return 更新行数
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ProductImage pi SET pi.mediaFileId = :mediaFileId, pi.width = :width, pi.height = :height, " +
+           "pi.thumbnailUrl = :thumbnailUrl, pi.variants = :variants WHERE pi.imageUrl = :imageUrl")
+    int updateMediaInfo(@Param("imageUrl") String imageUrl,
+                        @Param("mediaFileId") Long mediaFileId,
+                        @Param("width") Integer width,
+                        @Param("height") Integer height,
+                        @Param("thumbnailUrl") String thumbnailUrl,
+                        @Param("variants") String variants);
+}
@@ -4,11 +4,15 @@ import com.manage.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,7 +23,8 @@ import java.util.Optional;
  * @version 1.0
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductRepositoryCustom {
 
     /**
      * 根据产品编码查找产品
@@ -130,26 +135,94 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findActiveFeaturedProducts();
 
     /**
-     * 根据状态分页查找产品
+     * 分页查找上架的新品产品
      *
-     * @param status   产品状态
-     * @param pageable 分页参数
-     * @return 产品分页结果
+     * @param pageable 分页参数（排序固定为 sortOrder ASC, createTime DESC, id DESC）
+     * @return 上架新品产品分页结果
      */
-    Page<Product> findByStatus(Integer status, Pageable pageable);
+    @Query(value = "SELECT p FROM Product p WHERE p.isNew = true AND p.status = 1 ORDER BY p.sortOrder ASC, p.createTime DESC, p.id DESC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isNew = true AND p.status = 1")
+    Page<Product> findActiveNewProducts(Pageable pageable);
 
     /**
-     * 根据名称和状态分页查找产品
+     * 键集分页查找上架的新品产品（从游标位置之后开始）
      *
-     * @param productName 产品名称
-     * @param status      产品状态
-     * @param pageable    分页参数
+     * @param sortOrder  游标位置的排序值
+     * @param createTime 游标位置的创建时间
+     * @param id         游标位置的产品ID
+     * @param pageable   只用于限制返回条数
+     * @return 上架新品产品列表
+     */
+    @Query("SELECT p FROM Product p WHERE p.isNew = true AND p.status = 1 AND "
+            + "(p.sortOrder > :sortOrder OR (p.sortOrder = :sortOrder AND (p.createTime < :createTime OR (p.createTime = :createTime AND p.id < :id)))) "
+            + "ORDER BY p.sortOrder ASC, p.createTime DESC, p.id DESC")
+    List<Product> findActiveNewProductsAfter(@Param("sortOrder") Integer sortOrder,
+                                             @Param("createTime") LocalDateTime createTime,
+                                             @Param("id") Long id,
+                                             Pageable pageable);
+
+    /**
+     * 分页查找上架的主要产品
+     *
+     * @param pageable 分页参数（排序固定为 sortOrder ASC, createTime DESC, id DESC）
+     * @return 上架主要产品分页结果
+     */
+    @Query(value = "SELECT p FROM Product p WHERE p.isMain = true AND p.status = 1 ORDER BY p.sortOrder ASC, p.createTime DESC, p.id DESC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isMain = true AND p.status = 1")
+    Page<Product> findActiveMainProducts(Pageable pageable);
+
+    /**
+     * 键集分页查找上架的主要产品（从游标位置之后开始）
+     *
+     * @param sortOrder  游标位置的排序值
+     * @param createTime 游标位置的创建时间
+     * @param id         游标位置的产品ID
+     * @param pageable   只用于限制返回条数
+     * @return 上架主要产品列表
+     */
+    @Query("SELECT p FROM Product p WHERE p.isMain = true AND p.status = 1 AND "
+            + "(p.sortOrder > :sortOrder OR (p.sortOrder = :sortOrder AND (p.createTime < :createTime OR (p.createTime = :createTime AND p.id < :id)))) "
+            + "ORDER BY p.sortOrder ASC, p.createTime DESC, p.id DESC")
+    List<Product> findActiveMainProductsAfter(@Param("sortOrder") Integer sortOrder,
+                                              @Param("createTime") LocalDateTime createTime,
+                                              @Param("id") Long id,
+                                              Pageable pageable);
+
+    /**
+     * 分页查找上架的热门推荐产品
+     *
+     * @param pageable 分页参数（排序固定为 sortOrder ASC, createTime DESC, id DESC）
+     * @return 上架热门推荐产品分页结果
+     */
+    @Query(value = "SELECT p FROM Product p WHERE p.isFeatured = true AND p.status = 1 ORDER BY p.sortOrder ASC, p.createTime DESC, p.id DESC",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isFeatured = true AND p.status = 1")
+    Page<Product> findActiveFeaturedProducts(Pageable pageable);
+
+    /**
+     * 键集分页查找上架的热门推荐产品（从游标位置之后开始）
+     *
+     * @param sortOrder  游标位置的排序值
+     * @param createTime 游标位置的创建时间
+     * @param id         游标位置的产品ID
+     * @param pageable   只用于限制返回条数
+     * @return 上架热门推荐产品列表
+     */
+    @Query("SELECT p FROM Product p WHERE p.isFeatured = true AND p.status = 1 AND "
+            + "(p.sortOrder > :sortOrder OR (p.sortOrder = :sortOrder AND (p.createTime < :createTime OR (p.createTime = :createTime AND p.id < :id)))) "
+            + "ORDER BY p.sortOrder ASC, p.createTime DESC, p.id DESC")
+    List<Product> findActiveFeaturedProductsAfter(@Param("sortOrder") Integer sortOrder,
+                                                  @Param("createTime") LocalDateTime createTime,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+
+    /**
+     * 根据状态分页查找产品
+     *
+     * @param status   产品状态
+     * @param pageable 分页参数
      * @return 产品分页结果
      */
-    @Query("SELECT p FROM Product p WHERE (:productName IS NULL OR p.productName LIKE %:productName%) AND p.status = :status")
-    Page<Product> findByProductNameAndStatus(@Param("productName") String productName,
-                                            @Param("status") Integer status,
-                                            Pageable pageable);
+    Page<Product> findByStatus(Integer status, Pageable pageable);
 
     /**
      * 根据分类和状态分页查找产品
@@ -161,15 +234,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     Page<Product> findByCategoryAndStatus(String category, Integer status, Pageable pageable);
 
-    /**
-     * 根据标签查找产品
-     *
-     * @param tag 标签
-     * @return 产品列表
-     */
-    @Query("SELECT p FROM Product p WHERE p.tags LIKE %:tag% AND p.status = 1")
-    List<Product> findByTag(@Param("tag") String tag);
-
     /**
      * 检查产品编码是否存在
      *
@@ -186,19 +250,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p.status, COUNT(p) FROM Product p GROUP BY p.status")
     List<Object[]> countProductsByStatus();
 
-    /**
-     * 根据价格区间查找产品
-     *
-     * @param minPrice 最低价格
-     * @param maxPrice 最高价格
-     * @param status   产品状态
-     * @return 产品列表
-     */
-    @Query("SELECT p FROM Product p WHERE p.price IS NOT NULL AND p.price BETWEEN :minPrice AND :maxPrice AND p.status = :status")
-    List<Product> findByPriceRange(@Param("minPrice") BigDecimal minPrice,
-                                  @Param("maxPrice") BigDecimal maxPrice,
-                                  @Param("status") Integer status);
-
     // ============ 公开产品查询方法 ============
 
     /**
@@ -231,4 +282,22 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     @Query("SELECT p.category, COUNT(p) FROM Product p WHERE p.category IS NOT NULL AND p.status = :status GROUP BY p.category")
     List<Object[]> findCategoriesByStatus(@Param("status") Integer status);
-}
\ No newline at end of file
+
+    /**
+     * 查询仍保存旧版JSON图片列表、尚未迁移到product_image表的产品
+     *
+     * @return 产品列表（每次最多100条）
+     */
+    List<Product> findTop100ByProductImagesIsNotNullOrderByIdAsc();
+
+    /**
+     * 清空已迁移产品的旧版图片列表（不触发更新时间和实体监听器）
+     *
+     * @param ids 产品ID集合
+     * @return 更新行数
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.productImages = NULL WHERE p.id IN :ids")
+    int clearLegacyProductImages(@Param("ids") Collection<Long> ids);
+}
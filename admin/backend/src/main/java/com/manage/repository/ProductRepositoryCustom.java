@@ -0,0 +1,27 @@
+package com.manage.repository;
+
+import com.manage.entity.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * 产品自定义查询接口
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * 按条件查询一段数据，不执行count查询
+     *
+     * @param spec   查询条件，可为null
+     * @param sort   排序
+     * @param offset 起始位置
+     * @param limit  最大条数
+     * @return 产品列表
+     */
+    List<Product> findSlice(Specification<Product> spec, Sort sort, long offset, int limit);
+}
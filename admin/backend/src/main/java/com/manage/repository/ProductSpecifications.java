@@ -0,0 +1,137 @@
+package com.manage.repository;
+
+import com.manage.dto.product.ProductQueryRequest;
+import com.manage.entity.ContentTag;
+import com.manage.entity.Product;
+import com.manage.entity.Tag;
+import com.manage.event.ContentDomain;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+import java.math.BigDecimal;
+
+/**
+ * 产品查询条件构造工具
+ *
+ * 每个条件对应一个可组合的 {@link Specification}，请求中未填写的条件返回null，
+ * 由 {@link Specification#and} 自动忽略，任意组合都只生成一条SQL
+ *
+ * @author System
+ * @version 1.0
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    /**
+     * 按查询请求组合全部条件
+     *
+     * @param request 查询请求
+     * @return 组合后的条件
+     */
+    public static Specification<Product> of(ProductQueryRequest request) {
+        return Specification.where(nameContains(request.getProductName()))
+                .and(equalTo("productCode", request.getProductCode()))
+                .and(equalTo("category", request.getCategory()))
+                .and(equalTo("status", request.getStatus()))
+                .and(equalTo("isFeatured", request.getIsFeatured()))
+                .and(equalTo("isNew", request.getIsNew()))
+                .and(equalTo("isMain", request.getIsMain()))
+                .and(equalTo("material", request.getMaterial()))
+                .and(equalTo("fabricType", request.getFabricType()))
+                .and(tagged(request.getTag()))
+                .and(priceBetween(toBigDecimal(request.getMinPrice()), toBigDecimal(request.getMaxPrice())));
+    }
+
+    /**
+     * 产品名称模糊匹配
+     */
+    public static Specification<Product> nameContains(String productName) {
+        if (!StringUtils.hasText(productName)) {
+            return null;
+        }
+        String pattern = "%" + escapeLike(productName.trim()) + "%";
+        return (root, query, cb) -> cb.like(root.get("productName"), pattern, '\\');
+    }
+
+    /**
+     * 带有指定标签（名称精确匹配），经标签关联表按索引查找
+     */
+    public static Specification<Product> tagged(String tag) {
+        if (!StringUtils.hasText(tag)) {
+            return null;
+        }
+        String name = tag.trim();
+        return (root, query, cb) -> {
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<ContentTag> assignment = subquery.from(ContentTag.class);
+            Root<Tag> dictionary = subquery.from(Tag.class);
+            subquery.select(assignment.<Long>get("entityId"))
+                    .where(cb.equal(assignment.get("tagId"), dictionary.get("id")),
+                            cb.equal(assignment.get("domain"), ContentDomain.PRODUCT),
+                            cb.equal(dictionary.get("name"), name));
+            return root.get("id").in(subquery);
+        };
+    }
+
+    /**
+     * 价格区间，任一端为空时不限制该端；没有价格的产品不参与区间匹配
+     */
+    public static Specification<Product> priceBetween(BigDecimal minPrice, BigDecimal maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return null;
+        }
+        return (root, query, cb) -> {
+            if (minPrice == null) {
+                return cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+            }
+            if (maxPrice == null) {
+                return cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+            }
+            return cb.between(root.get("price"), minPrice, maxPrice);
+        };
+    }
+
+    /**
+     * 属性等值匹配，值为空（或空白字符串）时不限制
+     */
+    public static Specification<Product> equalTo(String attribute, Object value) {
+        if (value == null || (value instanceof String && !StringUtils.hasText((String) value))) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+
+    /**
+     * 键集分页条件：排在游标所指记录之后的数据，排序键为 (attribute, id)，方向一致
+     *
+     * @param attribute 排序属性（不能为空值列）
+     * @param direction 排序方向
+     * @param value     游标记录的排序属性值
+     * @param id        游标记录的ID
+     * @return 条件
+     */
+    public static <T extends Comparable<? super T>> Specification<Product> after(String attribute, Sort.Direction direction,
+                                                                                  T value, Long id) {
+        return (root, query, cb) -> {
+            if (direction.isAscending()) {
+                return cb.or(cb.greaterThan(root.<T>get(attribute), value),
+                        cb.and(cb.equal(root.get(attribute), value), cb.greaterThan(root.<Long>get("id"), id)));
+            }
+            return cb.or(cb.lessThan(root.<T>get(attribute), value),
+                    cb.and(cb.equal(root.get(attribute), value), cb.lessThan(root.<Long>get("id"), id)));
+        };
+    }
+
+    private static BigDecimal toBigDecimal(Double value) {
+        return value == null ? null : BigDecimal.valueOf(value);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -99,13 +99,15 @@ public interface RichContentRepository extends JpaRepository<RichContent, Long>
                                             @Param("status") Integer status);
 
     /**
-     * 根据标签查找内容
+     * 根据标签查找内容（标签名称精确匹配，经标签关联表按索引查找）
      *
      * @param tag    标签
      * @param status 状态
      * @return 内容列表
      */
-    @Query("SELECT rc FROM RichContent rc WHERE rc.tags LIKE %:tag% AND rc.status = :status ORDER BY rc.createTime DESC")
+    @Query("SELECT rc FROM RichContent rc WHERE rc.id IN (SELECT a.entityId FROM ContentTag a, Tag t " +
+           "WHERE a.tagId = t.id AND a.domain = com.manage.event.ContentDomain.CONTENT AND t.name = :tag) " +
+           "AND rc.status = :status ORDER BY rc.createTime DESC")
     List<RichContent> findByTagAndStatus(@Param("tag") String tag,
                                         @Param("status") Integer status);
 
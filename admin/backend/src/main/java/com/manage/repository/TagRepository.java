@@ -0,0 +1,35 @@
+package com.manage.repository;
+
+import com.manage.entity.Tag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 标签字典数据访问层接口
+ *
+ * @author System
+ * @version 1.0
+ */
+@Repository
+public interface TagRepository extends JpaRepository<Tag, Long> {
+
+    /**
+     * 按名称查找标签（按数据库排序规则比较，不区分大小写）
+     *
+     * @param name 标签名称
+     * @return 标签
+     */
+    Optional<Tag> findByName(String name);
+
+    /**
+     * 按名称批量查找标签
+     *
+     * @param names 标签名称集合
+     * @return 标签列表
+     */
+    List<Tag> findByNameIn(Collection<String> names);
+}
@@ -0,0 +1,52 @@
+package com.manage.repository;
+
+import com.manage.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 分片上传会话数据访问层接口
+ *
+ * @author System
+ * @version 1.0
+ */
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    /**
+     * 查找已过期的会话
+     *
+     * @param status 会话状态
+     * @param now    当前时间
+     * @return 过期会话列表
+     */
+    List<UploadSession> findByStatusAndExpireTimeBefore(Integer status, LocalDateTime now);
+
+    /**
+     * 查找用户未完成的上传会话
+     *
+     * @param uploadedBy 上传者ID
+     * @param status     会话状态
+     * @return 会话列表
+     */
+    List<UploadSession> findByUploadedByAndStatusOrderByCreateTimeDesc(Long uploadedBy, Integer status);
+
+    /**
+     * 删除指定时间之前已结束的会话记录
+     *
+     * @param statuses 会话状态列表
+     * @param before   截止时间
+     * @return 删除数量
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UploadSession us WHERE us.status IN :statuses AND us.updateTime < :before")
+    int deleteFinishedBefore(@Param("statuses") List<Integer> statuses, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,254 @@
+package com.manage.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存分面索引
+ *
+ * 每个文档占用一个位置编号，分面 -> 值 -> 位图记录拥有该值的文档。查询时同一分面内的已选值取并集、
+ * 不同分面之间取交集；每个分面的计数按“除本分面外的其余筛选条件”统计，选中某个值后同分面的其他值仍显示可选数量。
+ * 读多写少，使用读写锁保护；文档更新是先删后加，删除后释放的位置会被复用
+ *
+ * @author System
+ * @version 1.0
+ */
+public class FacetIndex {
+
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final List<Long> slotIds = new ArrayList<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final Map<String, Map<String, BitSet>> postings = new HashMap<>();
+    private final Map<Long, Map<String, Set<String>>> documents = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 添加或替换文档
+     *
+     * @param id     文档ID
+     * @param values 分面 -> 取值（空值和空白值被忽略）
+     */
+    public void put(Long id, Map<String, ? extends Collection<String>> values) {
+        Map<String, Set<String>> normalized = new HashMap<>();
+        for (Map.Entry<String, ? extends Collection<String>> entry : values.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            for (String value : entry.getValue()) {
+                if (value != null && !value.trim().isEmpty()) {
+                    normalized.computeIfAbsent(entry.getKey(), key -> new HashSet<>()).add(value.trim());
+                }
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            Integer slot = freeSlots.poll();
+            if (slot == null) {
+                slot = slotIds.size();
+                slotIds.add(id);
+            } else {
+                slotIds.set(slot, id);
+            }
+            slots.put(id, slot);
+            live.set(slot);
+            documents.put(id, normalized);
+            for (Map.Entry<String, Set<String>> entry : normalized.entrySet()) {
+                Map<String, BitSet> facet = postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>());
+                for (String value : entry.getValue()) {
+                    facet.computeIfAbsent(value, key -> new BitSet()).set(slot);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文档
+     *
+     * @param id 文档ID
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long id) {
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        Map<String, Set<String>> existing = documents.remove(id);
+        for (Map.Entry<String, Set<String>> entry : existing.entrySet()) {
+            Map<String, BitSet> facet = postings.get(entry.getKey());
+            for (String value : entry.getValue()) {
+                BitSet bits = facet.get(value);
+                bits.clear(slot);
+                if (bits.isEmpty()) {
+                    facet.remove(value);
+                }
+            }
+            if (facet.isEmpty()) {
+                postings.remove(entry.getKey());
+            }
+        }
+        live.clear(slot);
+        slotIds.set(slot, null);
+        freeSlots.push(slot);
+    }
+
+    /**
+     * 文档数量
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 分面值数量
+     */
+    public int valueCount() {
+        lock.readLock().lock();
+        try {
+            return postings.values().stream().mapToInt(Map::size).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 按筛选条件查询匹配的文档和各分面取值的计数
+     *
+     * @param selected 分面 -> 已选值，空集合表示该分面不筛选
+     * @return 匹配的文档ID（ID大的在前）和计数（按数量降序，已选值即使数量为0也会返回）
+     */
+    public Result query(Map<String, ? extends Collection<String>> selected) {
+        lock.readLock().lock();
+        try {
+            Map<String, BitSet> selections = new HashMap<>();
+            for (Map.Entry<String, ? extends Collection<String>> entry : selected.entrySet()) {
+                if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                    continue;
+                }
+                Map<String, BitSet> facet = postings.getOrDefault(entry.getKey(), Collections.emptyMap());
+                BitSet union = new BitSet();
+                for (String value : entry.getValue()) {
+                    BitSet bits = facet.get(value);
+                    if (bits != null) {
+                        union.or(bits);
+                    }
+                }
+                selections.put(entry.getKey(), union);
+            }
+
+            BitSet matched = (BitSet) live.clone();
+            for (BitSet union : selections.values()) {
+                matched.and(union);
+            }
+
+            List<Long> ids = new ArrayList<>(matched.cardinality());
+            for (int slot = matched.nextSetBit(0); slot >= 0; slot = matched.nextSetBit(slot + 1)) {
+                ids.add(slotIds.get(slot));
+            }
+            ids.sort(Comparator.reverseOrder());
+
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            Set<String> facets = new HashSet<>(postings.keySet());
+            facets.addAll(selections.keySet());
+            for (String facet : facets) {
+                counts.put(facet, countFacet(facet, selections, matched, selected.get(facet)));
+            }
+            return new Result(ids, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 统计单个分面各取值的数量：基数集合是除本分面外其余筛选条件的交集
+     */
+    private Map<String, Integer> countFacet(String facet, Map<String, BitSet> selections,
+                                            BitSet matched, Collection<String> selectedValues) {
+        BitSet base = matched;
+        if (selections.containsKey(facet)) {
+            base = (BitSet) live.clone();
+            for (Map.Entry<String, BitSet> entry : selections.entrySet()) {
+                if (!entry.getKey().equals(facet)) {
+                    base.and(entry.getValue());
+                }
+            }
+        }
+
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (Map.Entry<String, BitSet> entry : postings.getOrDefault(facet, Collections.emptyMap()).entrySet()) {
+            BitSet bits = (BitSet) entry.getValue().clone();
+            bits.and(base);
+            int count = bits.cardinality();
+            if (count > 0 || (selectedValues != null && selectedValues.contains(entry.getKey()))) {
+                entries.add(new AbstractMap.SimpleEntry<>(entry.getKey(), count));
+            }
+        }
+        if (selectedValues != null) {
+            for (String value : selectedValues) {
+                if (!postings.getOrDefault(facet, Collections.emptyMap()).containsKey(value)) {
+                    entries.add(new AbstractMap.SimpleEntry<>(value, 0));
+                }
+            }
+        }
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<String, Integer>comparingByKey()));
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : entries) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * 查询结果
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Result {
+
+        /**
+         * 匹配的文档ID，ID大的（较新的）在前
+         */
+        private final List<Long> ids;
+
+        /**
+         * 分面 -> 取值 -> 数量
+         */
+        private final Map<String, Map<String, Integer>> counts;
+    }
+}
@@ -0,0 +1,145 @@
+package com.manage.search;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 搜索结果高亮工具
+ *
+ * 在原文中标记查询词项出现的位置并用 &lt;em&gt; 包裹，相邻或重叠的命中合并为一段；
+ * 输出前对原文做HTML转义，前端可直接作为HTML渲染
+ *
+ * @author System
+ * @version 1.0
+ */
+public final class Highlighter {
+
+    private static final String PRE_TAG = "<em>";
+    private static final String POST_TAG = "</em>";
+    private static final String ELLIPSIS = "…";
+
+    private Highlighter() {
+    }
+
+    /**
+     * 高亮整段文本（用于标题）
+     *
+     * @param text  原文
+     * @param terms 查询词项
+     * @return 高亮后的HTML，原文为空时返回null
+     */
+    public static String highlight(String text, List<String> terms) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        boolean[] marks = mark(text, terms);
+        return render(text, marks, 0, text.length());
+    }
+
+    /**
+     * 截取包含第一个命中位置的片段并高亮（用于正文摘要）
+     *
+     * @param text      原文
+     * @param terms     查询词项
+     * @param maxLength 片段最大长度
+     * @return 高亮后的HTML片段，原文为空时返回null
+     */
+    public static String snippet(String text, List<String> terms, int maxLength) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        boolean[] marks = mark(text, terms);
+        int first = 0;
+        while (first < marks.length && !marks[first]) {
+            first++;
+        }
+        if (first == marks.length) {
+            first = 0;
+        }
+
+        // 命中位置前保留少量上下文
+        int start = Math.max(0, first - maxLength / 4);
+        int end = Math.min(text.length(), start + maxLength);
+        start = Math.max(0, end - maxLength);
+        if (start > 0 && Character.isLowSurrogate(text.charAt(start))) {
+            start++;
+        }
+        if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+
+        StringBuilder builder = new StringBuilder();
+        if (start > 0) {
+            builder.append(ELLIPSIS);
+        }
+        builder.append(render(text, marks, start, end));
+        if (end < text.length()) {
+            builder.append(ELLIPSIS);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 标记命中的字符位置，大小写不敏感
+     */
+    private static boolean[] mark(String text, List<String> terms) {
+        boolean[] marks = new boolean[text.length()];
+        String lower = text.toLowerCase(Locale.ROOT);
+        // 个别字符转小写后长度会变化，此时位置无法对应，放弃高亮
+        if (lower.length() != text.length()) {
+            return marks;
+        }
+        for (String term : terms) {
+            int from = 0;
+            int index;
+            while ((index = lower.indexOf(term, from)) >= 0) {
+                for (int i = index; i < index + term.length(); i++) {
+                    marks[i] = true;
+                }
+                from = index + 1;
+            }
+        }
+        return marks;
+    }
+
+    private static String render(String text, boolean[] marks, int start, int end) {
+        StringBuilder builder = new StringBuilder(end - start + 16);
+        boolean open = false;
+        for (int i = start; i < end; i++) {
+            if (marks[i] && !open) {
+                builder.append(PRE_TAG);
+                open = true;
+            } else if (!marks[i] && open) {
+                builder.append(POST_TAG);
+                open = false;
+            }
+            escape(builder, text.charAt(i));
+        }
+        if (open) {
+            builder.append(POST_TAG);
+        }
+        return builder.toString();
+    }
+
+    private static void escape(StringBuilder builder, char c) {
+        switch (c) {
+            case '<':
+                builder.append("&lt;");
+                break;
+            case '>':
+                builder.append("&gt;");
+                break;
+            case '&':
+                builder.append("&amp;");
+                break;
+            case '"':
+                builder.append("&quot;");
+                break;
+            case '\'':
+                builder.append("&#39;");
+                break;
+            default:
+                builder.append(c);
+        }
+    }
+}
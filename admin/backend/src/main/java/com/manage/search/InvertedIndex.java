@@ -0,0 +1,202 @@
+package com.manage.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * 内存倒排索引
+ *
+ * 词项 -> (文档ID -> 加权词频)，查询时对所有查询词项取交集并按BM25打分。
+ * 读多写少，使用读写锁保护；文档更新是先删后加，单个文档的更新是原子的
+ *
+ * @author System
+ * @version 1.0
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<Long, SearchDocument> documents = new HashMap<>();
+    private double totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 添加或替换文档
+     *
+     * @param document 索引文档
+     */
+    public void put(SearchDocument document) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.getId());
+            documents.put(document.getId(), document);
+            for (Map.Entry<String, Float> entry : document.getTermWeights().entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), key -> new HashMap<>())
+                        .put(document.getId(), entry.getValue());
+            }
+            totalLength += document.getLength();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文档
+     *
+     * @param id 文档ID
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long id) {
+        SearchDocument existing = documents.remove(id);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.getTermWeights().keySet()) {
+            Map<Long, Float> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= existing.getLength();
+    }
+
+    /**
+     * 获取文档
+     *
+     * @param id 文档ID
+     * @return 文档，不存在时返回null
+     */
+    public SearchDocument get(Long id) {
+        lock.readLock().lock();
+        try {
+            return documents.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 文档数量
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 词项数量
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 检索：所有查询词项都必须命中，按相关度降序，相同分数时ID大的（较新的）在前
+     *
+     * @param queryTerms 查询词项
+     * @param filter     文档过滤条件
+     * @return 命中结果
+     */
+    public List<Hit> search(List<String> queryTerms, Predicate<SearchDocument> filter) {
+        if (queryTerms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return Collections.emptyList();
+            }
+
+            List<Map<Long, Float>> lists = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms) {
+                Map<Long, Float> posting = postings.get(term);
+                if (posting == null) {
+                    return Collections.emptyList();
+                }
+                lists.add(posting);
+            }
+            // 从最短的倒排表开始求交集
+            lists.sort(Comparator.comparingInt(Map::size));
+
+            double[] idf = new double[lists.size()];
+            for (int i = 0; i < lists.size(); i++) {
+                int df = lists.get(i).size();
+                idf[i] = Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+            }
+            double averageLength = Math.max(totalLength / documentCount, 1);
+
+            List<Hit> hits = new ArrayList<>();
+            candidates:
+            for (Long id : lists.get(0).keySet()) {
+                for (int i = 1; i < lists.size(); i++) {
+                    if (!lists.get(i).containsKey(id)) {
+                        continue candidates;
+                    }
+                }
+                SearchDocument document = documents.get(id);
+                if (filter != null && !filter.test(document)) {
+                    continue;
+                }
+                double norm = K1 * (1 - B + B * document.getLength() / averageLength);
+                double score = 0;
+                for (int i = 0; i < lists.size(); i++) {
+                    double tf = lists.get(i).get(id);
+                    score += idf[i] * tf * (K1 + 1) / (tf + norm);
+                }
+                hits.add(new Hit(document, score));
+            }
+
+            hits.sort(Comparator.comparingDouble(Hit::getScore).reversed()
+                    .thenComparing(hit -> hit.getDocument().getId(), Comparator.reverseOrder()));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 命中结果
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Hit {
+
+        private final SearchDocument document;
+
+        private final double score;
+    }
+}
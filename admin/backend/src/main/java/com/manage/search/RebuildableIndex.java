@@ -0,0 +1,170 @@
+package com.manage.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 支持增量更新和不停服全量重建的内存索引容器
+ *
+ * 变更在事务提交后增量应用到当前索引；全量重建时由加载函数构建新索引，
+ * 期间到达的变更先记录下来，加载完成后补放到新索引再整体切换，不丢更新
+ *
+ * @param <I> 索引类型
+ * @param <E> 变更事件类型
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+public class RebuildableIndex<I, E> {
+
+    private final String name;
+    private final Supplier<I> loader;
+    private final BiConsumer<I, E> applier;
+
+    private volatile I current;
+    private volatile boolean ready;
+    private volatile long lastRebuildTime;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /**
+     * 增量更新与索引切换的互斥锁
+     */
+    private final Object updateLock = new Object();
+
+    /**
+     * 重建期间到达的变更事件，非重建期间为null；由updateLock保护
+     */
+    private List<E> pendingEvents;
+
+    /**
+     * 创建索引容器
+     *
+     * @param name    索引名称，用于日志
+     * @param initial 首次重建完成前使用的空索引
+     * @param loader  构建并加载完整的新索引，失败时抛出运行时异常
+     * @param applier 把一个变更应用到指定索引
+     */
+    public RebuildableIndex(String name, I initial, Supplier<I> loader, BiConsumer<I, E> applier) {
+        this.name = name;
+        this.current = initial;
+        this.loader = loader;
+        this.applier = applier;
+    }
+
+    /**
+     * 当前索引
+     *
+     * @return 索引
+     */
+    public I get() {
+        return current;
+    }
+
+    /**
+     * 是否已完成首次构建
+     *
+     * @return 是否就绪
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 是否正在重建
+     *
+     * @return 是否正在重建
+     */
+    public boolean isRebuilding() {
+        return rebuilding.get();
+    }
+
+    /**
+     * 上次重建完成时间（毫秒时间戳），未重建过时为0
+     *
+     * @return 完成时间
+     */
+    public long getLastRebuildTime() {
+        return lastRebuildTime;
+    }
+
+    /**
+     * 增量应用一个变更；重建期间同时记录下来，切换前补放到新索引
+     *
+     * @param event 变更事件
+     */
+    public void apply(E event) {
+        synchronized (updateLock) {
+            applier.accept(current, event);
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+        }
+    }
+
+    /**
+     * 全量重建并切换索引；已有重建在进行时跳过
+     *
+     * @return 重建结果，跳过或加载失败时返回null
+     */
+    public Rebuild<I> rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("{}正在重建，跳过本次请求", name);
+            return null;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            synchronized (updateLock) {
+                pendingEvents = new ArrayList<>();
+            }
+
+            I fresh;
+            try {
+                fresh = loader.get();
+            } catch (RuntimeException e) {
+                synchronized (updateLock) {
+                    pendingEvents = null;
+                }
+                log.error("重建{}失败：{}", name, e.getMessage(), e);
+                return null;
+            }
+
+            int replayed;
+            synchronized (updateLock) {
+                replayed = pendingEvents.size();
+                for (E event : pendingEvents) {
+                    applier.accept(fresh, event);
+                }
+                current = fresh;
+                pendingEvents = null;
+            }
+            ready = true;
+            lastRebuildTime = System.currentTimeMillis();
+            return new Rebuild<>(fresh, replayed, lastRebuildTime - start);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 一次重建的结果
+     *
+     * @param <I> 索引类型
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Rebuild<I> {
+
+        private final I index;
+        private final int replayed;
+        private final long durationMs;
+    }
+}
@@ -0,0 +1,81 @@
+package com.manage.search;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 索引文档
+ *
+ * 构建时按字段权重累计词频，索引中只保留词频、状态和用于高亮的标题/正文
+ *
+ * @author System
+ * @version 1.0
+ */
+@Getter
+public class SearchDocument {
+
+    /**
+     * 高亮用正文的最大保存长度
+     */
+    private static final int MAX_STORED_BODY_LENGTH = 10000;
+
+    private final Long id;
+
+    /**
+     * 业务状态，查询时按状态过滤
+     */
+    private final Integer status;
+
+    /**
+     * 是否允许出现在公开搜索结果中
+     */
+    private final boolean visible;
+
+    private final String title;
+
+    private final String body;
+
+    /**
+     * 结果展示用图片（产品主图、内容封面、媒体缩略图）
+     */
+    private final String image;
+
+    /**
+     * 词项 -> 加权词频
+     */
+    private final Map<String, Float> termWeights = new HashMap<>();
+
+    /**
+     * 文档加权长度，用于BM25长度归一化
+     */
+    private float length;
+
+    public SearchDocument(Long id, Integer status, boolean visible, String title, String body, String image) {
+        this.id = id;
+        this.status = status;
+        this.visible = visible;
+        this.title = title;
+        this.body = body != null && body.length() > MAX_STORED_BODY_LENGTH
+                ? body.substring(0, MAX_STORED_BODY_LENGTH) : body;
+        this.image = image;
+    }
+
+    /**
+     * 添加一个可检索字段
+     *
+     * @param text  字段文本
+     * @param boost 字段权重
+     * @return 当前文档
+     */
+    public SearchDocument field(String text, float boost) {
+        List<String> terms = TextAnalyzer.analyze(text);
+        for (String term : terms) {
+            termWeights.merge(term, boost, Float::sum);
+        }
+        length += terms.size() * boost;
+        return this;
+    }
+}
@@ -0,0 +1,129 @@
+package com.manage.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 中英文分词器
+ *
+ * 文本先做NFKC规范化（全角转半角）并转小写，然后按字符类型切分：
+ * 英文字母和数字连续串作为一个词；中日韩文字连续串同时产生单字和相邻二元组，
+ * 这样不依赖词典也能命中任意长度的中文关键词
+ *
+ * @author System
+ * @version 1.0
+ */
+public final class TextAnalyzer {
+
+    /**
+     * 单个英文词的最大长度，超长串（如Base64、哈希）不进入索引
+     */
+    private static final int MAX_WORD_LENGTH = 40;
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * 索引分词：返回文本中的全部词项（含重复，用于统计词频）
+     *
+     * @param text 原始文本
+     * @return 词项列表
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        for (String segment : segments(normalize(text))) {
+            if (isCjk(segment.codePointAt(0))) {
+                int[] codePoints = segment.codePoints().toArray();
+                for (int i = 0; i < codePoints.length; i++) {
+                    terms.add(new String(codePoints, i, 1));
+                    if (i + 1 < codePoints.length) {
+                        terms.add(new String(codePoints, i, 2));
+                    }
+                }
+            } else if (segment.length() <= MAX_WORD_LENGTH) {
+                terms.add(segment);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 查询分词：中文连续串只取二元组（单字时取单字），结果去重并保持顺序
+     *
+     * @param query 查询关键词
+     * @return 查询词项
+     */
+    public static List<String> analyzeQuery(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (query == null || query.isEmpty()) {
+            return new ArrayList<>(terms);
+        }
+        for (String segment : segments(normalize(query))) {
+            if (isCjk(segment.codePointAt(0))) {
+                int[] codePoints = segment.codePoints().toArray();
+                if (codePoints.length == 1) {
+                    terms.add(segment);
+                }
+                for (int i = 0; i + 1 < codePoints.length; i++) {
+                    terms.add(new String(codePoints, i, 2));
+                }
+            } else if (segment.length() <= MAX_WORD_LENGTH) {
+                terms.add(segment);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * 规范化文本：NFKC + 小写
+     */
+    static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 按字符类型切分为连续片段：中日韩片段、字母数字片段，其余字符作为分隔符丢弃
+     */
+    private static List<String> segments(String text) {
+        List<String> segments = new ArrayList<>();
+        int start = -1;
+        boolean startCjk = false;
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            boolean cjk = isCjk(codePoint);
+            boolean wordChar = cjk || Character.isLetterOrDigit(codePoint);
+            if (start >= 0 && (!wordChar || cjk != startCjk)) {
+                segments.add(text.substring(start, i));
+                start = -1;
+            }
+            if (wordChar && start < 0) {
+                start = i;
+                startCjk = cjk;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (start >= 0) {
+            segments.add(text.substring(start));
+        }
+        return segments;
+    }
+
+    /**
+     * 是否为中日韩文字
+     */
+    static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
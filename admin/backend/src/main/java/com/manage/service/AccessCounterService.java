@@ -0,0 +1,59 @@
+package com.manage.service;
+
+import java.util.Map;
+
+/**
+ * 访问计数服务接口
+ *
+ * 浏览、下载次数先在内存中累加，由定时任务按批次合并写回数据库，公开读取不再逐次产生UPDATE；
+ * 读取计数时加上尚未写回的增量，数值基本实时
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface AccessCounterService {
+
+    /**
+     * 记录一次富文本内容浏览
+     *
+     * @param contentId 内容ID
+     */
+    void recordContentView(Long contentId);
+
+    /**
+     * 记录一次媒体文件访问
+     *
+     * @param filePath 文件相对上传目录的路径
+     */
+    void recordMediaView(String filePath);
+
+    /**
+     * 记录一次媒体文件下载
+     *
+     * @param filePath 文件相对上传目录的路径
+     */
+    void recordMediaDownload(String filePath);
+
+    /**
+     * 获取富文本内容尚未写回数据库的浏览次数
+     *
+     * @param contentId 内容ID
+     * @return 待写回的增量
+     */
+    long getPendingContentViews(Long contentId);
+
+    /**
+     * 获取媒体文件尚未写回数据库的访问和下载次数
+     *
+     * @param filePath 文件相对上传目录的路径
+     * @return 待写回的增量：views、downloads
+     */
+    Map<String, Long> getPendingMediaCounts(String filePath);
+
+    /**
+     * 立即把内存中的增量写回数据库
+     *
+     * @return 更新的记录数
+     */
+    int flush();
+}
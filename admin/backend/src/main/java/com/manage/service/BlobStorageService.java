@@ -0,0 +1,88 @@
+package com.manage.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * 内容寻址去重存储服务接口
+ *
+ * 上传内容在写入时计算SHA-256，相同内容只在存储目录保存一份；上传目录下的文件路径是指向该内容的硬链接，
+ * 因此文件访问、断点续传等按路径读取文件的逻辑无需改变，复制和移动只需要创建或重命名链接
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface BlobStorageService {
+
+    /**
+     * 去重存储是否可用（存储目录与上传目录不在同一文件系统或不支持硬链接时不可用）
+     *
+     * @return 是否可用
+     */
+    boolean isEnabled();
+
+    /**
+     * 边读取边计算哈希写入内容，并在上传目录的指定路径创建指向该内容的链接（已存在则原子替换）
+     *
+     * @param inputStream  内容输入流
+     * @param relativePath 上传目录下的相对路径
+     * @return 内容哈希
+     * @throws IOException 写入失败
+     */
+    String store(InputStream inputStream, String relativePath) throws IOException;
+
+    /**
+     * 将本地临时文件（如分片组装结果）移入去重存储，并在指定路径创建链接
+     *
+     * @param source       临时文件，调用后不再存在
+     * @param relativePath 上传目录下的相对路径
+     * @return 内容哈希
+     * @throws IOException 写入失败
+     */
+    String store(Path source, String relativePath) throws IOException;
+
+    /**
+     * 为已有文件创建一个新路径，只创建链接不复制内容；历史文件会先被纳入去重存储
+     *
+     * @param sourceRelativePath 源文件相对路径
+     * @param targetRelativePath 目标文件相对路径
+     * @param knownHash          源文件已知的内容哈希（可为空）
+     * @return 内容哈希
+     * @throws IOException 链接失败
+     */
+    String link(String sourceRelativePath, String targetRelativePath, String knownHash) throws IOException;
+
+    /**
+     * 识别文件路径当前指向的内容
+     *
+     * @param relativePath 上传目录下的相对路径
+     * @param knownHash    已知的内容哈希（可为空，不匹配时会重新计算）
+     * @return 内容哈希，文件不存在或不在去重存储中时返回null
+     * @throws IOException 读取失败
+     */
+    String identify(String relativePath, String knownHash) throws IOException;
+
+    /**
+     * 获取上传目录下文件的内容哈希：按媒体记录查找（结果缓存），并确认该路径仍链接到此内容
+     *
+     * @param relativePath 上传目录下的相对路径
+     * @return 内容哈希，未启用去重存储或文件不在去重存储中时返回null
+     */
+    String getContentHash(String relativePath);
+
+    /**
+     * 释放一个引用，引用计数归零时删除内容
+     *
+     * @param hash 内容哈希
+     */
+    void release(String hash);
+
+    /**
+     * 获取去重存储统计信息
+     *
+     * @return 内容块数量、实际占用、去重节省的空间等
+     */
+    Map<String, Object> getStatistics();
+}
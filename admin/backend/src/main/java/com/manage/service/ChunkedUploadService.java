@@ -0,0 +1,89 @@
+package com.manage.service;
+
+import com.manage.entity.MediaFile;
+import com.manage.entity.UploadSession;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * 分片上传会话服务接口
+ *
+ * 负责会话生命周期、分片落盘和过期清理，不关心文件最终存放位置和业务记录
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface ChunkedUploadService {
+
+    /**
+     * 创建上传会话并预分配临时文件
+     *
+     * @param originalName 原始文件名
+     * @param storageName  目标存储文件名
+     * @param category     文件分类
+     * @param mimeType     MIME类型
+     * @param fileSize     文件总大小
+     * @param chunkSize    分片大小（为空时使用默认值）
+     * @param uploadedBy   上传者ID
+     * @return 上传会话
+     */
+    UploadSession createSession(String originalName, String storageName, String category,
+                                String mimeType, long fileSize, Integer chunkSize, Long uploadedBy);
+
+    /**
+     * 写入一个分片，按分片序号定位写入临时文件，重复上传同一分片会覆盖
+     *
+     * @param uploadId   上传ID
+     * @param partNumber 分片序号（从1开始）
+     * @param inputStream 分片数据
+     * @return 更新后的上传会话
+     */
+    UploadSession writePart(String uploadId, int partNumber, InputStream inputStream);
+
+    /**
+     * 获取上传会话
+     *
+     * @param uploadId 上传ID
+     * @return 上传会话
+     */
+    UploadSession getSession(String uploadId);
+
+    /**
+     * 获取尚未上传的分片序号
+     *
+     * @param session 上传会话
+     * @return 缺失分片序号列表
+     */
+    List<Integer> getMissingParts(UploadSession session);
+
+    /**
+     * 完成上传会话
+     *
+     * 校验所有分片已到齐后，将组装好的临时文件交给回调处理（移动到正式目录并写入媒体记录），
+     * 同一会话的并发完成请求只会执行一次回调；回调失败时须保留临时文件，会话仍处于上传中，可以重试
+     *
+     * @param uploadId 上传ID
+     * @param parts    客户端确认的分片序号列表（可为空）
+     * @param handler  完成回调，参数为会话和组装好的临时文件
+     * @return 更新后的上传会话
+     */
+    UploadSession completeSession(String uploadId, List<String> parts,
+                                  BiFunction<UploadSession, Path, MediaFile> handler);
+
+    /**
+     * 取消上传会话并删除临时文件
+     *
+     * @param uploadId 上传ID
+     */
+    void abortSession(String uploadId);
+
+    /**
+     * 清理过期的上传会话
+     *
+     * @return 清理数量
+     */
+    int cleanExpiredSessions();
+}
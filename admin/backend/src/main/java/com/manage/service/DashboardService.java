@@ -0,0 +1,26 @@
+package com.manage.service;
+
+import java.util.Map;
+
+/**
+ * 仪表盘统计服务接口
+ *
+ * 统计结果全部由聚合查询得出并缓存为快照，媒体文件或产品变更后快照失效，下次读取时重新计算
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface DashboardService {
+
+    /**
+     * 获取仪表盘统计快照
+     *
+     * @return 图片、视频、产品数量，各分类存储占用，每日上传数量等
+     */
+    Map<String, Object> getStatistics();
+
+    /**
+     * 标记快照过期
+     */
+    void invalidate();
+}
@@ -3,6 +3,7 @@ package com.manage.service;
 import com.manage.entity.MediaFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -131,6 +132,38 @@ public interface FileUploadService {
      */
     String initiateMultipartUpload(String fileName, String category, long fileSize);
 
+    /**
+     * 初始化分片上传（完整参数）
+     *
+     * @param fileName  原始文件名
+     * @param category  文件分类
+     * @param fileSize  文件大小
+     * @param mimeType  MIME类型（可选）
+     * @param chunkSize 分片大小（可选，为空时使用默认值）
+     * @param userId    上传者ID
+     * @return 上传会话信息（uploadId、chunkSize、totalParts等）
+     */
+    Map<String, Object> initiateMultipartUpload(String fileName, String category, long fileSize,
+                                                String mimeType, Integer chunkSize, Long userId);
+
+    /**
+     * 上传单个分片
+     *
+     * @param uploadId    上传ID
+     * @param partNumber  分片序号（从1开始）
+     * @param inputStream 分片数据流
+     * @return 上传会话进度
+     */
+    Map<String, Object> uploadPart(String uploadId, int partNumber, InputStream inputStream);
+
+    /**
+     * 查询分片上传进度（用于断点续传）
+     *
+     * @param uploadId 上传ID
+     * @return 上传会话进度，包含已上传和缺失的分片序号
+     */
+    Map<String, Object> getMultipartUploadStatus(String uploadId);
+
     /**
      * 完成分片上传
      *
@@ -140,6 +173,13 @@ public interface FileUploadService {
      */
     String completeMultipartUpload(String uploadId, List<String> parts);
 
+    /**
+     * 取消分片上传
+     *
+     * @param uploadId 上传ID
+     */
+    void abortMultipartUpload(String uploadId);
+
     /**
      * 复制文件
      *
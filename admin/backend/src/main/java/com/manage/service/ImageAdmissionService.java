@@ -0,0 +1,68 @@
+package com.manage.service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 图片处理准入控制服务接口
+ *
+ * 按解码后位图的预估内存占用发放许可，所有许可之和不超过内存预算；
+ * 请求线程上的图片处理交给专用的有界线程池执行，排队超时或队列已满时抛出
+ * {@link com.manage.exception.ServiceBusyException}，由调用方返回503
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface ImageAdmissionService {
+
+    /**
+     * 内存许可，处理结束后必须关闭
+     */
+    interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * 在当前线程获取内存许可，超过排队时间仍无法获得时抛出服务繁忙异常（用于后台线程池）
+     *
+     * @param estimatedBytes 预估占用内存(字节)
+     * @return 内存许可
+     */
+    Permit acquire(long estimatedBytes);
+
+    /**
+     * 在专用线程池中获取内存许可并执行任务，当前线程等待结果（用于请求线程）
+     *
+     * @param estimatedBytes 预估占用内存(字节)
+     * @param task           图片处理任务
+     * @param <T>            结果类型
+     * @return 任务结果
+     * @throws IOException 任务执行失败或超时
+     */
+    <T> T execute(long estimatedBytes, Callable<T> task) throws IOException;
+
+    /**
+     * 记录解码耗时
+     *
+     * @param format 原图格式
+     * @param nanos  耗时(纳秒)
+     */
+    void recordDecode(String format, long nanos);
+
+    /**
+     * 记录编码耗时
+     *
+     * @param format 输出格式
+     * @param nanos  耗时(纳秒)
+     */
+    void recordEncode(String format, long nanos);
+
+    /**
+     * 获取准入状态：内存预算、已占用、排队数等
+     *
+     * @return 状态信息
+     */
+    Map<String, Object> getStatus();
+}
@@ -0,0 +1,54 @@
+package com.manage.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * 图片派生图服务接口
+ *
+ * 按请求的宽度、格式和质量生成缩放/转码后的图片，结果按内容寻址缓存在磁盘上，
+ * 缓存总大小有上限，超出时按最近最少使用淘汰
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface ImageDerivativeService {
+
+    /**
+     * 是否支持为该文件生成派生图
+     *
+     * @param source 原图路径
+     * @return 是否支持
+     */
+    boolean supports(Path source);
+
+    /**
+     * 当前运行环境能否输出该格式（WebP依赖编码器插件）
+     *
+     * @param format 输出格式
+     * @return 是否支持
+     */
+    boolean supportsOutputFormat(String format);
+
+    /**
+     * 获取派生图，缓存未命中时生成；同一派生图的并发请求只会生成一次
+     *
+     * @param source       原图路径
+     * @param relativePath 原图相对上传目录的路径（参与缓存键计算）
+     * @param width        目标宽度（为空时保持原宽，不会放大）
+     * @param format       目标格式：jpg、png、webp，为空时保持原格式
+     * @param quality      输出质量（1-100，为空时在默认质量以下按大小预算自动选择）
+     * @return 派生图文件路径
+     * @throws IOException 原图无法读取或生成失败
+     * @throws com.manage.exception.ServiceBusyException 图片处理已饱和
+     */
+    Path getDerivative(Path source, String relativePath, Integer width, String format, Integer quality) throws IOException;
+
+    /**
+     * 获取派生图缓存统计信息
+     *
+     * @return 文件数、总大小、命中次数等
+     */
+    Map<String, Object> getCacheStatistics();
+}
@@ -0,0 +1,50 @@
+package com.manage.service;
+
+import java.util.Map;
+
+/**
+ * 图片后台处理服务接口
+ *
+ * 上传请求只负责保存原图和写入媒体记录，压缩主图、缩略图和响应式变体由有界线程池在后台生成，
+ * 完成后更新媒体记录并通过WebSocket通知
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface ImageProcessingService {
+
+    /**
+     * 提交图片处理任务
+     *
+     * 队列已满时任务不会被丢弃，记录保持排队状态，由补偿任务在队列空闲后重新提交
+     *
+     * @param mediaFileId 媒体文件ID
+     * @return 是否已进入处理队列
+     */
+    boolean submit(Long mediaFileId);
+
+    /**
+     * 获取图片处理状态
+     *
+     * @param mediaFileId 媒体文件ID
+     * @return 处理状态、缩略图、变体等信息
+     */
+    Map<String, Object> getProcessingStatus(Long mediaFileId);
+
+    /**
+     * 重新提交积压或中断的处理任务
+     *
+     * @return 提交数量
+     */
+    int resubmitPending();
+
+    /**
+     * 判断文件是否还在等待后台处理（排队或处理中）
+     *
+     * 处理完成后压缩主图会替换同一路径下的原图，处理完成前输出的原图不能被长期缓存
+     *
+     * @param storagePath 存储路径（相对上传目录）
+     * @return 是否尚未处理完成
+     */
+    boolean isProcessing(String storagePath);
+}
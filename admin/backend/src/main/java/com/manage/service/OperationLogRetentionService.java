@@ -0,0 +1,38 @@
+package com.manage.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 操作日志保留服务接口
+ *
+ * 按类型、模块或默认保留天数清理过期操作日志。清理按主键分块进行，块之间暂停，
+ * 避免长时间持有锁；开启归档时先把日志写入gzip压缩的NDJSON文件再删除
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface OperationLogRetentionService {
+
+    /**
+     * 按保留策略清理过期日志
+     *
+     * @return 清理结果（删除数、归档数、归档文件、各规则删除数、耗时）
+     */
+    Map<String, Object> purgeExpired();
+
+    /**
+     * 清理指定时间之前的全部日志（不区分模块和类型）
+     *
+     * @param beforeTime 清理此时间之前的日志
+     * @return 删除的记录数
+     */
+    int purgeBefore(LocalDateTime beforeTime);
+
+    /**
+     * 获取保留策略和最近一次清理结果
+     *
+     * @return 策略配置与运行状态
+     */
+    Map<String, Object> getStatus();
+}
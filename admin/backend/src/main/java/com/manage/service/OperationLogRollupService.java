@@ -0,0 +1,56 @@
+package com.manage.service;
+
+import com.manage.entity.OperationLog;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 操作日志统计汇总服务接口
+ *
+ * 维护按小时、按天和全量粒度的日志数量汇总，统计查询只读汇总表，耗时与日志总量无关
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface OperationLogRollupService {
+
+    /**
+     * 累加已写入数据库的日志；失败时只记录告警，由下次整理时重建
+     *
+     * @param logs 已写入的操作日志
+     */
+    void record(List<OperationLog> logs);
+
+    /**
+     * 扣减即将删除的日志，须在删除前调用
+     *
+     * @param logIds 日志ID列表
+     */
+    void subtract(List<Long> logIds);
+
+    /**
+     * 执行一次日志表变更（写入或删除）及对应的汇总累加/扣减，期间不会与全量重建交错，
+     * 避免重建把已写入但尚未累加的日志重复计入
+     *
+     * @param change 日志表变更及汇总更新
+     * @param <T>    返回值类型
+     * @return 变更的返回值
+     */
+    <T> T applyChange(Supplier<T> change);
+
+    /**
+     * 获取操作统计信息
+     *
+     * @return 各类型、模块数量，最近7天、30天数量及每日趋势
+     */
+    Map<String, Object> getStatistics();
+
+    /**
+     * 从操作日志表全量重建汇总
+     *
+     * @return 重建的汇总行数
+     */
+    int rebuild();
+}
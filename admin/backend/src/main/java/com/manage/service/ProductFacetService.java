@@ -0,0 +1,87 @@
+package com.manage.service;
+
+import com.manage.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 产品分面筛选服务接口
+ *
+ * 上架产品的分类、标签、材质、面料类型和价格区间保存在内存位图索引中，一次查询同时返回
+ * 筛选结果和每个筛选项的可选数量，不需要逐个分面执行GROUP BY；索引随产品变更事件增量更新，
+ * 并定期全量重建兜底
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface ProductFacetService {
+
+    String CATEGORY = "category";
+    String TAG = "tag";
+    String MATERIAL = "material";
+    String FABRIC_TYPE = "fabricType";
+    String PRICE = "price";
+
+    /**
+     * 支持的分面（返回结果按此顺序排列）
+     */
+    List<String> FACETS = Collections.unmodifiableList(Arrays.asList(CATEGORY, TAG, MATERIAL, FABRIC_TYPE, PRICE));
+
+    /**
+     * 索引是否已完成首次构建
+     *
+     * @return 是否就绪
+     */
+    boolean isReady();
+
+    /**
+     * 分面筛选上架产品
+     *
+     * @param filters  分面 -> 已选值，同一分面内任一值匹配即可，不同分面需同时满足；未知分面被忽略
+     * @param pageable 分页参数（排序字段被忽略，始终按ID倒序即最新在前）
+     * @return 当前页产品和各分面取值的数量
+     */
+    FacetResult browse(Map<String, List<String>> filters, Pageable pageable);
+
+    /**
+     * 全量重建索引
+     */
+    void rebuildIndex();
+
+    /**
+     * 获取索引统计信息
+     *
+     * @return 文档数、分面值数量等
+     */
+    Map<String, Object> getIndexStatistics();
+
+    /**
+     * 分面筛选结果
+     */
+    final class FacetResult {
+
+        private final Page<Product> products;
+        private final Map<String, Map<String, Integer>> facets;
+
+        public FacetResult(Page<Product> products, Map<String, Map<String, Integer>> facets) {
+            this.products = products;
+            this.facets = facets;
+        }
+
+        public Page<Product> getProducts() {
+            return products;
+        }
+
+        /**
+         * 分面 -> 取值 -> 数量；价格区间按区间顺序排列，其余按数量降序
+         */
+        public Map<String, Map<String, Integer>> getFacets() {
+            return facets;
+        }
+    }
+}
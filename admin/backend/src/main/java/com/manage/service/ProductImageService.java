@@ -0,0 +1,119 @@
+package com.manage.service;
+
+import com.manage.entity.MediaFile;
+import com.manage.entity.Product;
+import com.manage.entity.ProductImage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 产品图片服务接口
+ *
+ * 产品图片存放在product_image表中，每张图片一行；增删和移动都只写受影响的行，
+ * 列表页按页批量查询图片URL，不再逐个产品解析JSON
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface ProductImageService {
+
+    /**
+     * 按展示顺序获取产品的全部图片
+     *
+     * @param productId 产品ID
+     * @return 图片列表
+     */
+    List<ProductImage> getImages(Long productId);
+
+    /**
+     * 批量获取多个产品的图片URL（一次查询）
+     *
+     * @param productIds 产品ID集合
+     * @return 产品ID -> 按展示顺序排列的图片URL，没有图片的产品不在结果中
+     */
+    Map<Long, List<String>> getImageUrls(Collection<Long> productIds);
+
+    /**
+     * 为产品实体填充图片URL（{@link Product#getImageUrls()}），整批只查询一次
+     *
+     * @param products 产品列表
+     */
+    void fillImageUrls(Collection<Product> products);
+
+    /**
+     * 追加图片到产品图片末尾
+     *
+     * @param productId 产品ID
+     * @param imageUrls 图片URL列表
+     * @return 新增的图片
+     */
+    List<ProductImage> addImages(Long productId, List<String> imageUrls);
+
+    /**
+     * 从产品中移除图片
+     *
+     * @param productId 产品ID
+     * @param imageUrl  图片URL
+     * @return 存在并已删除返回true
+     */
+    boolean removeImage(Long productId, String imageUrl);
+
+    /**
+     * 检查产品中是否包含指定图片
+     *
+     * @param productId 产品ID
+     * @param imageUrl  图片URL
+     * @return 包含返回true
+     */
+    boolean containsImage(Long productId, String imageUrl);
+
+    /**
+     * 把图片移动到指定位置；排序值有间隔时只改写这一行，间隔用尽时才重排整个产品
+     *
+     * @param productId 产品ID
+     * @param imageId   图片ID
+     * @param position  目标位置（从0开始，超出范围时移到末尾）
+     * @return 移动后按展示顺序排列的图片列表
+     */
+    List<ProductImage> moveImage(Long productId, Long imageId, int position);
+
+    /**
+     * 用给定URL列表替换产品图片：保留已有的行，只删除、新增或调整顺序发生变化的行
+     *
+     * @param productId 产品ID
+     * @param imageUrls 图片URL列表
+     */
+    void replaceImages(Long productId, List<String> imageUrls);
+
+    /**
+     * 删除产品的全部图片
+     *
+     * @param productId 产品ID
+     */
+    void deleteImages(Long productId);
+
+    /**
+     * 把媒体文件的尺寸、缩略图和宽度变体同步到引用它的产品图片
+     *
+     * @param mediaFile 媒体文件
+     * @return 引用该图片的产品ID
+     */
+    List<Long> syncMediaInfo(MediaFile mediaFile);
+
+    /**
+     * 把仍以JSON保存在product表中的旧版图片列表迁移到product_image表
+     *
+     * @return 迁移的产品数量
+     */
+    int migrateLegacyImages();
+
+    /**
+     * 解析旧版图片列表（支持JSON数组和逗号分隔两种格式），JSON格式错误时去掉括号和引号后按逗号分隔处理
+     *
+     * @param productImages 产品图片JSON字符串或逗号分隔字符串
+     * @return 图片URL列表
+     */
+    List<String> parseImageUrls(String productImages);
+}
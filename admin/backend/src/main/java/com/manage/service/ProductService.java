@@ -1,6 +1,8 @@
 package com.manage.service;
 
+import com.manage.common.CursorPage;
 import com.manage.dto.product.ProductImageUploadRequest;
+import com.manage.dto.product.ProductListType;
 import com.manage.dto.product.ProductQueryRequest;
 import com.manage.dto.product.ProductRequest;
 import com.manage.dto.product.ProductResponse;
@@ -62,6 +64,14 @@ public interface ProductService {
      */
     Page<ProductResponse> getProducts(ProductQueryRequest queryRequest);
 
+    /**
+     * 键集分页滚动查询产品列表，只支持按创建时间或排序值排序
+     *
+     * @param queryRequest 查询条件（cursor为上一页返回的游标，首页不传）
+     * @return 游标分页结果
+     */
+    CursorPage<ProductResponse> scrollProducts(ProductQueryRequest queryRequest);
+
     /**
      * 获取上架产品列表
      *
@@ -240,6 +250,17 @@ public interface ProductService {
      */
     ProductResponse setMainImage(Long productId, String imageUrl, Long userId);
 
+    /**
+     * 调整产品图片顺序
+     *
+     * @param productId  产品ID
+     * @param imageId    图片ID
+     * @param position   目标位置（从0开始）
+     * @param userId     操作用户ID
+     * @return 操作结果
+     */
+    ProductResponse moveProductImage(Long productId, Long imageId, int position, Long userId);
+
     /**
      * 检查产品编码是否存在
      *
@@ -374,6 +395,25 @@ public interface ProductService {
      */
     List<com.manage.dto.product.ProductResponse> getActiveFeaturedProducts();
 
+    /**
+     * 分页获取上架推荐列表（新品/主要产品/热门推荐），分页在数据库完成
+     *
+     * @param listType 列表类型
+     * @param pageable 分页参数
+     * @return 分页结果
+     */
+    Page<ProductResponse> getActiveProductsByListType(ProductListType listType, Pageable pageable);
+
+    /**
+     * 键集分页获取上架推荐列表，用于“加载更多”式深度滚动
+     *
+     * @param listType 列表类型
+     * @param cursor   上一页返回的游标，首页传null
+     * @param size     每页大小
+     * @return 游标分页结果
+     */
+    CursorPage<ProductResponse> scrollActiveProductsByListType(ProductListType listType, String cursor, int size);
+
     /**
      * 设置产品为主要产品
      *
@@ -0,0 +1,71 @@
+package com.manage.service;
+
+/**
+ * 公开首页启动数据服务接口
+ *
+ * 把首页渲染需要的公司信息、联系方式、Logo、核心团队、资质、背景、图标配置和推荐产品列表
+ * 预先组装成一个JSON文档，序列化和gzip压缩都在后台完成，请求时直接返回内存中的字节
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface PublicBootstrapService {
+
+    /**
+     * 获取当前文档；首次调用且尚未构建时同步构建
+     *
+     * @return 文档快照
+     */
+    Snapshot getSnapshot();
+
+    /**
+     * 标记文档过期并安排后台重建（短时间内的多次变更合并为一次重建）
+     */
+    void scheduleRebuild();
+
+    /**
+     * 启动数据文档快照（不可变）
+     */
+    final class Snapshot {
+
+        private final byte[] json;
+        private final byte[] gzipped;
+        private final String eTag;
+        private final long lastModified;
+
+        public Snapshot(byte[] json, byte[] gzipped, String eTag, long lastModified) {
+            this.json = json;
+            this.gzipped = gzipped;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * 未压缩的JSON（UTF-8）
+         */
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * gzip压缩后的JSON
+         */
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+
+        /**
+         * 按内容计算的强ETag（带引号），内容不变时重建不会改变ETag
+         */
+        public String getETag() {
+            return eTag;
+        }
+
+        /**
+         * 内容最后一次变化的时间（毫秒）
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.manage.service;
+
+import com.manage.event.ContentDomain;
+
+/**
+ * 公开接口响应体缓存接口
+ *
+ * 缓存最终写给客户端的UTF-8字节及其gzip压缩版本，命中时不再经过控制器、DTO转换和JSON序列化；
+ * 按字节数加权限制总内存，领域数据变更时由事件失效
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface ResponseBodyCache {
+
+    /**
+     * 获取缓存的响应体
+     *
+     * @param key 缓存键（请求路径和查询参数）
+     * @return 缓存条目，不存在时返回null
+     */
+    Entry get(String key);
+
+    /**
+     * 写入响应体，超过单条上限时忽略
+     *
+     * @param key   缓存键
+     * @param entry 缓存条目
+     */
+    void put(String key, Entry entry);
+
+    /**
+     * 失效某个领域下的全部条目
+     *
+     * @param domain 领域
+     */
+    void evict(ContentDomain domain);
+
+    /**
+     * 构建缓存条目，响应体足够大时同时生成gzip版本
+     *
+     * @param domain       所属领域
+     * @param contentType  响应类型
+     * @param body         未压缩的响应体
+     * @param eTag         生成时的领域ETag
+     * @param lastModified 生成时的领域最后修改时间
+     * @return 缓存条目
+     */
+    Entry createEntry(ContentDomain domain, String contentType, byte[] body, String eTag, long lastModified);
+
+    /**
+     * 缓存条目（不可变）
+     */
+    final class Entry {
+
+        private final ContentDomain domain;
+        private final String contentType;
+        private final byte[] body;
+        private final byte[] gzipped;
+        private final String eTag;
+        private final long lastModified;
+
+        public Entry(ContentDomain domain, String contentType, byte[] body, byte[] gzipped, String eTag, long lastModified) {
+            this.domain = domain;
+            this.contentType = contentType;
+            this.body = body;
+            this.gzipped = gzipped;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+        }
+
+        public ContentDomain getDomain() {
+            return domain;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * gzip压缩后的响应体，响应体太小不值得压缩时为null
+         */
+        public byte[] getGzipped() {
+            return gzipped;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * 条目占用的字节数（用于加权淘汰）
+         */
+        public int weight() {
+            return body.length + (gzipped != null ? gzipped.length : 0) + contentType.length() + eTag.length() + 64;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.manage.service;
+
+import com.manage.dto.search.SearchHighlight;
+import com.manage.dto.search.SearchHitResponse;
+import com.manage.event.ContentDomain;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 全文检索服务接口
+ *
+ * 基于内存倒排索引检索产品、富文本内容和媒体文件，索引随内容变更事件增量更新，
+ * 并定期全量重建兜底
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface SearchService {
+
+    /**
+     * 索引是否已完成首次构建，未就绪时调用方应回退到数据库查询
+     *
+     * @return 是否就绪
+     */
+    boolean isReady();
+
+    /**
+     * 按相关度检索指定领域，返回业务ID
+     *
+     * @param domain   领域（PRODUCT、CONTENT、MEDIA）
+     * @param keyword  关键词
+     * @param status   状态过滤，为空时不过滤
+     * @param pageable 分页参数（排序字段被忽略，始终按相关度排序）
+     * @return 按相关度排序的ID分页
+     */
+    Page<Long> searchIds(ContentDomain domain, String keyword, Integer status, Pageable pageable);
+
+    /**
+     * 全站公开搜索，只返回已上架/已发布/公开的内容
+     *
+     * @param keyword 关键词
+     * @param domains 检索的领域
+     * @param limit   最大返回条数
+     * @return 按相关度排序的结果（含高亮）
+     */
+    List<SearchHitResponse> search(String keyword, Set<ContentDomain> domains, int limit);
+
+    /**
+     * 生成单个文档的高亮信息
+     *
+     * @param domain  领域
+     * @param id      业务ID
+     * @param keyword 关键词
+     * @return 高亮信息，文档未被索引时返回null
+     */
+    SearchHighlight highlight(ContentDomain domain, Long id, String keyword);
+
+    /**
+     * 全量重建索引
+     */
+    void rebuildIndex();
+
+    /**
+     * 获取索引统计信息
+     *
+     * @return 各领域文档数、词项数等
+     */
+    Map<String, Object> getIndexStatistics();
+}
@@ -0,0 +1,49 @@
+package com.manage.service;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Map;
+
+/**
+ * 流式批量上传服务接口
+ *
+ * 直接从请求流逐个读取文件，读完一个就交给有界线程池校验、压缩、存储，同时继续读取下一个；
+ * 每个文件的进度通过STOMP推送到 /topic/upload/batch/{batchId}，单个文件失败不影响其他文件
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface StreamingUploadService {
+
+    /**
+     * 批量上传类型
+     */
+    enum Kind {
+        /**
+         * 图片（需指定分类）
+         */
+        IMAGE,
+        /**
+         * 视频（需指定分类）
+         */
+        VIDEO,
+        /**
+         * 产品图片（压缩并生成缩略图）
+         */
+        PRODUCT_IMAGE,
+        /**
+         * 富文本编辑器图片
+         */
+        EDITOR_IMAGE
+    }
+
+    /**
+     * 流式处理批量上传请求；请求体必须尚未被解析
+     *
+     * @param request  multipart/form-data 请求
+     * @param kind     上传类型
+     * @param category 文件分类（从URL查询串读取，请求体中的表单字段被忽略）
+     * @param batchId  批次ID，用于订阅进度，为空时自动生成
+     * @return 上传结果：batchId、success、errors、totalCount、successCount、errorCount
+     */
+    Map<String, Object> upload(HttpServletRequest request, Kind kind, String category, String batchId);
+}
@@ -0,0 +1,101 @@
+package com.manage.service;
+
+import com.manage.dto.tag.TagCountResponse;
+import com.manage.dto.tag.TagMergeRequest;
+import com.manage.dto.tag.TagRetagRequest;
+import com.manage.event.ContentDomain;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 标签服务接口
+ *
+ * 产品、富文本内容和媒体文件共用一套标签字典，标签关联表支持按标签精确、走索引地查找数据，
+ * 并提供标签云统计、重命名、合并和批量修改。数据自身的tags字段保留为规范化后的展示副本，
+ * 关联表在数据的写入事务内按该字段同步，并定期校对修复
+ *
+ * @author System
+ * @version 1.0
+ */
+public interface TagService {
+
+    /**
+     * 解析逗号分隔的标签（兼容中文逗号）：去除首尾空白、忽略空值、不区分大小写去重，超长的标签被截断
+     *
+     * @param tags 逗号分隔的标签
+     * @return 按原顺序排列的标签
+     */
+    List<String> parse(String tags);
+
+    /**
+     * 规范化标签并拼接为逗号分隔的字符串
+     *
+     * @param tags 标签集合
+     * @return 拼接结果，没有标签时返回null
+     */
+    String format(Collection<String> tags);
+
+    /**
+     * 按数据的tags字段同步标签关联，标签不变时不写库
+     *
+     * @param domain   领域
+     * @param entityId 数据ID
+     * @param tags     tags字段的值
+     */
+    void syncTags(ContentDomain domain, Long entityId, String tags);
+
+    /**
+     * 删除数据的全部标签关联
+     *
+     * @param domain   领域
+     * @param entityId 数据ID
+     */
+    void deleteTags(ContentDomain domain, Long entityId);
+
+    /**
+     * 标签云：按使用次数降序统计
+     *
+     * @param domain 领域，为空时统计全部领域
+     * @param limit  最大返回数量
+     * @return 标签及使用次数
+     */
+    List<TagCountResponse> getTagCloud(ContentDomain domain, int limit);
+
+    /**
+     * 批量修改一批数据的标签
+     *
+     * @param request 批量修改请求
+     * @return 实际发生变化的数据条数
+     */
+    int retag(TagRetagRequest request);
+
+    /**
+     * 重命名标签，新名称已被其他标签使用时合并到该标签
+     *
+     * @param id   标签ID
+     * @param name 新名称
+     */
+    void renameTag(Long id, String name);
+
+    /**
+     * 合并标签：带有被合并标签的数据改为带有目标标签，被合并的标签随后删除
+     *
+     * @param request 合并请求
+     */
+    void mergeTags(TagMergeRequest request);
+
+    /**
+     * 删除标签，并从所有数据中移除
+     *
+     * @param id 标签ID
+     */
+    void deleteTag(Long id);
+
+    /**
+     * 校对全部数据的tags字段与标签关联，修复不一致的数据并清除已删除数据的关联
+     *
+     * @return 修复的数据条数
+     */
+    int reconcileTags();
+}
@@ -0,0 +1,246 @@
+package com.manage.service.impl;
+
+import com.manage.service.AccessCounterService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 访问计数服务实现类
+ *
+ * 每个实体一个LongAdder，高并发访问同一篇文章时各线程写入不同的分段，互不阻塞；
+ * 写回时每个刷新周期每张表只执行一次JDBC批量UPDATE（按主键排序，避免与其他批量更新交叉加锁）。
+ * 写回失败的增量放回内存等待下次重试，应用关闭前会写回剩余增量。
+ * 无访问的条目移出内存后再保留一个刷新周期：请求线程可能在移除前取到计数器、移除后才累加，
+ * 下个周期把这些迟到的计数并回
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccessCounterServiceImpl implements AccessCounterService {
+
+    private static final String CONTENT_VIEW_SQL =
+            "UPDATE rich_content SET view_count = COALESCE(view_count, 0) + ? WHERE id = ?";
+
+    private static final String MEDIA_ACCESS_SQL = "UPDATE media_file SET view_count = COALESCE(view_count, 0) + ?, "
+            + "download_count = COALESCE(download_count, 0) + ?, last_access_time = ? WHERE file_path = ? AND status <> 3";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<Long, LongAdder> contentViews = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, MediaCounter> mediaCounters = new ConcurrentHashMap<>();
+
+    /**
+     * 上个周期移出的计数器，只在flush中访问
+     */
+    private Map<Long, LongAdder> retiredContentViews = new HashMap<>();
+    private Map<String, MediaCounter> retiredMediaCounters = new HashMap<>();
+
+    private Counter flushedRowsCounter;
+    private Counter flushFailureCounter;
+
+    @PostConstruct
+    public void init() {
+        flushedRowsCounter = meterRegistry.counter("access.counter.flushed.rows");
+        flushFailureCounter = meterRegistry.counter("access.counter.flush.failures");
+        Gauge.builder("access.counter.pending.keys", this, service -> service.pendingKeys())
+                .description("等待写回的计数条目数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void recordContentView(Long contentId) {
+        if (contentId == null) {
+            return;
+        }
+        LongAdder adder = contentViews.get(contentId);
+        if (adder == null) {
+            adder = contentViews.computeIfAbsent(contentId, key -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    @Override
+    public void recordMediaView(String filePath) {
+        MediaCounter counter = mediaCounter(filePath);
+        if (counter != null) {
+            counter.views.increment();
+            counter.lastAccessMillis = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public void recordMediaDownload(String filePath) {
+        MediaCounter counter = mediaCounter(filePath);
+        if (counter != null) {
+            counter.downloads.increment();
+            counter.lastAccessMillis = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public long getPendingContentViews(Long contentId) {
+        LongAdder adder = contentId == null ? null : contentViews.get(contentId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    @Override
+    public Map<String, Long> getPendingMediaCounts(String filePath) {
+        MediaCounter counter = filePath == null ? null : mediaCounters.get(filePath);
+        Map<String, Long> pending = new HashMap<>();
+        pending.put("views", counter == null ? 0L : counter.views.sum());
+        pending.put("downloads", counter == null ? 0L : counter.downloads.sum());
+        return pending;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${access-counter.flush-interval-ms:10000}", initialDelay = 10000)
+    public synchronized int flush() {
+        return flushContentViews() + flushMediaCounters();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        int rows = flush();
+        log.info("访问计数服务关闭，写回剩余计数：{}条", rows);
+    }
+
+    private int flushContentViews() {
+        // 并回上个周期移出后才累加到旧计数器上的浏览次数
+        for (Map.Entry<Long, LongAdder> entry : retiredContentViews.entrySet()) {
+            long late = entry.getValue().sumThenReset();
+            if (late > 0) {
+                contentViews.computeIfAbsent(entry.getKey(), key -> new LongAdder()).add(late);
+            }
+        }
+        retiredContentViews = new HashMap<>();
+
+        List<Object[]> batch = new ArrayList<>();
+        for (Long contentId : new TreeSet<>(contentViews.keySet())) {
+            LongAdder adder = contentViews.get(contentId);
+            if (adder == null) {
+                continue;
+            }
+            long delta = adder.sumThenReset();
+            if (delta > 0) {
+                batch.add(new Object[]{delta, contentId});
+            } else if (contentViews.remove(contentId, adder)) {
+                // 本周期无访问的条目移出内存，移除前已取到它的请求线程仍可能累加，下个周期再并回
+                retiredContentViews.put(contentId, adder);
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(CONTENT_VIEW_SQL, batch);
+            flushedRowsCounter.increment(batch.size());
+            log.debug("写回内容浏览次数：{}条", batch.size());
+            return batch.size();
+        } catch (Exception e) {
+            flushFailureCounter.increment();
+            log.error("写回内容浏览次数失败，增量保留到下次写回：{}", e.getMessage());
+            for (Object[] row : batch) {
+                contentViews.computeIfAbsent((Long) row[1], key -> new LongAdder()).add((Long) row[0]);
+            }
+            return 0;
+        }
+    }
+
+    private int flushMediaCounters() {
+        for (Map.Entry<String, MediaCounter> entry : retiredMediaCounters.entrySet()) {
+            MediaCounter retired = entry.getValue();
+            long lateViews = retired.views.sumThenReset();
+            long lateDownloads = retired.downloads.sumThenReset();
+            if (lateViews > 0 || lateDownloads > 0) {
+                restoreMedia(entry.getKey(), lateViews, lateDownloads, retired.lastAccessMillis);
+            }
+        }
+        retiredMediaCounters = new HashMap<>();
+
+        List<Object[]> batch = new ArrayList<>();
+        for (String filePath : new TreeSet<>(mediaCounters.keySet())) {
+            MediaCounter counter = mediaCounters.get(filePath);
+            if (counter == null) {
+                continue;
+            }
+            long views = counter.views.sumThenReset();
+            long downloads = counter.downloads.sumThenReset();
+            if (views > 0 || downloads > 0) {
+                batch.add(new Object[]{views, downloads, new Timestamp(counter.lastAccessMillis), filePath});
+            } else if (mediaCounters.remove(filePath, counter)) {
+                retiredMediaCounters.put(filePath, counter);
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(MEDIA_ACCESS_SQL, batch);
+            flushedRowsCounter.increment(batch.size());
+            log.debug("写回媒体文件访问次数：{}条", batch.size());
+            return batch.size();
+        } catch (Exception e) {
+            flushFailureCounter.increment();
+            log.error("写回媒体文件访问次数失败，增量保留到下次写回：{}", e.getMessage());
+            for (Object[] row : batch) {
+                restoreMedia((String) row[3], (Long) row[0], (Long) row[1], ((Timestamp) row[2]).getTime());
+            }
+            return 0;
+        }
+    }
+
+    private void restoreMedia(String filePath, long views, long downloads, long lastAccessMillis) {
+        MediaCounter counter = mediaCounters.computeIfAbsent(filePath, key -> new MediaCounter());
+        counter.views.add(views);
+        counter.downloads.add(downloads);
+        counter.lastAccessMillis = Math.max(counter.lastAccessMillis, lastAccessMillis);
+    }
+
+    private MediaCounter mediaCounter(String filePath) {
+        if (filePath == null || filePath.isEmpty()) {
+            return null;
+        }
+        MediaCounter counter = mediaCounters.get(filePath);
+        if (counter == null) {
+            counter = mediaCounters.computeIfAbsent(filePath, key -> new MediaCounter());
+        }
+        return counter;
+    }
+
+    private int pendingKeys() {
+        return contentViews.size() + mediaCounters.size();
+    }
+
+    /**
+     * 单个媒体文件的计数
+     */
+    private static final class MediaCounter {
+
+        private final LongAdder views = new LongAdder();
+        private final LongAdder downloads = new LongAdder();
+        private volatile long lastAccessMillis;
+    }
+}
@@ -0,0 +1,416 @@
+package com.manage.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.manage.entity.FileBlob;
+import com.manage.repository.FileBlobRepository;
+import com.manage.repository.MediaFileRepository;
+import com.manage.service.BlobStorageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 内容寻址去重存储服务实现类
+ *
+ * 内容保存在 {存储目录}/{哈希前两位}/{哈希}，上传目录下的文件路径是它的硬链接。
+ * 同一内容的入库、引用和释放由按哈希分段的锁串行化，避免引用计数归零删除时与新的引用交错
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BlobStorageServiceImpl implements BlobStorageService {
+
+    private static final int LOCK_STRIPES = 64;
+
+    @Value("${file.upload.path}")
+    private String uploadPath;
+
+    @Value("${file.blob.path:uploads-blobs}")
+    private String blobPath;
+
+    @Value("${file.blob.enabled:true}")
+    private boolean blobEnabled;
+
+    @Value("${file.blob.hash-cache-size:10000}")
+    private long hashCacheSize;
+
+    private final FileBlobRepository fileBlobRepository;
+    private final MediaFileRepository mediaFileRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    private Path uploadRoot;
+    private Path blobRoot;
+    private Path tempDir;
+    private volatile boolean enabled;
+
+    /**
+     * 文件路径 -> 媒体记录中的内容哈希，使用前会确认路径仍链接到该内容
+     */
+    private Cache<String, Optional<String>> contentHashes;
+
+    private Counter newBlobCounter;
+    private Counter dedupCounter;
+    private Counter dedupBytesCounter;
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        newBlobCounter = meterRegistry.counter("file.blob.ingest", "result", "new");
+        dedupCounter = meterRegistry.counter("file.blob.ingest", "result", "dedup");
+        dedupBytesCounter = meterRegistry.counter("file.blob.dedup.bytes");
+        contentHashes = Caffeine.newBuilder()
+                .maximumSize(hashCacheSize)
+                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .build();
+
+        uploadRoot = Paths.get(uploadPath).toAbsolutePath().normalize();
+        blobRoot = Paths.get(blobPath).toAbsolutePath().normalize();
+        tempDir = blobRoot.resolve("tmp");
+        if (!blobEnabled) {
+            log.info("去重存储已关闭，上传文件按路径单独保存");
+            return;
+        }
+
+        try {
+            Files.createDirectories(uploadRoot);
+            Files.createDirectories(tempDir);
+            try (Stream<Path> stream = Files.list(tempDir)) {
+                stream.forEach(this::deleteQuietly);
+            }
+            enabled = probeHardLink();
+        } catch (IOException e) {
+            log.warn("初始化去重存储目录失败，上传文件按路径单独保存：{}", e.getMessage());
+            enabled = false;
+        }
+        if (enabled) {
+            log.info("去重存储已启用，存储目录：{}", blobRoot);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public String store(InputStream inputStream, String relativePath) throws IOException {
+        Path temp = Files.createTempFile(tempDir, "blob-", ".tmp");
+        try {
+            MessageDigest digest = newDigest();
+            try (DigestInputStream digestStream = new DigestInputStream(inputStream, digest)) {
+                Files.copy(digestStream, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String hash = toHex(digest.digest());
+            addReference(hash, temp, resolveUploadPath(relativePath));
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public String store(Path source, String relativePath) throws IOException {
+        String hash = hashFile(source);
+        try {
+            addReference(hash, source, resolveUploadPath(relativePath));
+            return hash;
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    @Override
+    public String link(String sourceRelativePath, String targetRelativePath, String knownHash) throws IOException {
+        Path source = resolveUploadPath(sourceRelativePath);
+        Path target = resolveUploadPath(targetRelativePath);
+
+        String hash = identify(sourceRelativePath, knownHash);
+        if (hash == null) {
+            // 历史文件：以源文件本身作为内容（或替换为已有内容的链接），源路径计一个引用
+            hash = hashFile(source);
+            synchronized (lockFor(hash)) {
+                Path blob = blobFile(hash);
+                if (Files.exists(blob)) {
+                    linkInto(blob, source);
+                } else {
+                    Files.createDirectories(blob.getParent());
+                    Files.createLink(blob, source);
+                }
+                ensureRecord(hash, Files.size(blob));
+                fileBlobRepository.incrementRefCount(hash);
+            }
+            log.info("历史文件已纳入去重存储：{}，哈希：{}", sourceRelativePath, hash);
+        }
+
+        synchronized (lockFor(hash)) {
+            Path blob = blobFile(hash);
+            linkInto(blob, target);
+            fileBlobRepository.incrementRefCount(hash);
+        }
+        return hash;
+    }
+
+    @Override
+    public String identify(String relativePath, String knownHash) throws IOException {
+        if (!enabled) {
+            return null;
+        }
+        Path path = resolveUploadPath(relativePath);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        if (knownHash != null && isLinkedTo(path, knownHash)) {
+            return knownHash;
+        }
+
+        // 只有一个链接的文件不可能在去重存储中，省去计算哈希
+        try {
+            Object linkCount = Files.getAttribute(path, "unix:nlink");
+            if (linkCount instanceof Integer && (Integer) linkCount <= 1) {
+                return null;
+            }
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            // 非Unix文件系统无法读取链接数，直接计算哈希
+        }
+
+        String hash = hashFile(path);
+        return isLinkedTo(path, hash) ? hash : null;
+    }
+
+    @Override
+    public String getContentHash(String relativePath) {
+        if (!enabled) {
+            return null;
+        }
+        String hash = contentHashes.get(relativePath,
+                path -> mediaFileRepository.findBlobHashesByFilePath(path).stream().findFirst()).orElse(null);
+        if (hash == null) {
+            return null;
+        }
+        try {
+            if (isLinkedTo(resolveUploadPath(relativePath), hash)) {
+                return hash;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("检查文件内容哈希失败：{}，原因：{}", relativePath, e.getMessage());
+        }
+        // 路径已被替换或删除，下次重新查询
+        contentHashes.invalidate(relativePath);
+        return null;
+    }
+
+    @Override
+    public void release(String hash) {
+        if (hash == null) {
+            return;
+        }
+        synchronized (lockFor(hash)) {
+            fileBlobRepository.decrementRefCount(hash);
+            if (fileBlobRepository.deleteIfUnreferenced(hash) > 0) {
+                deleteQuietly(blobFile(hash));
+                log.info("内容已无引用，删除：{}", hash);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("blobPath", blobRoot.toString());
+
+        List<Object[]> rows = fileBlobRepository.summarize();
+        Object[] summary = rows.isEmpty() ? new Object[]{0L, 0L, 0L} : rows.get(0);
+        long storedBytes = ((Number) summary[1]).longValue();
+        long logicalBytes = ((Number) summary[2]).longValue();
+        statistics.put("blobCount", ((Number) summary[0]).longValue());
+        statistics.put("storedBytes", storedBytes);
+        statistics.put("logicalBytes", logicalBytes);
+        statistics.put("savedBytes", Math.max(0, logicalBytes - storedBytes));
+        return statistics;
+    }
+
+    /**
+     * 将内容入库（已存在则丢弃新副本）并在目标路径创建链接，引用计数加一
+     */
+    private void addReference(String hash, Path content, Path target) throws IOException {
+        synchronized (lockFor(hash)) {
+            Path blob = blobFile(hash);
+            long size = Files.size(content);
+            boolean created = false;
+            if (!Files.exists(blob)) {
+                Files.createDirectories(blob.getParent());
+                try {
+                    moveAtomically(content, blob, false);
+                    created = true;
+                } catch (FileAlreadyExistsException e) {
+                    // 上次中断遗留的同内容文件，直接复用
+                }
+            }
+            ensureRecord(hash, size);
+            linkInto(blob, target);
+            fileBlobRepository.incrementRefCount(hash);
+
+            if (created) {
+                newBlobCounter.increment();
+            } else {
+                dedupCounter.increment();
+                dedupBytesCounter.increment(size);
+                log.info("上传内容已存在，复用已有内容：{}，大小：{}", hash, size);
+            }
+        }
+    }
+
+    private void ensureRecord(String hash, long size) {
+        if (fileBlobRepository.existsById(hash)) {
+            return;
+        }
+        FileBlob fileBlob = new FileBlob();
+        fileBlob.setHash(hash);
+        fileBlob.setFileSize(size);
+        fileBlob.setRefCount(0);
+        try {
+            fileBlobRepository.save(fileBlob);
+        } catch (DataIntegrityViolationException e) {
+            // 并发插入，记录已存在
+        }
+    }
+
+    /**
+     * 先在同目录创建临时链接再原子重命名，目标路径已存在时读者不会看到文件缺失
+     */
+    private void linkInto(Path blob, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(".link-" + UUID.randomUUID().toString().replace("-", "") + ".tmp");
+        try {
+            Files.createLink(temp, blob);
+            moveAtomically(temp, target, true);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void moveAtomically(Path source, Path target, boolean replace) throws IOException {
+        try {
+            if (replace) {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (AtomicMoveNotSupportedException e) {
+            if (replace) {
+                Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.move(source, target);
+            }
+        }
+    }
+
+    private boolean isLinkedTo(Path path, String hash) throws IOException {
+        Path blob = blobFile(hash);
+        return Files.exists(blob) && Files.isSameFile(path, blob);
+    }
+
+    /**
+     * 启动时检查存储目录能否与上传目录建立硬链接（需在同一文件系统）
+     */
+    private boolean probeHardLink() {
+        Path probe = tempDir.resolve("probe-" + UUID.randomUUID() + ".tmp");
+        Path link = uploadRoot.resolve(".blob-probe-" + UUID.randomUUID() + ".tmp");
+        try {
+            Files.createFile(probe);
+            Files.createLink(link, probe);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("存储目录{}无法与上传目录{}建立硬链接，去重存储不可用：{}", blobRoot, uploadRoot, e.getMessage());
+            return false;
+        } finally {
+            deleteQuietly(link);
+            deleteQuietly(probe);
+        }
+    }
+
+    private Path resolveUploadPath(String relativePath) {
+        Path path = uploadRoot.resolve(relativePath).normalize();
+        if (!path.startsWith(uploadRoot)) {
+            throw new IllegalArgumentException("文件路径超出上传目录：" + relativePath);
+        }
+        return path;
+    }
+
+    private Path blobFile(String hash) {
+        return blobRoot.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private String hashFile(Path file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JVM不支持SHA-256", e);
+        }
+    }
+
+    private String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除文件失败：{}，错误：{}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package com.manage.service.impl;
+
+import com.manage.common.ResultCode;
+import com.manage.entity.MediaFile;
+import com.manage.entity.UploadSession;
+import com.manage.exception.BusinessException;
+import com.manage.repository.UploadSessionRepository;
+import com.manage.service.ChunkedUploadService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * 分片上传会话服务实现类（基于本地磁盘）
+ *
+ * 每个会话对应一个预分配大小的临时文件，分片按 (partNumber - 1) * chunkSize 的偏移直接写入，
+ * 完成时无需再拼接；已接收分片位图持久化在数据库中，客户端断线或服务重启后可查询缺失分片继续上传
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+
+    /**
+     * 最小分片大小（256KB），只有一个分片时不受此限制
+     */
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+
+    /**
+     * 最大分片大小（32MB）
+     */
+    private static final int MAX_CHUNK_SIZE = 32 * 1024 * 1024;
+
+    /**
+     * 已结束会话记录保留天数
+     */
+    private static final int FINISHED_SESSION_RETENTION_DAYS = 7;
+
+    private static final String PART_FILE_SUFFIX = ".part";
+
+    private static final int LOCK_STRIPES = 64;
+
+    @Value("${file.multipart.temp-path:uploads-tmp}")
+    private String tempPath;
+
+    @Value("${file.multipart.chunk-size:5242880}")
+    private int defaultChunkSize;
+
+    @Value("${file.multipart.max-file-size:1073741824}")
+    private long maxFileSize;
+
+    @Value("${file.multipart.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    private final UploadSessionRepository uploadSessionRepository;
+
+    /**
+     * 按上传ID分段的锁，保证同一会话的位图更新和完成操作串行执行
+     */
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    /**
+     * 各会话正在直接按偏移写入的分片序号，只在持有会话锁时读写
+     */
+    private final ConcurrentHashMap<String, Set<Integer>> writingParts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public UploadSession createSession(String originalName, String storageName, String category,
+                                       String mimeType, long fileSize, Integer chunkSize, Long uploadedBy) {
+        if (fileSize <= 0) {
+            throw new BusinessException(ResultCode.VALIDATE_FAILED, "文件大小必须大于0");
+        }
+        if (fileSize > maxFileSize) {
+            throw new BusinessException(ResultCode.VALIDATE_FAILED,
+                    "文件大小超过限制，最大允许 " + (maxFileSize / 1024 / 1024) + "MB");
+        }
+
+        int effectiveChunkSize = resolveChunkSize(chunkSize, fileSize);
+        long totalParts = (fileSize + effectiveChunkSize - 1) / effectiveChunkSize;
+        if (totalParts > Integer.MAX_VALUE) {
+            throw new BusinessException(ResultCode.VALIDATE_FAILED, "分片数量过多，请增大分片大小");
+        }
+
+        String uploadId = UUID.randomUUID().toString().replace("-", "");
+        Path partFile = getPartFile(uploadId);
+        try {
+            Files.createDirectories(partFile.getParent());
+            // 预分配文件长度，后续分片可以乱序、并发地按偏移写入
+            try (RandomAccessFile raf = new RandomAccessFile(partFile.toFile(), "rw")) {
+                raf.setLength(fileSize);
+            }
+        } catch (IOException e) {
+            log.error("创建分片临时文件失败：{}", e.getMessage(), e);
+            throw new BusinessException("创建分片临时文件失败：" + e.getMessage(), e);
+        }
+
+        char[] bitmap = new char[(int) totalParts];
+        Arrays.fill(bitmap, '0');
+
+        UploadSession session = new UploadSession();
+        session.setUploadId(uploadId);
+        session.setOriginalName(originalName);
+        session.setStorageName(storageName);
+        session.setCategory(category);
+        session.setMimeType(mimeType);
+        session.setFileSize(fileSize);
+        session.setChunkSize(effectiveChunkSize);
+        session.setTotalParts((int) totalParts);
+        session.setReceivedParts(new String(bitmap));
+        session.setStatus(UploadSession.STATUS_UPLOADING);
+        session.setUploadedBy(uploadedBy);
+        session.setExpireTime(LocalDateTime.now().plusHours(sessionTtlHours));
+
+        UploadSession saved = uploadSessionRepository.save(session);
+        log.info("创建分片上传会话：{}，文件：{}，大小：{}，分片大小：{}，分片数：{}",
+                uploadId, originalName, fileSize, effectiveChunkSize, totalParts);
+        return saved;
+    }
+
+    @Override
+    public UploadSession writePart(String uploadId, int partNumber, InputStream inputStream) {
+        UploadSession session = getActiveSession(uploadId);
+        if (partNumber < 1 || partNumber > session.getTotalParts()) {
+            throw new BusinessException(ResultCode.VALIDATE_FAILED,
+                    "分片序号无效，有效范围 1-" + session.getTotalParts());
+        }
+
+        long offset = (long) (partNumber - 1) * session.getChunkSize();
+        long expectedSize = Math.min(session.getChunkSize(), session.getFileSize() - offset);
+        Path partFile = getPartFile(uploadId);
+        if (!Files.exists(partFile)) {
+            throw new BusinessException(ResultCode.NOT_FOUND, "分片临时文件不存在，请重新发起上传");
+        }
+
+        // 首次上传的分片直接按偏移写入，不同分片位置互不重叠，不需要持锁写入；
+        // 已接收或正在写入的分片（客户端重试）先写到单独的临时文件，持锁重新校验会话状态后再覆盖，
+        // 避免重试与完成操作并发时写坏已拼好的文件，或写到一半失败破坏已接收的分片
+        boolean direct;
+        synchronized (lockFor(uploadId)) {
+            direct = !getActiveSession(uploadId).isPartReceived(partNumber)
+                    && writingParts.computeIfAbsent(uploadId, key -> new HashSet<>()).add(partNumber);
+        }
+
+        if (direct) {
+            try {
+                writeRange(partFile, offset, expectedSize, inputStream, uploadId, partNumber);
+                synchronized (lockFor(uploadId)) {
+                    return markReceived(getActiveSession(uploadId), partNumber);
+                }
+            } finally {
+                synchronized (lockFor(uploadId)) {
+                    Set<Integer> writing = writingParts.get(uploadId);
+                    if (writing != null && writing.remove(partNumber) && writing.isEmpty()) {
+                        writingParts.remove(uploadId);
+                    }
+                }
+            }
+        }
+
+        Path staged = null;
+        try {
+            staged = Files.createTempFile(partFile.getParent(), uploadId + "-" + partNumber + "-", ".tmp");
+            writeRange(staged, 0, expectedSize, inputStream, uploadId, partNumber);
+            synchronized (lockFor(uploadId)) {
+                UploadSession current = getActiveSession(uploadId);
+                try (FileChannel source = FileChannel.open(staged, StandardOpenOption.READ);
+                     FileChannel target = FileChannel.open(partFile, StandardOpenOption.WRITE)) {
+                    long copied = 0;
+                    while (copied < expectedSize) {
+                        long transferred = source.transferTo(copied, expectedSize - copied, target.position(offset + copied));
+                        if (transferred <= 0) {
+                            throw new IOException("分片覆盖写入中断");
+                        }
+                        copied += transferred;
+                    }
+                    target.force(false);
+                } catch (IOException e) {
+                    // 覆盖失败时该分片内容不再可信，标记为未接收，让客户端重新上传
+                    current.setReceivedParts(markPart(current.getReceivedParts(), partNumber, '0'));
+                    uploadSessionRepository.save(current);
+                    throw e;
+                }
+                return markReceived(current, partNumber);
+            }
+        } catch (IOException e) {
+            log.error("写入分片失败，上传ID：{}，分片：{}，错误：{}", uploadId, partNumber, e.getMessage());
+            throw new BusinessException("写入分片失败：" + e.getMessage(), e);
+        } finally {
+            if (staged != null) {
+                deleteQuietly(staged);
+            }
+        }
+    }
+
+    /**
+     * 从请求流读取一个分片，按偏移写入目标文件并落盘
+     */
+    private void writeRange(Path target, long offset, long expectedSize, InputStream inputStream,
+                            String uploadId, int partNumber) {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE);
+             ReadableByteChannel source = Channels.newChannel(inputStream)) {
+            long written = 0;
+            while (written < expectedSize) {
+                long transferred = channel.transferFrom(source, offset + written, expectedSize - written);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+            if (written != expectedSize) {
+                throw new BusinessException(ResultCode.VALIDATE_FAILED,
+                        "分片数据不完整，期望 " + expectedSize + " 字节，实际 " + written + " 字节");
+            }
+            if (inputStream.read() != -1) {
+                throw new BusinessException(ResultCode.VALIDATE_FAILED,
+                        "分片数据超出长度，期望 " + expectedSize + " 字节");
+            }
+            // 先落盘再标记位图，避免宕机后位图声称已接收但数据丢失
+            channel.force(false);
+        } catch (IOException e) {
+            log.error("写入分片失败，上传ID：{}，分片：{}，错误：{}", uploadId, partNumber, e.getMessage());
+            throw new BusinessException("写入分片失败：" + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 在位图中标记分片已接收并续期会话，须持有会话锁调用
+     */
+    private UploadSession markReceived(UploadSession current, int partNumber) {
+        current.setReceivedParts(markPart(current.getReceivedParts(), partNumber, '1'));
+        current.setExpireTime(LocalDateTime.now().plusHours(sessionTtlHours));
+        UploadSession saved = uploadSessionRepository.save(current);
+        log.debug("分片写入成功，上传ID：{}，分片：{}/{}", current.getUploadId(), partNumber, current.getTotalParts());
+        return saved;
+    }
+
+    private String markPart(String receivedParts, int partNumber, char flag) {
+        char[] bitmap = receivedParts.toCharArray();
+        bitmap[partNumber - 1] = flag;
+        return new String(bitmap);
+    }
+
+    @Override
+    public UploadSession getSession(String uploadId) {
+        if (uploadId == null || uploadId.trim().isEmpty()) {
+            throw new BusinessException(ResultCode.VALIDATE_FAILED, "上传ID不能为空");
+        }
+        return uploadSessionRepository.findById(uploadId)
+                .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "上传会话不存在：" + uploadId));
+    }
+
+    @Override
+    public List<Integer> getMissingParts(UploadSession session) {
+        List<Integer> missing = new ArrayList<>();
+        String bitmap = session.getReceivedParts();
+        for (int i = 0; i < session.getTotalParts(); i++) {
+            if (bitmap == null || i >= bitmap.length() || bitmap.charAt(i) != '1') {
+                missing.add(i + 1);
+            }
+        }
+        return missing;
+    }
+
+    @Override
+    public UploadSession completeSession(String uploadId, List<String> parts,
+                                         BiFunction<UploadSession, Path, MediaFile> handler) {
+        synchronized (lockFor(uploadId)) {
+            UploadSession session = getSession(uploadId);
+            if (session.getStatus() == UploadSession.STATUS_COMPLETED) {
+                // 重复的完成请求直接返回已有结果
+                return session;
+            }
+            if (session.getStatus() != UploadSession.STATUS_UPLOADING) {
+                throw new BusinessException(ResultCode.CONFLICT, "上传会话已失效，请重新发起上传");
+            }
+
+            List<Integer> missing = getMissingParts(session);
+            if (!missing.isEmpty()) {
+                List<Integer> preview = missing.size() > 20 ? missing.subList(0, 20) : missing;
+                throw new BusinessException(ResultCode.VALIDATE_FAILED,
+                        "分片未上传完整，共缺少 " + missing.size() + " 个分片：" + preview);
+            }
+            verifyClientParts(session, parts);
+            if (writingParts.containsKey(uploadId)) {
+                // 同一分片的重复请求仍在直接写入，完成后再拼装，避免其继续写入已交出的文件
+                throw new BusinessException(ResultCode.CONFLICT, "仍有分片正在写入，请稍后重试完成操作");
+            }
+
+            Path partFile = getPartFile(uploadId);
+            if (!Files.exists(partFile)) {
+                throw new BusinessException(ResultCode.NOT_FOUND, "分片临时文件不存在，请重新发起上传");
+            }
+
+            MediaFile mediaFile = handler.apply(session, partFile);
+
+            session.setStatus(UploadSession.STATUS_COMPLETED);
+            session.setMediaFileId(mediaFile.getId());
+            session.setFileUrl(mediaFile.getFileUrl());
+            UploadSession saved = uploadSessionRepository.save(session);
+            deleteQuietly(partFile);
+            log.info("分片上传完成，上传ID：{}，文件：{}", uploadId, mediaFile.getFileUrl());
+            return saved;
+        }
+    }
+
+    @Override
+    public void abortSession(String uploadId) {
+        synchronized (lockFor(uploadId)) {
+            UploadSession session = getSession(uploadId);
+            if (session.getStatus() == UploadSession.STATUS_COMPLETED) {
+                throw new BusinessException(ResultCode.CONFLICT, "上传已完成，无法取消");
+            }
+            session.setStatus(UploadSession.STATUS_ABORTED);
+            uploadSessionRepository.save(session);
+            deleteQuietly(getPartFile(uploadId));
+            log.info("分片上传已取消，上传ID：{}", uploadId);
+        }
+    }
+
+    /**
+     * 定时清理过期会话：标记过期并删除临时文件，同时清除较早的已结束会话记录
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${file.multipart.cleanup-interval-ms:600000}",
+               initialDelayString = "${file.multipart.cleanup-interval-ms:600000}")
+    public int cleanExpiredSessions() {
+        int cleaned = 0;
+        try {
+            List<UploadSession> expired = uploadSessionRepository.findByStatusAndExpireTimeBefore(
+                    UploadSession.STATUS_UPLOADING, LocalDateTime.now());
+            for (UploadSession session : expired) {
+                synchronized (lockFor(session.getUploadId())) {
+                    session.setStatus(UploadSession.STATUS_EXPIRED);
+                    uploadSessionRepository.save(session);
+                    deleteQuietly(getPartFile(session.getUploadId()));
+                }
+                cleaned++;
+            }
+
+            int purged = uploadSessionRepository.deleteFinishedBefore(
+                    Arrays.asList(UploadSession.STATUS_COMPLETED, UploadSession.STATUS_ABORTED,
+                            UploadSession.STATUS_EXPIRED),
+                    LocalDateTime.now().minusDays(FINISHED_SESSION_RETENTION_DAYS));
+
+            if (cleaned > 0 || purged > 0) {
+                log.info("清理分片上传会话完成，过期会话：{}，删除历史记录：{}", cleaned, purged);
+            }
+        } catch (Exception e) {
+            log.error("清理过期分片上传会话失败：{}", e.getMessage(), e);
+        }
+        return cleaned;
+    }
+
+    /**
+     * 获取处于上传中状态的会话
+     */
+    private UploadSession getActiveSession(String uploadId) {
+        UploadSession session = getSession(uploadId);
+        if (session.getStatus() != UploadSession.STATUS_UPLOADING) {
+            throw new BusinessException(ResultCode.CONFLICT, "上传会话已结束，当前状态：" + session.getStatus());
+        }
+        if (session.getExpireTime() != null && session.getExpireTime().isBefore(LocalDateTime.now())) {
+            throw new BusinessException(ResultCode.CONFLICT, "上传会话已过期，请重新发起上传");
+        }
+        return session;
+    }
+
+    /**
+     * 校验客户端提交的分片列表与服务端记录一致
+     */
+    private void verifyClientParts(UploadSession session, List<String> parts) {
+        if (parts == null || parts.isEmpty()) {
+            return;
+        }
+        if (parts.size() != session.getTotalParts()) {
+            throw new BusinessException(ResultCode.VALIDATE_FAILED,
+                    "分片数量不一致，服务端记录 " + session.getTotalParts() + " 个，客户端提交 " + parts.size() + " 个");
+        }
+        for (String part : parts) {
+            int partNumber;
+            try {
+                partNumber = Integer.parseInt(part.trim());
+            } catch (NumberFormatException e) {
+                throw new BusinessException(ResultCode.VALIDATE_FAILED, "分片序号格式错误：" + part);
+            }
+            if (!session.isPartReceived(partNumber)) {
+                throw new BusinessException(ResultCode.VALIDATE_FAILED, "分片未上传：" + partNumber);
+            }
+        }
+    }
+
+    /**
+     * 计算实际使用的分片大小
+     */
+    private int resolveChunkSize(Integer requested, long fileSize) {
+        int chunkSize = requested != null && requested > 0 ? requested : defaultChunkSize;
+        chunkSize = Math.min(chunkSize, MAX_CHUNK_SIZE);
+        if (fileSize <= chunkSize) {
+            // 单分片文件直接使用文件大小
+            return (int) fileSize;
+        }
+        return Math.max(chunkSize, MIN_CHUNK_SIZE);
+    }
+
+    private Path getPartFile(String uploadId) {
+        return Paths.get(tempPath, uploadId + PART_FILE_SUFFIX);
+    }
+
+    private Object lockFor(String uploadId) {
+        return locks[Math.floorMod(uploadId.hashCode(), LOCK_STRIPES)];
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除分片临时文件失败：{}，错误：{}", path, e.getMessage());
+        }
+    }
+}
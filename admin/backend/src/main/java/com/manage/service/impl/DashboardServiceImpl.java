@@ -0,0 +1,178 @@
+package com.manage.service.impl;
+
+import com.manage.repository.MediaFileRepository;
+import com.manage.repository.ProductRepository;
+import com.manage.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 仪表盘统计服务实现类
+ *
+ * 快照只包含聚合查询结果，不加载任何实体。变更事件只把快照标记为过期，
+ * 一批上传或删除不论多少条都只在下次读取时重算一次；重算期间其他请求直接返回旧快照。
+ * 不经过实体监听器的批量更新由最长缓存时间兜底
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardServiceImpl implements DashboardService {
+
+    private static final String UNCATEGORIZED = "uncategorized";
+
+    @Value("${dashboard.snapshot.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    @Value("${dashboard.snapshot.upload-trend-days:30}")
+    private int uploadTrendDays;
+
+    private final MediaFileRepository mediaFileRepository;
+    private final ProductRepository productRepository;
+
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final Object initLock = new Object();
+
+    private volatile Map<String, Object> snapshot;
+    private volatile long snapshotNanos;
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> current = snapshot;
+        if (current == null) {
+            synchronized (initLock) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                return snapshot;
+            }
+        }
+
+        boolean expired = System.nanoTime() - snapshotNanos > TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+        if ((stale.get() || expired) && refreshing.compareAndSet(false, true)) {
+            try {
+                refresh();
+            } catch (Exception e) {
+                log.warn("刷新仪表盘统计快照失败，返回旧快照：{}", e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void invalidate() {
+        stale.set(true);
+    }
+
+    /**
+     * 重新计算快照；先清除过期标记，计算期间发生的变更会再次标记，保证不漏刷新；
+     * 计算失败时恢复过期标记，下次访问继续刷新
+     */
+    private void refresh() {
+        stale.set(false);
+        try {
+            computeSnapshot();
+        } catch (RuntimeException e) {
+            stale.set(true);
+            throw e;
+        }
+    }
+
+    private void computeSnapshot() {
+        long start = System.currentTimeMillis();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+
+        // 图片数量：排除产品相关的图片和编辑器插图
+        statistics.put("imageCount", mediaFileRepository.countDashboardImages());
+        statistics.put("videoCount", mediaFileRepository.countByFileTypeAndStatus("video", 1));
+
+        long productCount = 0;
+        Map<String, Long> productStatusCounts = new LinkedHashMap<>();
+        productStatusCounts.put("online", 0L);
+        productStatusCounts.put("offline", 0L);
+        productStatusCounts.put("draft", 0L);
+        for (Object[] row : productRepository.countProductsByStatus()) {
+            long count = ((Number) row[1]).longValue();
+            productCount += count;
+            productStatusCounts.merge(productStatusName((Integer) row[0]), count, Long::sum);
+        }
+        statistics.put("productCount", productCount);
+        statistics.put("productStatusCounts", productStatusCounts);
+
+        long totalBytes = 0;
+        Map<String, Long> fileCountByType = new TreeMap<>();
+        Map<String, Map<String, Long>> storageByCategory = new TreeMap<>();
+        for (Object[] row : mediaFileRepository.summarizeStorageByTypeAndCategory()) {
+            String fileType = (String) row[0];
+            String category = row[1] == null ? UNCATEGORIZED : (String) row[1];
+            long count = ((Number) row[2]).longValue();
+            long bytes = ((Number) row[3]).longValue();
+            totalBytes += bytes;
+            fileCountByType.merge(fileType, count, Long::sum);
+
+            Map<String, Long> categoryStats = storageByCategory.computeIfAbsent(category, key -> {
+                Map<String, Long> stats = new LinkedHashMap<>();
+                stats.put("fileCount", 0L);
+                stats.put("bytes", 0L);
+                return stats;
+            });
+            categoryStats.merge("fileCount", count, Long::sum);
+            categoryStats.merge("bytes", bytes, Long::sum);
+        }
+        statistics.put("totalStorageBytes", totalBytes);
+        statistics.put("fileCountByType", fileCountByType);
+        statistics.put("storageByCategory", storageByCategory);
+        statistics.put("uploadsPerDay", uploadsPerDay());
+
+        statistics.put("snapshotTime", LocalDateTime.now());
+        snapshot = Collections.unmodifiableMap(statistics);
+        snapshotNanos = System.nanoTime();
+        log.debug("仪表盘统计快照已刷新，耗时：{}ms", System.currentTimeMillis() - start);
+    }
+
+    private Map<String, Long> uploadsPerDay() {
+        LocalDate today = LocalDate.now();
+        LocalDate since = today.minusDays(uploadTrendDays - 1L);
+        Map<String, Long> trend = new LinkedHashMap<>();
+        for (LocalDate day = since; !day.isAfter(today); day = day.plusDays(1)) {
+            trend.put(day.toString(), 0L);
+        }
+        List<Object[]> rows = mediaFileRepository.countUploadsPerDay(since.atStartOfDay());
+        for (Object[] row : rows) {
+            trend.put(((Date) row[0]).toLocalDate().toString(), ((Number) row[1]).longValue());
+        }
+        return trend;
+    }
+
+    private String productStatusName(Integer status) {
+        if (status == null) {
+            return "draft";
+        }
+        switch (status) {
+            case 1:
+                return "online";
+            case 0:
+                return "offline";
+            default:
+                return "draft";
+        }
+    }
+}
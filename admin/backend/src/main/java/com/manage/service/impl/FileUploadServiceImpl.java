@@ -1,15 +1,25 @@
 package com.manage.service.impl;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.manage.entity.MediaFile;
+import com.manage.entity.UploadSession;
+import com.manage.event.ContentChangedEvent;
+import com.manage.event.ContentDomain;
 import com.manage.exception.BusinessException;
 import com.manage.repository.MediaFileRepository;
+import com.manage.service.AccessCounterService;
+import com.manage.service.BlobStorageService;
+import com.manage.service.ChunkedUploadService;
 import com.manage.service.FileUploadService;
+import com.manage.service.ImageProcessingService;
+import com.manage.service.TagService;
 import com.manage.util.ImageCompressionUtil;
-import com.manage.util.CompressedMultipartFile;
 import com.manage.util.IconGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
@@ -18,7 +28,9 @@ import javax.annotation.PostConstruct;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -46,6 +58,13 @@ public class FileUploadServiceImpl implements FileUploadService {
 
     private final MediaFileRepository mediaFileRepository;
     private final IconGenerator iconGenerator;
+    private final ChunkedUploadService chunkedUploadService;
+    private final ImageProcessingService imageProcessingService;
+    private final BlobStorageService blobStorageService;
+    private final AccessCounterService accessCounterService;
+    private final ObjectMapper objectMapper;
+    private final TagService tagService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 初始化方法，在服务启动时自动生成缺失的图标文件
@@ -76,6 +95,16 @@ public class FileUploadServiceImpl implements FileUploadService {
     // 文件大小限制（100MB）
     private static final long MAX_FILE_SIZE = 100 * 1024 * 1024;
 
+    // 分片上传允许的视频扩展名
+    private static final String[] MULTIPART_VIDEO_EXTENSIONS = {
+            ".mp4", ".avi", ".mov", ".wmv", ".flv", ".webm", ".mkv", ".3gp", ".qt"
+    };
+
+    // 分片上传允许的图片扩展名
+    private static final String[] MULTIPART_IMAGE_EXTENSIONS = {
+            ".jpg", ".jpeg", ".png", ".gif", ".webp"
+    };
+
     /**
      * 上传文件到本地存储
      *
@@ -95,17 +124,12 @@ public class FileUploadServiceImpl implements FileUploadService {
             String fileName = generateFileName(file.getOriginalFilename(), category);
             log.info("开始上传文件：category={}, fileName={}, uploadPath={}", category, fileName, uploadPath);
 
-            // 创建目录
             Path targetPath = Paths.get(uploadPath, fileName);
-            Path parentDir = targetPath.getParent();
-            log.info("目标文件路径：{}, 父目录：{}", targetPath, parentDir);
-
-            Files.createDirectories(parentDir);
-            log.info("目录创建成功：{}", parentDir);
+            log.info("目标文件路径：{}", targetPath);
 
-            // 保存文件到本地
+            // 保存文件到本地（相同内容只存一份）
             long fileSize = file.getSize();
-            Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+            writeToStorage(file, fileName);
 
             // 验证文件是否真的保存成功
             if (Files.exists(targetPath) && Files.size(targetPath) == fileSize) {
@@ -154,6 +178,9 @@ public class FileUploadServiceImpl implements FileUploadService {
 
             boolean fileDeleted = false;
             if (file.exists()) {
+                // 删除前识别文件指向的去重内容，删除成功后释放引用
+                String blobHash = identifyBlob(fileName, fileUrl);
+
                 // 尝试删除文件，如果失败则尝试多次
                 int maxAttempts = 3;
                 for (int i = 0; i < maxAttempts; i++) {
@@ -182,6 +209,10 @@ public class FileUploadServiceImpl implements FileUploadService {
                         fileDeleted = true; // 软删除成功
                     }
                 }
+
+                if (fileDeleted) {
+                    blobStorageService.release(blobHash);
+                }
             } else {
                 log.warn("物理文件不存在：{}", fileName);
                 // 即使物理文件不存在，也继续更新数据库状态
@@ -196,12 +227,12 @@ public class FileUploadServiceImpl implements FileUploadService {
                     // 首先尝试软删除
                     int updatedRows = mediaFileRepository.softDeleteByUrl(fileUrl);
                     if (updatedRows > 0) {
-                        // 软删除成功，需要删除关联的缩略图
+                        // 软删除成功，需要删除关联的缩略图；批量更新不经过实体监听器，需手动通知搜索索引
                         List<MediaFile> files = mediaFileRepository.findAllByUrl(fileUrl);
                         for (MediaFile mediaFile : files) {
-                            if (mediaFile.getThumbnailUrl() != null && !mediaFile.getThumbnailUrl().trim().isEmpty()) {
-                                deleteThumbnailFile(mediaFile.getThumbnailUrl());
-                            }
+                            deleteDerivedFiles(mediaFile);
+                            eventPublisher.publishEvent(new ContentChangedEvent(ContentDomain.MEDIA,
+                                    ContentChangedEvent.ChangeType.DELETED, mediaFile.getId(), mediaFile));
                         }
                         log.info("数据库记录状态更新成功：{}, 更新行数：{}", fileUrl, updatedRows);
                         return true;
@@ -221,10 +252,8 @@ public class FileUploadServiceImpl implements FileUploadService {
                             try {
                                 log.info("更新数据库记录状态：ID={}, 当前状态={}", mediaFile.getId(), mediaFile.getStatus());
 
-                                // 删除缩略图文件
-                                if (mediaFile.getThumbnailUrl() != null && !mediaFile.getThumbnailUrl().trim().isEmpty()) {
-                                    deleteThumbnailFile(mediaFile.getThumbnailUrl());
-                                }
+                                // 删除缩略图和响应式变体文件
+                                deleteDerivedFiles(mediaFile);
 
                                 mediaFile.setStatus(3); // 已删除
                                 mediaFileRepository.save(mediaFile);
@@ -513,48 +542,33 @@ public class FileUploadServiceImpl implements FileUploadService {
             }
 
             // 检查图片大小限制
-            Long maxSize = options != null && options.containsKey("maxSize") ?
-                    (Long) options.get("maxSize") : 20 * 1024 * 1024L; // 默认20MB
+            long maxSize = options != null && options.get("maxSize") instanceof Number ?
+                    ((Number) options.get("maxSize")).longValue() : 20 * 1024 * 1024L; // 默认20MB
             if (!validateFileSize(file, maxSize)) {
                 throw new BusinessException("图片大小超过限制");
             }
 
-            // 获取图片信息
-            ImageCompressionUtil.ImageInfo imageInfo = ImageCompressionUtil.getImageInfo(file);
-            log.info("原始图片信息：{}x{}, {:.2f}MB, 格式：{}",
-                imageInfo.getWidth(), imageInfo.getHeight(), imageInfo.getSizeMB(), imageInfo.getFormat());
-
-            // 图片压缩处理
-            MultipartFile processedFile = file;
-            ImageCompressionUtil.ImageCompressionResult compressionResult = null;
-            boolean generateThumbnail = options != null && options.containsKey("thumbnail") ?
-                    (Boolean) options.get("thumbnail") : true;
+            // 先保存原图，压缩、缩略图和变体交给后台线程池，不在请求线程内解码
+            String fileName = generateFileName(file.getOriginalFilename(), category);
+            String blobHash = writeToStorage(file, fileName);
+            String fileUrl = getFileUrl(fileName);
 
+            // 只读取图片头获取尺寸，同时校验文件确实是可识别的图片
+            Path storedPath = Paths.get(uploadPath, fileName);
+            ImageCompressionUtil.ImageInfo imageInfo;
             try {
-                // 智能压缩图片
-                compressionResult = ImageCompressionUtil.smartCompress(file);
-                if (compressionResult.isCompressed()) {
-                    processedFile = CompressedMultipartFile.fromOriginal(file, compressionResult.getFinalData());
-                    log.info("图片压缩成功：{}, 压缩率：{}%, 耗时：{}ms",
-                        file.getOriginalFilename(),
-                        String.format("%.1f", compressionResult.getCompressionRatio() * 100),
-                        compressionResult.getCompressionTime());
-                } else {
-                    log.info("图片无需压缩，使用原始文件：{}", file.getOriginalFilename());
-                }
-            } catch (Exception compressionError) {
-                log.warn("图片压缩失败，使用原始文件：{}", compressionError.getMessage());
-                compressionResult = null;
+                imageInfo = ImageCompressionUtil.probeImageInfo(storedPath);
+            } catch (IOException probeError) {
+                Files.deleteIfExists(storedPath);
+                blobStorageService.release(blobHash);
+                throw new BusinessException("无法读取图片内容，可能文件已损坏或不是有效图片");
             }
-
-            // 生成文件名并上传
-            String fileName = generateFileName(processedFile.getOriginalFilename(), category);
-            String fileUrl = uploadToLocalStorage(processedFile, fileName);
+            log.info("原始图片信息：{}x{}, {}MB, 格式：{}", imageInfo.getWidth(), imageInfo.getHeight(),
+                    String.format("%.2f", imageInfo.getSizeMB()), imageInfo.getFormat());
 
             // 创建媒体文件记录
-            MediaFile mediaFile = createMediaFileRecord(processedFile, fileName, fileUrl, category, "image");
-
-            // 设置图片尺寸信息
+            MediaFile mediaFile = createMediaFileRecord(file, fileName, fileUrl, category, "image");
+            mediaFile.setBlobHash(blobHash);
             mediaFile.setWidth(imageInfo.getWidth());
             mediaFile.setHeight(imageInfo.getHeight());
 
@@ -563,57 +577,35 @@ public class FileUploadServiceImpl implements FileUploadService {
                 processImageOptions(mediaFile, options);
             }
 
-            // 生成缩略图
-            if (generateThumbnail) {
-                try {
-                    ImageCompressionUtil.ImageCompressionResult thumbnailResult =
-                            ImageCompressionUtil.generateThumbnail(file);
-                    if (thumbnailResult.isCompressed()) {
-                        String thumbnailFileName = generateFileName(
-                                CompressedMultipartFile.createThumbnail(file, thumbnailResult.getFinalData()).getOriginalFilename(),
-                                category + "/thumbnails");
-                        String thumbnailUrl = uploadToLocalStorage(
-                                CompressedMultipartFile.createThumbnail(file, thumbnailResult.getFinalData()),
-                                thumbnailFileName);
-                        mediaFile.setThumbnailUrl(thumbnailUrl);
-                        log.info("缩略图生成成功：{}", thumbnailUrl);
-                    }
-                } catch (Exception thumbnailError) {
-                    log.warn("缩略图生成失败：{}", thumbnailError.getMessage());
-                }
-            }
-
-            // 保存媒体文件记录
+            mediaFile.setProcessStatus(MediaFile.PROCESS_PENDING);
             mediaFileRepository.save(mediaFile);
+            syncMediaTags(mediaFile);
+
+            // 提交后台处理，队列已满时保持排队状态，由补偿任务稍后提交
+            boolean queued = imageProcessingService.submit(mediaFile.getId());
 
             // 构建返回结果
             Map<String, Object> result = new HashMap<>();
             result.put("id", mediaFile.getId());
-            result.put("fileName", processedFile.getOriginalFilename());
+            result.put("fileName", file.getOriginalFilename());
             result.put("originalFileName", file.getOriginalFilename());
             result.put("url", fileUrl);
-            result.put("fileSize", processedFile.getSize());
+            result.put("fileSize", file.getSize());
             result.put("originalFileSize", file.getSize());
             result.put("fileType", "image");
             result.put("category", category);
             result.put("width", imageInfo.getWidth());
             result.put("height", imageInfo.getHeight());
             result.put("uploadTime", mediaFile.getCreateTime());
+            result.put("processStatus", "PENDING");
+            result.put("queued", queued);
+            result.put("statusUrl", "/api/admin/upload/image/" + mediaFile.getId() + "/status");
 
-            // 添加压缩信息
-            if (compressionResult != null && compressionResult.isCompressed()) {
-                result.put("compressed", true);
-                result.put("compressionRatio", String.format("%.1f", compressionResult.getCompressionRatio() * 100) + "%");
-                result.put("compressionTime", compressionResult.getCompressionTime() + "ms");
-            }
-
-            // 添加缩略图信息
             if (mediaFile.getThumbnailUrl() != null) {
                 result.put("thumbnailUrl", mediaFile.getThumbnailUrl());
             }
 
-            log.info("增强图片上传成功：{}, 压缩状态：{}", fileName,
-                compressionResult != null && compressionResult.isCompressed() ? "已压缩" : "无需压缩");
+            log.info("图片上传成功，已提交后台处理：{}，媒体文件ID：{}，进入队列：{}", fileName, mediaFile.getId(), queued);
             return result;
 
         } catch (Exception e) {
@@ -657,10 +649,12 @@ public class FileUploadServiceImpl implements FileUploadService {
             log.info("生成文件名：{}", fileName);
 
             // 上传到本地存储
-            String fileUrl = uploadToLocalStorage(file, fileName);
+            String blobHash = writeToStorage(file, fileName);
+            String fileUrl = getFileUrl(fileName);
 
             // 创建媒体文件记录
             MediaFile mediaFile = createMediaFileRecord(file, fileName, fileUrl, category, "video");
+            mediaFile.setBlobHash(blobHash);
 
             // 处理视频选项
             if (options != null) {
@@ -669,6 +663,7 @@ public class FileUploadServiceImpl implements FileUploadService {
 
             // 保存媒体文件记录
             mediaFileRepository.save(mediaFile);
+            syncMediaTags(mediaFile);
             log.info("媒体文件记录已保存，ID：{}", mediaFile.getId());
 
             Map<String, Object> result = new HashMap<>();
@@ -751,8 +746,10 @@ public class FileUploadServiceImpl implements FileUploadService {
             fileInfo.put("fileSize", file.getFileSize());
             fileInfo.put("category", file.getCategory());
             fileInfo.put("uploadTime", file.getCreateTime());
-            fileInfo.put("downloadCount", file.getDownloadCount());
-            fileInfo.put("viewCount", file.getViewCount());
+            // 加上尚未写回数据库的访问次数
+            Map<String, Long> pending = accessCounterService.getPendingMediaCounts(file.getFilePath());
+            fileInfo.put("downloadCount", nullToZero(file.getDownloadCount()) + pending.get("downloads"));
+            fileInfo.put("viewCount", nullToZero(file.getViewCount()) + pending.get("views"));
 
             if ("image".equals(file.getFileType())) {
                 fileInfo.put("width", file.getWidth());
@@ -771,6 +768,10 @@ public class FileUploadServiceImpl implements FileUploadService {
         }
     }
 
+    private long nullToZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
     @Override
     public boolean fileExists(String fileUrl) {
         try {
@@ -801,27 +802,173 @@ public class FileUploadServiceImpl implements FileUploadService {
 
     @Override
     public String initiateMultipartUpload(String fileName, String category, long fileSize) {
-        try {
-            String fullFileName = category + "/" + fileName;
-            // 本地存储不支持分片上传，直接生成唯一ID
-            return "local-upload-" + UUID.randomUUID().toString();
-        } catch (Exception e) {
-            log.error("初始化文件上传失败：{}", e.getMessage());
-            throw new BusinessException("初始化文件上传失败：" + e.getMessage());
+        Map<String, Object> session = initiateMultipartUpload(fileName, category, fileSize, null, null, null);
+        return (String) session.get("uploadId");
+    }
+
+    @Override
+    public Map<String, Object> initiateMultipartUpload(String fileName, String category, long fileSize,
+                                                       String mimeType, Integer chunkSize, Long userId) {
+        if (!StringUtils.hasText(fileName)) {
+            throw new BusinessException("文件名不能为空");
         }
+        if (!StringUtils.hasText(category)) {
+            throw new BusinessException("文件分类不能为空");
+        }
+
+        // 分片上传在会话创建时即校验类型，避免上传完所有分片后才被拒绝
+        resolveMultipartFileType(fileName);
+
+        String storageName = generateFileName(fileName, category);
+        UploadSession session = chunkedUploadService.createSession(
+                fileName, storageName, category, mimeType, fileSize, chunkSize, userId);
+        return buildMultipartStatus(session);
+    }
+
+    @Override
+    public Map<String, Object> uploadPart(String uploadId, int partNumber, InputStream inputStream) {
+        UploadSession session = chunkedUploadService.writePart(uploadId, partNumber, inputStream);
+        return buildMultipartStatus(session);
+    }
+
+    @Override
+    public Map<String, Object> getMultipartUploadStatus(String uploadId) {
+        return buildMultipartStatus(chunkedUploadService.getSession(uploadId));
     }
 
     @Override
     public String completeMultipartUpload(String uploadId, List<String> parts) {
+        UploadSession session = chunkedUploadService.completeSession(uploadId, parts, (current, assembledFile) -> {
+            Path targetPath = Paths.get(uploadPath, current.getStorageName());
+            String blobHash = null;
+            boolean stored = false;
+            try {
+                if (blobStorageService.isEnabled()) {
+                    blobHash = blobStorageService.store(assembledFile, current.getStorageName());
+                } else {
+                    Files.createDirectories(targetPath.getParent());
+                    moveAtomically(assembledFile, targetPath);
+                }
+                stored = true;
+
+                String fileType = resolveMultipartFileType(current.getOriginalName());
+                String fileUrl = getFileUrl(current.getStorageName());
+                MediaFile mediaFile = createMediaFileRecord(current, fileUrl, fileType);
+                mediaFile.setBlobHash(blobHash);
+                if (!"image".equals(fileType)) {
+                    return mediaFileRepository.save(mediaFile);
+                }
+
+                // 与普通图片上传一致：读取图片头校验内容并记录尺寸，再交给后台生成缩略图、变体和压缩主图
+                ImageCompressionUtil.ImageInfo imageInfo;
+                try {
+                    imageInfo = ImageCompressionUtil.probeImageInfo(targetPath);
+                } catch (IOException probeError) {
+                    restoreAssembledFile(targetPath, assembledFile, blobHash);
+                    stored = false;
+                    throw new BusinessException("无法读取图片内容，可能文件已损坏或不是有效图片");
+                }
+                mediaFile.setWidth(imageInfo.getWidth());
+                mediaFile.setHeight(imageInfo.getHeight());
+                mediaFile.setProcessStatus(MediaFile.PROCESS_PENDING);
+                MediaFile saved = mediaFileRepository.save(mediaFile);
+                // 队列已满时保持排队状态，由补偿任务稍后提交
+                imageProcessingService.submit(saved.getId());
+                return saved;
+            } catch (IOException e) {
+                if (stored) {
+                    restoreAssembledFile(targetPath, assembledFile, blobHash);
+                }
+                log.error("分片文件组装失败：{}", e.getMessage(), e);
+                throw new BusinessException("分片文件组装失败：" + e.getMessage(), e);
+            } catch (RuntimeException e) {
+                if (stored) {
+                    restoreAssembledFile(targetPath, assembledFile, blobHash);
+                }
+                throw e;
+            }
+        });
+        return session.getFileUrl();
+    }
+
+    @Override
+    public void abortMultipartUpload(String uploadId) {
+        chunkedUploadService.abortSession(uploadId);
+    }
+
+    /**
+     * 构建分片上传会话的进度信息
+     */
+    private Map<String, Object> buildMultipartStatus(UploadSession session) {
+        List<Integer> missingParts = chunkedUploadService.getMissingParts(session);
+        List<Integer> uploadedParts = new ArrayList<>();
+        for (int i = 1; i <= session.getTotalParts(); i++) {
+            if (session.isPartReceived(i)) {
+                uploadedParts.add(i);
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("uploadId", session.getUploadId());
+        result.put("fileName", session.getOriginalName());
+        result.put("category", session.getCategory());
+        result.put("fileType", resolveMultipartFileType(session.getOriginalName()));
+        result.put("fileSize", session.getFileSize());
+        result.put("chunkSize", session.getChunkSize());
+        result.put("totalParts", session.getTotalParts());
+        result.put("uploadedParts", uploadedParts);
+        result.put("missingParts", missingParts);
+        result.put("progress", session.getTotalParts() == 0 ? 0 : uploadedParts.size() * 100 / session.getTotalParts());
+        result.put("status", session.getStatus());
+        result.put("expireTime", session.getExpireTime());
+        result.put("mediaFileId", session.getMediaFileId());
+        result.put("url", session.getFileUrl());
+        return result;
+    }
+
+    /**
+     * 根据扩展名判断分片上传文件的类型
+     */
+    private String resolveMultipartFileType(String fileName) {
+        String extension = fileName.contains(".")
+                ? fileName.substring(fileName.lastIndexOf(".")).toLowerCase()
+                : "";
+        if (Arrays.asList(MULTIPART_VIDEO_EXTENSIONS).contains(extension)) {
+            return "video";
+        }
+        if (Arrays.asList(MULTIPART_IMAGE_EXTENSIONS).contains(extension)) {
+            return "image";
+        }
+        throw new BusinessException("不支持的文件类型：" + fileName);
+    }
+
+    /**
+     * 媒体记录写入失败时把已移入存储的组装文件移回临时位置，会话保持上传中状态，客户端可以重试完成请求
+     */
+    private void restoreAssembledFile(Path targetPath, Path assembledFile, String blobHash) {
         try {
-            // 本地存储不支持分片上传，直接返回空或抛出异常
-            throw new BusinessException("本地存储不支持分片上传功能");
+            moveAtomically(targetPath, assembledFile);
+            // 去重存储中的内容仍与临时文件共享数据，释放本次增加的引用不会丢失内容
+            blobStorageService.release(blobHash);
         } catch (Exception e) {
-            log.error("完成文件上传失败：{}", e.getMessage());
-            throw new BusinessException("本地存储不支持分片上传功能");
+            log.error("分片文件回滚失败，文件：{}，错误：{}", targetPath, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 移动文件（如分片组装结果、移动到新分类），同一文件系统下使用原子重命名
+     */
+    private void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
+    /**
+     * 复制文件：启用去重存储时只为同一内容新建一个路径（硬链接），不复制数据
+     */
     @Override
     public String copyFile(String sourceUrl, String targetCategory) {
         try {
@@ -839,39 +986,110 @@ public class FileUploadServiceImpl implements FileUploadService {
             String targetFileName = generateFileName(sourceFileName, targetCategory);
             Path targetPath = Paths.get(uploadPath, targetFileName);
 
-            // 创建目标目录
-            Files.createDirectories(targetPath.getParent());
-
-            // 复制文件
-            Files.copy(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            if (blobStorageService.isEnabled()) {
+                List<MediaFile> sourceFiles = mediaFileRepository.findAllByUrl(sourceUrl);
+                String knownHash = sourceFiles.stream()
+                        .map(MediaFile::getBlobHash)
+                        .filter(Objects::nonNull)
+                        .findFirst()
+                        .orElse(null);
+                String blobHash = blobStorageService.link(sourceFileName, targetFileName, knownHash);
+
+                // 历史文件在复制时被纳入去重存储，补记内容哈希
+                for (MediaFile sourceFile : sourceFiles) {
+                    if (sourceFile.getBlobHash() == null) {
+                        sourceFile.setBlobHash(blobHash);
+                        mediaFileRepository.save(sourceFile);
+                    }
+                }
+            } else {
+                Files.createDirectories(targetPath.getParent());
+                Files.copy(sourcePath, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            }
 
             log.info("文件复制成功：{} -> {}", sourceFileName, targetFileName);
             return getFileUrl(targetFileName);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("文件复制失败：{}", e.getMessage());
             throw new BusinessException("文件复制失败：" + e.getMessage());
         }
     }
 
+    /**
+     * 移动文件：重命名文件路径并同步更新媒体记录，内容和引用计数不变
+     */
     @Override
     public String moveFile(String sourceUrl, String targetCategory) {
-        String newFileUrl = copyFile(sourceUrl, targetCategory);
-        deleteFile(sourceUrl);
-        return newFileUrl;
+        try {
+            String sourceFileName = extractFileNameFromUrl(sourceUrl);
+            if (sourceFileName == null) {
+                throw new BusinessException("源文件路径无效");
+            }
+
+            Path sourcePath = Paths.get(uploadPath, sourceFileName);
+            if (!Files.exists(sourcePath)) {
+                throw new BusinessException("源文件不存在");
+            }
+
+            String targetFileName = generateFileName(sourceFileName, targetCategory);
+            Path targetPath = Paths.get(uploadPath, targetFileName);
+            Files.createDirectories(targetPath.getParent());
+            moveAtomically(sourcePath, targetPath);
+
+            String targetUrl = getFileUrl(targetFileName);
+            for (MediaFile mediaFile : mediaFileRepository.findAllByUrl(sourceUrl)) {
+                mediaFile.setStorageName(targetFileName);
+                mediaFile.setFilePath(targetFileName);
+                mediaFile.setFileUrl(targetUrl);
+                mediaFile.setCategory(targetCategory);
+                mediaFileRepository.save(mediaFile);
+            }
+
+            log.info("文件移动成功：{} -> {}", sourceFileName, targetFileName);
+            return targetUrl;
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("文件移动失败：{}", e.getMessage());
+            throw new BusinessException("文件移动失败：" + e.getMessage());
+        }
     }
 
     /**
-     * 上传文件到本地存储（通用方法）
+     * 保存上传文件，启用去重存储时边写边计算哈希，相同内容只存一份
+     *
+     * @return 内容哈希，未启用去重存储时返回null
      */
-    private String uploadToLocalStorage(MultipartFile file, String fileName) throws IOException {
-        // 创建目录
-        Path targetPath = Paths.get(uploadPath, fileName);
-        Files.createDirectories(targetPath.getParent());
+    private String writeToStorage(MultipartFile file, String fileName) throws IOException {
+        try (InputStream inputStream = file.getInputStream()) {
+            if (blobStorageService.isEnabled()) {
+                return blobStorageService.store(inputStream, fileName);
+            }
 
-        // 保存文件到本地
-        Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+            Path targetPath = Paths.get(uploadPath, fileName);
+            Files.createDirectories(targetPath.getParent());
+            Files.copy(inputStream, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            return null;
+        }
+    }
 
-        return getFileUrl(fileName);
+    /**
+     * 识别待删除文件指向的去重内容，识别失败时不释放引用（宁可多留内容也不误删）
+     */
+    private String identifyBlob(String fileName, String fileUrl) {
+        try {
+            String knownHash = mediaFileRepository.findAllByUrl(fileUrl).stream()
+                    .map(MediaFile::getBlobHash)
+                    .filter(Objects::nonNull)
+                    .findFirst()
+                    .orElse(null);
+            return blobStorageService.identify(fileName, knownHash);
+        } catch (Exception e) {
+            log.warn("识别文件内容失败：{}，错误：{}", fileName, e.getMessage());
+            return null;
+        }
     }
 
     /**
@@ -904,6 +1122,37 @@ public class FileUploadServiceImpl implements FileUploadService {
         return mediaFile;
     }
 
+    /**
+     * 根据分片上传会话创建媒体文件记录
+     */
+    private MediaFile createMediaFileRecord(UploadSession session, String fileUrl, String fileType) {
+        MediaFile mediaFile = new MediaFile();
+        mediaFile.setOriginalName(session.getOriginalName());
+        mediaFile.setStorageName(session.getStorageName());
+        mediaFile.setFilePath(session.getStorageName());
+        mediaFile.setFileUrl(fileUrl);
+        mediaFile.setFileType(fileType);
+        mediaFile.setMimeType(StringUtils.hasText(session.getMimeType())
+                ? session.getMimeType()
+                : guessContentTypeFromUrl(fileUrl));
+        mediaFile.setCategory(session.getCategory());
+        mediaFile.setFileSize(session.getFileSize());
+
+        String originalName = session.getOriginalName();
+        if (originalName != null && originalName.contains(".")) {
+            mediaFile.setFileExtension(originalName.substring(originalName.lastIndexOf(".")));
+        }
+
+        mediaFile.setBucketName("local-storage");
+        mediaFile.setStorageRegion("local");
+        mediaFile.setIsPublic(true);
+        mediaFile.setStatus(1); // 已完成
+        mediaFile.setUploadProgress(100);
+        mediaFile.setUploadedBy(session.getUploadedBy());
+
+        return mediaFile;
+    }
+
     /**
      * 处理图片选项
      */
@@ -928,7 +1177,7 @@ public class FileUploadServiceImpl implements FileUploadService {
 
         // 设置标签
         if (options.containsKey("tags")) {
-            mediaFile.setTags((String) options.get("tags"));
+            mediaFile.setTags(tagService.format(tagService.parse((String) options.get("tags"))));
         }
 
         // 设置关联信息
@@ -945,6 +1194,20 @@ public class FileUploadServiceImpl implements FileUploadService {
         }
     }
 
+    /**
+     * 同步媒体文件的标签关联；上传不在事务内执行，同步失败不影响上传结果，由标签定时校对修复
+     */
+    private void syncMediaTags(MediaFile mediaFile) {
+        if (mediaFile.getTags() == null) {
+            return;
+        }
+        try {
+            tagService.syncTags(ContentDomain.MEDIA, mediaFile.getId(), mediaFile.getTags());
+        } catch (Exception e) {
+            log.warn("同步媒体文件标签失败，等待定时校对，媒体文件ID：{}，错误：{}", mediaFile.getId(), e.getMessage());
+        }
+    }
+
     /**
      * 处理视频选项
      */
@@ -966,7 +1229,7 @@ public class FileUploadServiceImpl implements FileUploadService {
 
         // 设置标签
         if (options.containsKey("tags")) {
-            mediaFile.setTags((String) options.get("tags"));
+            mediaFile.setTags(tagService.format(tagService.parse((String) options.get("tags"))));
         }
 
         // 设置关联信息
@@ -1215,6 +1478,24 @@ public class FileUploadServiceImpl implements FileUploadService {
         }
     }
 
+    /**
+     * 删除媒体文件的缩略图和响应式变体
+     */
+    private void deleteDerivedFiles(MediaFile mediaFile) {
+        if (mediaFile.getThumbnailUrl() != null && !mediaFile.getThumbnailUrl().trim().isEmpty()) {
+            deleteThumbnailFile(mediaFile.getThumbnailUrl());
+        }
+        if (StringUtils.hasText(mediaFile.getVariants())) {
+            try {
+                Map<String, String> variants = objectMapper.readValue(mediaFile.getVariants(),
+                        new TypeReference<Map<String, String>>() {});
+                variants.values().forEach(this::deleteThumbnailFile);
+            } catch (Exception e) {
+                log.warn("解析图片变体失败，跳过删除：{}", e.getMessage());
+            }
+        }
+    }
+
     /**
      * 删除缩略图文件
      *
@@ -0,0 +1,220 @@
+package com.manage.service.impl;
+
+import com.manage.exception.ServiceBusyException;
+import com.manage.service.ImageAdmissionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 图片处理准入控制服务实现类
+ *
+ * 信号量以KB为单位计数，公平模式保证大图不会被源源不断的小图饿死；
+ * 单张图片的预估超过整个预算时按整个预算计，此时它会独占预算而不是永远无法执行
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageAdmissionServiceImpl implements ImageAdmissionService {
+
+    @Value("${image.admission.memory-budget-mb:0}")
+    private long memoryBudgetMb;
+
+    @Value("${image.admission.pool-size:4}")
+    private int poolSize;
+
+    @Value("${image.admission.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${image.admission.queue-timeout-ms:5000}")
+    private long queueTimeoutMs;
+
+    @Value("${image.admission.execute-timeout-seconds:60}")
+    private long executeTimeoutSeconds;
+
+    @Value("${image.admission.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private Semaphore budget;
+    private int budgetKb;
+    private ThreadPoolExecutor executor;
+    private Timer waitTimer;
+    private Counter queueFullCounter;
+    private Counter timeoutCounter;
+
+    @PostConstruct
+    public void init() {
+        long budgetBytes = memoryBudgetMb > 0 ? memoryBudgetMb * 1024 * 1024 : Runtime.getRuntime().maxMemory() / 4;
+        budgetKb = (int) Math.min(Integer.MAX_VALUE, budgetBytes / 1024);
+        budget = new Semaphore(budgetKb, true);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-admission-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("image.admission.budget.used.bytes", this, service -> service.usedBytes())
+                .description("已发放的图片内存许可(字节)")
+                .register(meterRegistry);
+        Gauge.builder("image.admission.waiting", waiting, AtomicInteger::get)
+                .description("等待内存许可的任务数")
+                .register(meterRegistry);
+        Gauge.builder("image.admission.queue.size", executor, pool -> pool.getQueue().size())
+                .description("图片处理线程池排队数")
+                .register(meterRegistry);
+        waitTimer = meterRegistry.timer("image.admission.wait");
+        queueFullCounter = meterRegistry.counter("image.admission.rejected", "reason", "queue_full");
+        timeoutCounter = meterRegistry.counter("image.admission.rejected", "reason", "timeout");
+
+        log.info("图片处理准入控制初始化完成，内存预算：{}MB，线程数：{}，队列容量：{}",
+                budgetKb / 1024, poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Permit acquire(long estimatedBytes) {
+        return acquire(estimatedBytes, System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs));
+    }
+
+    @Override
+    public <T> T execute(long estimatedBytes, Callable<T> task) throws IOException {
+        long submittedAt = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+        Future<T> future;
+        try {
+            // 线程池排队时间也计入等待时间，整体超过排队上限即视为繁忙
+            future = executor.submit(() -> {
+                Permit permit = acquire(estimatedBytes, submittedAt, timeoutNanos);
+                try {
+                    return task.call();
+                } finally {
+                    permit.close();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queueFullCounter.increment();
+            throw busy("图片处理队列已满");
+        }
+
+        try {
+            return future.get(executeTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("等待图片处理被中断", e);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new IOException("图片处理超时", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("图片处理失败：" + cause.getMessage(), cause);
+        }
+    }
+
+    @Override
+    public void recordDecode(String format, long nanos) {
+        meterRegistry.timer("image.decode.duration", "format", formatTag(format)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordEncode(String format, long nanos) {
+        meterRegistry.timer("image.encode.duration", "format", formatTag(format)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("budgetBytes", (long) budgetKb * 1024);
+        status.put("usedBytes", usedBytes());
+        status.put("waiting", waiting.get());
+        status.put("active", executor.getActiveCount());
+        status.put("queued", executor.getQueue().size());
+        status.put("queueCapacity", queueCapacity);
+        status.put("rejectedQueueFull", (long) queueFullCounter.count());
+        status.put("rejectedTimeout", (long) timeoutCounter.count());
+        return status;
+    }
+
+    private Permit acquire(long estimatedBytes, long startNanos, long timeoutNanos) {
+        int permits = (int) Math.max(1, Math.min(budgetKb, (estimatedBytes + 1023) / 1024));
+        waiting.incrementAndGet();
+        try {
+            long remaining = timeoutNanos - (System.nanoTime() - startNanos);
+            if (remaining <= 0 || !budget.tryAcquire(permits, remaining, TimeUnit.NANOSECONDS)) {
+                timeoutCounter.increment();
+                throw busy("图片处理繁忙，等待内存配额超时");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw busy("等待图片处理配额被中断");
+        } finally {
+            waiting.decrementAndGet();
+        }
+        waitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                budget.release(permits);
+            }
+        };
+    }
+
+    private long usedBytes() {
+        return (long) (budgetKb - budget.availablePermits()) * 1024;
+    }
+
+    private ServiceBusyException busy(String message) {
+        return new ServiceBusyException(message, retryAfterSeconds);
+    }
+
+    private String formatTag(String format) {
+        return format == null ? "unknown" : format.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,514 @@
+package com.manage.service.impl;
+
+import com.manage.exception.ServiceBusyException;
+import com.manage.service.BlobStorageService;
+import com.manage.service.ImageAdmissionService;
+import com.manage.service.ImageDerivativeService;
+import com.manage.util.ImageCompressionUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 图片派生图服务实现类
+ *
+ * 缓存键 = SHA-256(原图内容哈希、宽度档位、格式、质量)，去重存储中内容相同的原图共用同一份派生图；
+ * 原图未纳入去重存储时以(路径、大小、修改时间)代替内容哈希。原图被替换后内容或修改时间变化，缓存自然失效；
+ * 派生图按键分两级目录存放，内存中维护访问顺序和总大小，超出上限淘汰最久未访问的文件；
+ * 被淘汰的文件延迟一段时间再删除，刚拿到路径、尚未打开文件的请求仍能正常输出。
+ * 宽度按固定档位向上取整、质量按5取整，防止任意参数组合撑爆缓存
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageDerivativeServiceImpl implements ImageDerivativeService {
+
+    /**
+     * 允许的宽度档位
+     */
+    private static final int[] WIDTH_BUCKETS = {160, 240, 320, 480, 640, 800, 960, 1024, 1280, 1600, 1920, 2560};
+
+    private static final List<String> SOURCE_FORMATS = Arrays.asList("jpg", "jpeg", "png", "bmp", "webp");
+
+    private static final int DEFAULT_QUALITY = 80;
+    private static final int MIN_QUALITY = 30;
+    private static final int MAX_QUALITY = 95;
+
+    @Value("${file.derivative.cache-path:uploads-cache}")
+    private String cachePath;
+
+    @Value("${file.derivative.max-size-bytes:1073741824}")
+    private long maxCacheBytes;
+
+    @Value("${file.derivative.render-timeout-seconds:30}")
+    private long renderTimeoutSeconds;
+
+    @Value("${file.derivative.jpg-bits-per-pixel:2.0}")
+    private double jpgBitsPerPixel;
+
+    @Value("${file.derivative.webp-bits-per-pixel:1.2}")
+    private double webpBitsPerPixel;
+
+    @Value("${file.derivative.min-auto-quality:55}")
+    private int minAutoQuality;
+
+    @Value("${file.derivative.eviction-grace-seconds:60}")
+    private long evictionGraceSeconds;
+
+    private final MeterRegistry meterRegistry;
+    private final ImageAdmissionService imageAdmissionService;
+    private final BlobStorageService blobStorageService;
+
+    /**
+     * 缓存键 -> 派生图文件，按访问顺序排列；由自身加锁保护
+     */
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * 已淘汰、等待删除的文件，按淘汰时间排列；由entries加锁保护
+     */
+    private final ArrayDeque<EvictedFile> evictedFiles = new ArrayDeque<>();
+
+    /**
+     * 正在生成的派生图，用于合并并发请求
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> rendering = new ConcurrentHashMap<>();
+
+    private Path cacheRoot;
+    private boolean webpWritable;
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter coalescedCounter;
+    private Counter evictionCounter;
+
+    @PostConstruct
+    public void init() throws IOException {
+        cacheRoot = Paths.get(cachePath).toAbsolutePath().normalize();
+        Files.createDirectories(cacheRoot);
+        loadExistingEntries();
+        webpWritable = ImageCompressionUtil.canWrite("webp");
+        if (!webpWritable) {
+            log.warn("当前环境没有WebP编码器，请求WebP的派生图将输出JPEG");
+        }
+
+        hitCounter = meterRegistry.counter("image.derivative.requests", "result", "hit");
+        missCounter = meterRegistry.counter("image.derivative.requests", "result", "miss");
+        coalescedCounter = meterRegistry.counter("image.derivative.requests", "result", "coalesced");
+        evictionCounter = meterRegistry.counter("image.derivative.evictions");
+        Gauge.builder("image.derivative.cache.bytes", this, service -> service.currentBytes())
+                .description("派生图缓存占用字节数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean supports(Path source) {
+        String name = source.getFileName().toString().toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && SOURCE_FORMATS.contains(name.substring(dot + 1));
+    }
+
+    @Override
+    public boolean supportsOutputFormat(String format) {
+        String value = format == null ? "" : format.trim().toLowerCase(Locale.ROOT);
+        switch (value) {
+            case "jpg":
+            case "jpeg":
+            case "png":
+                return true;
+            case "webp":
+                return webpWritable;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public Path getDerivative(Path source, String relativePath, Integer width, String format,
+                              Integer quality) throws IOException {
+        int targetWidth = width == null ? 0 : snapWidth(width);
+        String targetFormat = normalizeFormat(format, source);
+        // 未指定质量时在大小预算内自动查找，缓存键与显式质量区分开
+        int targetQuality = normalizeQuality(quality);
+        boolean autoQuality = quality == null;
+        String key = cacheKey(source, relativePath, targetWidth, targetFormat,
+                autoQuality ? "auto" : String.valueOf(targetQuality));
+
+        Path cached = lookup(key);
+        if (cached != null) {
+            hitCounter.increment();
+            return cached;
+        }
+
+        CompletableFuture<Path> mine = new CompletableFuture<>();
+        CompletableFuture<Path> existing = rendering.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalescedCounter.increment();
+            return await(existing);
+        }
+
+        try {
+            // 抢到生成权后再查一次，前一个生成者可能刚刚完成
+            Path rendered = lookup(key);
+            if (rendered == null) {
+                missCounter.increment();
+                rendered = render(source, key, targetWidth, targetFormat, targetQuality, autoQuality);
+                register(key, rendered);
+            }
+            mine.complete(rendered);
+            return rendered;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(key, mine);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getCacheStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        synchronized (entries) {
+            statistics.put("files", entries.size());
+            statistics.put("totalBytes", totalBytes);
+            statistics.put("pendingDeletes", evictedFiles.size());
+        }
+        statistics.put("maxBytes", maxCacheBytes);
+        statistics.put("rendering", rendering.size());
+        statistics.put("hits", (long) hitCounter.count());
+        statistics.put("misses", (long) missCounter.count());
+        statistics.put("coalesced", (long) coalescedCounter.count());
+        statistics.put("evictions", (long) evictionCounter.count());
+        return statistics;
+    }
+
+    private long currentBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    private Path await(CompletableFuture<Path> future) throws IOException {
+        try {
+            return future.get(renderTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待派生图生成被中断", e);
+        } catch (TimeoutException e) {
+            throw new IOException("等待派生图生成超时", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof ServiceBusyException) {
+                throw (ServiceBusyException) cause;
+            }
+            throw new IOException("派生图生成失败：" + cause.getMessage(), cause);
+        }
+    }
+
+    private Path render(Path source, String key, int targetWidth, String targetFormat,
+                        int targetQuality, boolean autoQuality) throws IOException {
+        long start = System.currentTimeMillis();
+        ImageCompressionUtil.ImageInfo info;
+        try {
+            info = ImageCompressionUtil.probeImageInfo(source);
+        } catch (IOException e) {
+            throw new IOException("无法解码图片：" + source.getFileName(), e);
+        }
+        int subsampling = ImageCompressionUtil.subsamplingFactor(info, targetWidth, 0);
+
+        // 解码和编码在准入控制的线程池中执行，内存预算不足时排队，排不上时直接返回繁忙
+        byte[] data = imageAdmissionService.execute(ImageCompressionUtil.estimateDecodedBytes(info, subsampling),
+                () -> encode(source, info, subsampling, targetWidth, targetFormat, targetQuality, autoQuality));
+
+        Path target = resolveCacheFile(key, targetFormat);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".render-", ".tmp");
+        try {
+            Files.write(temp, data);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        log.debug("生成派生图：{} -> {}，宽度：{}，格式：{}，质量：{}，大小：{}，耗时：{}ms",
+                source.getFileName(), target.getFileName(), targetWidth, targetFormat, targetQuality,
+                data.length, System.currentTimeMillis() - start);
+        return target;
+    }
+
+    private byte[] encode(Path source, ImageCompressionUtil.ImageInfo info, int subsampling, int targetWidth,
+                          String targetFormat, int targetQuality, boolean autoQuality) throws IOException {
+        long decodeStart = System.nanoTime();
+        BufferedImage image;
+        try {
+            image = ImageCompressionUtil.decodeImage(source, subsampling);
+        } catch (IOException e) {
+            throw new IOException("无法解码图片：" + source.getFileName(), e);
+        }
+        imageAdmissionService.recordDecode(info.getFormat(), System.nanoTime() - decodeStart);
+
+        long encodeStart = System.nanoTime();
+        // JPEG不支持透明通道，铺白底后再编码
+        if ("jpg".equals(targetFormat) && image.getColorModel().hasAlpha()) {
+            image = flattenAlpha(image);
+        }
+
+        int width = targetWidth <= 0 ? image.getWidth() : Math.min(targetWidth, info.getWidth());
+        BufferedImage scaled = ImageCompressionUtil.scaleToWidth(image, width);
+        long budget = autoQuality ? sizeBudget(scaled, targetFormat) : 0;
+        byte[] data = ImageCompressionUtil.encodeWithinBudget(scaled, targetFormat, targetQuality,
+                Math.min(minAutoQuality, targetQuality), budget);
+        imageAdmissionService.recordEncode(targetFormat, System.nanoTime() - encodeStart);
+        return data;
+    }
+
+    /**
+     * 按每像素比特数计算大小预算；同等观感下WebP约比JPEG小三到四成，预算相应更低
+     */
+    private long sizeBudget(BufferedImage image, String format) {
+        double bitsPerPixel = "webp".equals(format) ? webpBitsPerPixel : "jpg".equals(format) ? jpgBitsPerPixel : 0;
+        return (long) ((double) image.getWidth() * image.getHeight() * bitsPerPixel / 8);
+    }
+
+    private BufferedImage flattenAlpha(BufferedImage image) {
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    private Path lookup(String key) {
+        synchronized (entries) {
+            CacheEntry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (!Files.exists(entry.path)) {
+                entries.remove(key);
+                totalBytes -= entry.size;
+                return null;
+            }
+            return entry.path;
+        }
+    }
+
+    private void register(String key, Path path) throws IOException {
+        long size = Files.size(path);
+        synchronized (entries) {
+            CacheEntry previous = entries.put(key, new CacheEntry(path, size));
+            if (previous != null) {
+                totalBytes -= previous.size;
+            }
+            totalBytes += size;
+
+            long now = System.currentTimeMillis();
+            Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+            while (totalBytes > maxCacheBytes && iterator.hasNext()) {
+                Map.Entry<String, CacheEntry> eldest = iterator.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                iterator.remove();
+                totalBytes -= eldest.getValue().size;
+                evictedFiles.add(new EvictedFile(eldest.getKey(), eldest.getValue().path, now));
+                evictionCounter.increment();
+            }
+        }
+    }
+
+    /**
+     * 删除淘汰超过宽限期的文件；同一键期间已重新生成并登记的文件保留
+     */
+    @Scheduled(fixedDelayString = "${file.derivative.eviction-purge-interval-ms:10000}")
+    public void purgeEvictedFiles() {
+        long deadline = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(evictionGraceSeconds);
+        // 在锁内删除，避免检查之后同一路径又被重新生成登记
+        synchronized (entries) {
+            while (!evictedFiles.isEmpty() && evictedFiles.peek().evictedAt <= deadline) {
+                EvictedFile evicted = evictedFiles.poll();
+                if (entries.containsKey(evicted.key)) {
+                    continue;
+                }
+                try {
+                    Files.deleteIfExists(evicted.path);
+                } catch (IOException e) {
+                    log.warn("删除淘汰的派生图失败：{}，原因：{}", evicted.path, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 启动时扫描缓存目录，按修改时间恢复访问顺序，并清理上次中断留下的临时文件
+     */
+    private void loadExistingEntries() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(cacheRoot)) {
+            files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+
+        List<Path> cached = new ArrayList<>();
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(".tmp")) {
+                Files.deleteIfExists(file);
+            } else {
+                cached.add(file);
+            }
+        }
+        cached.sort(Comparator.comparingLong(file -> file.toFile().lastModified()));
+
+        for (Path file : cached) {
+            String name = file.getFileName().toString();
+            int dot = name.lastIndexOf('.');
+            register(dot > 0 ? name.substring(0, dot) : name, file);
+        }
+        log.info("派生图缓存加载完成，文件数：{}，总大小：{}字节，上限：{}字节", entries.size(), totalBytes, maxCacheBytes);
+    }
+
+    private Path resolveCacheFile(String key, String format) {
+        return cacheRoot.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key + "." + format);
+    }
+
+    private int snapWidth(int width) {
+        for (int bucket : WIDTH_BUCKETS) {
+            if (width <= bucket) {
+                return bucket;
+            }
+        }
+        return WIDTH_BUCKETS[WIDTH_BUCKETS.length - 1];
+    }
+
+    private int normalizeQuality(Integer quality) {
+        if (quality == null) {
+            return DEFAULT_QUALITY;
+        }
+        int clamped = Math.max(MIN_QUALITY, Math.min(MAX_QUALITY, quality));
+        return Math.round(clamped / 5f) * 5;
+    }
+
+    /**
+     * 规范化输出格式：未指定时沿用原图格式；当前运行环境没有WebP编码器时退回JPEG
+     */
+    private String normalizeFormat(String format, Path source) {
+        String value = format == null ? "" : format.trim().toLowerCase(Locale.ROOT);
+        if (value.isEmpty() || "auto".equals(value) || "original".equals(value)) {
+            String name = source.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".webp") && webpWritable) {
+                return "webp";
+            }
+            return name.endsWith(".png") ? "png" : "jpg";
+        }
+        switch (value) {
+            case "jpg":
+            case "jpeg":
+                return "jpg";
+            case "png":
+                return "png";
+            case "webp":
+                return webpWritable ? "webp" : "jpg";
+            default:
+                throw new IllegalArgumentException("不支持的图片格式：" + format);
+        }
+    }
+
+    private String cacheKey(Path source, String relativePath, int width, String format,
+                            String quality) throws IOException {
+        String contentHash = blobStorageService.getContentHash(relativePath);
+        String sourceIdentity = contentHash != null
+                ? "sha256:" + contentHash
+                : "path:" + relativePath + '\n' + Files.size(source) + '\n' + Files.getLastModifiedTime(source).toMillis();
+        String identity = sourceIdentity + '\n' + width + '\n' + format + '\n' + quality;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(identity.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JVM不支持SHA-256", e);
+        }
+    }
+
+    /**
+     * 等待删除的淘汰文件
+     */
+    private static final class EvictedFile {
+
+        private final String key;
+        private final Path path;
+        private final long evictedAt;
+
+        private EvictedFile(String key, Path path, long evictedAt) {
+            this.key = key;
+            this.path = path;
+            this.evictedAt = evictedAt;
+        }
+    }
+
+    /**
+     * 缓存条目
+     */
+    private static final class CacheEntry {
+
+        private final Path path;
+        private final long size;
+
+        private CacheEntry(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,534 @@
+package com.manage.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.manage.common.ResultCode;
+import com.manage.entity.MediaFile;
+import com.manage.exception.BusinessException;
+import com.manage.exception.ServiceBusyException;
+import com.manage.repository.MediaFileRepository;
+import com.manage.service.BlobStorageService;
+import com.manage.service.ImageAdmissionService;
+import com.manage.service.ImageDerivativeService;
+import com.manage.service.ImageProcessingService;
+import com.manage.util.ImageCompressionUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 图片后台处理服务实现类
+ *
+ * 每张图片只解码一次，依次生成缩略图、响应式变体和压缩主图（替换原图，URL不变；去重存储中的内容不可修改，
+ * 压缩结果作为新内容入库后改链，相同原图压缩结果相同，仍然只存一份）。
+ * 主图URL不变，处理完成前文件访问接口对原图只返回 no-cache，客户端重新验证后即可拿到压缩主图。
+ * 线程池和队列都有上限：队列满时任务不执行也不丢弃，记录保持排队状态，由定时补偿任务重新提交；
+ * 服务重启时中断的任务同样由补偿任务按超时重新处理
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageProcessingServiceImpl implements ImageProcessingService {
+
+    private static final float VARIANT_QUALITY = 0.8f;
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 500;
+
+    @Value("${file.upload.path:uploads}")
+    private String uploadPath;
+
+    @Value("${file.access.url}")
+    private String accessUrl;
+
+    @Value("${image.processing.pool-size:2}")
+    private int poolSize;
+
+    @Value("${image.processing.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${image.processing.variant-widths:320,640,1024}")
+    private int[] variantWidths;
+
+    @Value("${image.processing.stale-timeout-seconds:600}")
+    private long staleTimeoutSeconds;
+
+    @Value("${image.processing.webp-prewarm:true}")
+    private boolean webpPrewarm;
+
+    private final MediaFileRepository mediaFileRepository;
+    private final BlobStorageService blobStorageService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ImageAdmissionService imageAdmissionService;
+    private final ImageDerivativeService imageDerivativeService;
+
+    /**
+     * 已提交到线程池（排队或执行中）的媒体文件ID，避免重复提交
+     */
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 存储路径是否尚未处理完成的短期缓存，避免每次访问图片都查询数据库；状态变化时主动失效
+     */
+    private final Cache<String, Boolean> processingPaths = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(10, TimeUnit.SECONDS)
+            .build();
+
+    private ThreadPoolExecutor executor;
+    private Counter completedCounter;
+    private Counter failedCounter;
+    private Counter deferredCounter;
+    private Timer processingTimer;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-process-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("image.processing.queue.size", executor, pool -> pool.getQueue().size())
+                .description("图片处理队列长度")
+                .register(meterRegistry);
+        Gauge.builder("image.processing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在处理的图片数")
+                .register(meterRegistry);
+        completedCounter = meterRegistry.counter("image.processing.tasks", "result", "completed");
+        failedCounter = meterRegistry.counter("image.processing.tasks", "result", "failed");
+        deferredCounter = meterRegistry.counter("image.processing.tasks", "result", "deferred");
+        processingTimer = meterRegistry.timer("image.processing.duration");
+
+        log.info("图片处理线程池初始化完成，线程数：{}，队列容量：{}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                List<Runnable> dropped = executor.shutdownNow();
+                log.warn("图片处理线程池关闭超时，{}个排队任务将在下次启动后由补偿任务重新处理", dropped.size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean submit(Long mediaFileId) {
+        if (mediaFileId == null || !inFlight.add(mediaFileId)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> process(mediaFileId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(mediaFileId);
+            deferredCounter.increment();
+            log.warn("图片处理队列已满，任务延后处理，媒体文件ID：{}", mediaFileId);
+            return false;
+        }
+    }
+
+    @Override
+    public Map<String, Object> getProcessingStatus(Long mediaFileId) {
+        MediaFile mediaFile = mediaFileRepository.findById(mediaFileId)
+                .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "媒体文件不存在"));
+        return buildStatus(mediaFile);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${image.processing.resubmit-interval-ms:30000}", initialDelay = 10000)
+    public int resubmitPending() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity <= 0) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<MediaFile> candidates = new ArrayList<>(mediaFileRepository
+                .findByProcessStatusAndUpdateTimeBeforeOrderByUpdateTimeAsc(
+                        MediaFile.PROCESS_PENDING, now.minusSeconds(5), PageRequest.of(0, capacity)));
+        // 处理中但长时间未更新的记录，视为服务重启或异常中断
+        candidates.addAll(mediaFileRepository
+                .findByProcessStatusAndUpdateTimeBeforeOrderByUpdateTimeAsc(
+                        MediaFile.PROCESS_RUNNING, now.minusSeconds(staleTimeoutSeconds), PageRequest.of(0, capacity)));
+
+        int submitted = 0;
+        for (MediaFile mediaFile : candidates) {
+            if (submit(mediaFile.getId())) {
+                submitted++;
+            }
+        }
+        if (submitted > 0) {
+            log.info("重新提交图片处理任务：{}个", submitted);
+        }
+        return submitted;
+    }
+
+    @Override
+    public boolean isProcessing(String storagePath) {
+        if (!StringUtils.hasText(storagePath)) {
+            return false;
+        }
+        return processingPaths.get(storagePath, path -> mediaFileRepository.existsByFilePathAndProcessStatusIn(
+                path, Arrays.asList(MediaFile.PROCESS_PENDING, MediaFile.PROCESS_RUNNING)));
+    }
+
+    private void process(Long mediaFileId) {
+        long start = System.nanoTime();
+        try {
+            doProcess(mediaFileId);
+        } finally {
+            inFlight.remove(mediaFileId);
+            processingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void doProcess(Long mediaFileId) {
+        MediaFile mediaFile = mediaFileRepository.findById(mediaFileId).orElse(null);
+        if (mediaFile == null || Integer.valueOf(3).equals(mediaFile.getStatus())) {
+            return;
+        }
+        mediaFile.setProcessStatus(MediaFile.PROCESS_RUNNING);
+        mediaFileRepository.save(mediaFile);
+
+        List<Path> produced = new ArrayList<>();
+        ImageAdmissionService.Permit permit = null;
+        try {
+            String storagePath = mediaFile.getFilePath();
+            Path original = resolve(storagePath);
+            long originalSize = Files.size(original);
+            String format = ImageCompressionUtil.getImageFormat(storagePath);
+
+            // 先读图片头，再按所有输出中最大的尺寸降采样解码一次，后续所有输出都基于同一个BufferedImage
+            ImageCompressionUtil.ImageInfo info = ImageCompressionUtil.probeImageInfo(original);
+            boolean compressMaster = mediaFile.getFileSize() == null || mediaFile.getFileSize() == originalSize;
+            int subsampling = decodeSubsampling(info, originalSize, format, compressMaster);
+
+            // 位图存活期间占用内存配额，与请求线程上的派生图生成共用同一预算
+            permit = imageAdmissionService.acquire(ImageCompressionUtil.estimateDecodedBytes(info, subsampling));
+            long decodeStart = System.nanoTime();
+            BufferedImage image = ImageCompressionUtil.decodeImage(original, subsampling);
+            imageAdmissionService.recordDecode(info.getFormat(), System.nanoTime() - decodeStart);
+            long encodeStart = System.nanoTime();
+
+            String directory = storagePath.contains("/") ? storagePath.substring(0, storagePath.lastIndexOf('/')) : "";
+            String fileName = storagePath.substring(storagePath.lastIndexOf('/') + 1);
+            String baseName = fileName.contains(".") ? fileName.substring(0, fileName.lastIndexOf('.')) : fileName;
+            String extension = fileName.contains(".") ? fileName.substring(fileName.lastIndexOf('.')) : "." + format;
+            String prefix = directory.isEmpty() ? "" : directory + "/";
+
+            String thumbnailUrl = mediaFile.getThumbnailUrl();
+            if (!StringUtils.hasText(thumbnailUrl)) {
+                ImageCompressionUtil.ImageCompressionResult thumbnail =
+                        ImageCompressionUtil.generateThumbnail(image, originalSize);
+                String thumbnailPath = prefix + "thumbnails/" + baseName + "_thumb.jpg";
+                produced.add(writeAtomically(resolve(thumbnailPath), thumbnail.getFinalData()));
+                thumbnailUrl = accessUrl + "/" + thumbnailPath;
+            }
+
+            // GIF缩放会丢失动画，不生成变体
+            Map<String, String> variants = new LinkedHashMap<>();
+            if (!"gif".equals(format)) {
+                for (int width : variantWidths) {
+                    if (width >= info.getWidth()) {
+                        continue;
+                    }
+                    byte[] data = ImageCompressionUtil.resizeToWidth(image, width, VARIANT_QUALITY, format);
+                    String variantPath = prefix + "variants/" + baseName + "_w" + width + extension;
+                    produced.add(writeAtomically(resolve(variantPath), data));
+                    variants.put(String.valueOf(width), accessUrl + "/" + variantPath);
+                }
+            }
+
+            // 磁盘上的文件大小与记录一致才说明仍是原图，避免中断重试时对主图重复有损压缩
+            long finalSize = originalSize;
+            String blobHash = mediaFile.getBlobHash();
+            boolean masterReplaced = false;
+            if (compressMaster) {
+                ImageCompressionUtil.ImageCompressionResult master = ImageCompressionUtil.smartCompress(
+                        image, info.getWidth(), info.getHeight(), originalSize, format);
+                if (master.isCompressed() && master.getCompressedSize() < originalSize) {
+                    if (blobHash != null && blobStorageService.isEnabled()) {
+                        String compressedHash = blobStorageService.store(
+                                new ByteArrayInputStream(master.getFinalData()), storagePath);
+                        blobStorageService.release(blobHash);
+                        blobHash = compressedHash;
+                    } else {
+                        writeAtomically(original, master.getFinalData());
+                    }
+                    masterReplaced = true;
+                    finalSize = master.getCompressedSize();
+                }
+            }
+            image = null;
+            permit.close();
+            imageAdmissionService.recordEncode(format, System.nanoTime() - encodeStart);
+
+            // 重新加载记录，避免覆盖处理期间对描述、标签等字段的修改
+            MediaFile latest = mediaFileRepository.findById(mediaFileId).orElse(null);
+            if (latest == null || Integer.valueOf(3).equals(latest.getStatus())) {
+                deleteQuietly(produced);
+                if (masterReplaced) {
+                    // 写入压缩主图会重新创建已被删除的文件
+                    deleteQuietly(Collections.singletonList(original));
+                    if (blobHash != null && !blobHash.equals(mediaFile.getBlobHash())) {
+                        blobStorageService.release(blobHash);
+                    }
+                }
+                log.info("图片处理期间文件已被删除，清理生成的文件，媒体文件ID：{}", mediaFileId);
+                return;
+            }
+            latest.setThumbnailUrl(thumbnailUrl);
+            latest.setBlobHash(blobHash);
+            latest.setVariants(variants.isEmpty() ? null : objectMapper.writeValueAsString(variants));
+            latest.setFileSize(finalSize);
+            latest.setProcessStatus(MediaFile.PROCESS_DONE);
+            latest.setErrorMessage(null);
+            mediaFileRepository.save(latest);
+            processingPaths.invalidate(storagePath);
+
+            completedCounter.increment();
+            log.info("图片处理完成，媒体文件ID：{}，原始大小：{}，主图大小：{}，变体：{}",
+                    mediaFileId, originalSize, finalSize, variants.keySet());
+            notifyProcessed(latest);
+            prewarmWebp(original, storagePath, format, info.getWidth());
+        } catch (ServiceBusyException e) {
+            // 内存配额不足不算失败，恢复排队状态由补偿任务稍后重新提交
+            deferredCounter.increment();
+            log.info("图片处理内存配额不足，任务延后处理，媒体文件ID：{}", mediaFileId);
+            markPending(mediaFileId);
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.error("图片处理失败，媒体文件ID：{}，错误：{}", mediaFileId, e.getMessage(), e);
+            deleteQuietly(produced);
+            markFailed(mediaFileId, e.getMessage());
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
+        }
+    }
+
+    /**
+     * 预先生成原尺寸和各变体宽度的WebP派生图，支持WebP的浏览器首次访问即可命中缓存；
+     * 预热失败只影响首次访问速度，不影响处理结果
+     */
+    private void prewarmWebp(Path original, String storagePath, String format, int width) {
+        if (!webpPrewarm || !("jpg".equals(format) || "png".equals(format))
+                || !imageDerivativeService.supportsOutputFormat("webp")) {
+            return;
+        }
+        List<Integer> widths = new ArrayList<>();
+        widths.add(null);
+        for (int variantWidth : variantWidths) {
+            if (variantWidth < width) {
+                widths.add(variantWidth);
+            }
+        }
+        for (Integer targetWidth : widths) {
+            try {
+                imageDerivativeService.getDerivative(original, storagePath, targetWidth, "webp", null);
+            } catch (Exception e) {
+                log.debug("预生成WebP派生图失败：{}，宽度：{}，原因：{}", storagePath, targetWidth, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private void markPending(Long mediaFileId) {
+        try {
+            MediaFile latest = mediaFileRepository.findById(mediaFileId).orElse(null);
+            if (latest != null && Integer.valueOf(MediaFile.PROCESS_RUNNING).equals(latest.getProcessStatus())) {
+                latest.setProcessStatus(MediaFile.PROCESS_PENDING);
+                mediaFileRepository.save(latest);
+            }
+        } catch (Exception e) {
+            log.error("恢复图片处理排队状态出错，媒体文件ID：{}，错误：{}", mediaFileId, e.getMessage());
+        }
+    }
+
+    private void markFailed(Long mediaFileId, String message) {
+        try {
+            MediaFile latest = mediaFileRepository.findById(mediaFileId).orElse(null);
+            if (latest == null) {
+                return;
+            }
+            String error = "图片处理失败：" + message;
+            latest.setProcessStatus(MediaFile.PROCESS_FAILED);
+            latest.setErrorMessage(error.length() > MAX_ERROR_MESSAGE_LENGTH
+                    ? error.substring(0, MAX_ERROR_MESSAGE_LENGTH) : error);
+            mediaFileRepository.save(latest);
+            processingPaths.invalidate(latest.getFilePath());
+            notifyProcessed(latest);
+        } catch (Exception e) {
+            log.error("更新图片处理失败状态出错，媒体文件ID：{}，错误：{}", mediaFileId, e.getMessage());
+        }
+    }
+
+    /**
+     * 推送处理结果：按文件ID订阅或订阅全部
+     */
+    private void notifyProcessed(MediaFile mediaFile) {
+        try {
+            Map<String, Object> status = buildStatus(mediaFile);
+            messagingTemplate.convertAndSend("/topic/media/" + mediaFile.getId() + "/processing", status);
+            messagingTemplate.convertAndSend("/topic/media/processing", status);
+        } catch (Exception e) {
+            log.warn("推送图片处理结果失败，媒体文件ID：{}，错误：{}", mediaFile.getId(), e.getMessage());
+        }
+    }
+
+    private Map<String, Object> buildStatus(MediaFile mediaFile) {
+        Map<String, Object> status = new HashMap<>();
+        status.put("id", mediaFile.getId());
+        status.put("processStatus", mediaFile.getProcessStatus());
+        status.put("processStatusName", getProcessStatusName(mediaFile.getProcessStatus()));
+        status.put("queued", inFlight.contains(mediaFile.getId()));
+        status.put("url", mediaFile.getFileUrl());
+        status.put("thumbnailUrl", mediaFile.getThumbnailUrl());
+        status.put("variants", parseVariants(mediaFile.getVariants()));
+        status.put("fileSize", mediaFile.getFileSize());
+        status.put("width", mediaFile.getWidth());
+        status.put("height", mediaFile.getHeight());
+        status.put("errorMessage", mediaFile.getErrorMessage());
+        return status;
+    }
+
+    private String getProcessStatusName(Integer processStatus) {
+        if (processStatus == null) {
+            return "NONE";
+        }
+        switch (processStatus) {
+            case MediaFile.PROCESS_PENDING:
+                return "PENDING";
+            case MediaFile.PROCESS_RUNNING:
+                return "PROCESSING";
+            case MediaFile.PROCESS_DONE:
+                return "DONE";
+            case MediaFile.PROCESS_FAILED:
+                return "FAILED";
+            default:
+                return "NONE";
+        }
+    }
+
+    private Map<String, String> parseVariants(String variants) {
+        if (!StringUtils.hasText(variants)) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(variants, new TypeReference<LinkedHashMap<String, String>>() {});
+        } catch (JsonProcessingException e) {
+            log.warn("解析图片变体失败：{}", e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 取缩略图、变体和压缩主图中要求最高的那个决定降采样倍数，保证每个输出都只缩小不放大
+     */
+    private int decodeSubsampling(ImageCompressionUtil.ImageInfo info, long originalSize, String format,
+                                  boolean compressMaster) {
+        int subsampling = ImageCompressionUtil.subsamplingFactor(info,
+                ImageCompressionUtil.THUMBNAIL_SIZE, ImageCompressionUtil.THUMBNAIL_SIZE);
+        if (!"gif".equals(format)) {
+            for (int width : variantWidths) {
+                if (width < info.getWidth()) {
+                    subsampling = Math.min(subsampling, ImageCompressionUtil.subsamplingFactor(info, width, 0));
+                }
+            }
+        }
+        if (compressMaster) {
+            int[] target = ImageCompressionUtil.smartCompressTarget(info.getWidth(), info.getHeight(), originalSize);
+            if (target != null) {
+                subsampling = Math.min(subsampling,
+                        ImageCompressionUtil.subsamplingFactor(info, target[0], target[1]));
+            }
+        }
+        return subsampling;
+    }
+
+    private Path resolve(String relativePath) {
+        return Paths.get(uploadPath, relativePath);
+    }
+
+    /**
+     * 先写临时文件再原子替换，读者不会看到写了一半的图片
+     */
+    private Path writeAtomically(Path target, byte[] data) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".processing-", ".tmp");
+        try {
+            Files.write(temp, data);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return target;
+    }
+
+    private void deleteQuietly(List<Path> paths) {
+        for (Path path : paths) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("删除图片处理产物失败：{}，错误：{}", path, e.getMessage());
+            }
+        }
+    }
+}
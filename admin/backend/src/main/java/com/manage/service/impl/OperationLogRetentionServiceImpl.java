@@ -0,0 +1,381 @@
+package com.manage.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.manage.exception.BusinessException;
+import com.manage.service.OperationLogRetentionService;
+import com.manage.service.OperationLogRollupService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 操作日志保留服务实现类
+ *
+ * 保留天数按“类型 > 模块 > 默认”的优先级匹配，每条规则对应一组互不重叠的过期行。
+ * 每块先按主键取出一批ID（归档时取整行并写入归档文件），再按ID集合删除，
+ * 每块的汇总扣减和删除在同一事务中提交（删除失败时扣减一起回滚），块之间暂停一段时间让出锁和IO
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OperationLogRetentionServiceImpl implements OperationLogRetentionService {
+
+    private static final String COLUMNS = "id, operation_type, operation_module, operation_desc, target_type, "
+            + "target_id, target_name, user_id, username, ip_address, user_agent, create_time";
+
+    private static final DateTimeFormatter ARCHIVE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Value("${operation-log.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${operation-log.retention.default-days:180}")
+    private int defaultDays;
+
+    @Value("${operation-log.retention.module-days:}")
+    private String moduleDaysConfig;
+
+    @Value("${operation-log.retention.type-days:}")
+    private String typeDaysConfig;
+
+    @Value("${operation-log.retention.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${operation-log.retention.chunk-pause-ms:200}")
+    private long chunkPauseMs;
+
+    @Value("${operation-log.retention.archive.enabled:true}")
+    private boolean archiveEnabled;
+
+    @Value("${operation-log.retention.archive.path:archives/operation-log}")
+    private String archivePath;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final OperationLogRollupService operationLogRollupService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Map<String, Object> lastRun = Collections.emptyMap();
+
+    private Map<String, Integer> moduleDays;
+    private Map<String, Integer> typeDays;
+    private Timer runTimer;
+
+    @PostConstruct
+    public void init() {
+        if (defaultDays <= 0 || chunkSize <= 0) {
+            throw new IllegalStateException("操作日志保留配置错误：default-days和chunk-size必须大于0");
+        }
+        moduleDays = parsePolicy(moduleDaysConfig);
+        typeDays = parsePolicy(typeDaysConfig);
+        runTimer = meterRegistry.timer("operation.log.retention.run");
+        log.info("操作日志保留策略：默认{}天，按模块：{}，按类型：{}，归档：{}",
+                defaultDays, moduleDays, typeDays, archiveEnabled ? archivePath : "关闭");
+    }
+
+    /**
+     * 定时按保留策略清理
+     */
+    @Scheduled(cron = "${operation-log.retention.cron:0 30 3 * * ?}")
+    public void scheduledPurge() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            purgeExpired();
+        } catch (Exception e) {
+            log.error("定时清理操作日志失败：{}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> purgeExpired() {
+        return run(buildPolicyRules(LocalDateTime.now()));
+    }
+
+    @Override
+    public int purgeBefore(LocalDateTime beforeTime) {
+        Rule rule = new Rule("manual", "create_time < ?", Collections.<Object>singletonList(Timestamp.valueOf(beforeTime)));
+        Map<String, Object> result = run(Collections.singletonList(rule));
+        return ((Number) result.get("purged")).intValue();
+    }
+
+    @Override
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        status.put("defaultDays", defaultDays);
+        status.put("moduleDays", moduleDays);
+        status.put("typeDays", typeDays);
+        status.put("chunkSize", chunkSize);
+        status.put("chunkPauseMs", chunkPauseMs);
+        status.put("archiveEnabled", archiveEnabled);
+        status.put("archivePath", archivePath);
+        status.put("running", running.get());
+        status.put("lastRun", lastRun);
+        return status;
+    }
+
+    private Map<String, Object> run(List<Rule> rules) {
+        if (!running.compareAndSet(false, true)) {
+            throw new BusinessException("日志清理任务正在执行，请稍后再试");
+        }
+        LocalDateTime startTime = LocalDateTime.now();
+        long start = System.nanoTime();
+        Map<String, Long> purgedByRule = new LinkedHashMap<>();
+        long total = 0;
+        ArchiveFile archive = archiveEnabled
+                ? new ArchiveFile(Paths.get(archivePath).resolve(
+                        "operation_log-" + startTime.format(ARCHIVE_NAME_FORMAT) + ".ndjson.gz"))
+                : null;
+        try {
+            for (Rule rule : rules) {
+                long purged = purgeRule(rule, archive);
+                purgedByRule.put(rule.name, purged);
+                total += purged;
+            }
+        } catch (IOException e) {
+            log.error("归档操作日志失败，已停止本次清理：{}", e.getMessage());
+            throw new BusinessException("归档操作日志失败：" + e.getMessage(), e);
+        } finally {
+            if (archive != null) {
+                archive.close();
+            }
+            running.set(false);
+            runTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("startTime", startTime);
+        result.put("purged", total);
+        result.put("archived", archive == null ? 0 : archive.rows);
+        result.put("archiveFile", archive == null || archive.rows == 0 ? null : archive.path.toString());
+        result.put("rules", purgedByRule);
+        result.put("durationMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        lastRun = result;
+        log.info("清理过期操作日志完成，删除：{}条，各规则：{}，耗时：{}ms",
+                total, purgedByRule, result.get("durationMs"));
+        return result;
+    }
+
+    /**
+     * 分块清理一条规则匹配的日志
+     */
+    private long purgeRule(Rule rule, ArchiveFile archive) throws IOException {
+        long purged = 0;
+        long lastId = 0;
+        while (true) {
+            List<Object> params = new ArrayList<>(rule.params);
+            params.add(lastId);
+            params.add(chunkSize);
+            String where = " FROM operation_log WHERE " + rule.where + " AND id > ? ORDER BY id LIMIT ?";
+
+            List<Long> ids = new ArrayList<>();
+            if (archive != null) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT " + COLUMNS + where, params.toArray());
+                // 先落盘再删除，删除失败时下次清理会重复归档，但不会丢日志
+                archive.write(rows);
+                for (Map<String, Object> row : rows) {
+                    ids.add(((Number) row.get("id")).longValue());
+                }
+            } else {
+                ids = jdbcTemplate.queryForList("SELECT id" + where, Long.class, params.toArray());
+            }
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            List<Long> chunk = ids;
+            Integer deleted = operationLogRollupService.applyChange(() -> transactionTemplate.execute(status -> {
+                operationLogRollupService.subtract(chunk);
+                return jdbcTemplate.update("DELETE FROM operation_log WHERE id IN ("
+                        + placeholders(chunk.size()) + ")", chunk.toArray());
+            }));
+            purged += deleted == null ? 0 : deleted;
+            meterRegistry.counter("operation.log.retention.purged", "rule", rule.name).increment(deleted == null ? 0 : deleted);
+            lastId = ids.get(ids.size() - 1);
+
+            if (ids.size() < chunkSize || !pause()) {
+                break;
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * 按保留策略生成清理规则；类型规则排除在模块规则之外，两者都排除在默认规则之外
+     */
+    private List<Rule> buildPolicyRules(LocalDateTime now) {
+        List<Rule> rules = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : typeDays.entrySet()) {
+            rules.add(new Rule("type:" + entry.getKey(), "operation_type = ? AND create_time < ?",
+                    Arrays.<Object>asList(entry.getKey(), Timestamp.valueOf(now.minusDays(entry.getValue())))));
+        }
+        for (Map.Entry<String, Integer> entry : moduleDays.entrySet()) {
+            List<Object> params = new ArrayList<>();
+            params.add(entry.getKey());
+            params.add(Timestamp.valueOf(now.minusDays(entry.getValue())));
+            String where = "operation_module = ? AND create_time < ?" + notIn("operation_type", typeDays.keySet(), params);
+            rules.add(new Rule("module:" + entry.getKey(), where, params));
+        }
+
+        List<Object> params = new ArrayList<>();
+        params.add(Timestamp.valueOf(now.minusDays(defaultDays)));
+        String where = "create_time < ?" + notIn("operation_module", moduleDays.keySet(), params)
+                + notIn("operation_type", typeDays.keySet(), params);
+        rules.add(new Rule("default", where, params));
+        return rules;
+    }
+
+    private String notIn(String column, Collection<String> values, List<Object> params) {
+        if (values.isEmpty()) {
+            return "";
+        }
+        params.addAll(values);
+        return " AND " + column + " NOT IN (" + placeholders(values.size()) + ")";
+    }
+
+    private String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private boolean pause() {
+        if (chunkPauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(chunkPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("操作日志清理被中断");
+            return false;
+        }
+    }
+
+    /**
+     * 解析“键:天数”逗号分隔配置，如 IMAGE:90,VIDEO:30
+     */
+    private Map<String, Integer> parsePolicy(String config) {
+        Map<String, Integer> policy = new HashMap<>();
+        if (!StringUtils.hasText(config)) {
+            return policy;
+        }
+        for (String item : config.split(",")) {
+            if (!StringUtils.hasText(item)) {
+                continue;
+            }
+            String[] parts = item.split(":");
+            int days;
+            try {
+                days = parts.length == 2 ? Integer.parseInt(parts[1].trim()) : 0;
+            } catch (NumberFormatException e) {
+                days = 0;
+            }
+            if (days <= 0 || !StringUtils.hasText(parts[0])) {
+                throw new IllegalStateException("操作日志保留配置错误：" + item);
+            }
+            policy.put(parts[0].trim(), days);
+        }
+        return policy;
+    }
+
+    /**
+     * 清理规则：规则名、WHERE条件及其参数
+     */
+    private static final class Rule {
+
+        private final String name;
+        private final String where;
+        private final List<Object> params;
+
+        private Rule(String name, String where, List<Object> params) {
+            this.name = name;
+            this.where = where;
+            this.params = params;
+        }
+    }
+
+    /**
+     * gzip压缩的NDJSON归档文件，第一次写入时才创建；每块写完后同步刷新，保证删除前已落盘
+     */
+    private final class ArchiveFile {
+
+        private final Path path;
+        private Writer writer;
+        private long rows;
+
+        private ArchiveFile(Path path) {
+            this.path = path;
+        }
+
+        private void write(List<Map<String, Object>> chunk) throws IOException {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            if (writer == null) {
+                Files.createDirectories(path.getParent());
+                writer = new BufferedWriter(new OutputStreamWriter(
+                        new GZIPOutputStream(Files.newOutputStream(path), 8192, true), StandardCharsets.UTF_8));
+            }
+            for (Map<String, Object> row : chunk) {
+                Map<String, Object> record = new LinkedHashMap<>(row);
+                Object createTime = record.get("create_time");
+                if (createTime instanceof Timestamp) {
+                    record.put("create_time", ((Timestamp) createTime).toLocalDateTime().toString());
+                }
+                writer.write(objectMapper.writeValueAsString(record));
+                writer.write('\n');
+            }
+            writer.flush();
+            rows += chunk.size();
+            meterRegistry.counter("operation.log.retention.archived").increment(chunk.size());
+        }
+
+        private void close() {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("关闭操作日志归档文件失败：{}，原因：{}", path, e.getMessage());
+            }
+        }
+    }
+}
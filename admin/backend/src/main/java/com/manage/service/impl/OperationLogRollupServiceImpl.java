@@ -0,0 +1,333 @@
+package com.manage.service.impl;
+
+import com.manage.entity.OperationLog;
+import com.manage.entity.OperationLogRollup;
+import com.manage.service.OperationLogRollupService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * 操作日志统计汇总服务实现类
+ *
+ * 日志写入器每写完一批，按（粒度, 时间桶, 类型, 模块, 用户）聚合后用一次批量UPSERT累加；
+ * 保留清理删除前按同样的维度扣减。小时粒度只保留近期数据，天和全量粒度一直保留。
+ * 增量更新失败时标记为待重建，由定时整理任务从日志表全量重建。
+ * 日志写入/删除与对应的增量更新共用读锁，全量重建持有写锁，重建不会统计到已写入但尚未累加的日志
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OperationLogRollupServiceImpl implements OperationLogRollupService {
+
+    private static final LocalDateTime ALL_BUCKET = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final String UPSERT_SQL = "INSERT INTO operation_log_rollup (granularity, bucket_start, "
+            + "operation_type, operation_module, user_id, log_count) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE log_count = log_count + VALUES(log_count)";
+
+    private static final String SUBTRACT_SQL = "UPDATE operation_log_rollup SET log_count = log_count - ? "
+            + "WHERE granularity = ? AND bucket_start = ? AND operation_type = ? AND operation_module = ? AND user_id = ?";
+
+    /**
+     * 小时粒度的保留天数，至少覆盖30天统计窗口
+     */
+    @Value("${operation-log.rollup.hourly-retention-days:31}")
+    private int hourlyRetentionDays;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    private volatile boolean dirty;
+    private Counter failureCounter;
+
+    @PostConstruct
+    public void init() {
+        if (hourlyRetentionDays < 31) {
+            log.warn("操作日志小时汇总保留天数{}不足以覆盖30天统计，调整为31天", hourlyRetentionDays);
+            hourlyRetentionDays = 31;
+        }
+        failureCounter = meterRegistry.counter("operation.log.rollup.failures");
+    }
+
+    /**
+     * 启动时校验汇总总数与日志表行数，不一致（如首次部署）则重建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            Long rolledUp = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(log_count), 0) FROM operation_log_rollup "
+                    + "WHERE granularity = ?", Long.class, OperationLogRollup.GRANULARITY_ALL);
+            Long logged = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM operation_log", Long.class);
+            if (!Objects.equals(rolledUp, logged)) {
+                log.info("操作日志统计汇总与日志表不一致（汇总：{}，日志：{}），开始重建", rolledUp, logged);
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("校验操作日志统计汇总失败：{}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 定时整理：待重建时全量重建，否则清理过期的小时汇总和已归零的汇总行
+     */
+    @Scheduled(fixedDelayString = "${operation-log.rollup.compaction-interval-ms:3600000}",
+               initialDelayString = "${operation-log.rollup.compaction-interval-ms:3600000}")
+    public void compact() {
+        try {
+            if (dirty) {
+                rebuild();
+                return;
+            }
+            LocalDateTime hourlySince = LocalDate.now().minusDays(hourlyRetentionDays).atStartOfDay();
+            int expired = jdbcTemplate.update("DELETE FROM operation_log_rollup WHERE granularity = ? AND bucket_start < ?",
+                    OperationLogRollup.GRANULARITY_HOUR, Timestamp.valueOf(hourlySince));
+            int empty = jdbcTemplate.update("DELETE FROM operation_log_rollup WHERE log_count <= 0");
+            log.debug("整理操作日志统计汇总完成，过期小时汇总：{}，归零汇总：{}", expired, empty);
+        } catch (Exception e) {
+            log.error("整理操作日志统计汇总失败：{}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void record(List<OperationLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        Map<Bucket, Long> buckets = new TreeMap<>();
+        for (OperationLog operationLog : logs) {
+            addBuckets(buckets, operationLog.getOperationType(), operationLog.getOperationModule(),
+                    operationLog.getUserId(), operationLog.getCreateTime());
+        }
+        try {
+            List<Object[]> batch = new ArrayList<>(buckets.size());
+            for (Map.Entry<Bucket, Long> entry : buckets.entrySet()) {
+                Bucket bucket = entry.getKey();
+                batch.add(new Object[]{bucket.granularity, Timestamp.valueOf(bucket.bucketStart),
+                        bucket.operationType, bucket.operationModule, bucket.userId, entry.getValue()});
+            }
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+        } catch (Exception e) {
+            markDirty("累加", e);
+        }
+    }
+
+    @Override
+    public void subtract(List<Long> logIds) {
+        if (logIds.isEmpty()) {
+            return;
+        }
+        try {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT operation_type, operation_module, "
+                    + "user_id, create_time FROM operation_log WHERE id IN ("
+                    + String.join(", ", Collections.nCopies(logIds.size(), "?")) + ")", logIds.toArray());
+            Map<Bucket, Long> buckets = new TreeMap<>();
+            for (Map<String, Object> row : rows) {
+                Number userId = (Number) row.get("user_id");
+                addBuckets(buckets, (String) row.get("operation_type"), (String) row.get("operation_module"),
+                        userId == null ? null : userId.longValue(), ((Timestamp) row.get("create_time")).toLocalDateTime());
+            }
+
+            List<Object[]> batch = new ArrayList<>(buckets.size());
+            for (Map.Entry<Bucket, Long> entry : buckets.entrySet()) {
+                Bucket bucket = entry.getKey();
+                batch.add(new Object[]{entry.getValue(), bucket.granularity, Timestamp.valueOf(bucket.bucketStart),
+                        bucket.operationType, bucket.operationModule, bucket.userId});
+            }
+            jdbcTemplate.batchUpdate(SUBTRACT_SQL, batch);
+        } catch (Exception e) {
+            markDirty("扣减", e);
+        }
+    }
+
+    @Override
+    public <T> T applyChange(Supplier<T> change) {
+        rebuildLock.readLock().lock();
+        try {
+            return change.get();
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("operationTypes", sumAllBy("operation_type"));
+        statistics.put("operationModules", sumAllBy("operation_module"));
+
+        LocalDateTime now = LocalDateTime.now();
+        statistics.put("recent7DaysCount", countSince(now.minusDays(7)));
+        statistics.put("recent30DaysCount", countSince(now.minusDays(30)));
+        statistics.put("dailyTrend", dailyTrend(now.toLocalDate().minusDays(29)));
+        return statistics;
+    }
+
+    @Override
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        rebuildLock.writeLock().lock();
+        dirty = false;
+        LocalDateTime hourlySince = LocalDate.now().minusDays(hourlyRetentionDays).atStartOfDay();
+        try {
+            Integer rows = transactionTemplate.execute(status -> {
+                jdbcTemplate.update("DELETE FROM operation_log_rollup");
+                int total = jdbcTemplate.update(rebuildSql(OperationLogRollup.GRANULARITY_HOUR,
+                        "DATE_FORMAT(create_time, '%Y-%m-%d %H:00:00')", "WHERE create_time >= ?"),
+                        Timestamp.valueOf(hourlySince));
+                total += jdbcTemplate.update(rebuildSql(OperationLogRollup.GRANULARITY_DAY, "DATE(create_time)", ""));
+                total += jdbcTemplate.update(rebuildSql(OperationLogRollup.GRANULARITY_ALL, null, ""),
+                        Timestamp.valueOf(ALL_BUCKET));
+                return total;
+            });
+            log.info("重建操作日志统计汇总完成，汇总行数：{}，耗时：{}ms", rows, System.currentTimeMillis() - start);
+            return rows == null ? 0 : rows;
+        } catch (RuntimeException e) {
+            dirty = true;
+            failureCounter.increment();
+            throw e;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 生成从日志表聚合写入汇总表的SQL；bucketExpression为空时时间桶取参数（全量粒度）
+     */
+    private String rebuildSql(String granularity, String bucketExpression, String where) {
+        String bucket = bucketExpression == null ? "?" : bucketExpression;
+        String groupBy = bucketExpression == null ? "" : "bucket, ";
+        return "INSERT INTO operation_log_rollup (granularity, bucket_start, operation_type, operation_module, "
+                + "user_id, log_count) SELECT '" + granularity + "', " + bucket + " AS bucket, operation_type, "
+                + "operation_module, COALESCE(user_id, 0) AS uid, COUNT(*) FROM operation_log " + where
+                + " GROUP BY " + groupBy + "operation_type, operation_module, uid";
+    }
+
+    private void addBuckets(Map<Bucket, Long> buckets, String operationType, String operationModule,
+                            Long userId, LocalDateTime createTime) {
+        long user = userId == null ? 0L : userId;
+        LocalDateTime time = createTime == null ? LocalDateTime.now() : createTime;
+        buckets.merge(new Bucket(OperationLogRollup.GRANULARITY_HOUR, time.truncatedTo(ChronoUnit.HOURS),
+                operationType, operationModule, user), 1L, Long::sum);
+        buckets.merge(new Bucket(OperationLogRollup.GRANULARITY_DAY, time.truncatedTo(ChronoUnit.DAYS),
+                operationType, operationModule, user), 1L, Long::sum);
+        buckets.merge(new Bucket(OperationLogRollup.GRANULARITY_ALL, ALL_BUCKET,
+                operationType, operationModule, user), 1L, Long::sum);
+    }
+
+    private Map<String, Long> sumAllBy(String column) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT " + column + " AS name, SUM(log_count) AS total "
+                + "FROM operation_log_rollup WHERE granularity = ? GROUP BY " + column + " HAVING SUM(log_count) > 0",
+                OperationLogRollup.GRANULARITY_ALL);
+        Map<String, Long> result = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            result.put((String) row.get("name"), ((Number) row.get("total")).longValue());
+        }
+        return result;
+    }
+
+    private long countSince(LocalDateTime since) {
+        Number count = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(log_count), 0) FROM operation_log_rollup "
+                + "WHERE granularity = ? AND bucket_start >= ?", Number.class,
+                OperationLogRollup.GRANULARITY_HOUR, Timestamp.valueOf(since.truncatedTo(ChronoUnit.HOURS)));
+        return count == null ? 0 : count.longValue();
+    }
+
+    private Map<String, Long> dailyTrend(LocalDate since) {
+        Map<String, Long> trend = new LinkedHashMap<>();
+        for (LocalDate day = since; !day.isAfter(LocalDate.now()); day = day.plusDays(1)) {
+            trend.put(day.toString(), 0L);
+        }
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT bucket_start, SUM(log_count) AS total "
+                + "FROM operation_log_rollup WHERE granularity = ? AND bucket_start >= ? GROUP BY bucket_start",
+                OperationLogRollup.GRANULARITY_DAY, Timestamp.valueOf(since.atStartOfDay()));
+        for (Map<String, Object> row : rows) {
+            String day = ((Timestamp) row.get("bucket_start")).toLocalDateTime().toLocalDate().toString();
+            trend.put(day, ((Number) row.get("total")).longValue());
+        }
+        return trend;
+    }
+
+    private void markDirty(String action, Exception e) {
+        dirty = true;
+        failureCounter.increment();
+        log.warn("{}操作日志统计汇总失败，将在下次整理时重建：{}", action, e.getMessage());
+    }
+
+    /**
+     * 汇总维度；按自然顺序更新，并发批次加行锁的顺序一致，避免死锁
+     */
+    private static final class Bucket implements Comparable<Bucket> {
+
+        private final String granularity;
+        private final LocalDateTime bucketStart;
+        private final String operationType;
+        private final String operationModule;
+        private final long userId;
+
+        private Bucket(String granularity, LocalDateTime bucketStart, String operationType,
+                       String operationModule, long userId) {
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+            this.operationType = operationType;
+            this.operationModule = operationModule;
+            this.userId = userId;
+        }
+
+        @Override
+        public int compareTo(Bucket other) {
+            int result = granularity.compareTo(other.granularity);
+            if (result == 0) {
+                result = bucketStart.compareTo(other.bucketStart);
+            }
+            if (result == 0) {
+                result = operationType.compareTo(other.operationType);
+            }
+            if (result == 0) {
+                result = operationModule.compareTo(other.operationModule);
+            }
+            return result != 0 ? result : Long.compare(userId, other.userId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Bucket && compareTo((Bucket) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(granularity, bucketStart, operationType, operationModule, userId);
+        }
+    }
+}
@@ -1,13 +1,15 @@
 package com.manage.service.impl;
 
 import com.manage.entity.OperationLog;
+import com.manage.exception.BusinessException;
 import com.manage.repository.OperationLogRepository;
+import com.manage.service.OperationLogRetentionService;
+import com.manage.service.OperationLogRollupService;
 import com.manage.service.OperationLogService;
 import com.manage.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -26,6 +28,8 @@ import java.util.Map;
 /**
  * 操作日志服务实现类
  *
+ * 用户和请求信息在调用线程采集，写库交给 {@link OperationLogWriter} 异步批量完成
+ *
  * @author System
  * @version 1.0
  */
@@ -36,6 +40,9 @@ public class OperationLogServiceImpl implements OperationLogService {
 
     private final OperationLogRepository operationLogRepository;
     private final UserService userService;
+    private final OperationLogWriter operationLogWriter;
+    private final OperationLogRetentionService operationLogRetentionService;
+    private final OperationLogRollupService operationLogRollupService;
 
     @Override
     public void log(String operationType, String operationModule, String operationDesc,
@@ -86,8 +93,9 @@ public class OperationLogServiceImpl implements OperationLogService {
                 operationLog.setUserAgent(request.getHeader("User-Agent"));
             }
 
-            operationLogRepository.save(operationLog);
-            log.debug("操作日志记录成功: {} - {}", operationType, operationDesc);
+            operationLog.setCreateTime(LocalDateTime.now());
+            operationLogWriter.submit(operationLog);
+            log.debug("操作日志已提交: {} - {}", operationType, operationDesc);
         } catch (Exception e) {
             log.error("记录操作日志失败: {}", e.getMessage(), e);
         }
@@ -176,33 +184,11 @@ public class OperationLogServiceImpl implements OperationLogService {
     @Override
     public Map<String, Object> getOperationStatistics() {
         try {
-            Map<String, Object> statistics = new HashMap<>();
-
-            // 统计各操作类型的数量
-            List<Object[]> typeStats = operationLogRepository.countLogsByOperationType();
-            Map<String, Long> typeCount = new HashMap<>();
-            for (Object[] stat : typeStats) {
-                typeCount.put((String) stat[0], (Long) stat[1]);
-            }
-            statistics.put("operationTypes", typeCount);
-
-            // 统计各操作模块的数量
-            List<Object[]> moduleStats = operationLogRepository.countLogsByOperationModule();
-            Map<String, Long> moduleCount = new HashMap<>();
-            for (Object[] stat : moduleStats) {
-                moduleCount.put((String) stat[0], (Long) stat[1]);
-            }
-            statistics.put("operationModules", moduleCount);
-
-            // 统计最近7天的数量
-            LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
-            Long recentCount = operationLogRepository.countLogsByTimeRange(sevenDaysAgo, LocalDateTime.now());
-            statistics.put("recent7DaysCount", recentCount);
+            // 各类型/模块数量和最近7天、30天数量都从统计汇总表读取，不再扫描日志表
+            Map<String, Object> statistics = new HashMap<>(operationLogRollupService.getStatistics());
 
-            // 统计最近30天的数量
-            LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-            Long monthCount = operationLogRepository.countLogsByTimeRange(thirtyDaysAgo, LocalDateTime.now());
-            statistics.put("recent30DaysCount", monthCount);
+            // 尚在异步队列中、未写入数据库的日志数量
+            statistics.put("pendingWrites", operationLogWriter.getQueueSize());
 
             return statistics;
         } catch (Exception e) {
@@ -214,22 +200,9 @@ public class OperationLogServiceImpl implements OperationLogService {
     @Override
     public int cleanExpiredLogs(LocalDateTime beforeTime) {
         try {
-            List<OperationLog> expiredLogs = operationLogRepository.findByCreateTimeBetween(
-                LocalDateTime.of(1970, 1, 1, 0, 0), beforeTime,
-                PageRequest.of(0, 1000)).getContent();
-
-            int deletedCount = 0;
-            for (OperationLog operationLog : expiredLogs) {
-                try {
-                    operationLogRepository.delete(operationLog);
-                    deletedCount++;
-                } catch (Exception e) {
-                    log.error("删除过期日志失败: {}", e.getMessage());
-                }
-            }
-
-            log.info("清理过期日志完成，删除数量: {}", deletedCount);
-            return deletedCount;
+            return operationLogRetentionService.purgeBefore(beforeTime);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("清理过期日志失败: {}", e.getMessage());
             return 0;
@@ -239,8 +212,14 @@ public class OperationLogServiceImpl implements OperationLogService {
     @Override
     public void batchLog(List<OperationLog> logs) {
         try {
-            operationLogRepository.saveAll(logs);
-            log.debug("批量记录操作日志成功，数量: {}", logs.size());
+            LocalDateTime now = LocalDateTime.now();
+            for (OperationLog operationLog : logs) {
+                if (operationLog.getCreateTime() == null) {
+                    operationLog.setCreateTime(now);
+                }
+            }
+            int written = operationLogWriter.write(logs);
+            log.debug("批量记录操作日志成功，数量: {}", written);
         } catch (Exception e) {
             log.error("批量记录操作日志失败: {}", e.getMessage());
         }
@@ -0,0 +1,300 @@
+package com.manage.service.impl;
+
+import com.manage.entity.OperationLog;
+import com.manage.service.OperationLogRollupService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 操作日志异步批量写入器
+ *
+ * 业务线程只把日志放入有界无锁队列，后台线程攒够一批或到达刷新间隔后用JDBC批量插入，并累加统计汇总
+ * （插入和累加作为一次汇总变更执行，不会与汇总重建交错）。
+ * 队列满时按配置的溢出策略处理；应用关闭时先等待后台线程写完，超时后由关闭线程写入剩余日志
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OperationLogWriter {
+
+    /**
+     * 队列满时的处理策略
+     */
+    public enum OverflowPolicy {
+        /**
+         * 由调用线程同步写入，不丢日志
+         */
+        CALLER_RUNS,
+        /**
+         * 丢弃新日志
+         */
+        DROP_NEWEST,
+        /**
+         * 丢弃队列中最早的日志
+         */
+        DROP_OLDEST
+    }
+
+    private static final String INSERT_SQL = "INSERT INTO operation_log (operation_type, operation_module, "
+            + "operation_desc, target_type, target_id, target_name, user_id, username, ip_address, user_agent, "
+            + "create_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Value("${operation-log.async.enabled:true}")
+    private boolean asyncEnabled;
+
+    @Value("${operation-log.async.capacity:10000}")
+    private int capacity;
+
+    @Value("${operation-log.async.batch-size:200}")
+    private int batchSize;
+
+    @Value("${operation-log.async.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${operation-log.async.overflow-policy:CALLER_RUNS}")
+    private String overflowPolicyName;
+
+    @Value("${operation-log.async.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final OperationLogRollupService operationLogRollupService;
+
+    private final Queue<OperationLog> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+
+    private OverflowPolicy overflowPolicy;
+    private volatile boolean running;
+    private Thread flusher;
+
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Counter droppedCounter;
+    private Counter callerRunsCounter;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void init() {
+        overflowPolicy = OverflowPolicy.valueOf(overflowPolicyName.trim().toUpperCase(Locale.ROOT));
+
+        writtenCounter = meterRegistry.counter("operation.log.written");
+        failedCounter = meterRegistry.counter("operation.log.failed");
+        droppedCounter = meterRegistry.counter("operation.log.dropped", "policy", overflowPolicy.name());
+        callerRunsCounter = meterRegistry.counter("operation.log.caller.runs");
+        flushTimer = meterRegistry.timer("operation.log.flush");
+        Gauge.builder("operation.log.queue.size", queueSize, AtomicInteger::get)
+                .description("待写入的操作日志数量")
+                .register(meterRegistry);
+
+        if (!asyncEnabled) {
+            log.info("操作日志异步写入已关闭，日志在调用线程同步写入");
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "operation-log-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("操作日志异步写入已启动，队列容量：{}，批量大小：{}，刷新间隔：{}ms，溢出策略：{}",
+                capacity, batchSize, flushIntervalMs, overflowPolicy);
+    }
+
+    /**
+     * 提交一条日志，队列未满时立即返回
+     *
+     * @param operationLog 操作日志
+     */
+    public void submit(OperationLog operationLog) {
+        if (operationLog.getCreateTime() == null) {
+            operationLog.setCreateTime(LocalDateTime.now());
+        }
+        if (!running) {
+            write(Collections.singletonList(operationLog));
+            return;
+        }
+
+        if (tryEnqueue(operationLog)) {
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                droppedCounter.increment();
+                log.warn("操作日志队列已满，丢弃日志：{} - {}", operationLog.getOperationType(), operationLog.getOperationDesc());
+                break;
+            case DROP_OLDEST:
+                OperationLog oldest = queue.poll();
+                if (oldest != null) {
+                    queueSize.decrementAndGet();
+                    droppedCounter.increment();
+                }
+                if (!tryEnqueue(operationLog)) {
+                    droppedCounter.increment();
+                }
+                break;
+            default:
+                callerRunsCounter.increment();
+                write(Collections.singletonList(operationLog));
+                break;
+        }
+    }
+
+    /**
+     * 同步批量写入
+     *
+     * @param logs 操作日志列表
+     * @return 成功写入的数量
+     */
+    public int write(List<OperationLog> logs) {
+        if (logs.isEmpty()) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        try {
+            operationLogRollupService.applyChange(() -> {
+                jdbcTemplate.batchUpdate(INSERT_SQL, logs, logs.size(), this::bind);
+                operationLogRollupService.record(logs);
+                return null;
+            });
+        } catch (Exception e) {
+            if (logs.size() == 1) {
+                failedCounter.increment();
+                log.error("写入操作日志失败：{}", e.getMessage());
+                return 0;
+            }
+            // 整批失败时逐条重试，避免一条异常数据拖累整批
+            log.warn("批量写入操作日志失败，改为逐条写入，数量：{}，错误：{}", logs.size(), e.getMessage());
+            int written = 0;
+            for (OperationLog operationLog : logs) {
+                written += write(Collections.singletonList(operationLog));
+            }
+            return written;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        writtenCounter.increment(logs.size());
+        return logs.size();
+    }
+
+    /**
+     * 当前待写入的日志数量
+     *
+     * @return 队列长度
+     */
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // 后台线程未能在超时内写完时，由关闭线程写入剩余日志
+        int remaining = drainAndWrite();
+        log.info("操作日志写入器已关闭，关闭时补写：{}条", remaining);
+    }
+
+    private boolean tryEnqueue(OperationLog operationLog) {
+        int size;
+        do {
+            size = queueSize.get();
+            if (size >= capacity) {
+                return false;
+            }
+        } while (!queueSize.compareAndSet(size, size + 1));
+
+        queue.offer(operationLog);
+        if (size + 1 >= batchSize) {
+            LockSupport.unpark(flusher);
+        }
+        return true;
+    }
+
+    private void runFlusher() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (running) {
+            if (queueSize.get() < batchSize) {
+                LockSupport.parkNanos(this, intervalNanos);
+            }
+            try {
+                drainAndWrite();
+            } catch (Exception e) {
+                log.error("操作日志后台写入异常：{}", e.getMessage(), e);
+            }
+        }
+        drainAndWrite();
+    }
+
+    private int drainAndWrite() {
+        int total = 0;
+        List<OperationLog> batch = new ArrayList<>(batchSize);
+        OperationLog operationLog;
+        while ((operationLog = queue.poll()) != null) {
+            queueSize.decrementAndGet();
+            batch.add(operationLog);
+            if (batch.size() >= batchSize) {
+                total += write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        total += write(batch);
+        return total;
+    }
+
+    private void bind(PreparedStatement ps, OperationLog operationLog) throws SQLException {
+        ps.setString(1, operationLog.getOperationType());
+        ps.setString(2, operationLog.getOperationModule());
+        ps.setString(3, operationLog.getOperationDesc());
+        ps.setString(4, operationLog.getTargetType());
+        setLong(ps, 5, operationLog.getTargetId());
+        ps.setString(6, operationLog.getTargetName());
+        setLong(ps, 7, operationLog.getUserId());
+        ps.setString(8, operationLog.getUsername());
+        ps.setString(9, operationLog.getIpAddress());
+        ps.setString(10, operationLog.getUserAgent());
+        ps.setTimestamp(11, Timestamp.valueOf(operationLog.getCreateTime()));
+    }
+
+    private void setLong(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.manage.service.impl;
+
+import com.manage.common.ResultCode;
+import com.manage.entity.Product;
+import com.manage.event.ContentChangedEvent;
+import com.manage.event.ContentDomain;
+import com.manage.exception.BusinessException;
+import com.manage.repository.ProductRepository;
+import com.manage.search.FacetIndex;
+import com.manage.search.RebuildableIndex;
+import com.manage.service.ProductFacetService;
+import com.manage.service.ProductImageService;
+import com.manage.service.TagService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 产品分面筛选服务实现类
+ *
+ * 只索引上架产品，增量更新和全量重建由 {@link RebuildableIndex} 协调
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductFacetServiceImpl implements ProductFacetService {
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+
+    @Value("${public.facet.price-buckets:100,200,500,1000}")
+    private String priceBuckets;
+
+    private final ProductRepository productRepository;
+    private final ProductImageService productImageService;
+    private final TagService tagService;
+
+    /**
+     * 价格区间边界（升序）及对应的区间名称，名称比边界多一个
+     */
+    private BigDecimal[] priceBounds;
+    private List<String> priceLabels;
+
+    private final RebuildableIndex<FacetIndex, ContentChangedEvent> index =
+            new RebuildableIndex<>("产品分面索引", new FacetIndex(), this::loadIndex, this::apply);
+
+    @PostConstruct
+    public void init() {
+        priceBounds = Arrays.stream(priceBuckets.split(","))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .map(BigDecimal::new)
+                .sorted()
+                .distinct()
+                .toArray(BigDecimal[]::new);
+        priceLabels = new ArrayList<>(priceBounds.length + 1);
+        BigDecimal lower = BigDecimal.ZERO;
+        for (BigDecimal bound : priceBounds) {
+            priceLabels.add(lower.toPlainString() + "-" + bound.toPlainString());
+            lower = bound;
+        }
+        priceLabels.add(lower.toPlainString() + "+");
+    }
+
+    @Override
+    public boolean isReady() {
+        return index.isReady();
+    }
+
+    @Override
+    public FacetResult browse(Map<String, List<String>> filters, Pageable pageable) {
+        if (!index.isReady()) {
+            throw new BusinessException(ResultCode.SERVICE_UNAVAILABLE, "产品筛选索引正在构建，请稍后重试");
+        }
+
+        Map<String, List<String>> selected = new HashMap<>();
+        for (String facet : FACETS) {
+            List<String> values = filters.get(facet);
+            if (values != null && !values.isEmpty()) {
+                selected.put(facet, values.stream()
+                        .filter(StringUtils::hasText)
+                        .map(String::trim)
+                        .collect(Collectors.toList()));
+            }
+        }
+
+        FacetIndex.Result result = index.get().query(selected);
+        List<Long> ids = result.getIds();
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        List<Product> products = findAllInOrder(ids.subList(from, to));
+        productImageService.fillImageUrls(products);
+
+        Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+        for (String facet : FACETS) {
+            Map<String, Integer> counts = result.getCounts().getOrDefault(facet, Collections.emptyMap());
+            facets.put(facet, PRICE.equals(facet) ? orderPriceBuckets(counts) : counts);
+        }
+        return new FacetResult(new PageImpl<>(products, pageable, ids.size()), facets);
+    }
+
+    /**
+     * 产品变更事务提交后增量更新索引
+     *
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (event.getDomain() != ContentDomain.PRODUCT) {
+            return;
+        }
+        index.apply(event);
+    }
+
+    /**
+     * 应用启动完成后构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildIndex();
+    }
+
+    /**
+     * 定期全量重建，兜底不经过实体监听器的批量更新
+     */
+    @Scheduled(fixedDelayString = "${public.facet.rebuild-interval-ms:21600000}",
+               initialDelayString = "${public.facet.rebuild-interval-ms:21600000}")
+    public void scheduledRebuild() {
+        rebuildIndex();
+    }
+
+    @Override
+    public void rebuildIndex() {
+        RebuildableIndex.Rebuild<FacetIndex> rebuild = index.rebuild();
+        if (rebuild != null) {
+            FacetIndex fresh = rebuild.getIndex();
+            log.info("产品分面索引重建完成，产品：{}，分面值：{}，补放变更：{}，耗时：{}ms",
+                    fresh.size(), fresh.valueCount(), rebuild.getReplayed(), rebuild.getDurationMs());
+        }
+    }
+
+    @Override
+    public Map<String, Object> getIndexStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        FacetIndex current = index.get();
+        statistics.put("documents", current.size());
+        statistics.put("values", current.valueCount());
+        statistics.put("ready", index.isReady());
+        statistics.put("rebuilding", index.isRebuilding());
+        statistics.put("lastRebuildTime", index.getLastRebuildTime());
+        return statistics;
+    }
+
+    private FacetIndex loadIndex() {
+        FacetIndex fresh = new FacetIndex();
+        Pageable pageable = PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by(Sort.Direction.ASC, "id"));
+        Page<Product> page;
+        do {
+            page = productRepository.findByStatus(1, pageable);
+            for (Product product : page.getContent()) {
+                fresh.put(product.getId(), toFacetValues(product));
+            }
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+        return fresh;
+    }
+
+    private void apply(FacetIndex target, ContentChangedEvent event) {
+        Object entity = event.getEntity();
+        if (event.getChangeType() != ContentChangedEvent.ChangeType.DELETED && entity instanceof Product
+                && Integer.valueOf(1).equals(((Product) entity).getStatus())) {
+            Product product = (Product) entity;
+            target.put(product.getId(), toFacetValues(product));
+        } else if (event.getEntityId() != null) {
+            // 删除、下架或草稿状态的产品不参与公开筛选
+            target.remove(event.getEntityId());
+        }
+    }
+
+    private Map<String, List<String>> toFacetValues(Product product) {
+        Map<String, List<String>> values = new HashMap<>();
+        values.put(CATEGORY, Collections.singletonList(product.getCategory()));
+        values.put(TAG, tagService.parse(product.getTags()));
+        values.put(MATERIAL, Collections.singletonList(product.getMaterial()));
+        values.put(FABRIC_TYPE, Collections.singletonList(product.getFabricType()));
+        values.put(PRICE, Collections.singletonList(priceBucket(product.getPrice())));
+        return values;
+    }
+
+    /**
+     * 价格所在区间名称，没有价格时返回null（不参与价格分面）
+     */
+    private String priceBucket(BigDecimal price) {
+        if (price == null) {
+            return null;
+        }
+        for (int i = 0; i < priceBounds.length; i++) {
+            if (price.compareTo(priceBounds[i]) < 0) {
+                return priceLabels.get(i);
+            }
+        }
+        return priceLabels.get(priceBounds.length);
+    }
+
+    private Map<String, Integer> orderPriceBuckets(Map<String, Integer> counts) {
+        Map<String, Integer> ordered = new LinkedHashMap<>();
+        for (String label : priceLabels) {
+            Integer count = counts.get(label);
+            if (count != null) {
+                ordered.put(label, count);
+            }
+        }
+        // 请求中传入的无效区间名称（计数为0）放在最后
+        counts.forEach(ordered::putIfAbsent);
+        return ordered;
+    }
+
+    /**
+     * 按给定ID顺序批量加载产品，已不存在的ID被跳过
+     */
+    private List<Product> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Product> productMap = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        return ids.stream()
+                .map(productMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,322 @@
+package com.manage.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.manage.common.ResultCode;
+import com.manage.entity.MediaFile;
+import com.manage.entity.Product;
+import com.manage.entity.ProductImage;
+import com.manage.event.ContentChangedEvent;
+import com.manage.event.ContentDomain;
+import com.manage.exception.BusinessException;
+import com.manage.repository.MediaFileRepository;
+import com.manage.repository.ProductImageRepository;
+import com.manage.repository.ProductRepository;
+import com.manage.service.ProductImageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 产品图片服务实现类
+ *
+ * 图片行的增删和排序不会改动产品行本身，写入后由这里为产品发布变更事件，公开目录缓存、ETag等随之失效
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductImageServiceImpl implements ProductImageService {
+
+    private final ProductImageRepository productImageRepository;
+    private final ProductRepository productRepository;
+    private final MediaFileRepository mediaFileRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 启动时把旧版JSON图片列表迁移到product_image表，已迁移的产品不会重复处理
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            int migrated = migrateLegacyImages();
+            if (migrated > 0) {
+                log.info("旧版产品图片列表迁移完成，产品数量：{}", migrated);
+            }
+        } catch (Exception e) {
+            log.error("迁移旧版产品图片列表失败：{}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<ProductImage> getImages(Long productId) {
+        return productImageRepository.findByProductIdOrderBySortOrderAscIdAsc(productId);
+    }
+
+    @Override
+    public Map<Long, List<String>> getImageUrls(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, List<String>> imageUrls = new HashMap<>();
+        for (Object[] row : productImageRepository.findImageUrlsByProductIds(productIds)) {
+            imageUrls.computeIfAbsent((Long) row[0], key -> new ArrayList<>()).add((String) row[1]);
+        }
+        return imageUrls;
+    }
+
+    @Override
+    public void fillImageUrls(Collection<Product> products) {
+        List<Long> productIds = products.stream()
+                .map(Product::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Map<Long, List<String>> imageUrls = getImageUrls(productIds);
+        for (Product product : products) {
+            product.setImageUrls(imageUrls.getOrDefault(product.getId(), new ArrayList<>()));
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<ProductImage> addImages(Long productId, List<String> imageUrls) {
+        Integer maxSortOrder = productImageRepository.findMaxSortOrder(productId);
+        int sortOrder = maxSortOrder == null ? 0 : maxSortOrder;
+
+        List<ProductImage> images = new ArrayList<>();
+        for (String imageUrl : imageUrls) {
+            if (!StringUtils.hasText(imageUrl)) {
+                continue;
+            }
+            sortOrder += ProductImage.SORT_STEP;
+            images.add(newImage(productId, imageUrl.trim(), sortOrder));
+        }
+        List<ProductImage> saved = productImageRepository.saveAll(images);
+        if (!saved.isEmpty()) {
+            publishProductChanged(productId);
+        }
+        return saved;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean removeImage(Long productId, String imageUrl) {
+        Optional<ProductImage> image = productImageRepository.findFirstByProductIdAndImageUrlOrderByIdAsc(productId, imageUrl);
+        if (!image.isPresent()) {
+            return false;
+        }
+        productImageRepository.delete(image.get());
+        publishProductChanged(productId);
+        return true;
+    }
+
+    @Override
+    public boolean containsImage(Long productId, String imageUrl) {
+        return productImageRepository.existsByProductIdAndImageUrl(productId, imageUrl);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<ProductImage> moveImage(Long productId, Long imageId, int position) {
+        List<ProductImage> images = new ArrayList<>(getImages(productId));
+        ProductImage moving = images.stream()
+                .filter(image -> image.getId().equals(imageId))
+                .findFirst()
+                .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "图片不存在"));
+        images.remove(moving);
+
+        int index = Math.min(Math.max(position, 0), images.size());
+        Integer previous = index > 0 ? images.get(index - 1).getSortOrder() : null;
+        Integer next = index < images.size() ? images.get(index).getSortOrder() : null;
+        images.add(index, moving);
+
+        if (previous == null && next == null) {
+            moving.setSortOrder(ProductImage.SORT_STEP);
+        } else if (previous == null) {
+            moving.setSortOrder(next - ProductImage.SORT_STEP);
+        } else if (next == null) {
+            moving.setSortOrder(previous + ProductImage.SORT_STEP);
+        } else if (next - previous > 1) {
+            moving.setSortOrder(previous + (next - previous) / 2);
+        } else {
+            // 间隔用尽，按当前顺序重排整个产品的图片
+            productImageRepository.saveAll(renumber(images));
+            publishProductChanged(productId);
+            log.debug("产品图片排序间隔用尽，已重排，产品ID：{}", productId);
+            return images;
+        }
+
+        productImageRepository.save(moving);
+        publishProductChanged(productId);
+        return images;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void replaceImages(Long productId, List<String> imageUrls) {
+        Map<String, Deque<ProductImage>> existing = new HashMap<>();
+        for (ProductImage image : getImages(productId)) {
+            existing.computeIfAbsent(image.getImageUrl(), key -> new ArrayDeque<>()).add(image);
+        }
+
+        List<ProductImage> changed = new ArrayList<>();
+        int sortOrder = 0;
+        for (String imageUrl : imageUrls) {
+            if (!StringUtils.hasText(imageUrl)) {
+                continue;
+            }
+            String url = imageUrl.trim();
+            sortOrder += ProductImage.SORT_STEP;
+            Deque<ProductImage> candidates = existing.get(url);
+            ProductImage image = candidates == null ? null : candidates.poll();
+            if (image == null) {
+                changed.add(newImage(productId, url, sortOrder));
+            } else if (image.getSortOrder() != sortOrder) {
+                image.setSortOrder(sortOrder);
+                changed.add(image);
+            }
+        }
+
+        List<ProductImage> removed = existing.values().stream()
+                .flatMap(Collection::stream)
+                .collect(Collectors.toList());
+        if (!removed.isEmpty()) {
+            productImageRepository.deleteAll(removed);
+        }
+        if (!changed.isEmpty()) {
+            productImageRepository.saveAll(changed);
+        }
+        if (!removed.isEmpty() || !changed.isEmpty()) {
+            publishProductChanged(productId);
+        }
+        log.debug("替换产品图片完成，产品ID：{}，写入：{}，删除：{}", productId, changed.size(), removed.size());
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteImages(Long productId) {
+        if (productImageRepository.deleteByProductId(productId) > 0) {
+            publishProductChanged(productId);
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Long> syncMediaInfo(MediaFile mediaFile) {
+        if (!StringUtils.hasText(mediaFile.getFileUrl())) {
+            return Collections.emptyList();
+        }
+        List<Long> productIds = productImageRepository.findProductIdsByImageUrl(mediaFile.getFileUrl());
+        if (productIds.isEmpty()) {
+            return productIds;
+        }
+        productImageRepository.updateMediaInfo(mediaFile.getFileUrl(), mediaFile.getId(), mediaFile.getWidth(),
+                mediaFile.getHeight(), mediaFile.getThumbnailUrl(), mediaFile.getVariants());
+        return productIds;
+    }
+
+    @Override
+    public int migrateLegacyImages() {
+        int migrated = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                List<Product> products = productRepository.findTop100ByProductImagesIsNotNullOrderByIdAsc();
+                if (products.isEmpty()) {
+                    return 0;
+                }
+                List<Long> productIds = new ArrayList<>();
+                for (Product product : products) {
+                    // 已有图片行的产品说明迁移中断过，以表中数据为准，只清空旧字段
+                    if (!productImageRepository.existsByProductId(product.getId())) {
+                        addImages(product.getId(), parseImageUrls(product.getProductImages()));
+                    }
+                    productIds.add(product.getId());
+                }
+                productRepository.clearLegacyProductImages(productIds);
+                return productIds.size();
+            });
+            if (count == null || count == 0) {
+                return migrated;
+            }
+            migrated += count;
+        }
+    }
+
+    /**
+     * 为产品发布变更事件；产品行未变化时JPA不会触发实体监听器，图片变更需要单独通知
+     */
+    private void publishProductChanged(Long productId) {
+        eventPublisher.publishEvent(new ContentChangedEvent(ContentDomain.PRODUCT,
+                ContentChangedEvent.ChangeType.UPDATED, productId, productRepository.findById(productId).orElse(null)));
+    }
+
+    /**
+     * 创建图片行，媒体文件已存在时带上尺寸、缩略图和宽度变体
+     */
+    private ProductImage newImage(Long productId, String imageUrl, int sortOrder) {
+        ProductImage image = new ProductImage();
+        image.setProductId(productId);
+        image.setImageUrl(imageUrl);
+        image.setSortOrder(sortOrder);
+        mediaFileRepository.findActiveFileByUrl(imageUrl).ifPresent(mediaFile -> {
+            image.setMediaFileId(mediaFile.getId());
+            image.setWidth(mediaFile.getWidth());
+            image.setHeight(mediaFile.getHeight());
+            image.setThumbnailUrl(mediaFile.getThumbnailUrl());
+            image.setVariants(mediaFile.getVariants());
+        });
+        return image;
+    }
+
+    /**
+     * 按列表顺序重新分配排序值，返回排序值发生变化的行
+     */
+    private List<ProductImage> renumber(List<ProductImage> images) {
+        List<ProductImage> changed = new ArrayList<>();
+        int sortOrder = 0;
+        for (ProductImage image : images) {
+            sortOrder += ProductImage.SORT_STEP;
+            if (image.getSortOrder() == null || image.getSortOrder() != sortOrder) {
+                image.setSortOrder(sortOrder);
+                changed.add(image);
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public List<String> parseImageUrls(String productImages) {
+        if (!StringUtils.hasText(productImages)) {
+            return new ArrayList<>();
+        }
+        String trimmed = productImages.trim();
+        List<String> imageUrls;
+        try {
+            if (trimmed.startsWith("[") && trimmed.endsWith("]")) {
+                imageUrls = objectMapper.readValue(trimmed, new TypeReference<List<String>>() {});
+            } else {
+                imageUrls = Arrays.asList(trimmed.split(","));
+            }
+        } catch (Exception e) {
+            log.warn("解析产品图片列表失败，按逗号分隔处理，错误：{}", e.getMessage());
+            imageUrls = Arrays.asList(trimmed.replaceAll("[\\[\\]\"]", "").split(","));
+        }
+        return imageUrls.stream()
+                .filter(StringUtils::hasText)
+                .map(String::trim)
+                .collect(Collectors.toList());
+    }
+}
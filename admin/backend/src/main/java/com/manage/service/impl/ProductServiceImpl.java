@@ -3,20 +3,35 @@ package com.manage.service.impl;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.manage.common.CursorPage;
 import com.manage.common.ResultCode;
+import com.manage.config.CacheConfig;
 import com.manage.dto.product.*;
+import com.manage.entity.MediaFile;
 import com.manage.entity.Product;
+import com.manage.entity.ProductImage;
+import com.manage.event.ContentChangedEvent;
+import com.manage.event.ContentDomain;
 import com.manage.exception.BusinessException;
 import com.manage.repository.MediaFileRepository;
 import com.manage.repository.ProductRepository;
+import com.manage.repository.ProductSpecifications;
+import com.manage.service.ProductImageService;
 import com.manage.service.ProductService;
+import com.manage.service.SearchService;
+import com.manage.service.TagService;
+import com.manage.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -37,9 +52,24 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
+    /**
+     * 后台列表允许的排序字段（均有 V14 复合索引支撑）
+     */
+    private static final Set<String> SORTABLE_FIELDS =
+            new HashSet<>(Arrays.asList("createTime", "updateTime", "sortOrder", "price"));
+
+    /**
+     * 允许键集滚动的排序字段（必须非空）
+     */
+    private static final Set<String> KEYSET_SORT_FIELDS = new HashSet<>(Arrays.asList("createTime", "sortOrder"));
+
     private final ProductRepository productRepository;
     private final MediaFileRepository mediaFileRepository;
     private final ObjectMapper objectMapper;
+    private final SearchService searchService;
+    private final ProductImageService productImageService;
+    private final TagService tagService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -53,10 +83,17 @@ public class ProductServiceImpl implements ProductService {
         }
 
         Product product = new Product();
-        BeanUtils.copyProperties(request, product);
+        BeanUtils.copyProperties(request, product, "productImages", "tags");
+        if (request.getTags() != null) {
+            product.setTags(tagService.format(request.getTags()));
+        }
         product.setCreatedBy(userId);
 
         Product savedProduct = productRepository.save(product);
+        tagService.syncTags(ContentDomain.PRODUCT, savedProduct.getId(), savedProduct.getTags());
+        if (request.getProductImages() != null) {
+            productImageService.replaceImages(savedProduct.getId(), productImageService.parseImageUrls(request.getProductImages()));
+        }
         log.info("产品创建成功，产品ID：{}", savedProduct.getId());
 
         return convertToResponse(savedProduct);
@@ -77,10 +114,17 @@ public class ProductServiceImpl implements ProductService {
             throw new BusinessException(ResultCode.CONFLICT, "产品编码已存在");
         }
 
-        BeanUtils.copyProperties(request, product);
+        BeanUtils.copyProperties(request, product, "productImages", "tags");
+        if (request.getTags() != null) {
+            product.setTags(tagService.format(request.getTags()));
+        }
         product.setUpdatedBy(userId);
 
         Product savedProduct = productRepository.save(product);
+        tagService.syncTags(ContentDomain.PRODUCT, id, savedProduct.getTags());
+        if (request.getProductImages() != null) {
+            productImageService.replaceImages(id, productImageService.parseImageUrls(request.getProductImages()));
+        }
         log.info("产品更新成功，产品ID：{}", savedProduct.getId());
 
         return convertToResponse(savedProduct);
@@ -104,65 +148,119 @@ public class ProductServiceImpl implements ProductService {
     public Page<ProductResponse> getProducts(ProductQueryRequest queryRequest) {
         log.info("分页查询产品列表，查询条件：{}", queryRequest);
 
-        // 构建分页和排序参数
-        Sort.Direction direction = "ASC".equalsIgnoreCase(queryRequest.getDirection()) ?
-                Sort.Direction.ASC : Sort.Direction.DESC;
-        Pageable pageable = PageRequest.of(queryRequest.getPage(), queryRequest.getSize(),
-                Sort.by(direction, queryRequest.getSort()));
-
-        Page<Product> productPage;
-
-        // 根据查询条件选择不同的查询方法
-        if (StringUtils.hasText(queryRequest.getProductName())) {
-            productPage = productRepository.findByProductNameAndStatus(
-                    queryRequest.getProductName(),
-                    queryRequest.getStatus() != null ? queryRequest.getStatus() : 1,
-                    pageable);
-        } else if (StringUtils.hasText(queryRequest.getCategory())) {
-            productPage = productRepository.findByCategoryAndStatus(
-                    queryRequest.getCategory(),
-                    queryRequest.getStatus() != null ? queryRequest.getStatus() : 1,
-                    pageable);
-        } else if (queryRequest.getStatus() != null) {
-            productPage = productRepository.findByStatus(queryRequest.getStatus(), pageable);
+        int page = queryRequest.getPage();
+        int size = queryRequest.getSize();
+        Sort sort = resolveSort(queryRequest);
+        Specification<Product> spec = ProductSpecifications.of(queryRequest);
+
+        // 多取一条判断是否还有下一页，不依赖count查询
+        long offset = (long) page * size;
+        List<Product> products = productRepository.findSlice(spec, sort, offset, size + 1);
+        boolean hasNext = products.size() > size;
+        if (hasNext) {
+            products = products.subList(0, size);
+        }
+
+        long total;
+        if (!hasNext && (page == 0 || !products.isEmpty())) {
+            // 最后一页：总数可以直接算出
+            total = offset + products.size();
+        } else if (!Boolean.FALSE.equals(queryRequest.getWithTotal())) {
+            total = productRepository.count(spec);
         } else {
-            productPage = productRepository.findAll(pageable);
+            // 不统计总数时只保证客户端能判断是否有下一页
+            total = offset + products.size() + (hasNext ? 1 : 0);
         }
 
-        return productPage.map(this::convertToResponse);
+        return new PageImpl<>(convertToResponses(products), PageRequest.of(page, size, sort), total);
+    }
+
+    @Override
+    public CursorPage<ProductResponse> scrollProducts(ProductQueryRequest queryRequest) {
+        log.info("滚动查询产品列表，查询条件：{}", queryRequest);
+
+        int size = queryRequest.getSize();
+        Sort sort = resolveSort(queryRequest);
+        Sort.Order order = sort.iterator().next();
+        String sortField = order.getProperty();
+        Sort.Direction direction = order.getDirection();
+        if (!KEYSET_SORT_FIELDS.contains(sortField)) {
+            throw new BusinessException(ResultCode.VALIDATE_FAILED, "滚动查询不支持的排序字段：" + sortField);
+        }
+        Specification<Product> spec = ProductSpecifications.of(queryRequest);
+
+        if (StringUtils.hasText(queryRequest.getCursor())) {
+            try {
+                String[] values = KeysetCursor.decode(queryRequest.getCursor(), 3);
+                if (!sortField.equals(values[0])) {
+                    throw new IllegalArgumentException("游标与排序字段不一致");
+                }
+                Long id = Long.valueOf(values[2]);
+                if ("createTime".equals(sortField)) {
+                    spec = spec.and(ProductSpecifications.after(sortField, direction, LocalDateTime.parse(values[1]), id));
+                } else {
+                    spec = spec.and(ProductSpecifications.after(sortField, direction, Integer.valueOf(values[1]), id));
+                }
+            } catch (RuntimeException e) {
+                throw new BusinessException(ResultCode.VALIDATE_FAILED, "无效的分页游标");
+            }
+        }
+
+        List<Product> products = productRepository.findSlice(spec, sort, 0, size + 1);
+        boolean hasMore = products.size() > size;
+        if (hasMore) {
+            products = products.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasMore && !products.isEmpty()) {
+            Product last = products.get(products.size() - 1);
+            Object value = "createTime".equals(sortField) ? last.getCreateTime() : last.getSortOrder();
+            nextCursor = KeysetCursor.encode(sortField, value, last.getId());
+        }
+
+        return new CursorPage<>(convertToResponses(products), nextCursor, hasMore, size);
+    }
+
+    /**
+     * 解析排序参数：只允许白名单中有索引支撑的字段，并追加同方向的ID作为唯一排序键，保证分页结果稳定
+     */
+    private Sort resolveSort(ProductQueryRequest queryRequest) {
+        String sortField = StringUtils.hasText(queryRequest.getSort()) ? queryRequest.getSort() : "createTime";
+        if (!SORTABLE_FIELDS.contains(sortField)) {
+            throw new BusinessException(ResultCode.VALIDATE_FAILED, "不支持的排序字段：" + sortField);
+        }
+        Sort.Direction direction = "ASC".equalsIgnoreCase(queryRequest.getDirection()) ?
+                Sort.Direction.ASC : Sort.Direction.DESC;
+        return Sort.by(direction, sortField).and(Sort.by(direction, "id"));
     }
 
     @Override
     public List<ProductResponse> getActiveProducts() {
         List<Product> products = productRepository.findActiveProducts();
-        return products.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponses(products);
     }
 
     @Override
     public List<ProductResponse> getFeaturedProducts() {
         List<Product> products = productRepository.findFeaturedProducts();
-        return products.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponses(products);
     }
 
     @Override
     public List<ProductResponse> getProductsByCategory(String category) {
         List<Product> products = productRepository.findByCategory(category);
-        return products.stream()
+        return convertToResponses(products.stream()
                 .filter(product -> product.getStatus() == 1)
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
     public List<ProductResponse> searchProducts(String keyword) {
-        List<Product> products = productRepository.findByProductNameContaining(keyword);
-        return products.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        List<Product> products = searchService.isReady()
+                ? findAllInOrder(searchService.searchIds(ContentDomain.PRODUCT, keyword, null, Pageable.unpaged()).getContent())
+                : productRepository.findByProductNameContaining(keyword);
+        return convertToResponses(products);
     }
 
     @Override
@@ -210,6 +308,8 @@ public class ProductServiceImpl implements ProductService {
         // 处理产品关联的媒体文件状态
         updateMediaFilesStatus(product);
 
+        productImageService.deleteImages(id);
+        tagService.deleteTags(ContentDomain.PRODUCT, id);
         productRepository.delete(product);
         log.info("产品删除成功，产品ID：{}", id);
     }
@@ -227,6 +327,8 @@ public class ProductServiceImpl implements ProductService {
         // 处理所有产品关联的媒体文件状态
         for (Product product : products) {
             updateMediaFilesStatus(product);
+            productImageService.deleteImages(product.getId());
+            tagService.deleteTags(ContentDomain.PRODUCT, product.getId());
         }
 
         productRepository.deleteAll(products);
@@ -335,40 +437,23 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(request.getProductId())
                 .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "产品不存在"));
 
-        try {
-            // 获取现有图片列表
-            List<String> existingImages = new ArrayList<>();
-            if (StringUtils.hasText(product.getProductImages())) {
-                existingImages = objectMapper.readValue(product.getProductImages(),
-                        new TypeReference<List<String>>() {});
-            }
-
-            // 添加新图片
-            existingImages.addAll(request.getImageUrls());
-
-            // 转换为JSON字符串
-            String imagesJson = objectMapper.writeValueAsString(existingImages);
-            product.setProductImages(imagesJson);
+        // 追加到图片末尾，已有图片不读不写
+        productImageService.addImages(product.getId(), request.getImageUrls());
 
-            // 如果需要设置主图
-            if (request.getSetAsMainImage() && !request.getImageUrls().isEmpty()) {
-                int index = Math.min(request.getMainImageIndex(), request.getImageUrls().size() - 1);
-                product.setMainImage(request.getImageUrls().get(index));
-            } else if (!StringUtils.hasText(product.getMainImage()) && !request.getImageUrls().isEmpty()) {
-                // 如果没有主图，设置第一张为主图
-                product.setMainImage(request.getImageUrls().get(0));
-            }
-
-            product.setUpdatedBy(userId);
-            Product savedProduct = productRepository.save(product);
+        // 如果需要设置主图
+        if (request.getSetAsMainImage() && !request.getImageUrls().isEmpty()) {
+            int index = Math.min(request.getMainImageIndex(), request.getImageUrls().size() - 1);
+            product.setMainImage(request.getImageUrls().get(index));
+        } else if (!StringUtils.hasText(product.getMainImage()) && !request.getImageUrls().isEmpty()) {
+            // 如果没有主图，设置第一张为主图
+            product.setMainImage(request.getImageUrls().get(0));
+        }
 
-            log.info("产品图片上传成功，产品ID：{}", savedProduct.getId());
-            return convertToResponse(savedProduct);
+        product.setUpdatedBy(userId);
+        Product savedProduct = productRepository.save(product);
 
-        } catch (JsonProcessingException e) {
-            log.error("处理产品图片JSON失败", e);
-            throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "图片处理失败");
-        }
+        log.info("产品图片上传成功，产品ID：{}", savedProduct.getId());
+        return convertToResponse(savedProduct);
     }
 
     @Override
@@ -379,41 +464,22 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "产品不存在"));
 
-        try {
-            // 获取现有图片列表
-            List<String> existingImages = new ArrayList<>();
-            if (StringUtils.hasText(product.getProductImages())) {
-                existingImages = objectMapper.readValue(product.getProductImages(),
-                        new TypeReference<List<String>>() {});
-            }
-
-            // 删除指定图片
-            boolean removed = existingImages.remove(imageUrl);
-            if (!removed) {
-                throw new BusinessException(ResultCode.NOT_FOUND, "图片不存在");
-            }
+        if (!productImageService.removeImage(productId, imageUrl)) {
+            throw new BusinessException(ResultCode.NOT_FOUND, "图片不存在");
+        }
 
-            // 更新图片列表
-            String imagesJson = objectMapper.writeValueAsString(existingImages);
-            product.setProductImages(imagesJson);
+        List<ProductImage> remaining = productImageService.getImages(productId);
 
-            // 如果删除的是主图，重新设置主图
-            if (imageUrl.equals(product.getMainImage()) && !existingImages.isEmpty()) {
-                product.setMainImage(existingImages.get(0));
-            } else if (imageUrl.equals(product.getMainImage()) && existingImages.isEmpty()) {
-                product.setMainImage(null);
-            }
-
-            product.setUpdatedBy(userId);
-            Product savedProduct = productRepository.save(product);
+        // 如果删除的是主图，重新设置主图
+        if (imageUrl.equals(product.getMainImage())) {
+            product.setMainImage(remaining.isEmpty() ? null : remaining.get(0).getImageUrl());
+        }
 
-            log.info("产品图片删除成功，产品ID：{}", savedProduct.getId());
-            return convertToResponse(savedProduct);
+        product.setUpdatedBy(userId);
+        Product savedProduct = productRepository.save(product);
 
-        } catch (JsonProcessingException e) {
-            log.error("处理产品图片JSON失败", e);
-            throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "图片处理失败");
-        }
+        log.info("产品图片删除成功，产品ID：{}", savedProduct.getId());
+        return convertToResponse(savedProduct, remaining);
     }
 
     @Override
@@ -424,18 +490,10 @@ public class ProductServiceImpl implements ProductService {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "产品不存在"));
 
-        // 验证图片是否在产品图片列表中
-        try {
-            if (StringUtils.hasText(product.getProductImages())) {
-                List<String> existingImages = objectMapper.readValue(product.getProductImages(),
-                        new TypeReference<List<String>>() {});
-                if (!existingImages.contains(imageUrl)) {
-                    throw new BusinessException(ResultCode.BAD_REQUEST, "指定图片不在产品图片列表中");
-                }
-            }
-        } catch (JsonProcessingException e) {
-            log.error("处理产品图片JSON失败", e);
-            throw new BusinessException(ResultCode.INTERNAL_SERVER_ERROR, "图片处理失败");
+        // 产品有图片时，主图必须是其中一张
+        if (!productImageService.containsImage(productId, imageUrl)
+                && productImageService.getImageUrls(Collections.singleton(productId)).containsKey(productId)) {
+            throw new BusinessException(ResultCode.BAD_REQUEST, "指定图片不在产品图片列表中");
         }
 
         product.setMainImage(imageUrl);
@@ -447,6 +505,24 @@ public class ProductServiceImpl implements ProductService {
         return convertToResponse(savedProduct);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public ProductResponse moveProductImage(Long productId, Long imageId, int position, Long userId) {
+        log.info("调整产品图片顺序，产品ID：{}，图片ID：{}，目标位置：{}，操作用户ID：{}", productId, imageId, position, userId);
+
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "产品不存在"));
+
+        List<ProductImage> images = productImageService.moveImage(productId, imageId, position);
+
+        // 图片服务已为产品发布变更事件，这里只记录操作人
+        product.setUpdatedBy(userId);
+        Product savedProduct = productRepository.save(product);
+
+        log.info("产品图片顺序调整成功，产品ID：{}", productId);
+        return convertToResponse(savedProduct, images);
+    }
+
     @Override
     public boolean existsByProductCode(String productCode) {
         return productRepository.existsByProductCode(productCode);
@@ -454,18 +530,18 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public List<ProductResponse> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
-        List<Product> products = productRepository.findByPriceRange(minPrice, maxPrice, 1);
-        return products.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        Specification<Product> spec = Specification.where(ProductSpecifications.priceBetween(minPrice, maxPrice))
+                .and(ProductSpecifications.equalTo("status", 1));
+        List<Product> products = productRepository.findAll(spec);
+        return convertToResponses(products);
     }
 
     @Override
     public List<ProductResponse> getProductsByTag(String tag) {
-        List<Product> products = productRepository.findByTag(tag);
-        return products.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        Specification<Product> spec = Specification.where(ProductSpecifications.tagged(tag))
+                .and(ProductSpecifications.equalTo("status", 1));
+        List<Product> products = productRepository.findAll(spec);
+        return convertToResponses(products);
     }
 
     @Override
@@ -484,32 +560,74 @@ public class ProductServiceImpl implements ProductService {
     }
 
     /**
-     * 转换为响应DTO
+     * 转换为响应DTO（单个产品，附带图片详情）
      */
     private ProductResponse convertToResponse(Product product) {
+        return convertToResponse(product, productImageService.getImages(product.getId()));
+    }
+
+    /**
+     * 使用已查询的图片转换为响应DTO
+     */
+    private ProductResponse convertToResponse(Product product, List<ProductImage> images) {
+        ProductResponse response = toResponse(product, images.stream()
+                .map(ProductImage::getImageUrl)
+                .collect(Collectors.toList()));
+        response.setImages(images.stream()
+                .map(this::convertImageToResponse)
+                .collect(Collectors.toList()));
+        return response;
+    }
+
+    /**
+     * 批量转换为响应DTO，整批产品的图片URL只查询一次
+     */
+    private List<ProductResponse> convertToResponses(List<Product> products) {
+        Map<Long, List<String>> imageUrls = productImageService.getImageUrls(products.stream()
+                .map(Product::getId)
+                .collect(Collectors.toList()));
+        return products.stream()
+                .map(product -> toResponse(product, imageUrls.getOrDefault(product.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 批量转换分页结果
+     */
+    private Page<ProductResponse> convertPageToResponses(Page<Product> page) {
+        return new PageImpl<>(convertToResponses(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    private ProductResponse toResponse(Product product, List<String> imageUrls) {
         ProductResponse response = new ProductResponse();
-        BeanUtils.copyProperties(product, response);
+        BeanUtils.copyProperties(product, response, "productImages");
 
         // 设置状态文本
         response.setStatusText(getStatusText(product.getStatus()));
 
         // 处理标签字符串转换
-        if (StringUtils.hasText(product.getTags())) {
-            response.setTags(Arrays.asList(product.getTags().split(",")));
-        }
+        response.setTags(tagService.parse(product.getTags()));
 
-        // 处理产品图片列表
-        try {
-            if (StringUtils.hasText(product.getProductImages())) {
-                List<String> images = objectMapper.readValue(product.getProductImages(),
-                        new TypeReference<List<String>>() {});
-                response.setProductImages(images);
+        response.setProductImages(imageUrls);
+        return response;
+    }
+
+    private ProductImageResponse convertImageToResponse(ProductImage image) {
+        ProductImageResponse response = new ProductImageResponse();
+        response.setId(image.getId());
+        response.setUrl(image.getImageUrl());
+        response.setSortOrder(image.getSortOrder());
+        response.setWidth(image.getWidth());
+        response.setHeight(image.getHeight());
+        response.setThumbnailUrl(image.getThumbnailUrl());
+        if (StringUtils.hasText(image.getVariants())) {
+            try {
+                response.setVariants(objectMapper.readValue(image.getVariants(),
+                        new TypeReference<Map<String, String>>() {}));
+            } catch (JsonProcessingException e) {
+                log.warn("解析产品图片宽度变体失败，图片ID：{}", image.getId(), e);
             }
-        } catch (JsonProcessingException e) {
-            log.warn("解析产品图片列表失败，产品ID：{}", product.getId(), e);
-            response.setProductImages(new ArrayList<>());
         }
-
         return response;
     }
 
@@ -558,9 +676,7 @@ public class ProductServiceImpl implements ProductService {
         log.info("获取草稿产品列表");
 
         List<Product> draftProducts = productRepository.findByStatus(2);
-        return draftProducts.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponses(draftProducts);
     }
 
     @Override
@@ -643,31 +759,34 @@ public class ProductServiceImpl implements ProductService {
     // ============ 公开产品查询方法实现 ============
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_PRODUCT_PAGES, key = "'all:' + #p0", sync = true)
     public Page<Product> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable);
+        return withImageUrls(productRepository.findAll(pageable));
     }
 
     @Override
     public Page<Product> getProductsByCategory(String category, Pageable pageable) {
-        return productRepository.findByCategory(category, pageable);
+        return withImageUrls(productRepository.findByCategory(category, pageable));
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_PRODUCT_PAGES, key = "'category:' + #p0 + ':' + #p1", sync = true)
     public Page<Product> getProductsByCategoryContaining(String category, Pageable pageable) {
-        return productRepository.findByCategoryContaining(category, pageable);
+        return withImageUrls(productRepository.findByCategoryContaining(category, pageable));
     }
 
     @Override
     public Page<Product> getActiveProducts(Pageable pageable) {
-        return productRepository.findByStatus(1, pageable);
+        return withImageUrls(productRepository.findByStatus(1, pageable));
     }
 
     @Override
     public Page<Product> getActiveProductsByCategory(String category, Pageable pageable) {
-        return productRepository.findByCategoryAndStatus(category, 1, pageable);
+        return withImageUrls(productRepository.findByCategoryAndStatus(category, 1, pageable));
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_PRODUCT_CATEGORIES, key = "'active'", sync = true)
     public List<String> getActiveProductCategories() {
         List<Object[]> results = productRepository.findCategoriesByStatus(1);
         return results.stream()
@@ -679,15 +798,30 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Page<Product> searchActiveProducts(String keyword, Pageable pageable) {
-        return productRepository.findByProductNameContainingIgnoreCaseAndStatus(keyword, 1, pageable);
+        if (!searchService.isReady()) {
+            // 索引尚未构建完成（应用刚启动），回退到数据库模糊查询
+            return withImageUrls(productRepository.findByProductNameContainingIgnoreCaseAndStatus(keyword, 1, pageable));
+        }
+        Page<Long> ids = searchService.searchIds(ContentDomain.PRODUCT, keyword, 1, pageable);
+        return withImageUrls(new PageImpl<>(findAllInOrder(ids.getContent()), pageable, ids.getTotalElements()));
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_PRODUCT_DETAIL, key = "#p0", sync = true)
     public Product getActiveProductById(Long id) {
         Optional<Product> product = productRepository.findByIdAndStatus(id, 1);
+        product.ifPresent(value -> productImageService.fillImageUrls(Collections.singletonList(value)));
         return product.orElse(null);
     }
 
+    /**
+     * 为分页中的产品批量填充图片URL（整页一次查询），结果随分页一起缓存
+     */
+    private Page<Product> withImageUrls(Page<Product> page) {
+        productImageService.fillImageUrls(page.getContent());
+        return page;
+    }
+
     /**
      * 更新产品关联的媒体文件状态为已删除（状态码：3）
      *
@@ -701,7 +835,7 @@ public class ProductServiceImpl implements ProductService {
         // 1. 处理主图
         if (StringUtils.hasText(product.getMainImage())) {
             try {
-                int result = mediaFileRepository.softDeleteByUrl(product.getMainImage());
+                int result = softDeleteMediaFile(product.getMainImage());
                 updatedCount += result;
                 log.debug("主图媒体文件状态更新成功，URL：{}，更新数量：{}", product.getMainImage(), result);
             } catch (Exception e) {
@@ -710,30 +844,20 @@ public class ProductServiceImpl implements ProductService {
         }
 
         // 2. 处理产品图片列表
-        if (StringUtils.hasText(product.getProductImages())) {
+        for (ProductImage image : productImageService.getImages(product.getId())) {
             try {
-                // 解析产品图片列表（可能是JSON格式或逗号分隔格式）
-                List<String> imageUrls = parseProductImagesFromJson(product.getProductImages());
-                for (String imageUrl : imageUrls) {
-                    if (StringUtils.hasText(imageUrl)) {
-                        try {
-                            int result = mediaFileRepository.softDeleteByUrl(imageUrl.trim());
-                            updatedCount += result;
-                            log.debug("产品图片媒体文件状态更新成功，URL：{}，更新数量：{}", imageUrl.trim(), result);
-                        } catch (Exception e) {
-                            log.warn("更新产品图片媒体文件状态失败，URL：{}，错误：{}", imageUrl.trim(), e.getMessage());
-                        }
-                    }
-                }
+                int result = softDeleteMediaFile(image.getImageUrl());
+                updatedCount += result;
+                log.debug("产品图片媒体文件状态更新成功，URL：{}，更新数量：{}", image.getImageUrl(), result);
             } catch (Exception e) {
-                log.warn("解析产品图片列表失败，产品ID：{}，错误：{}", product.getId(), e.getMessage());
+                log.warn("更新产品图片媒体文件状态失败，URL：{}，错误：{}", image.getImageUrl(), e.getMessage());
             }
         }
 
         // 3. 处理产品视频
         if (StringUtils.hasText(product.getVideoPath())) {
             try {
-                int result = mediaFileRepository.softDeleteByUrl(product.getVideoPath());
+                int result = softDeleteMediaFile(product.getVideoPath());
                 updatedCount += result;
                 log.debug("产品视频媒体文件状态更新成功，URL：{}，更新数量：{}", product.getVideoPath(), result);
             } catch (Exception e) {
@@ -745,84 +869,163 @@ public class ProductServiceImpl implements ProductService {
     }
 
     /**
-     * 解析产品图片列表（支持JSON格式和逗号分隔格式）
+     * 按URL软删除媒体文件，并为每条受影响的记录发布删除事件
+     *
+     * JPQL批量更新不经过实体监听器，不手动通知的话搜索索引里会一直留着已删除的媒体
      *
-     * @param productImages 产品图片JSON字符串或逗号分隔字符串
-     * @return 图片URL列表
+     * @param fileUrl 文件URL
+     * @return 更新行数
      */
-    private List<String> parseProductImagesFromJson(String productImages) {
-        List<String> imageUrls = new ArrayList<>();
-
-        if (!StringUtils.hasText(productImages)) {
-            return imageUrls;
-        }
-
-        try {
-            // 尝试按JSON格式解析
-            if (productImages.startsWith("[") && productImages.endsWith("]")) {
-                imageUrls = objectMapper.readValue(productImages, new TypeReference<List<String>>() {});
-            } else {
-                // 按逗号分隔格式解析
-                String[] urls = productImages.split(",");
-                imageUrls = Arrays.asList(urls);
-            }
-        } catch (Exception e) {
-            log.warn("解析产品图片列表失败：{}", e.getMessage());
-            // 降级处理：按逗号分隔
-            try {
-                String[] urls = productImages.split(",");
-                imageUrls = Arrays.asList(urls);
-            } catch (Exception ex) {
-                log.error("降级解析产品图片列表也失败：{}", ex.getMessage());
+    private int softDeleteMediaFile(String fileUrl) {
+        int result = mediaFileRepository.softDeleteByUrl(fileUrl);
+        if (result > 0) {
+            for (MediaFile mediaFile : mediaFileRepository.findAllByUrl(fileUrl)) {
+                eventPublisher.publishEvent(new ContentChangedEvent(ContentDomain.MEDIA,
+                        ContentChangedEvent.ChangeType.DELETED, mediaFile.getId(), mediaFile));
             }
         }
-
-        return imageUrls.stream()
-                .filter(StringUtils::hasText)
-                .map(String::trim)
-                .collect(Collectors.toList());
+        return result;
     }
 
     @Override
     public List<com.manage.dto.product.ProductResponse> getNewProducts() {
         List<Product> products = productRepository.findNewProducts();
-        return products.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponses(products);
     }
 
     @Override
     public List<com.manage.dto.product.ProductResponse> getMainProducts() {
         List<Product> products = productRepository.findMainProducts();
-        return products.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponses(products);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_PRODUCT_LISTS, key = "'new'", sync = true)
     public List<com.manage.dto.product.ProductResponse> getActiveNewProducts() {
         List<Product> products = productRepository.findActiveNewProducts();
-        return products.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponses(products);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_PRODUCT_LISTS, key = "'main'", sync = true)
     public List<com.manage.dto.product.ProductResponse> getActiveMainProducts() {
         List<Product> products = productRepository.findActiveMainProducts();
-        return products.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        return convertToResponses(products);
     }
 
     @Override
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_PRODUCT_LISTS, key = "'featured'", sync = true)
     public List<com.manage.dto.product.ProductResponse> getActiveFeaturedProducts() {
         List<Product> products = productRepository.findActiveFeaturedProducts();
-        return products.stream()
-                .map(this::convertToResponse)
+        return convertToResponses(products);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_PRODUCT_PAGES,
+               key = "'list:' + #p0 + ':' + #p1.pageNumber + ':' + #p1.pageSize", sync = true)
+    public Page<ProductResponse> getActiveProductsByListType(ProductListType listType, Pageable pageable) {
+        // 排序固定写在查询中，与索引 (status, is_xxx, sort_order, create_time DESC, id DESC) 一致
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        Page<Product> products;
+        switch (listType) {
+            case NEW:
+                products = productRepository.findActiveNewProducts(unsorted);
+                break;
+            case MAIN:
+                products = productRepository.findActiveMainProducts(unsorted);
+                break;
+            case FEATURED:
+                products = productRepository.findActiveFeaturedProducts(unsorted);
+                break;
+            default:
+                throw new BusinessException(ResultCode.VALIDATE_FAILED, "不支持的列表类型：" + listType);
+        }
+        return convertPageToResponses(products);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_PRODUCT_PAGES,
+               key = "'scroll:' + #p0 + ':' + #p1 + ':' + #p2", sync = true)
+    public CursorPage<ProductResponse> scrollActiveProductsByListType(ProductListType listType, String cursor, int size) {
+        // 多取一条用于判断是否还有下一页
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Product> products;
+
+        if (!StringUtils.hasText(cursor)) {
+            products = new ArrayList<>(getActiveProductsByListTypeFirstPage(listType, limit));
+        } else {
+            Integer sortOrder;
+            LocalDateTime createTime;
+            Long id;
+            try {
+                String[] values = KeysetCursor.decode(cursor, 3);
+                sortOrder = Integer.valueOf(values[0]);
+                createTime = LocalDateTime.parse(values[1]);
+                id = Long.valueOf(values[2]);
+            } catch (RuntimeException e) {
+                throw new BusinessException(ResultCode.VALIDATE_FAILED, "无效的分页游标");
+            }
+
+            switch (listType) {
+                case NEW:
+                    products = productRepository.findActiveNewProductsAfter(sortOrder, createTime, id, limit);
+                    break;
+                case MAIN:
+                    products = productRepository.findActiveMainProductsAfter(sortOrder, createTime, id, limit);
+                    break;
+                case FEATURED:
+                    products = productRepository.findActiveFeaturedProductsAfter(sortOrder, createTime, id, limit);
+                    break;
+                default:
+                    throw new BusinessException(ResultCode.VALIDATE_FAILED, "不支持的列表类型：" + listType);
+            }
+        }
+
+        boolean hasMore = products.size() > size;
+        if (hasMore) {
+            products = products.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasMore && !products.isEmpty()) {
+            Product last = products.get(products.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getSortOrder(), last.getCreateTime(), last.getId());
+        }
+
+        return new CursorPage<>(convertToResponses(products), nextCursor, hasMore, size);
+    }
+
+    /**
+     * 按给定ID顺序批量加载产品（保持检索的相关度顺序），已不存在的ID被跳过
+     */
+    private List<Product> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Product> productMap = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        return ids.stream()
+                .map(productMap::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 键集分页的第一页，复用普通分页查询
+     */
+    private List<Product> getActiveProductsByListTypeFirstPage(ProductListType listType, Pageable limit) {
+        switch (listType) {
+            case NEW:
+                return productRepository.findActiveNewProducts(limit).getContent();
+            case MAIN:
+                return productRepository.findActiveMainProducts(limit).getContent();
+            case FEATURED:
+                return productRepository.findActiveFeaturedProducts(limit).getContent();
+            default:
+                throw new BusinessException(ResultCode.VALIDATE_FAILED, "不支持的列表类型：" + listType);
+        }
+    }
+
     @Override
     public ProductResponse setAsMain(Long id, Long userId) {
         Product product = productRepository.findById(id)
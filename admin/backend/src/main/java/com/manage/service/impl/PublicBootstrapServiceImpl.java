@@ -0,0 +1,230 @@
+package com.manage.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.manage.common.Result;
+import com.manage.dto.company.CompanyInfoResponse;
+import com.manage.dto.product.ProductListType;
+import com.manage.dto.product.PublicProductResponse;
+import com.manage.event.ContentChangedEvent;
+import com.manage.event.ContentDomain;
+import com.manage.service.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 公开首页启动数据服务实现类
+ *
+ * 公司、首页和产品领域的变更提交后安排一次延迟重建，延迟期间的后续变更合并进同一次重建；
+ * 重建在单独的后台线程中完成，请求线程只读取当前快照，不查询数据库也不做序列化和压缩。
+ * 某一部分构建失败时该部分为null，不影响其他部分
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PublicBootstrapServiceImpl implements PublicBootstrapService {
+
+    private static final String HOME_ICONS_CONFIG_FILE = "static/config/home-icons.json";
+    private static final String DEFAULT_HOME_ICONS_CONFIG_FILE = "static/config/default-home-icons.json";
+
+    @Value("${public.bootstrap.product-list-size:12}")
+    private int productListSize;
+
+    @Value("${public.bootstrap.rebuild-delay-ms:500}")
+    private long rebuildDelayMs;
+
+    private final CompanyInfoService companyInfoService;
+    private final CompanyContactService companyContactService;
+    private final CompanyQualificationService companyQualificationService;
+    private final CompanyTeamService companyTeamService;
+    private final HomePageBackgroundService homePageBackgroundService;
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final Object buildLock = new Object();
+
+    private volatile Snapshot snapshot;
+    private ScheduledExecutorService executor;
+    private Timer buildTimer;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "public-bootstrap");
+            thread.setDaemon(true);
+            return thread;
+        });
+        buildTimer = meterRegistry.timer("public.bootstrap.build");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 应用启动后立即构建，第一个访客不必等待
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+    }
+
+    /**
+     * 公开数据变更提交后安排重建
+     *
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        ContentDomain domain = event.getDomain();
+        if (domain == ContentDomain.COMPANY || domain == ContentDomain.HOMEPAGE || domain == ContentDomain.PRODUCT) {
+            scheduleRebuild();
+        }
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (buildLock) {
+            if (snapshot == null) {
+                rebuild();
+            }
+            return snapshot;
+        }
+    }
+
+    @Override
+    public void scheduleRebuild() {
+        // 已有待执行的重建时直接合并；重建开始时先清除标记，执行期间的新变更会再安排一次
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            executor.schedule(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    synchronized (buildLock) {
+                        rebuild();
+                    }
+                } catch (Exception e) {
+                    log.error("重建公开首页启动数据失败，继续使用旧数据：{}", e.getMessage(), e);
+                }
+            }, rebuildDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 构建文档并替换快照；内容与当前快照相同时保留原快照（ETag和修改时间不变）
+     */
+    private void rebuild() {
+        long start = System.nanoTime();
+        try {
+            Map<String, Object> payload = buildPayload();
+            // ETag只按数据计算，响应外层的时间戳不参与
+            String eTag = "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(payload)) + "\"";
+            Snapshot current = snapshot;
+            if (current != null && current.getETag().equals(eTag)) {
+                return;
+            }
+            byte[] json = objectMapper.writeValueAsBytes(Result.success(payload));
+            snapshot = new Snapshot(json, gzip(json), eTag, System.currentTimeMillis());
+            log.debug("公开首页启动数据已重建，大小：{}字节，ETag：{}", json.length, eTag);
+        } catch (IOException e) {
+            throw new IllegalStateException("序列化公开首页启动数据失败：" + e.getMessage(), e);
+        } finally {
+            buildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Map<String, Object> buildPayload() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        CompanyInfoResponse companyInfo = section("companyInfo", companyInfoService::getCompanyInfo);
+        payload.put("companyInfo", companyInfo);
+        payload.put("logo", companyInfo != null ? companyInfo.getCompanyLogo() : null);
+        payload.put("contact", section("contact", companyContactService::getContact));
+        payload.put("coreTeam", section("coreTeam", companyTeamService::getCoreMembers));
+        payload.put("qualifications", section("qualifications", companyQualificationService::getActiveQualifications));
+        payload.put("background", section("background", homePageBackgroundService::getCurrentBackground));
+        payload.put("homeIcons", section("homeIcons", this::loadHomeIcons));
+
+        Map<String, Object> products = new LinkedHashMap<>();
+        products.put("featured", section("featuredProducts", () -> productList(ProductListType.FEATURED)));
+        products.put("new", section("newProducts", () -> productList(ProductListType.NEW)));
+        products.put("main", section("mainProducts", () -> productList(ProductListType.MAIN)));
+        payload.put("products", products);
+        return payload;
+    }
+
+    private List<PublicProductResponse> productList(ProductListType listType) {
+        return productService.getActiveProductsByListType(listType, PageRequest.of(0, productListSize))
+                .getContent().stream()
+                .map(PublicProductResponse::fromProductResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 读取首页图标配置，规则与 /api/public/config/home-icons.json 相同：优先自定义配置，其次默认配置
+     */
+    private Object loadHomeIcons() throws IOException {
+        Resource resource = new ClassPathResource(HOME_ICONS_CONFIG_FILE);
+        if (!resource.exists()) {
+            resource = new ClassPathResource(DEFAULT_HOME_ICONS_CONFIG_FILE);
+        }
+        if (!resource.exists()) {
+            return null;
+        }
+        try (InputStream inputStream = resource.getInputStream()) {
+            return objectMapper.readTree(inputStream);
+        }
+    }
+
+    private <T> T section(String name, Callable<T> loader) {
+        try {
+            return loader.call();
+        } catch (Exception e) {
+            log.warn("构建公开首页启动数据的{}部分失败：{}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(data);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,99 @@
+package com.manage.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.manage.event.ContentDomain;
+import com.manage.service.ResponseBodyCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 公开接口响应体缓存实现类
+ *
+ * 基于Caffeine按条目字节数加权淘汰，总占用不超过配置上限；条目记录生成时的领域ETag，
+ * 读取方据此判断条目是否仍与当前数据一致，事件失效只是尽早释放内存
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ResponseBodyCacheImpl implements ResponseBodyCache {
+
+    @Value("${public.response-cache.max-bytes:33554432}")
+    private long maxBytes;
+
+    @Value("${public.response-cache.max-entry-bytes:1048576}")
+    private int maxEntryBytes;
+
+    @Value("${public.response-cache.gzip-min-bytes:256}")
+    private int gzipMinBytes;
+
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, Entry> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Entry entry) -> key.length() * 2 + entry.weight())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "publicResponseBodies");
+        Gauge.builder("public.response-cache.bytes", cache,
+                        target -> target.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Entry get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void put(String key, Entry entry) {
+        if (entry.getBody().length > maxEntryBytes) {
+            log.debug("响应体超过单条缓存上限，不缓存：{}，大小：{}字节", key, entry.getBody().length);
+            return;
+        }
+        cache.put(key, entry);
+    }
+
+    @Override
+    public void evict(ContentDomain domain) {
+        cache.asMap().values().removeIf(entry -> entry.getDomain() == domain);
+    }
+
+    @Override
+    public Entry createEntry(ContentDomain domain, String contentType, byte[] body, String eTag, long lastModified) {
+        byte[] gzipped = null;
+        if (body.length >= gzipMinBytes) {
+            try {
+                gzipped = gzip(body);
+            } catch (IOException e) {
+                log.warn("压缩响应体失败，仅缓存未压缩版本：{}", e.getMessage());
+            }
+        }
+        return new Entry(domain, contentType, body, gzipped, eTag, lastModified);
+    }
+
+    private byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(data);
+        }
+        return buffer.toByteArray();
+    }
+}
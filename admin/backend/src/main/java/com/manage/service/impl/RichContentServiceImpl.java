@@ -6,10 +6,14 @@ import com.manage.dto.richcontent.RichContentQueryRequest;
 import com.manage.dto.richcontent.RichContentRequest;
 import com.manage.dto.richcontent.RichContentResponse;
 import com.manage.entity.RichContent;
+import com.manage.event.ContentDomain;
 import com.manage.exception.BusinessException;
 import com.manage.repository.RichContentRepository;
+import com.manage.service.AccessCounterService;
 import com.manage.service.RichContentService;
 import com.manage.service.RichContentWebSocketService;
+import com.manage.service.SearchService;
+import com.manage.service.TagService;
 import com.manage.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,8 +28,9 @@ import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -42,6 +47,9 @@ public class RichContentServiceImpl implements RichContentService {
     private final RichContentRepository richContentRepository;
     private final RichContentWebSocketService webSocketService;
     private final UserService userService;
+    private final SearchService searchService;
+    private final AccessCounterService accessCounterService;
+    private final TagService tagService;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -57,7 +65,7 @@ public class RichContentServiceImpl implements RichContentService {
         BeanUtils.copyProperties(request, richContent);
 
         // 处理tags字段
-        richContent.setTags(request.getTags());
+        richContent.setTags(tagService.format(tagService.parse(request.getTags())));
 
         // 处理富文本内容
         if (StringUtils.hasText(request.getContent())) {
@@ -73,6 +81,7 @@ public class RichContentServiceImpl implements RichContentService {
         richContent.setCreatedBy(userId);
 
         RichContent savedContent = richContentRepository.save(richContent);
+        tagService.syncTags(ContentDomain.CONTENT, savedContent.getId(), savedContent.getTags());
         log.info("富文本内容创建成功，内容ID：{}", savedContent.getId());
 
         return convertToResponse(savedContent);
@@ -95,7 +104,7 @@ public class RichContentServiceImpl implements RichContentService {
         BeanUtils.copyProperties(request, richContent);
 
         // 处理tags字段
-        richContent.setTags(request.getTags());
+        richContent.setTags(tagService.format(tagService.parse(request.getTags())));
 
         // 处理富文本内容
         if (StringUtils.hasText(request.getContent())) {
@@ -111,6 +120,7 @@ public class RichContentServiceImpl implements RichContentService {
         richContent.setUpdatedBy(userId);
 
         RichContent savedContent = richContentRepository.save(richContent);
+        tagService.syncTags(ContentDomain.CONTENT, savedContent.getId(), savedContent.getTags());
         log.info("富文本内容更新成功，内容ID：{}", savedContent.getId());
 
         return convertToResponse(savedContent);
@@ -124,7 +134,7 @@ public class RichContentServiceImpl implements RichContentService {
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
+    @Transactional(readOnly = true)
     public RichContentResponse getContentByIdPublic(Long id) {
         RichContent richContent = richContentRepository.findById(id)
                 .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "内容不存在"));
@@ -134,9 +144,8 @@ public class RichContentServiceImpl implements RichContentService {
             throw new BusinessException(ResultCode.FORBIDDEN, "内容未发布");
         }
 
-        // 增加浏览次数
-        richContentRepository.incrementViewCount(id);
-        richContent.setViewCount(richContent.getViewCount() + 1);
+        // 增加浏览次数（内存计数，定时批量写回）
+        accessCounterService.recordContentView(id);
 
         return convertToResponse(richContent);
     }
@@ -224,7 +233,19 @@ public class RichContentServiceImpl implements RichContentService {
 
     @Override
     public List<RichContentResponse> searchContent(String keyword, Integer status) {
-        List<RichContent> contents = richContentRepository.findByKeywordAndStatus(keyword, status);
+        List<RichContent> contents;
+        if (searchService.isReady()) {
+            // 按相关度排序的ID批量加载，保持检索顺序
+            List<Long> ids = searchService.searchIds(ContentDomain.CONTENT, keyword, status, Pageable.unpaged()).getContent();
+            Map<Long, RichContent> contentMap = richContentRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(RichContent::getId, content -> content));
+            contents = ids.stream()
+                    .map(contentMap::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        } else {
+            contents = richContentRepository.findByKeywordAndStatus(keyword, status);
+        }
         return contents.stream()
                 .map(this::convertToResponse)
                 .collect(Collectors.toList());
@@ -326,6 +347,7 @@ public class RichContentServiceImpl implements RichContentService {
         RichContent richContent = richContentRepository.findById(id)
                 .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "内容不存在"));
 
+        tagService.deleteTags(ContentDomain.CONTENT, id);
         richContentRepository.delete(richContent);
         log.info("富文本内容删除成功，内容ID：{}", id);
     }
@@ -340,6 +362,9 @@ public class RichContentServiceImpl implements RichContentService {
             throw new BusinessException(ResultCode.NOT_FOUND, "部分内容不存在");
         }
 
+        for (RichContent content : contents) {
+            tagService.deleteTags(ContentDomain.CONTENT, content.getId());
+        }
         richContentRepository.deleteAll(contents);
         log.info("批量删除富文本内容成功，删除数量：{}", contents.size());
     }
@@ -452,9 +477,8 @@ public class RichContentServiceImpl implements RichContentService {
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public void incrementViewCount(Long id) {
-        richContentRepository.incrementViewCount(id);
+        accessCounterService.recordContentView(id);
     }
 
     @Override
@@ -599,6 +623,13 @@ public class RichContentServiceImpl implements RichContentService {
         RichContentResponse response = new RichContentResponse();
         BeanUtils.copyProperties(richContent, response);
 
+        // 加上尚未写回数据库的浏览次数
+        long pendingViews = accessCounterService.getPendingContentViews(richContent.getId());
+        if (pendingViews > 0) {
+            int viewCount = richContent.getViewCount() == null ? 0 : richContent.getViewCount();
+            response.setViewCount((int) (viewCount + pendingViews));
+        }
+
         // 设置状态文本
         response.setStatusText(getStatusText(richContent.getStatus()));
 
@@ -606,9 +637,7 @@ public class RichContentServiceImpl implements RichContentService {
         response.setContentTypeText(getContentTypeText(richContent.getContentType()));
 
         // 处理标签字符串转换
-        if (StringUtils.hasText(richContent.getTags())) {
-            response.setTags(Arrays.asList(richContent.getTags().split(",")));
-        }
+        response.setTags(tagService.parse(richContent.getTags()));
 
         // 计算字数和阅读时长
         if (StringUtils.hasText(richContent.getPlainText())) {
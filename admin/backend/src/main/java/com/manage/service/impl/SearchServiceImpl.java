@@ -0,0 +1,310 @@
+package com.manage.service.impl;
+
+import com.manage.dto.search.SearchHighlight;
+import com.manage.dto.search.SearchHitResponse;
+import com.manage.entity.MediaFile;
+import com.manage.entity.Product;
+import com.manage.entity.RichContent;
+import com.manage.event.ContentChangedEvent;
+import com.manage.event.ContentDomain;
+import com.manage.repository.MediaFileRepository;
+import com.manage.repository.ProductRepository;
+import com.manage.repository.RichContentRepository;
+import com.manage.search.Highlighter;
+import com.manage.search.InvertedIndex;
+import com.manage.search.RebuildableIndex;
+import com.manage.search.SearchDocument;
+import com.manage.search.TextAnalyzer;
+import com.manage.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 全文检索服务实现类
+ *
+ * 每个领域一份倒排索引，增量更新和全量重建由 {@link RebuildableIndex} 协调
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchServiceImpl implements SearchService {
+
+    private static final Set<ContentDomain> INDEXED_DOMAINS =
+            Collections.unmodifiableSet(EnumSet.of(ContentDomain.PRODUCT, ContentDomain.CONTENT, ContentDomain.MEDIA));
+
+    private static final int REBUILD_BATCH_SIZE = 500;
+    private static final int SNIPPET_LENGTH = 120;
+
+    private final ProductRepository productRepository;
+    private final RichContentRepository richContentRepository;
+    private final MediaFileRepository mediaFileRepository;
+
+    private final RebuildableIndex<Map<ContentDomain, InvertedIndex>, ContentChangedEvent> indexes =
+            new RebuildableIndex<>("搜索索引", createIndexes(), this::loadIndexes, this::apply);
+
+    @Override
+    public boolean isReady() {
+        return indexes.isReady();
+    }
+
+    @Override
+    public Page<Long> searchIds(ContentDomain domain, String keyword, Integer status, Pageable pageable) {
+        List<InvertedIndex.Hit> hits = query(domain, keyword,
+                document -> status == null || status.equals(document.getStatus()));
+
+        List<Long> ids;
+        if (pageable.isUnpaged()) {
+            ids = hits.stream().map(hit -> hit.getDocument().getId()).collect(Collectors.toList());
+        } else {
+            int from = (int) Math.min(pageable.getOffset(), hits.size());
+            int to = Math.min(from + pageable.getPageSize(), hits.size());
+            ids = hits.subList(from, to).stream()
+                    .map(hit -> hit.getDocument().getId())
+                    .collect(Collectors.toList());
+        }
+        return new PageImpl<>(ids, pageable, hits.size());
+    }
+
+    @Override
+    public List<SearchHitResponse> search(String keyword, Set<ContentDomain> domains, int limit) {
+        List<String> terms = TextAnalyzer.analyzeQuery(keyword);
+        List<SearchHitResponse> results = new ArrayList<>();
+        for (ContentDomain domain : domains) {
+            if (!INDEXED_DOMAINS.contains(domain)) {
+                continue;
+            }
+            // 各领域结果已按相关度排序，每个领域最多取limit条参与合并
+            List<InvertedIndex.Hit> hits = query(domain, keyword, SearchDocument::isVisible);
+            for (InvertedIndex.Hit hit : hits.subList(0, Math.min(limit, hits.size()))) {
+                results.add(toHitResponse(domain, hit, terms));
+            }
+        }
+        return results.stream()
+                .sorted(Comparator.comparing(SearchHitResponse::getScore).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public SearchHighlight highlight(ContentDomain domain, Long id, String keyword) {
+        InvertedIndex index = indexes.get().get(domain);
+        SearchDocument document = index != null ? index.get(id) : null;
+        if (document == null) {
+            return null;
+        }
+        return buildHighlight(document, TextAnalyzer.analyzeQuery(keyword));
+    }
+
+    /**
+     * 内容变更事务提交后增量更新索引
+     *
+     * @param event 内容变更事件
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onContentChanged(ContentChangedEvent event) {
+        if (!INDEXED_DOMAINS.contains(event.getDomain())) {
+            return;
+        }
+        indexes.apply(event);
+    }
+
+    /**
+     * 应用启动完成后构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildIndex();
+    }
+
+    /**
+     * 定期全量重建，兜底不经过实体监听器的批量更新
+     */
+    @Scheduled(fixedDelayString = "${search.index.rebuild-interval-ms:21600000}",
+               initialDelayString = "${search.index.rebuild-interval-ms:21600000}")
+    public void scheduledRebuild() {
+        rebuildIndex();
+    }
+
+    @Override
+    public void rebuildIndex() {
+        RebuildableIndex.Rebuild<Map<ContentDomain, InvertedIndex>> rebuild = indexes.rebuild();
+        if (rebuild != null) {
+            Map<ContentDomain, InvertedIndex> fresh = rebuild.getIndex();
+            log.info("搜索索引重建完成，产品：{}，内容：{}，媒体：{}，补放变更：{}，耗时：{}ms",
+                    fresh.get(ContentDomain.PRODUCT).size(), fresh.get(ContentDomain.CONTENT).size(),
+                    fresh.get(ContentDomain.MEDIA).size(), rebuild.getReplayed(), rebuild.getDurationMs());
+        }
+    }
+
+    @Override
+    public Map<String, Object> getIndexStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        Map<ContentDomain, InvertedIndex> current = indexes.get();
+        for (ContentDomain domain : INDEXED_DOMAINS) {
+            Map<String, Object> item = new HashMap<>();
+            item.put("documents", current.get(domain).size());
+            item.put("terms", current.get(domain).termCount());
+            statistics.put(domain.name(), item);
+        }
+        statistics.put("ready", indexes.isReady());
+        statistics.put("rebuilding", indexes.isRebuilding());
+        statistics.put("lastRebuildTime", indexes.getLastRebuildTime());
+        return statistics;
+    }
+
+    private List<InvertedIndex.Hit> query(ContentDomain domain, String keyword, Predicate<SearchDocument> filter) {
+        InvertedIndex index = indexes.get().get(domain);
+        if (index == null || !StringUtils.hasText(keyword)) {
+            return Collections.emptyList();
+        }
+        return index.search(TextAnalyzer.analyzeQuery(keyword), filter);
+    }
+
+    private void apply(Map<ContentDomain, InvertedIndex> target, ContentChangedEvent event) {
+        InvertedIndex index = target.get(event.getDomain());
+        SearchDocument document = event.getChangeType() == ContentChangedEvent.ChangeType.DELETED
+                ? null : toDocument(event.getEntity());
+        if (document != null) {
+            index.put(document);
+        } else if (event.getEntityId() != null) {
+            index.remove(event.getEntityId());
+        }
+    }
+
+    private Map<ContentDomain, InvertedIndex> loadIndexes() {
+        Map<ContentDomain, InvertedIndex> fresh = createIndexes();
+        loadAll(productRepository, fresh.get(ContentDomain.PRODUCT));
+        loadAll(richContentRepository, fresh.get(ContentDomain.CONTENT));
+        loadAll(mediaFileRepository, fresh.get(ContentDomain.MEDIA));
+        return fresh;
+    }
+
+    private <T> void loadAll(JpaRepository<T, Long> repository, InvertedIndex index) {
+        Pageable pageable = PageRequest.of(0, REBUILD_BATCH_SIZE, Sort.by(Sort.Direction.ASC, "id"));
+        Page<T> page;
+        do {
+            page = repository.findAll(pageable);
+            for (T entity : page.getContent()) {
+                SearchDocument document = toDocument(entity);
+                if (document != null) {
+                    index.put(document);
+                }
+            }
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+    }
+
+    /**
+     * 实体转换为索引文档，不需要索引的实体（如已删除的媒体文件）返回null
+     */
+    private SearchDocument toDocument(Object entity) {
+        if (entity instanceof Product) {
+            Product product = (Product) entity;
+            return new SearchDocument(product.getId(), product.getStatus(),
+                    Integer.valueOf(1).equals(product.getStatus()),
+                    product.getProductName(), product.getDescription(), product.getMainImage())
+                    .field(product.getProductName(), 3f)
+                    .field(product.getProductCode(), 3f)
+                    .field(product.getCategory(), 2f)
+                    .field(product.getTags(), 2f)
+                    .field(product.getSeoKeywords(), 1.5f)
+                    .field(joinAttributes(product), 1f)
+                    .field(product.getDescription(), 1f);
+        }
+        if (entity instanceof RichContent) {
+            RichContent content = (RichContent) entity;
+            String body = StringUtils.hasText(content.getPlainText()) ? content.getPlainText() : content.getSummary();
+            return new SearchDocument(content.getId(), content.getStatus(),
+                    Integer.valueOf(1).equals(content.getStatus()),
+                    content.getTitle(), body, content.getCoverImage())
+                    .field(content.getTitle(), 3f)
+                    .field(content.getTags(), 2f)
+                    .field(content.getSeoKeywords(), 1.5f)
+                    .field(content.getSummary(), 1.5f)
+                    .field(content.getAuthor(), 1f)
+                    .field(content.getPlainText(), 1f);
+        }
+        if (entity instanceof MediaFile) {
+            MediaFile file = (MediaFile) entity;
+            if (Integer.valueOf(3).equals(file.getStatus())) {
+                return null;
+            }
+            String image = StringUtils.hasText(file.getThumbnailUrl()) ? file.getThumbnailUrl()
+                    : ("image".equals(file.getFileType()) ? file.getFileUrl() : null);
+            return new SearchDocument(file.getId(), file.getStatus(),
+                    Integer.valueOf(1).equals(file.getStatus()) && Boolean.TRUE.equals(file.getIsPublic()),
+                    file.getOriginalName(), file.getDescription(), image)
+                    .field(file.getOriginalName(), 3f)
+                    .field(file.getTags(), 2f)
+                    .field(file.getCategory(), 1f)
+                    .field(file.getDescription(), 1f);
+        }
+        return null;
+    }
+
+    /**
+     * 产品面料、款式等属性合并为一个低权重字段
+     */
+    private String joinAttributes(Product product) {
+        return Stream.of(product.getMaterial(), product.getFabricType(), product.getStyle(),
+                        product.getJeansStyle(), product.getCraftsmanship(), product.getWashingProcess(),
+                        product.getSeason(), product.getOrigin())
+                .filter(StringUtils::hasText)
+                .collect(Collectors.joining(" "));
+    }
+
+    private SearchHitResponse toHitResponse(ContentDomain domain, InvertedIndex.Hit hit, List<String> terms) {
+        SearchDocument document = hit.getDocument();
+        SearchHitResponse response = new SearchHitResponse();
+        response.setType(domain.name());
+        response.setId(document.getId());
+        response.setScore(hit.getScore());
+        response.setTitle(document.getTitle());
+        response.setImage(document.getImage());
+        response.setHighlight(buildHighlight(document, terms));
+        return response;
+    }
+
+    private SearchHighlight buildHighlight(SearchDocument document, List<String> terms) {
+        return new SearchHighlight(Highlighter.highlight(document.getTitle(), terms),
+                Highlighter.snippet(document.getBody(), terms, SNIPPET_LENGTH));
+    }
+
+    private static Map<ContentDomain, InvertedIndex> createIndexes() {
+        Map<ContentDomain, InvertedIndex> map = new EnumMap<>(ContentDomain.class);
+        for (ContentDomain domain : INDEXED_DOMAINS) {
+            map.put(domain, new InvertedIndex());
+        }
+        return map;
+    }
+}
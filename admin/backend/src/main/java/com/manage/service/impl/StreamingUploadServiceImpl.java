@@ -0,0 +1,423 @@
+package com.manage.service.impl;
+
+import com.manage.exception.BusinessException;
+import com.manage.service.FileUploadService;
+import com.manage.service.StreamingUploadService;
+import com.manage.util.SpooledMultipartFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.apache.commons.io.FilenameUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 流式批量上传服务实现类
+ *
+ * multipart请求体是顺序的，只能一个文件接一个文件地读取：每个文件边读边写入临时文件，
+ * 读完立即提交到有界线程池处理，请求线程继续读取下一个文件，网络接收与压缩、存储并行进行。
+ * 线程池饱和时由请求线程自己处理（暂停读取），形成背压，临时文件数量因此有上限
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StreamingUploadServiceImpl implements StreamingUploadService {
+
+    private static final String TOPIC_PREFIX = "/topic/upload/batch/";
+
+    private static final Pattern BATCH_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private static final long IMAGE_MAX_SIZE = 10 * 1024 * 1024L;
+
+    @Value("${file.batch.temp-path:uploads-tmp/batch}")
+    private String tempPath;
+
+    @Value("${file.batch.pool-size:4}")
+    private int poolSize;
+
+    @Value("${file.batch.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${file.batch.process-timeout-seconds:300}")
+    private long processTimeoutSeconds;
+
+    @Value("${file.batch.progress-interval-bytes:1048576}")
+    private long progressIntervalBytes;
+
+    @Value("${spring.servlet.multipart.max-file-size:150MB}")
+    private DataSize maxFileSize;
+
+    @Value("${spring.servlet.multipart.max-request-size:150MB}")
+    private DataSize maxRequestSize;
+
+    private final FileUploadService fileUploadService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private Counter successCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(Paths.get(tempPath));
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "batch-upload-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        Gauge.builder("upload.batch.queue.size", executor, pool -> pool.getQueue().size())
+                .description("批量上传待处理文件数")
+                .register(meterRegistry);
+        Gauge.builder("upload.batch.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("批量上传正在处理的文件数")
+                .register(meterRegistry);
+        successCounter = meterRegistry.counter("upload.batch.files", "result", "success");
+        failedCounter = meterRegistry.counter("upload.batch.files", "result", "failed");
+
+        log.info("流式批量上传线程池初始化完成，线程数：{}，队列容量：{}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public Map<String, Object> upload(HttpServletRequest request, Kind kind, String category, String batchId) {
+        if (StringUtils.hasText(batchId) && !BATCH_ID_PATTERN.matcher(batchId).matches()) {
+            throw new BusinessException("批次ID只能包含字母、数字、下划线和短横线，且不超过64个字符");
+        }
+        String id = StringUtils.hasText(batchId) ? batchId : UUID.randomUUID().toString();
+        String fixedCategory = fixedCategory(kind);
+        String effectiveCategory = fixedCategory != null ? fixedCategory : category;
+        int maxFiles = kind == Kind.IMAGE || kind == Kind.EDITOR_IMAGE ? 20 : 10;
+
+        List<FileTask> tasks = new ArrayList<>();
+        List<Map<String, Object>> errorResults = new ArrayList<>();
+        int fileCount = 0;
+        String streamError = null;
+
+        ServletFileUpload upload = new ServletFileUpload();
+        upload.setSizeMax(maxRequestSize.toBytes());
+        upload.setHeaderEncoding(StandardCharsets.UTF_8.name());
+        try {
+            FileItemIterator iterator = upload.getItemIterator(request);
+            while (iterator.hasNext()) {
+                FileItemStream item = iterator.next();
+                if (item.isFormField()) {
+                    // 分类和批次ID只从查询串读取，表单字段忽略
+                    drain(item);
+                    continue;
+                }
+
+                int index = fileCount++;
+                String fileName = FilenameUtils.getName(item.getName());
+                String rejection = precheck(kind, fileName, effectiveCategory, index, maxFiles);
+                if (rejection != null) {
+                    drain(item);
+                    errorResults.add(fail(id, index, fileName, rejection));
+                    continue;
+                }
+
+                SpooledMultipartFile file = spool(item, id, index, fileName, maxFileSize(kind));
+                if (file == null) {
+                    errorResults.add(fail(id, index, fileName, kind == Kind.IMAGE || kind == Kind.VIDEO
+                            ? "文件大小不能超过" + maxFileSize.toMegabytes() + "MB" : "图片文件大小不能超过10MB"));
+                    continue;
+                }
+                if (file.isEmpty()) {
+                    Files.deleteIfExists(file.getPath());
+                    errorResults.add(fail(id, index, fileName, "文件为空"));
+                    continue;
+                }
+
+                String taskCategory = effectiveCategory;
+                publish(id, progress(index, fileName, "QUEUED", file.getSize()));
+                tasks.add(new FileTask(index, fileName, CompletableFuture.supplyAsync(
+                        () -> process(kind, id, index, file, taskCategory), executor)));
+            }
+        } catch (FileUploadException | IOException e) {
+            // 客户端中断或超出请求大小限制：已接收的文件照常处理，未接收的无法得知
+            streamError = e.getMessage();
+            log.warn("读取批量上传请求中断，批次：{}，已接收文件：{}，原因：{}", id, tasks.size(), e.getMessage());
+        }
+
+        List<Map<String, Object>> successResults = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(processTimeoutSeconds);
+        for (FileTask task : tasks) {
+            try {
+                Map<String, Object> result = task.future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                (result.containsKey("error") ? errorResults : successResults).add(result);
+            } catch (TimeoutException e) {
+                errorResults.add(error(task.index, task.fileName, "处理超时，请稍后在文件列表中确认"));
+            } catch (ExecutionException e) {
+                errorResults.add(error(task.index, task.fileName, e.getCause().getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                errorResults.add(error(task.index, task.fileName, "处理被中断"));
+            }
+        }
+
+        Comparator<Map<String, Object>> byIndex = Comparator.comparing(result -> (Integer) result.get("index"));
+        successResults.sort(byIndex);
+        errorResults.sort(byIndex);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("batchId", id);
+        result.put("success", successResults);
+        result.put("errors", errorResults);
+        result.put("totalCount", fileCount);
+        result.put("successCount", successResults.size());
+        result.put("errorCount", errorResults.size());
+        if (streamError != null) {
+            result.put("streamError", streamError);
+        }
+
+        Map<String, Object> summary = new HashMap<>(result);
+        summary.remove("success");
+        summary.remove("errors");
+        summary.put("stage", "COMPLETED");
+        publish(id, summary);
+
+        log.info("流式批量上传完成，批次：{}，文件数：{}，成功：{}，失败：{}",
+                id, fileCount, successResults.size(), errorResults.size());
+        return result;
+    }
+
+    /**
+     * 读取前的校验，返回拒绝原因，通过时返回null
+     */
+    private String precheck(Kind kind, String fileName, String category, int index, int maxFiles) {
+        if (index >= maxFiles) {
+            return "一次最多只能上传" + maxFiles + "个文件";
+        }
+        if (!StringUtils.hasText(fileName)) {
+            return "文件名不能为空";
+        }
+        if (!StringUtils.hasText(category)) {
+            return "文件分类不能为空";
+        }
+        if (kind == Kind.PRODUCT_IMAGE || kind == Kind.EDITOR_IMAGE) {
+            String extension = FilenameUtils.getExtension(fileName).toLowerCase(Locale.ROOT);
+            if (!extension.matches("jpg|jpeg|png|gif|webp|svg")) {
+                return "只支持jpg、jpeg、png、gif、webp、svg格式的图片文件";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 把当前文件写入临时文件并推送接收进度；超出大小限制时丢弃剩余内容并返回null
+     */
+    private SpooledMultipartFile spool(FileItemStream item, String batchId, int index,
+                                       String fileName, long limit) throws IOException {
+        Path target = Files.createTempFile(Paths.get(tempPath), batchId + "-" + index + "-", ".part");
+        long received = 0;
+        long nextProgress = progressIntervalBytes;
+        boolean tooLarge = false;
+        try (InputStream in = item.openStream(); OutputStream out = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                received += read;
+                if (received > limit) {
+                    tooLarge = true;
+                    // 读完该文件剩余内容才能继续读取下一个文件
+                    while (in.read(buffer) != -1) {
+                        // 丢弃
+                    }
+                    break;
+                }
+                out.write(buffer, 0, read);
+                if (received >= nextProgress) {
+                    publish(batchId, progress(index, fileName, "RECEIVING", received));
+                    nextProgress = received + progressIntervalBytes;
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+
+        if (tooLarge) {
+            Files.deleteIfExists(target);
+            return null;
+        }
+        return new SpooledMultipartFile(item.getFieldName(), fileName, item.getContentType(), target, received);
+    }
+
+    /**
+     * 校验、压缩、存储单个文件，结束后删除临时文件
+     */
+    private Map<String, Object> process(Kind kind, String batchId, int index,
+                                        SpooledMultipartFile file, String category) {
+        publish(batchId, progress(index, file.getOriginalFilename(), "PROCESSING", file.getSize()));
+        try {
+            Map<String, Object> success = new HashMap<>();
+            success.put("index", index);
+            success.put("fileName", file.getOriginalFilename());
+            if (kind == Kind.PRODUCT_IMAGE) {
+                // 与单张产品图片上传使用相同的压缩参数
+                Map<String, Object> options = new HashMap<>();
+                options.put("width", 1200);
+                options.put("height", 1200);
+                options.put("maxSize", 10 * 1024 * 1024L);
+                options.put("description", "产品图片");
+                // 压缩、缩略图和变体由后台处理，结果中返回处理状态，客户端可按statusUrl查询
+                Map<String, Object> uploadResult = fileUploadService.uploadImage(file, category, options);
+                success.put("id", uploadResult.get("id"));
+                success.put("url", uploadResult.get("url"));
+                success.put("fileSize", file.getSize());
+                success.put("processStatus", uploadResult.get("processStatus"));
+                success.put("queued", uploadResult.get("queued"));
+                success.put("statusUrl", uploadResult.get("statusUrl"));
+            } else {
+                success.put("url", fileUploadService.uploadFile(file, category));
+                success.put("fileSize", file.getSize());
+            }
+
+            successCounter.increment();
+            Map<String, Object> message = progress(index, file.getOriginalFilename(), "SUCCESS", file.getSize());
+            message.put("url", success.get("url"));
+            publish(batchId, message);
+            return success;
+        } catch (Exception e) {
+            log.warn("批量上传文件处理失败，批次：{}，文件：{}，原因：{}", batchId, file.getOriginalFilename(), e.getMessage());
+            return fail(batchId, index, file.getOriginalFilename(), e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file.getPath());
+            } catch (IOException e) {
+                log.warn("删除批量上传临时文件失败：{}", file.getPath());
+            }
+        }
+    }
+
+    private String fixedCategory(Kind kind) {
+        switch (kind) {
+            case PRODUCT_IMAGE:
+                return "product/images";
+            case EDITOR_IMAGE:
+                return "editor/images";
+            default:
+                return null;
+        }
+    }
+
+    private long maxFileSize(Kind kind) {
+        return kind == Kind.IMAGE || kind == Kind.VIDEO ? maxFileSize.toBytes() : IMAGE_MAX_SIZE;
+    }
+
+    private void drain(FileItemStream item) throws IOException {
+        try (InputStream in = item.openStream()) {
+            byte[] buffer = new byte[64 * 1024];
+            while (in.read(buffer) != -1) {
+                // 丢弃
+            }
+        }
+    }
+
+    private Map<String, Object> fail(String batchId, int index, String fileName, String message) {
+        failedCounter.increment();
+        Map<String, Object> progress = progress(index, fileName, "FAILED", 0);
+        progress.put("error", message);
+        publish(batchId, progress);
+        return error(index, fileName, message);
+    }
+
+    private Map<String, Object> error(int index, String fileName, String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("index", index);
+        error.put("fileName", fileName);
+        error.put("error", message);
+        return error;
+    }
+
+    private Map<String, Object> progress(int index, String fileName, String stage, long bytes) {
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("index", index);
+        progress.put("fileName", fileName);
+        progress.put("stage", stage);
+        progress.put("bytes", bytes);
+        return progress;
+    }
+
+    private void publish(String batchId, Map<String, Object> message) {
+        try {
+            message.put("batchId", batchId);
+            messagingTemplate.convertAndSend(TOPIC_PREFIX + batchId, message);
+        } catch (Exception e) {
+            log.debug("推送批量上传进度失败，批次：{}，错误：{}", batchId, e.getMessage());
+        }
+    }
+
+    /**
+     * 已提交处理的文件
+     */
+    private static final class FileTask {
+
+        private final int index;
+        private final String fileName;
+        private final CompletableFuture<Map<String, Object>> future;
+
+        private FileTask(int index, String fileName, CompletableFuture<Map<String, Object>> future) {
+            this.index = index;
+            this.fileName = fileName;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,489 @@
+package com.manage.service.impl;
+
+import com.manage.common.ResultCode;
+import com.manage.dto.tag.TagCountResponse;
+import com.manage.dto.tag.TagMergeRequest;
+import com.manage.dto.tag.TagRetagRequest;
+import com.manage.entity.ContentTag;
+import com.manage.entity.MediaFile;
+import com.manage.entity.Product;
+import com.manage.entity.RichContent;
+import com.manage.entity.Tag;
+import com.manage.event.ContentDomain;
+import com.manage.exception.BusinessException;
+import com.manage.repository.ContentTagRepository;
+import com.manage.repository.MediaFileRepository;
+import com.manage.repository.ProductRepository;
+import com.manage.repository.RichContentRepository;
+import com.manage.repository.TagRepository;
+import com.manage.service.TagService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * 标签服务实现类
+ *
+ * 标签关联在数据的写入事务内同步；字典中新标签在独立事务中创建，与并发写入者撞上唯一键时重新查询。
+ * 启动时及定期校对tags字段与关联表，修复同步失败或绕过服务层写入造成的不一致
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TagServiceImpl implements TagService {
+
+    private static final Set<ContentDomain> TAGGED_DOMAINS =
+            Collections.unmodifiableSet(EnumSet.of(ContentDomain.PRODUCT, ContentDomain.CONTENT, ContentDomain.MEDIA));
+
+    private static final int RECONCILE_BATCH_SIZE = 200;
+
+    private final TagRepository tagRepository;
+    private final ContentTagRepository contentTagRepository;
+    private final ProductRepository productRepository;
+    private final RichContentRepository richContentRepository;
+    private final MediaFileRepository mediaFileRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 在独立事务中创建字典标签，唯一键冲突不会使调用方的事务失效
+     */
+    private TransactionTemplate requiresNewTemplate;
+
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        requiresNewTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        requiresNewTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 启动时校对标签关联，历史数据在此建立关联
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduledReconcile();
+    }
+
+    /**
+     * 定期校对标签关联
+     */
+    @Scheduled(fixedDelayString = "${tag.reconcile-interval-ms:21600000}",
+               initialDelayString = "${tag.reconcile-interval-ms:21600000}")
+    public void scheduledReconcile() {
+        try {
+            int repaired = reconcileTags();
+            if (repaired > 0) {
+                log.info("标签关联校对完成，修复数据条数：{}", repaired);
+            }
+        } catch (Exception e) {
+            log.error("校对标签关联失败：{}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<String> parse(String tags) {
+        if (!StringUtils.hasText(tags)) {
+            return new ArrayList<>();
+        }
+        return normalize(Arrays.asList(tags.split("[,，]")));
+    }
+
+    @Override
+    public String format(Collection<String> tags) {
+        if (tags == null) {
+            return null;
+        }
+        List<String> names = normalize(tags);
+        return names.isEmpty() ? null : String.join(",", names);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void syncTags(ContentDomain domain, Long entityId, String tags) {
+        List<String> names = parse(tags);
+        List<ContentTag> current = contentTagRepository.findByDomainAndEntityIdOrderBySortOrderAsc(domain, entityId);
+        Map<Long, Tag> currentTags = tagRepository.findAllById(current.stream()
+                        .map(ContentTag::getTagId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Tag::getId, tag -> tag));
+
+        List<String> currentKeys = current.stream()
+                .map(assignment -> currentTags.get(assignment.getTagId()))
+                .map(tag -> tag == null ? null : key(tag.getName()))
+                .collect(Collectors.toList());
+        List<String> keys = names.stream().map(this::key).collect(Collectors.toList());
+        if (currentKeys.equals(keys)) {
+            return;
+        }
+
+        Map<String, Tag> dictionary = resolveTags(names);
+        Map<Long, ContentTag> existing = new HashMap<>();
+        List<ContentTag> removed = new ArrayList<>();
+        for (ContentTag assignment : current) {
+            if (existing.putIfAbsent(assignment.getTagId(), assignment) != null) {
+                removed.add(assignment);
+            }
+        }
+
+        List<ContentTag> changed = new ArrayList<>();
+        Set<Long> assigned = new HashSet<>();
+        for (String name : names) {
+            Tag tag = dictionary.get(key(name));
+            if (!assigned.add(tag.getId())) {
+                // 数据库认为相同的两个名称只关联一次
+                continue;
+            }
+            ContentTag assignment = existing.remove(tag.getId());
+            if (assignment == null) {
+                assignment = new ContentTag();
+                assignment.setDomain(domain);
+                assignment.setEntityId(entityId);
+                assignment.setTagId(tag.getId());
+            }
+            assignment.setSortOrder(changed.size());
+            changed.add(assignment);
+        }
+        removed.addAll(existing.values());
+
+        contentTagRepository.deleteAll(removed);
+        contentTagRepository.saveAll(changed);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteTags(ContentDomain domain, Long entityId) {
+        contentTagRepository.deleteByDomainAndEntityId(domain, entityId);
+    }
+
+    @Override
+    public List<TagCountResponse> getTagCloud(ContentDomain domain, int limit) {
+        if (domain != null) {
+            checkDomain(domain);
+        }
+        return contentTagRepository.countByTag(domain, PageRequest.of(0, limit)).stream()
+                .map(row -> new TagCountResponse((Long) row[0], (String) row[1], (Long) row[2]))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int retag(TagRetagRequest request) {
+        checkDomain(request.getDomain());
+        List<String> added = normalize(request.getAddTags() != null ? request.getAddTags() : Collections.emptyList());
+        Set<String> removedKeys = normalize(request.getRemoveTags() != null ? request.getRemoveTags() : Collections.emptyList())
+                .stream()
+                .map(this::key)
+                .collect(Collectors.toSet());
+        if (added.isEmpty() && removedKeys.isEmpty()) {
+            throw new BusinessException(ResultCode.VALIDATE_FAILED, "请指定要添加或移除的标签");
+        }
+
+        int changed = rewriteTags(request.getDomain(), request.getEntityIds(), tags -> {
+            List<String> result = tags.stream()
+                    .filter(tag -> !removedKeys.contains(key(tag)))
+                    .collect(Collectors.toList());
+            result.addAll(added);
+            return result;
+        });
+        log.info("批量修改标签完成，领域：{}，数据条数：{}，实际变化：{}",
+                request.getDomain(), request.getEntityIds().size(), changed);
+        return changed;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void renameTag(Long id, String name) {
+        Tag tag = getTag(id);
+        List<String> names = parse(name);
+        if (names.size() != 1) {
+            throw new BusinessException(ResultCode.VALIDATE_FAILED, "标签名称不能为空且不能包含逗号");
+        }
+        String newName = names.get(0);
+        if (newName.equals(tag.getName())) {
+            return;
+        }
+
+        Optional<Tag> duplicate = tagRepository.findByName(newName);
+        if (duplicate.isPresent() && !duplicate.get().getId().equals(id)) {
+            log.info("标签新名称已存在，合并标签：{} -> {}", tag.getName(), duplicate.get().getName());
+            mergeInto(tag, duplicate.get());
+            return;
+        }
+
+        String oldKey = key(tag.getName());
+        tag.setName(newName);
+        tagRepository.save(tag);
+        rewriteAssignedTags(id, tags -> replace(tags, oldKey, newName));
+        log.info("标签重命名完成，标签ID：{}，新名称：{}", id, newName);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void mergeTags(TagMergeRequest request) {
+        Tag target = getTag(request.getTargetId());
+        for (Long sourceId : new LinkedHashSet<>(request.getSourceIds())) {
+            if (!sourceId.equals(target.getId())) {
+                mergeInto(getTag(sourceId), target);
+            }
+        }
+        log.info("标签合并完成，被合并的标签ID：{}，目标标签：{}", request.getSourceIds(), target.getName());
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteTag(Long id) {
+        Tag tag = getTag(id);
+        String removedKey = key(tag.getName());
+        rewriteAssignedTags(id, tags -> tags.stream()
+                .filter(name -> !removedKey.equals(key(name)))
+                .collect(Collectors.toList()));
+        contentTagRepository.deleteByTagId(id);
+        tagRepository.delete(tag);
+        log.info("标签删除完成，标签：{}", tag.getName());
+    }
+
+    @Override
+    public int reconcileTags() {
+        if (!reconciling.compareAndSet(false, true)) {
+            log.info("标签关联正在校对，跳过本次请求");
+            return 0;
+        }
+        try {
+            int repaired = 0;
+            repaired += reconcile(ContentDomain.PRODUCT, Product.class, contentTagRepository::findProductTags);
+            repaired += reconcile(ContentDomain.CONTENT, RichContent.class, contentTagRepository::findContentTags);
+            repaired += reconcile(ContentDomain.MEDIA, MediaFile.class, contentTagRepository::findMediaFileTags);
+            int orphans = contentTagRepository.deleteOrphanProductTags()
+                    + contentTagRepository.deleteOrphanContentTags()
+                    + contentTagRepository.deleteOrphanMediaFileTags();
+            if (orphans > 0) {
+                log.info("清除已删除数据的标签关联：{}", orphans);
+            }
+            return repaired;
+        } finally {
+            reconciling.set(false);
+        }
+    }
+
+    /**
+     * 按批比较tags字段与关联表，只对不一致的数据重新同步
+     */
+    private int reconcile(ContentDomain domain, Class<?> entityClass,
+                          BiFunction<Long, Pageable, List<Object[]>> finder) {
+        int repaired = 0;
+        long afterId = 0L;
+        while (true) {
+            List<Object[]> rows = finder.apply(afterId, PageRequest.of(0, RECONCILE_BATCH_SIZE));
+            if (rows.isEmpty()) {
+                return repaired;
+            }
+            List<Long> ids = rows.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+            Map<Long, List<String>> assigned = new HashMap<>();
+            for (Object[] row : contentTagRepository.findAssignedNames(domain, ids)) {
+                assigned.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(key((String) row[1]));
+            }
+
+            for (Object[] row : rows) {
+                Long id = (Long) row[0];
+                List<String> keys = parse((String) row[1]).stream().map(this::key).collect(Collectors.toList());
+                if (keys.equals(assigned.getOrDefault(id, Collections.emptyList()))) {
+                    continue;
+                }
+                try {
+                    repair(domain, entityClass, id);
+                    repaired++;
+                } catch (RuntimeException e) {
+                    log.warn("修复标签关联失败，领域：{}，数据ID：{}，错误：{}", domain, id, e.getMessage());
+                }
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    /**
+     * 锁定数据行后按其最新的tags字段重新同步，避免用批量读取时的旧值覆盖并发写入者刚同步的关联
+     */
+    private void repair(ContentDomain domain, Class<?> entityClass, Long id) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Object entity = entityManager.find(entityClass, id, LockModeType.PESSIMISTIC_WRITE);
+            if (entity == null) {
+                deleteTags(domain, id);
+            } else {
+                syncTags(domain, id, readTags(entity));
+            }
+        });
+    }
+
+    private String readTags(Object entity) {
+        if (entity instanceof Product) {
+            return ((Product) entity).getTags();
+        }
+        if (entity instanceof RichContent) {
+            return ((RichContent) entity).getTags();
+        }
+        return ((MediaFile) entity).getTags();
+    }
+
+    /**
+     * 把source标签的所有使用改为target标签，然后删除source
+     */
+    private void mergeInto(Tag source, Tag target) {
+        String sourceKey = key(source.getName());
+        rewriteAssignedTags(source.getId(), tags -> replace(tags, sourceKey, target.getName()));
+        contentTagRepository.deleteByTagId(source.getId());
+        tagRepository.delete(source);
+    }
+
+    /**
+     * 改写带有某个标签的全部数据的tags字段，并同步标签关联
+     */
+    private void rewriteAssignedTags(Long tagId, UnaryOperator<List<String>> change) {
+        Map<ContentDomain, List<Long>> entityIds = contentTagRepository.findByTagId(tagId).stream()
+                .collect(Collectors.groupingBy(ContentTag::getDomain,
+                        Collectors.mapping(ContentTag::getEntityId, Collectors.toList())));
+        entityIds.forEach((domain, ids) -> rewriteTags(domain, ids, change));
+    }
+
+    /**
+     * 改写一批数据的tags字段并立即同步标签关联；通过实体保存，搜索索引、分面索引和公开缓存随变更事件更新
+     *
+     * @return 实际发生变化的数据条数
+     */
+    private int rewriteTags(ContentDomain domain, Collection<Long> ids, UnaryOperator<List<String>> change) {
+        switch (domain) {
+            case PRODUCT:
+                return rewriteTags(domain, productRepository, ids, Product::getId, Product::getTags, Product::setTags, change);
+            case CONTENT:
+                return rewriteTags(domain, richContentRepository, ids, RichContent::getId, RichContent::getTags,
+                        RichContent::setTags, change);
+            case MEDIA:
+                return rewriteTags(domain, mediaFileRepository, ids, MediaFile::getId, MediaFile::getTags,
+                        MediaFile::setTags, change);
+            default:
+                throw new BusinessException(ResultCode.VALIDATE_FAILED, "不支持的标签领域：" + domain);
+        }
+    }
+
+    private <T> int rewriteTags(ContentDomain domain, JpaRepository<T, Long> repository, Collection<Long> ids,
+                                Function<T, Long> idGetter, Function<T, String> getter, BiConsumer<T, String> setter,
+                                UnaryOperator<List<String>> change) {
+        List<T> changed = new ArrayList<>();
+        for (T entity : repository.findAllById(ids)) {
+            String tags = format(change.apply(parse(getter.apply(entity))));
+            if (!Objects.equals(tags, getter.apply(entity))) {
+                setter.accept(entity, tags);
+                changed.add(entity);
+            }
+        }
+        repository.saveAll(changed);
+        for (T entity : changed) {
+            syncTags(domain, idGetter.apply(entity), getter.apply(entity));
+        }
+        return changed.size();
+    }
+
+    /**
+     * 按名称查找标签，字典中不存在的自动创建
+     *
+     * @return 名称（规范化键）-> 标签
+     */
+    private Map<String, Tag> resolveTags(List<String> names) {
+        Map<String, Tag> dictionary = new HashMap<>();
+        if (names.isEmpty()) {
+            return dictionary;
+        }
+        for (Tag tag : tagRepository.findByNameIn(names)) {
+            dictionary.put(key(tag.getName()), tag);
+        }
+        for (String name : names) {
+            dictionary.computeIfAbsent(key(name), key -> findOrCreateTag(name));
+        }
+        return dictionary;
+    }
+
+    /**
+     * 在独立事务中查找或创建标签；数据库排序规则可能认为名称相同（如全半角、重音差异），先按名称查一次再创建。
+     * 并发写入者同时创建同名标签时，唯一键冲突的一方在新事务中重新查询对方创建的标签
+     */
+    private Tag findOrCreateTag(String name) {
+        try {
+            return requiresNewTemplate.execute(status -> tagRepository.findByName(name).orElseGet(() -> {
+                Tag tag = new Tag();
+                tag.setName(name);
+                return tagRepository.saveAndFlush(tag);
+            }));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("标签已被并发创建，重新查询：{}", name);
+            return requiresNewTemplate.execute(status -> tagRepository.findByName(name).orElseThrow(() -> e));
+        }
+    }
+
+    /**
+     * 去除首尾空白、忽略空值、不区分大小写去重，超长的标签截断
+     */
+    private List<String> normalize(Collection<String> tags) {
+        Map<String, String> names = new LinkedHashMap<>();
+        for (String tag : tags) {
+            if (!StringUtils.hasText(tag)) {
+                continue;
+            }
+            String name = tag.trim();
+            if (name.length() > Tag.MAX_NAME_LENGTH) {
+                name = name.substring(0, Tag.MAX_NAME_LENGTH).trim();
+            }
+            names.putIfAbsent(key(name), name);
+        }
+        return new ArrayList<>(names.values());
+    }
+
+    private List<String> replace(List<String> tags, String oldKey, String newName) {
+        return tags.stream()
+                .map(tag -> oldKey.equals(key(tag)) ? newName : tag)
+                .collect(Collectors.toList());
+    }
+
+    private String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private Tag getTag(Long id) {
+        return tagRepository.findById(id)
+                .orElseThrow(() -> new BusinessException(ResultCode.NOT_FOUND, "标签不存在"));
+    }
+
+    private void checkDomain(ContentDomain domain) {
+        if (!TAGGED_DOMAINS.contains(domain)) {
+            throw new BusinessException(ResultCode.VALIDATE_FAILED, "不支持的标签领域：" + domain);
+        }
+    }
+}
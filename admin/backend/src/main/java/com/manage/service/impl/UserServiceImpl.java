@@ -1,6 +1,7 @@
 package com.manage.service.impl;
 
 import com.manage.common.ResultCode;
+import com.manage.config.CacheConfig;
 import com.manage.entity.User;
 import com.manage.exception.BusinessException;
 import com.manage.repository.UserRepository;
@@ -8,6 +9,8 @@ import com.manage.service.UserService;
 import com.manage.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -32,6 +35,7 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final CacheManager cacheManager;
 
     /**
      * 用户注册
@@ -179,7 +183,7 @@ public class UserServiceImpl implements UserService {
 
     /**
      * Spring Security UserDetailsService实现
-     * 用于加载用户详情进行认证
+     * 用于加载用户详情进行认证；每个请求都会调用，结果按用户名缓存，用户变更时由事件失效
      *
      * @param username 用户名
      * @return UserDetails
@@ -187,6 +191,28 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        Cache cache = cacheManager.getCache(CacheConfig.USER_DETAILS);
+        if (cache == null) {
+            return buildUserDetails(username);
+        }
+
+        UserDetails cached;
+        try {
+            cached = cache.get(username, () -> buildUserDetails(username));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof UsernameNotFoundException) {
+                throw (UsernameNotFoundException) e.getCause();
+            }
+            throw e;
+        }
+        // 返回副本：认证成功后Spring Security会擦除UserDetails中的密码，不能影响缓存中的对象
+        return org.springframework.security.core.userdetails.User.withUserDetails(cached).build();
+    }
+
+    /**
+     * 从数据库加载用户并构建UserDetails（不存在或已禁用的用户不进入缓存）
+     */
+    private UserDetails buildUserDetails(String username) {
         // 查找用户
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("用户不存在: " + username));
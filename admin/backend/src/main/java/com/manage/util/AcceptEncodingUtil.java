@@ -0,0 +1,53 @@
+package com.manage.util;
+
+/**
+ * Accept-Encoding 请求头解析及按内容编码区分ETag的工具
+ *
+ * @author System
+ * @version 1.0
+ */
+public final class AcceptEncodingUtil {
+
+    private AcceptEncodingUtil() {
+    }
+
+    /**
+     * 判断客户端是否接受gzip（忽略 q=0 的声明）
+     *
+     * @param acceptEncoding Accept-Encoding 请求头
+     * @return 是否接受gzip
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            if (!"gzip".equalsIgnoreCase(parts[0].trim())) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim().replace(" ", "");
+                if (param.startsWith("q=") && param.substring(2).matches("0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 生成gzip编码表示的ETag：在引号内追加“-gzip”。
+     * 同一资源的gzip和未压缩表示字节不同，共用强ETag时缓存可能用304确认了另一种编码的副本
+     *
+     * @param eTag 未压缩表示的ETag
+     * @return gzip表示的ETag
+     */
+    public static String gzipETag(String eTag) {
+        if (eTag.endsWith("\"")) {
+            return eTag.substring(0, eTag.length() - 1) + "-gzip\"";
+        }
+        return eTag + "-gzip";
+    }
+}
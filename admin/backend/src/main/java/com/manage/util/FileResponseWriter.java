@@ -0,0 +1,373 @@
+package com.manage.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 文件响应输出器
+ *
+ * 统一处理本地文件的完整/部分内容输出：
+ * 1. 支持 bytes=start-end、bytes=start-、bytes=-suffix 以及多段 Range（multipart/byteranges）
+ * 2. 有内容哈希时以哈希作为ETag，否则基于文件长度和修改时间生成，处理 If-None-Match / If-Modified-Since 并返回304；
+ *    支持 If-Range，文件已变化时退回完整响应
+ * 3. 容器支持时通过 Tomcat sendfile 由内核直接发送文件（零拷贝）；否则及多段Range时使用
+ *    FileChannel.transferTo 写入Servlet输出流，目标不是文件/套接字通道，实际仍经过堆内缓冲逐块复制
+ * 4. MIME类型按扩展名缓存，避免每次请求都探测文件
+ *
+ * @author System
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class FileResponseWriter {
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final String CRLF = "\r\n";
+
+    /**
+     * 单次请求允许的最大Range段数，防止构造大量小分段放大响应
+     */
+    private static final int MAX_RANGES = 16;
+
+    /**
+     * 常见扩展名对应的MIME类型，未命中时再调用系统探测并缓存结果
+     */
+    private static final Map<String, String> KNOWN_CONTENT_TYPES = new HashMap<>();
+
+    static {
+        KNOWN_CONTENT_TYPES.put("jpg", "image/jpeg");
+        KNOWN_CONTENT_TYPES.put("jpeg", "image/jpeg");
+        KNOWN_CONTENT_TYPES.put("png", "image/png");
+        KNOWN_CONTENT_TYPES.put("gif", "image/gif");
+        KNOWN_CONTENT_TYPES.put("webp", "image/webp");
+        KNOWN_CONTENT_TYPES.put("avif", "image/avif");
+        KNOWN_CONTENT_TYPES.put("svg", "image/svg+xml");
+        KNOWN_CONTENT_TYPES.put("ico", "image/x-icon");
+        KNOWN_CONTENT_TYPES.put("bmp", "image/bmp");
+        KNOWN_CONTENT_TYPES.put("mp4", "video/mp4");
+        KNOWN_CONTENT_TYPES.put("webm", "video/webm");
+        KNOWN_CONTENT_TYPES.put("mov", "video/quicktime");
+        KNOWN_CONTENT_TYPES.put("qt", "video/quicktime");
+        KNOWN_CONTENT_TYPES.put("avi", "video/x-msvideo");
+        KNOWN_CONTENT_TYPES.put("mkv", "video/x-matroska");
+        KNOWN_CONTENT_TYPES.put("wmv", "video/x-ms-wmv");
+        KNOWN_CONTENT_TYPES.put("flv", "video/x-flv");
+        KNOWN_CONTENT_TYPES.put("3gp", "video/3gpp");
+        KNOWN_CONTENT_TYPES.put("pdf", "application/pdf");
+        KNOWN_CONTENT_TYPES.put("json", "application/json");
+        KNOWN_CONTENT_TYPES.put("txt", "text/plain");
+    }
+
+    @Value("${file.serve.sendfile-enabled:true}")
+    private boolean sendfileEnabled;
+
+    /**
+     * 小于该大小的内容直接写出，sendfile的系统调用开销不划算
+     */
+    @Value("${file.serve.sendfile-min-size:49152}")
+    private long sendfileMinSize;
+
+    private final ConcurrentHashMap<String, String> contentTypeCache = new ConcurrentHashMap<>();
+
+    /**
+     * 根据扩展名解析文件MIME类型（结果按扩展名缓存）
+     *
+     * @param file 文件路径
+     * @return MIME类型
+     */
+    public String resolveContentType(Path file) {
+        String name = file.getFileName().toString();
+        int dotIndex = name.lastIndexOf('.');
+        if (dotIndex < 0 || dotIndex == name.length() - 1) {
+            return DEFAULT_CONTENT_TYPE;
+        }
+        String extension = name.substring(dotIndex + 1).toLowerCase();
+        String known = KNOWN_CONTENT_TYPES.get(extension);
+        if (known != null) {
+            return known;
+        }
+        return contentTypeCache.computeIfAbsent(extension, ext -> {
+            try {
+                String probed = Files.probeContentType(file);
+                return probed != null ? probed : DEFAULT_CONTENT_TYPE;
+            } catch (IOException e) {
+                return DEFAULT_CONTENT_TYPE;
+            }
+        });
+    }
+
+    /**
+     * 输出文件内容，自动处理Range和If-Range
+     *
+     * @param request     HTTP请求
+     * @param response    HTTP响应
+     * @param file        文件路径
+     * @param contentType MIME类型
+     * @param attachment  是否作为附件下载
+     * @throws IOException 输出失败
+     */
+    public void write(HttpServletRequest request, HttpServletResponse response, Path file,
+                      String contentType, boolean attachment) throws IOException {
+        write(request, response, file, contentType, attachment, null);
+    }
+
+    /**
+     * 输出文件内容，自动处理Range和If-Range
+     *
+     * @param request     HTTP请求
+     * @param response    HTTP响应
+     * @param file        文件路径
+     * @param contentType MIME类型
+     * @param attachment  是否作为附件下载
+     * @param contentHash 内容哈希（如去重存储的SHA-256），不为空时作为ETag
+     * @throws IOException 输出失败
+     */
+    public void write(HttpServletRequest request, HttpServletResponse response, Path file,
+                      String contentType, boolean attachment, String contentHash) throws IOException {
+        long length = Files.size(file);
+        long lastModified = Files.getLastModifiedTime(file).toMillis();
+        boolean headOnly = "HEAD".equalsIgnoreCase(request.getMethod());
+
+        String etag = buildETag(contentHash, length, lastModified);
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // checkNotModified会写入ETag、Last-Modified头，命中时设置304（或If-Match失败时412）
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, buildContentDisposition(file, attachment));
+
+        List<HttpRange> ranges = resolveRanges(request, etag, lastModified);
+        if (ranges == null) {
+            // 无Range请求或If-Range不匹配，返回完整内容
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(contentType);
+            response.setContentLengthLong(length);
+            if (!headOnly) {
+                sendRegion(request, response, file, 0, length);
+            }
+            return;
+        }
+
+        long[][] regions = toRegions(ranges, length);
+        if (regions == null) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.setContentLength(0);
+            return;
+        }
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        if (regions.length == 1) {
+            long start = regions[0][0];
+            long end = regions[0][1];
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            response.setContentLengthLong(end - start + 1);
+            if (!headOnly) {
+                sendRegion(request, response, file, start, end - start + 1);
+            }
+            return;
+        }
+
+        writeMultipartRanges(response, file, contentType, length, regions, headOnly);
+    }
+
+    /**
+     * 解析Range请求头，返回null表示应返回完整内容；语法无效的Range按RFC 7233忽略，同样返回完整内容
+     */
+    private List<HttpRange> resolveRanges(HttpServletRequest request, String etag, long lastModified) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || rangeHeader.trim().isEmpty()) {
+            return null;
+        }
+        if (!ifRangeMatches(request, etag, lastModified)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.isEmpty() ? null : ranges;
+        } catch (IllegalArgumentException e) {
+            log.debug("无效的Range请求头，忽略：{}", rangeHeader);
+            return null;
+        }
+    }
+
+    /**
+     * If-Range校验：只有验证器与当前文件一致时才按Range返回，否则返回完整内容
+     */
+    private boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null || ifRange.trim().isEmpty()) {
+            return true;
+        }
+        if (ifRange.startsWith("W/")) {
+            // If-Range要求强比较，弱ETag一律视为不匹配
+            return false;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.trim().equals(etag);
+        }
+        try {
+            long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+            return since >= 0 && lastModified / 1000 == since / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 把Range转换为 [start, end] 区间，无法满足时返回null
+     */
+    private long[][] toRegions(List<HttpRange> ranges, long length) {
+        if (ranges.isEmpty() || ranges.size() > MAX_RANGES || length == 0) {
+            return null;
+        }
+        long[][] regions = new long[ranges.size()][];
+        long total = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            HttpRange range = ranges.get(i);
+            long start;
+            long end;
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            if (start > end) {
+                return null;
+            }
+            regions[i] = new long[]{start, end};
+            total += end - start + 1;
+        }
+        // 多段总长度超过文件本身，视为异常请求
+        if (regions.length > 1 && total > length) {
+            return null;
+        }
+        return regions;
+    }
+
+    /**
+     * 以 multipart/byteranges 格式输出多段内容
+     */
+    private void writeMultipartRanges(HttpServletResponse response, Path file, String contentType,
+                                      long length, long[][] regions, boolean headOnly) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        byte[][] partHeaders = new byte[regions.length][];
+        long contentLength = 0;
+        for (int i = 0; i < regions.length; i++) {
+            String header = CRLF + "--" + boundary + CRLF
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + CRLF
+                    + HttpHeaders.CONTENT_RANGE + ": bytes " + regions[i][0] + "-" + regions[i][1] + "/" + length
+                    + CRLF + CRLF;
+            partHeaders[i] = header.getBytes(StandardCharsets.US_ASCII);
+            contentLength += partHeaders[i].length + (regions[i][1] - regions[i][0] + 1);
+        }
+        byte[] closing = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (headOnly) {
+            return;
+        }
+
+        ServletOutputStream out = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            for (int i = 0; i < regions.length; i++) {
+                out.write(partHeaders[i]);
+                transfer(channel, target, regions[i][0], regions[i][1] - regions[i][0] + 1);
+            }
+        }
+        out.write(closing);
+        out.flush();
+    }
+
+    /**
+     * 输出文件的一个连续区间
+     */
+    private void sendRegion(HttpServletRequest request, HttpServletResponse response, Path file,
+                            long start, long count) throws IOException {
+        if (count <= 0) {
+            return;
+        }
+        if (sendfileEnabled && count >= sendfileMinSize
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // 交给Tomcat在请求结束后通过sendfile发送，end为不包含的结束位置
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + count);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ServletOutputStream out = response.getOutputStream();
+            transfer(channel, Channels.newChannel(out), start, count);
+            out.flush();
+        }
+    }
+
+    private void transfer(FileChannel channel, WritableByteChannel target, long position, long count) throws IOException {
+        long remaining = count;
+        long current = position;
+        while (remaining > 0) {
+            long transferred = channel.transferTo(current, remaining, target);
+            if (transferred <= 0) {
+                break;
+            }
+            current += transferred;
+            remaining -= transferred;
+        }
+    }
+
+    /**
+     * 优先以内容哈希作为ETag，内容相同的文件（包括重新上传、复制）共用同一个ETag；
+     * 没有哈希时由文件长度和修改时间生成，上传文件写入后不会原地修改，长度和修改时间即可确定内容版本
+     */
+    private String buildETag(String contentHash, long length, long lastModified) {
+        if (contentHash != null) {
+            return "\"" + contentHash + "\"";
+        }
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    private String buildContentDisposition(Path file, boolean attachment) {
+        String fileName = file.getFileName().toString();
+        String type = attachment ? "attachment" : "inline";
+        try {
+            String encoded = URLEncoder.encode(fileName, "UTF-8").replace("+", "%20");
+            return type + "; filename=\"" + fileName + "\"; filename*=UTF-8''" + encoded;
+        } catch (IOException e) {
+            return type + "; filename=\"" + fileName + "\"";
+        }
+    }
+}
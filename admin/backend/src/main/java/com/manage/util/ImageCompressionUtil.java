@@ -4,13 +4,31 @@ import lombok.extern.slf4j.Slf4j;
 import net.coobird.thumbnailator.Thumbnails;
 import org.springframework.web.multipart.MultipartFile;
 
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataFormatImpl;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * 图片压缩工具类
@@ -24,6 +42,16 @@ public class ImageCompressionUtil {
     // 支持的图片格式
     private static final List<String> SUPPORTED_FORMATS = Arrays.asList("jpg", "jpeg", "png", "gif", "webp");
 
+    /**
+     * 缩略图边长
+     */
+    public static final int THUMBNAIL_SIZE = 300;
+
+    /**
+     * EXIF方向标签
+     */
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
     // 支持的MIME类型
     private static final List<String> SUPPORTED_MIME_TYPES = Arrays.asList(
         "image/jpeg", "image/jpg", "image/png", "image/gif", "image/webp"
@@ -31,24 +59,44 @@ public class ImageCompressionUtil {
 
     /**
      * 图片信息
+     * 宽高为按EXIF方向校正后的显示尺寸
      */
     public static class ImageInfo {
         private final int width;
         private final int height;
         private final double sizeMB;
         private final String format;
+        private final int orientation;
+        private final String colorSpace;
+        private final boolean iccProfile;
 
         public ImageInfo(int width, int height, double sizeMB, String format) {
+            this(width, height, sizeMB, format, 1, null, false);
+        }
+
+        public ImageInfo(int width, int height, double sizeMB, String format,
+                         int orientation, String colorSpace, boolean iccProfile) {
             this.width = width;
             this.height = height;
             this.sizeMB = sizeMB;
             this.format = format;
+            this.orientation = orientation;
+            this.colorSpace = colorSpace;
+            this.iccProfile = iccProfile;
         }
 
         public int getWidth() { return width; }
         public int getHeight() { return height; }
         public double getSizeMB() { return sizeMB; }
         public String getFormat() { return format; }
+        public int getOrientation() { return orientation; }
+        public String getColorSpace() { return colorSpace; }
+        public boolean hasIccProfile() { return iccProfile; }
+
+        /**
+         * EXIF方向5-8表示像素按行列转置存储，显示时宽高互换
+         */
+        public boolean isTransposed() { return orientation >= 5 && orientation <= 8; }
 
         public static Builder builder() {
             return new Builder();
@@ -59,6 +107,9 @@ public class ImageCompressionUtil {
             private int height;
             private double sizeMB;
             private String format;
+            private int orientation = 1;
+            private String colorSpace;
+            private boolean iccProfile;
 
             public Builder width(int width) {
                 this.width = width;
@@ -80,8 +131,23 @@ public class ImageCompressionUtil {
                 return this;
             }
 
+            public Builder orientation(int orientation) {
+                this.orientation = orientation;
+                return this;
+            }
+
+            public Builder colorSpace(String colorSpace) {
+                this.colorSpace = colorSpace;
+                return this;
+            }
+
+            public Builder iccProfile(boolean iccProfile) {
+                this.iccProfile = iccProfile;
+                return this;
+            }
+
             public ImageInfo build() {
-                return new ImageInfo(width, height, sizeMB, format);
+                return new ImageInfo(width, height, sizeMB, format, orientation, colorSpace, iccProfile);
             }
         }
     }
@@ -129,25 +195,96 @@ public class ImageCompressionUtil {
     }
 
     /**
-     * 获取图片信息
+     * 获取图片信息（只读取图片头，不解码像素）
      *
      * @param file 上传的图片文件
      * @return 图片信息
      * @throws IOException 读取图片失败
      */
     public static ImageInfo getImageInfo(MultipartFile file) throws IOException {
-        BufferedImage image = ImageIO.read(file.getInputStream());
+        try (InputStream stream = file.getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(stream)) {
+            return withReader(input, (reader, info) -> info, file.getSize(), file.getOriginalFilename());
+        }
+    }
 
-        if (image == null) {
-            throw new IOException("无法读取图片内容，可能文件已损坏或不是有效图片");
+    /**
+     * 只读取图片头获取尺寸、格式、EXIF方向和色彩信息，不解码像素（用于上传请求线程内的快速校验）
+     *
+     * @param file 图片文件
+     * @return 图片信息
+     * @throws IOException 文件无法识别为图片
+     */
+    public static ImageInfo probeImageInfo(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            return withReader(input, (reader, info) -> info, Files.size(file), file.getFileName().toString());
         }
+    }
 
-        return ImageInfo.builder()
-                .width(image.getWidth())
-                .height(image.getHeight())
-                .sizeMB(file.getSize() / (1024.0 * 1024.0))
-                .format(getImageFormat(file))
-                .build();
+    /**
+     * 计算解码时的降采样倍数：保证降采样后的图片仍能覆盖 boxWidth x boxHeight 的等比缩放结果
+     *
+     * @param info      原图信息（显示尺寸）
+     * @param boxWidth  目标宽度上限，0表示不限制
+     * @param boxHeight 目标高度上限，0表示不限制
+     * @return 降采样倍数，1表示按原尺寸解码
+     */
+    public static int subsamplingFactor(ImageInfo info, int boxWidth, int boxHeight) {
+        double ratio = 0;
+        if (boxWidth > 0) {
+            ratio = Math.max(ratio, (double) info.getWidth() / boxWidth);
+        }
+        if (boxHeight > 0) {
+            ratio = Math.max(ratio, (double) info.getHeight() / boxHeight);
+        }
+        return Math.max(1, (int) Math.floor(ratio));
+    }
+
+    /**
+     * 预估按指定降采样倍数处理图片时的峰值内存：解码位图 + 缩放输出，需要方向校正时再加一份位图副本
+     *
+     * @param info        原图信息
+     * @param subsampling 降采样倍数
+     * @return 预估字节数（按每像素4字节计）
+     */
+    public static long estimateDecodedBytes(ImageInfo info, int subsampling) {
+        int factor = Math.max(1, subsampling);
+        long pixels = (long) ((info.getWidth() + factor - 1) / factor) * ((info.getHeight() + factor - 1) / factor);
+        int copies = info.getOrientation() > 1 ? 3 : 2;
+        return pixels * 4 * copies;
+    }
+
+    /**
+     * 按降采样倍数解码图片并按EXIF方向校正；隔行隔列读取像素，大图解码时不会分配完整尺寸的位图
+     *
+     * @param file        图片文件
+     * @param subsampling 降采样倍数，见 {@link #subsamplingFactor(ImageInfo, int, int)}
+     * @return 方向校正后的图片
+     * @throws IOException 解码失败
+     */
+    public static BufferedImage decodeImage(Path file, int subsampling) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            return withReader(input, (reader, info) -> decode(reader, info, subsampling),
+                    Files.size(file), file.getFileName().toString());
+        }
+    }
+
+    /**
+     * 解码能覆盖 boxWidth x boxHeight 的图片，图片头和像素在同一次读取中完成
+     *
+     * @param file      上传的图片文件
+     * @param boxWidth  目标宽度上限，0表示不限制
+     * @param boxHeight 目标高度上限，0表示不限制
+     * @return 方向校正后的图片
+     * @throws IOException 解码失败
+     */
+    private static BufferedImage decodeImage(MultipartFile file, int boxWidth, int boxHeight) throws IOException {
+        try (InputStream stream = file.getInputStream();
+             ImageInputStream input = ImageIO.createImageInputStream(stream)) {
+            return withReader(input,
+                    (reader, info) -> decode(reader, info, subsamplingFactor(info, boxWidth, boxHeight)),
+                    file.getSize(), file.getOriginalFilename());
+        }
     }
 
     /**
@@ -158,34 +295,66 @@ public class ImageCompressionUtil {
      * @throws IOException 压缩失败
      */
     public static ImageCompressionResult smartCompress(MultipartFile file) throws IOException {
-        long startTime = System.currentTimeMillis();
+        ImageInfo info = getImageInfo(file);
+        int[] target = smartCompressTarget(info.getWidth(), info.getHeight(), file.getSize());
+        if (target == null) {
+            return ImageCompressionResult.notCompressed(file.getSize());
+        }
+        BufferedImage image = decodeImage(file, target[0], target[1]);
+        return smartCompress(image, info.getWidth(), info.getHeight(), file.getSize(), getImageFormat(file));
+    }
 
-        BufferedImage originalImage = ImageIO.read(file.getInputStream());
-        double sizeMB = file.getSize() / (1024.0 * 1024.0);
-        String format = getImageFormat(file);
+    /**
+     * 智能压缩已解码的图片（供后台处理流水线复用同一次解码结果）
+     *
+     * @param originalImage 已解码的原图
+     * @param originalSize  原图文件大小(字节)
+     * @param format        输出格式
+     * @return 压缩结果
+     * @throws IOException 压缩失败
+     */
+    public static ImageCompressionResult smartCompress(BufferedImage originalImage, long originalSize,
+                                                       String format) throws IOException {
+        return smartCompress(originalImage, originalImage.getWidth(), originalImage.getHeight(), originalSize, format);
+    }
 
-        // 如果文件小于500KB且尺寸小于800x600，不压缩
-        if (sizeMB < 0.5 && originalImage.getWidth() <= 800 && originalImage.getHeight() <= 600) {
-            log.info("文件很小({:.2f}MB)且尺寸合理({}x{})，无需压缩", sizeMB, originalImage.getWidth(), originalImage.getHeight());
-            return ImageCompressionResult.notCompressed(file.getSize());
+    /**
+     * 智能压缩已降采样解码的图片，压缩策略按原图尺寸计算
+     *
+     * @param image        已解码的图片（可能已降采样）
+     * @param sourceWidth  原图宽度
+     * @param sourceHeight 原图高度
+     * @param originalSize 原图文件大小(字节)
+     * @param format       输出格式
+     * @return 压缩结果
+     * @throws IOException 压缩失败
+     */
+    public static ImageCompressionResult smartCompress(BufferedImage image, int sourceWidth, int sourceHeight,
+                                                       long originalSize, String format) throws IOException {
+        long startTime = System.currentTimeMillis();
+        double sizeMB = originalSize / (1024.0 * 1024.0);
+
+        int[] target = smartCompressTarget(sourceWidth, sourceHeight, originalSize);
+        if (target == null) {
+            log.info("文件很小({}MB)且尺寸合理({}x{})，无需压缩", String.format("%.2f", sizeMB), sourceWidth, sourceHeight);
+            return ImageCompressionResult.notCompressed(originalSize);
         }
 
         // 即使文件较小，但如果尺寸过大，也要压缩
-        if (sizeMB < 2.0 && (originalImage.getWidth() > 1600 || originalImage.getHeight() > 1200)) {
-            log.info("文件大小适中({:.2f}MB)但尺寸较大({}x{})，进行压缩", sizeMB, originalImage.getWidth(), originalImage.getHeight());
+        if (sizeMB < 2.0 && (sourceWidth > 1600 || sourceHeight > 1200)) {
+            log.info("文件大小适中({}MB)但尺寸较大({}x{})，进行压缩", String.format("%.2f", sizeMB), sourceWidth, sourceHeight);
         }
 
-        // 计算目标尺寸
-        int targetWidth = calculateTargetWidth(originalImage.getWidth(), originalImage.getHeight(), sizeMB);
-        int targetHeight = calculateTargetHeight(originalImage.getWidth(), originalImage.getHeight(), sizeMB);
+        int targetWidth = target[0];
+        int targetHeight = target[1];
 
-        log.info("开始压缩图片: {}x{} -> {}x{}, 原始大小: {:.2f}MB",
-            originalImage.getWidth(), originalImage.getHeight(), targetWidth, targetHeight, sizeMB);
+        log.info("开始压缩图片: {}x{} -> {}x{}, 解码尺寸: {}x{}, 原始大小: {}MB", sourceWidth, sourceHeight,
+            targetWidth, targetHeight, image.getWidth(), image.getHeight(), String.format("%.2f", sizeMB));
 
         try {
             // 执行压缩
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            Thumbnails.of(originalImage)
+            Thumbnails.of(image)
                     .size(targetWidth, targetHeight)
                     .outputQuality(calculateOutputQuality(sizeMB))
                     .outputFormat(format)
@@ -198,7 +367,7 @@ public class ImageCompressionUtil {
                 sizeMB, compressedData.length / (1024.0 * 1024.0), compressionTime);
 
             return ImageCompressionResult.compressed(
-                file.getSize(),
+                originalSize,
                 compressedData.length,
                 compressedData,
                 compressionTime
@@ -218,18 +387,30 @@ public class ImageCompressionUtil {
      * @throws IOException 生成缩略图失败
      */
     public static ImageCompressionResult generateThumbnail(MultipartFile file) throws IOException {
-        long startTime = System.currentTimeMillis();
-
-        BufferedImage originalImage = ImageIO.read(file.getInputStream());
-
-        if (originalImage == null) {
-            throw new IOException("无法读取原始图片，无法生成缩略图");
+        BufferedImage originalImage;
+        try {
+            originalImage = decodeImage(file, THUMBNAIL_SIZE, THUMBNAIL_SIZE);
+        } catch (IOException e) {
+            throw new IOException("无法读取原始图片，无法生成缩略图", e);
         }
+        return generateThumbnail(originalImage, file.getSize());
+    }
+
+    /**
+     * 根据已解码的图片生成缩略图
+     *
+     * @param originalImage 已解码的原图
+     * @param originalSize  原图文件大小(字节)
+     * @return 缩略图压缩结果
+     * @throws IOException 生成缩略图失败
+     */
+    public static ImageCompressionResult generateThumbnail(BufferedImage originalImage, long originalSize) throws IOException {
+        long startTime = System.currentTimeMillis();
 
         try {
             ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
             Thumbnails.of(originalImage)
-                    .size(300, 300)                    // 缩略图固定尺寸
+                    .size(THUMBNAIL_SIZE, THUMBNAIL_SIZE) // 缩略图固定尺寸
                     .keepAspectRatio(true)              // 保持宽高比
                     .outputQuality(0.8f)                // 缩略图质量
                     .outputFormat("jpg")                // 缩略图统一格式
@@ -239,10 +420,10 @@ public class ImageCompressionUtil {
             long compressionTime = System.currentTimeMillis() - startTime;
 
             log.info("缩略图生成完成: {}x{}, 大小: {:.2f}KB, 耗时: {}ms",
-                300, 300, thumbnailData.length / 1024.0, compressionTime);
+                THUMBNAIL_SIZE, THUMBNAIL_SIZE, thumbnailData.length / 1024.0, compressionTime);
 
             return ImageCompressionResult.compressed(
-                file.getSize(),
+                originalSize,
                 thumbnailData.length,
                 thumbnailData,
                 compressionTime
@@ -254,6 +435,149 @@ public class ImageCompressionUtil {
         }
     }
 
+    /**
+     * 按目标宽度等比缩放并编码（用于生成响应式变体）
+     *
+     * @param originalImage 已解码的原图
+     * @param targetWidth   目标宽度
+     * @param quality       输出质量(0-1)
+     * @param format        输出格式
+     * @return 编码后的图片数据
+     * @throws IOException 编码失败
+     */
+    public static byte[] resizeToWidth(BufferedImage originalImage, int targetWidth, float quality,
+                                       String format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Thumbnails.of(originalImage)
+                .width(Math.min(targetWidth, originalImage.getWidth()))
+                .outputQuality(quality)
+                .outputFormat(format)
+                .toOutputStream(outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 当前运行环境是否有该格式的编码器（WebP依赖ImageIO插件）
+     *
+     * @param format 图片格式
+     * @return 是否可以输出该格式
+     */
+    public static boolean canWrite(String format) {
+        return ImageIO.getImageWritersByFormatName(format).hasNext();
+    }
+
+    /**
+     * 按目标宽度等比缩放，目标宽度不小于原图时直接返回原图
+     *
+     * @param image       已解码的图片
+     * @param targetWidth 目标宽度
+     * @return 缩放后的图片
+     * @throws IOException 缩放失败
+     */
+    public static BufferedImage scaleToWidth(BufferedImage image, int targetWidth) throws IOException {
+        if (targetWidth <= 0 || targetWidth >= image.getWidth()) {
+            return image;
+        }
+        return Thumbnails.of(image).width(targetWidth).asBufferedImage();
+    }
+
+    /**
+     * 按指定质量编码图片；JPEG和WebP使用有损压缩，PNG忽略质量参数
+     *
+     * @param image   图片（输出JPEG时不能带透明通道）
+     * @param format  输出格式：jpg、png、webp
+     * @param quality 输出质量(0-1)
+     * @return 编码后的图片数据
+     * @throws IOException 没有对应编码器或编码失败
+     */
+    public static byte[] encode(BufferedImage image, String format, float quality) throws IOException {
+        String writerFormat = "jpg".equals(format) ? "jpeg" : format;
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(writerFormat);
+        if (!writers.hasNext()) {
+            throw new IOException("当前环境不支持输出图片格式：" + format);
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(outputStream)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (!"png".equals(format) && param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                String[] types = param.getCompressionTypes();
+                if (types != null && types.length > 0) {
+                    // WebP编码器同时提供有损和无损两种类型，质量参数只对有损生效
+                    String type = types[0];
+                    for (String candidate : types) {
+                        if ("lossy".equalsIgnoreCase(candidate)) {
+                            type = candidate;
+                        }
+                    }
+                    param.setCompressionType(type);
+                }
+                param.setCompressionQuality(Math.max(0f, Math.min(1f, quality)));
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 在大小预算内寻找最高的输出质量：先按最高质量编码，超出预算时在 [minQuality, maxQuality) 内二分查找，
+     * 最多再编码4次；最低质量仍超出预算时返回尝试过的最小结果，不再继续降低质量
+     *
+     * @param image      图片
+     * @param format     输出格式，PNG不做质量查找
+     * @param maxQuality 最高质量(1-100)
+     * @param minQuality 最低质量(1-100)
+     * @param maxBytes   大小预算(字节)，不大于0表示不限制
+     * @return 编码后的图片数据
+     * @throws IOException 编码失败
+     */
+    public static byte[] encodeWithinBudget(BufferedImage image, String format, int maxQuality, int minQuality,
+                                            long maxBytes) throws IOException {
+        byte[] data = encode(image, format, maxQuality / 100f);
+        if ("png".equals(format) || maxBytes <= 0 || data.length <= maxBytes || minQuality >= maxQuality) {
+            return data;
+        }
+        byte[] best = null;
+        byte[] smallest = data;
+        int low = minQuality;
+        int high = maxQuality - 1;
+        for (int attempt = 0; attempt < 4 && low <= high; attempt++) {
+            int quality = (low + high) / 2;
+            byte[] candidate = encode(image, format, quality / 100f);
+            if (candidate.length < smallest.length) {
+                smallest = candidate;
+            }
+            if (candidate.length <= maxBytes) {
+                best = candidate;
+                low = quality + 1;
+            } else {
+                high = quality - 1;
+            }
+        }
+        return best != null ? best : smallest;
+    }
+
+    /**
+     * 计算智能压缩的目标尺寸
+     *
+     * @param width        原图宽度
+     * @param height       原图高度
+     * @param originalSize 原图文件大小(字节)
+     * @return 目标宽高，无需压缩时返回null
+     */
+    public static int[] smartCompressTarget(int width, int height, long originalSize) {
+        double sizeMB = originalSize / (1024.0 * 1024.0);
+        // 如果文件小于500KB且尺寸小于800x600，不压缩
+        if (sizeMB < 0.5 && width <= 800 && height <= 600) {
+            return null;
+        }
+        return new int[]{calculateTargetWidth(width, height, sizeMB), calculateTargetHeight(width, height, sizeMB)};
+    }
+
     /**
      * 计算目标宽度（更激进的压缩策略）
      *
@@ -329,6 +653,248 @@ public class ImageCompressionUtil {
         }
     }
 
+    /**
+     * 读取图片头后执行的操作
+     */
+    @FunctionalInterface
+    private interface ReaderAction<T> {
+        T apply(ImageReader reader, ImageInfo info) throws IOException;
+    }
+
+    private static <T> T withReader(ImageInputStream input, ReaderAction<T> action, long size,
+                                    String filename) throws IOException {
+        if (input == null) {
+            throw new IOException("无法读取图片文件");
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            throw new IOException("无法识别图片格式，可能文件已损坏或不是有效图片");
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(input, true, false);
+            return action.apply(reader, readHeader(reader, size, filename));
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    private static ImageInfo readHeader(ImageReader reader, long size, String filename) throws IOException {
+        ImageInfo.Builder builder = ImageInfo.builder()
+                .sizeMB(size / (1024.0 * 1024.0))
+                .format(normalizeFormat(reader.getFormatName(), filename));
+        // 元数据只用于方向和色彩信息，解析失败不影响图片本身的读取
+        try {
+            readMetadata(reader.getImageMetadata(0), builder);
+        } catch (IOException | RuntimeException e) {
+            log.debug("读取图片元数据失败，按默认方向处理：{}", e.getMessage());
+        }
+        ImageInfo probe = builder.build();
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        return builder.width(probe.isTransposed() ? height : width)
+                .height(probe.isTransposed() ? width : height)
+                .build();
+    }
+
+    private static BufferedImage decode(ImageReader reader, ImageInfo info, int subsampling) throws IOException {
+        ImageReadParam param = reader.getDefaultReadParam();
+        if (subsampling > 1) {
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+        BufferedImage image = reader.read(0, param);
+        if (image == null) {
+            throw new IOException("无法读取图片内容，可能文件已损坏或不是有效图片");
+        }
+        return applyOrientation(image, info.getOrientation());
+    }
+
+    private static String normalizeFormat(String formatName, String filename) {
+        if (formatName == null) {
+            return getImageFormat(filename);
+        }
+        String format = formatName.toLowerCase(Locale.ROOT);
+        return "jpeg".equals(format) ? "jpg" : format;
+    }
+
+    /**
+     * 从原生元数据中读取EXIF方向（JPEG APP1）和ICC色彩配置（JPEG APP2 / PNG iCCP），从标准元数据中读取色彩空间
+     */
+    private static void readMetadata(IIOMetadata metadata, ImageInfo.Builder builder) {
+        if (metadata == null) {
+            return;
+        }
+        String nativeFormat = metadata.getNativeMetadataFormatName();
+        if (nativeFormat != null) {
+            scanNativeMetadata(metadata.getAsTree(nativeFormat), builder);
+        }
+        if (metadata.isStandardMetadataFormatSupported()) {
+            Node colorSpace = findNode(metadata.getAsTree(IIOMetadataFormatImpl.standardMetadataFormatName),
+                    "ColorSpaceType");
+            if (colorSpace != null) {
+                Node name = colorSpace.getAttributes().getNamedItem("name");
+                if (name != null) {
+                    builder.colorSpace(name.getNodeValue());
+                }
+            }
+        }
+    }
+
+    private static void scanNativeMetadata(Node node, ImageInfo.Builder builder) {
+        String name = node.getNodeName();
+        if ("app2ICC".equals(name) || "iCCP".equals(name)) {
+            builder.iccProfile(true);
+        } else if ("unknown".equals(name) && node instanceof IIOMetadataNode) {
+            Object data = ((IIOMetadataNode) node).getUserObject();
+            Node tag = node.getAttributes().getNamedItem("MarkerTag");
+            if (data instanceof byte[] && tag != null) {
+                byte[] bytes = (byte[]) data;
+                if ("225".equals(tag.getNodeValue())) {
+                    int orientation = readExifOrientation(bytes);
+                    if (orientation > 0) {
+                        builder.orientation(orientation);
+                    }
+                } else if ("226".equals(tag.getNodeValue()) && startsWith(bytes, "ICC_PROFILE")) {
+                    builder.iccProfile(true);
+                }
+            }
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            scanNativeMetadata(child, builder);
+        }
+    }
+
+    private static Node findNode(Node node, String name) {
+        if (name.equals(node.getNodeName())) {
+            return node;
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            Node found = findNode(child, name);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 解析APP1段中的EXIF数据，只读取IFD0中的方向标签
+     *
+     * @param app1 APP1段内容（以"Exif\0\0"开头）
+     * @return 方向值1-8，不存在或无法解析时返回0
+     */
+    static int readExifOrientation(byte[] app1) {
+        if (!startsWith(app1, "Exif") || app1.length < 14) {
+            return 0;
+        }
+        int tiff = 6;
+        boolean littleEndian = app1[tiff] == 'I' && app1[tiff + 1] == 'I';
+        if (!littleEndian && !(app1[tiff] == 'M' && app1[tiff + 1] == 'M')) {
+            return 0;
+        }
+        long ifdOffset = readInt(app1, tiff + 4, littleEndian);
+        if (ifdOffset < 8 || tiff + ifdOffset + 2 > app1.length) {
+            return 0;
+        }
+        int ifd = tiff + (int) ifdOffset;
+        int entries = readShort(app1, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > app1.length) {
+                return 0;
+            }
+            if (readShort(app1, entry, littleEndian) == EXIF_ORIENTATION_TAG) {
+                int orientation = readShort(app1, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 0;
+            }
+        }
+        return 0;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean littleEndian) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static long readInt(byte[] data, int offset, boolean littleEndian) {
+        long high = readShort(data, offset + (littleEndian ? 2 : 0), littleEndian);
+        long low = readShort(data, offset + (littleEndian ? 0 : 2), littleEndian);
+        return (high << 16) | low;
+    }
+
+    private static boolean startsWith(byte[] data, String prefix) {
+        if (data.length < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (data[i] != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按EXIF方向旋转/翻转像素，输出图片不再依赖方向标签（重新编码会丢失EXIF）
+     *
+     * @param image       原始像素
+     * @param orientation EXIF方向
+     * @return 校正后的图片
+     */
+    static BufferedImage applyOrientation(BufferedImage image, int orientation) {
+        if (orientation <= 1 || orientation > 8) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2:
+                transform.translate(width, 0);
+                transform.scale(-1, 1);
+                break;
+            case 3:
+                transform.translate(width, height);
+                transform.rotate(Math.PI);
+                break;
+            case 4:
+                transform.translate(0, height);
+                transform.scale(1, -1);
+                break;
+            case 5:
+                transform.rotate(-Math.PI / 2);
+                transform.scale(-1, 1);
+                break;
+            case 6:
+                transform.translate(height, 0);
+                transform.rotate(Math.PI / 2);
+                break;
+            case 7:
+                transform.translate(height, width);
+                transform.rotate(Math.PI / 2);
+                transform.scale(-1, 1);
+                break;
+            default:
+                transform.translate(0, width);
+                transform.rotate(-Math.PI / 2);
+                break;
+        }
+        boolean transposed = orientation >= 5;
+        int type = image.getType() == BufferedImage.TYPE_CUSTOM || image.getType() == BufferedImage.TYPE_BYTE_INDEXED
+                || image.getType() == BufferedImage.TYPE_BYTE_BINARY
+                ? (image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB)
+                : image.getType();
+        BufferedImage oriented = new BufferedImage(transposed ? height : width, transposed ? width : height, type);
+        Graphics2D graphics = oriented.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return oriented;
+    }
+
     /**
      * 获取图片格式
      *
@@ -336,7 +902,16 @@ public class ImageCompressionUtil {
      * @return 图片格式
      */
     private static String getImageFormat(MultipartFile file) {
-        String originalFilename = file.getOriginalFilename();
+        return getImageFormat(file.getOriginalFilename());
+    }
+
+    /**
+     * 根据文件名获取图片格式
+     *
+     * @param originalFilename 文件名
+     * @return 图片格式
+     */
+    public static String getImageFormat(String originalFilename) {
         if (originalFilename == null) {
             return "jpg"; // 默认格式
         }
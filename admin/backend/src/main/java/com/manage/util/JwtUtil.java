@@ -1,6 +1,11 @@
 package com.manage.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -8,14 +13,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
  * JWT工具类
  *
+ * 签名密钥和解析器只构建一次；验签通过的token按摘要缓存到过期为止，同一token的后续请求无需重复解析和验签
+ *
  * @author System
  * @version 1.0
  */
@@ -28,11 +40,94 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    /**
+     * 已验证token缓存的容量上限
+     */
+    private static final long VERIFIED_TOKEN_CACHE_SIZE = 10000;
+
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
+
+    /**
+     * 已验证的token：key为token的SHA-256摘要，条目在token过期时失效
+     */
+    private final Cache<String, Claims> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_TOKEN_CACHE_SIZE)
+            .expireAfter(new Expiry<String, Claims>() {
+                @Override
+                public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                    long remainingMillis = claims.getExpiration() == null
+                            ? 0 : claims.getExpiration().getTime() - System.currentTimeMillis();
+                    return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+
     /**
      * 获取签名密钥
      */
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        SecretKey key = signingKey;
+        if (key == null) {
+            key = Keys.hmacShaKeyFor(secret.getBytes());
+            signingKey = key;
+        }
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+            parser = current;
+        }
+        return current;
+    }
+
+    /**
+     * 解析并验证token（签名、过期时间），每个token只完整解析一次
+     *
+     * @param token JWT Token
+     * @return 已验证的声明
+     * @throws io.jsonwebtoken.JwtException token无效或已过期
+     */
+    public Claims parseToken(String token) {
+        String key = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(key);
+        if (claims != null) {
+            // 缓存按过期时间淘汰有一定延迟，这里再确认一次
+            if (claims.getExpiration() != null && claims.getExpiration().before(new Date())) {
+                verifiedTokens.invalidate(key);
+                throw new ExpiredJwtException(null, claims, "Token已过期");
+            }
+            return claims;
+        }
+
+        claims = getParser().parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(key, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * 已验证token缓存，供指标注册
+     *
+     * @return 缓存
+     */
+    public Cache<String, Claims> getVerifiedTokenCache() {
+        return verifiedTokens;
     }
 
     /**
@@ -61,19 +156,7 @@ public class JwtUtil {
      * 从token中获取所有声明
      */
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    /**
-     * 检查token是否过期
-     */
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+        return parseToken(token);
     }
 
     /**
@@ -115,8 +198,9 @@ public class JwtUtil {
      */
     public Boolean validateToken(String token, String username) {
         try {
-            final String tokenUsername = getUsernameFromToken(token);
-            return (tokenUsername.equals(username) && !isTokenExpired(token));
+            // 解析时已校验签名和过期时间
+            final Claims claims = parseToken(token);
+            return claims.getSubject().equals(username);
         } catch (Exception e) {
             log.error("Token验证失败：{}", e.getMessage());
             return false;
@@ -156,6 +240,18 @@ public class JwtUtil {
      */
     public void setSecret(String secret) {
         this.secret = secret;
+        this.signingKey = null;
+        this.parser = null;
+        this.verifiedTokens.invalidateAll();
+    }
+
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JVM不支持SHA-256", e);
+        }
     }
 
     /**
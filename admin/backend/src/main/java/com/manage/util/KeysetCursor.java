@@ -0,0 +1,71 @@
+package com.manage.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 键集分页游标编解码工具
+ *
+ * 游标由排序键的值依次组成，每个值单独做URL安全的Base64编码后用'.'连接，
+ * 对客户端不透明，值中包含任意字符也不会破坏格式
+ *
+ * @author System
+ * @version 1.0
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = ".";
+    private static final String NULL_VALUE = "~";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param values 排序键的值（按排序顺序）
+     * @return 游标字符串
+     */
+    public static String encode(Object... values) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                builder.append(SEPARATOR);
+            }
+            if (values[i] == null) {
+                builder.append(NULL_VALUE);
+            } else {
+                builder.append(Base64.getUrlEncoder().withoutPadding()
+                        .encodeToString(values[i].toString().getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor        游标字符串
+     * @param expectedParts 期望的排序键数量
+     * @return 排序键的字符串值，编码时为null的位置返回null
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    public static String[] decode(String cursor, int expectedParts) {
+        if (cursor == null || cursor.isEmpty()) {
+            throw new IllegalArgumentException("游标不能为空");
+        }
+        String[] parts = cursor.split("\\.", -1);
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("游标格式错误");
+        }
+        String[] values = new String[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            if (NULL_VALUE.equals(parts[i])) {
+                values[i] = null;
+            } else {
+                values[i] = new String(Base64.getUrlDecoder().decode(parts[i]), StandardCharsets.UTF_8);
+            }
+        }
+        return values;
+    }
+}
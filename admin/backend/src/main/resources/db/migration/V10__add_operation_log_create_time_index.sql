@@ -0,0 +1,2 @@
+-- 日志保留清理和按时间范围统计都按 create_time 过滤
+CREATE INDEX `idx_operation_log_create_time` ON `operation_log` (`create_time`);
@@ -0,0 +1,13 @@
+-- 操作日志统计汇总表：按小时/按天/全量三种粒度累计各类型、模块、用户的日志数量
+CREATE TABLE IF NOT EXISTS `operation_log_rollup` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '汇总ID',
+    `granularity` CHAR(1) NOT NULL COMMENT '粒度：H-小时，D-天，A-全量',
+    `bucket_start` DATETIME NOT NULL COMMENT '时间桶起点',
+    `operation_type` VARCHAR(50) NOT NULL COMMENT '操作类型',
+    `operation_module` VARCHAR(50) NOT NULL COMMENT '操作模块',
+    `user_id` BIGINT NOT NULL COMMENT '操作用户ID（未知用户为0）',
+    `log_count` BIGINT NOT NULL COMMENT '日志数量',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_operation_log_rollup` (`granularity`, `bucket_start`, `operation_type`, `operation_module`, `user_id`),
+    KEY `idx_operation_log_rollup_bucket` (`granularity`, `bucket_start`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='操作日志统计汇总表';
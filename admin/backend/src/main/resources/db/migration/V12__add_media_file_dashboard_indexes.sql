@@ -0,0 +1,3 @@
+-- 仪表盘按状态、类型、分类聚合计数和按天统计上传数量，均可只走索引
+CREATE INDEX `idx_media_file_status_type_category` ON `media_file` (`status`, `file_type`, `category`);
+CREATE INDEX `idx_media_file_create_time` ON `media_file` (`create_time`);
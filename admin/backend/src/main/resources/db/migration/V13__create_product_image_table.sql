@@ -0,0 +1,31 @@
+-- 产品图片表：替代product表中以JSON保存的product_images字段，每张图片一行
+CREATE TABLE IF NOT EXISTS `product_image` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '图片ID',
+    `product_id` BIGINT NOT NULL COMMENT '产品ID',
+    `image_url` VARCHAR(500) NOT NULL COMMENT '图片URL',
+    `sort_order` INT NOT NULL COMMENT '排序值（相邻图片间隔1024）',
+    `media_file_id` BIGINT NULL COMMENT '关联的媒体文件ID',
+    `width` INT NULL COMMENT '图片宽度',
+    `height` INT NULL COMMENT '图片高度',
+    `thumbnail_url` VARCHAR(500) NULL COMMENT '缩略图URL',
+    `variants` TEXT NULL COMMENT '宽度变体（JSON：宽度 -> URL）',
+    `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_product_image_product_sort` (`product_id`, `sort_order`),
+    KEY `idx_product_image_url` (`image_url`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='产品图片表';
+
+-- 迁移JSON数组格式的旧数据（MySQL 8.0+）；逗号分隔等其他格式由应用启动时迁移
+INSERT INTO `product_image` (`product_id`, `image_url`, `sort_order`, `media_file_id`, `width`, `height`, `thumbnail_url`, `variants`)
+SELECT p.`id`, TRIM(j.`url`), j.`seq` * 1024, mf.`id`, mf.`width`, mf.`height`, mf.`thumbnail_url`, mf.`variants`
+FROM `product` p
+JOIN JSON_TABLE(p.`product_images`, '$[*]' COLUMNS (`seq` FOR ORDINALITY, `url` VARCHAR(500) PATH '$')) j
+LEFT JOIN (SELECT `file_url`, MAX(`id`) AS `id` FROM `media_file` WHERE `status` != 3 GROUP BY `file_url`) latest
+       ON latest.`file_url` = TRIM(j.`url`)
+LEFT JOIN `media_file` mf ON mf.`id` = latest.`id`
+WHERE JSON_VALID(p.`product_images`) AND JSON_TYPE(p.`product_images`) = 'ARRAY'
+  AND TRIM(j.`url`) != ''
+  AND NOT EXISTS (SELECT 1 FROM `product_image` pi WHERE pi.`product_id` = p.`id`);
+
+UPDATE `product` SET `product_images` = NULL
+WHERE JSON_VALID(`product_images`) AND JSON_TYPE(`product_images`) = 'ARRAY';
@@ -0,0 +1,14 @@
+-- 后台产品动态查询支持：常用过滤条件在前，白名单排序键和ID在后，分页取数不需要filesort
+
+-- 按状态过滤（或不过滤）时的各排序字段
+CREATE INDEX `idx_product_status_create_time` ON `product` (`status`, `create_time`, `id`);
+CREATE INDEX `idx_product_status_update_time` ON `product` (`status`, `update_time`, `id`);
+CREATE INDEX `idx_product_status_price` ON `product` (`status`, `price`, `id`);
+CREATE INDEX `idx_product_status_sort_order` ON `product` (`status`, `sort_order`, `id`);
+
+-- 分类列表最常见的组合：分类 + 状态，按创建时间排序
+CREATE INDEX `idx_product_category_status_create_time` ON `product` (`category`, `status`, `create_time`, `id`);
+
+-- 材质、面料类型筛选
+CREATE INDEX `idx_product_material_status` ON `product` (`material`, `status`);
+CREATE INDEX `idx_product_fabric_type_status` ON `product` (`fabric_type`, `status`);
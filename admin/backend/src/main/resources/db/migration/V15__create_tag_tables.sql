@@ -0,0 +1,23 @@
+-- 标签字典表：产品、富文本内容和媒体文件共用，名称唯一
+CREATE TABLE IF NOT EXISTS `tag` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '标签ID',
+    `name` VARCHAR(50) NOT NULL COMMENT '标签名称',
+    `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_tag_name` (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='标签字典表';
+
+-- 内容标签关联表：按标签查数据走 (tag_id, domain, entity_id)，只扫描带该标签的行
+CREATE TABLE IF NOT EXISTS `content_tag` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '关联ID',
+    `domain` VARCHAR(20) NOT NULL COMMENT '领域（PRODUCT、CONTENT、MEDIA）',
+    `entity_id` BIGINT NOT NULL COMMENT '数据ID',
+    `tag_id` BIGINT NOT NULL COMMENT '标签ID',
+    `sort_order` INT NOT NULL COMMENT '标签在该数据中的展示顺序',
+    `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_content_tag_entity_tag` (`domain`, `entity_id`, `tag_id`),
+    KEY `idx_content_tag_tag_domain_entity` (`tag_id`, `domain`, `entity_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='内容标签关联表';
+
+-- 历史数据的逗号分隔标签由应用启动时解析迁移（与写入时使用同一套规范化规则）
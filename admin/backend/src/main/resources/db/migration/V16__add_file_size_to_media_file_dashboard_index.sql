@@ -0,0 +1,3 @@
+-- 仪表盘按类型、分类汇总占用空间需要 SUM(file_size)，把 file_size 加入覆盖索引，聚合不再回表读取数据行
+DROP INDEX `idx_media_file_status_type_category` ON `media_file`;
+CREATE INDEX `idx_media_file_status_type_category` ON `media_file` (`status`, `file_type`, `category`, `file_size`);
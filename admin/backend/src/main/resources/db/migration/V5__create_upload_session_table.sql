@@ -0,0 +1,22 @@
+-- 创建分片上传会话表
+CREATE TABLE IF NOT EXISTS `upload_session` (
+    `upload_id` VARCHAR(64) NOT NULL COMMENT '上传ID',
+    `original_name` VARCHAR(255) NOT NULL COMMENT '原始文件名',
+    `storage_name` VARCHAR(255) NOT NULL COMMENT '目标存储文件名',
+    `category` VARCHAR(50) NOT NULL COMMENT '文件分类',
+    `mime_type` VARCHAR(100) NULL COMMENT 'MIME类型',
+    `file_size` BIGINT NOT NULL COMMENT '文件总大小（字节）',
+    `chunk_size` INT NOT NULL COMMENT '分片大小（字节）',
+    `total_parts` INT NOT NULL COMMENT '分片总数',
+    `received_parts` TEXT NULL COMMENT '已接收分片位图',
+    `status` INT NOT NULL DEFAULT 0 COMMENT '状态：0-上传中 1-已完成 2-已取消 3-已过期',
+    `media_file_id` BIGINT NULL COMMENT '完成后生成的媒体文件ID',
+    `file_url` VARCHAR(500) NULL COMMENT '完成后的文件URL',
+    `uploaded_by` BIGINT NULL COMMENT '上传者ID',
+    `expire_time` DATETIME NOT NULL COMMENT '会话过期时间',
+    `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time` DATETIME NULL ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`upload_id`),
+    INDEX `idx_status_expire_time` (`status`, `expire_time`),
+    INDEX `idx_uploaded_by_status` (`uploaded_by`, `status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='分片上传会话表';
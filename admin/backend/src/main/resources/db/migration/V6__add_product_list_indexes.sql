@@ -0,0 +1,10 @@
+-- 推荐列表（新品/主要产品/热门推荐）数据库分页与键集分页支持
+
+-- 排序值不允许为空，保证键集分页的排序键完整
+UPDATE `product` SET `sort_order` = 0 WHERE `sort_order` IS NULL;
+ALTER TABLE `product` MODIFY COLUMN `sort_order` INT NOT NULL DEFAULT 0 COMMENT '排序值';
+
+-- 与查询排序一致的复合索引：过滤条件在前，排序键在后，避免filesort
+CREATE INDEX `idx_product_new_list` ON `product` (`status`, `is_new`, `sort_order`, `create_time` DESC, `id` DESC);
+CREATE INDEX `idx_product_main_list` ON `product` (`status`, `is_main`, `sort_order`, `create_time` DESC, `id` DESC);
+CREATE INDEX `idx_product_featured_list` ON `product` (`status`, `is_featured`, `sort_order`, `create_time` DESC, `id` DESC);
@@ -0,0 +1,7 @@
+-- 图片上传改为后台处理：记录处理状态和响应式变体
+ALTER TABLE `media_file`
+    ADD COLUMN `process_status` INT NULL DEFAULT 0 COMMENT '图片处理状态：0-无需处理 1-排队中 2-处理中 3-已完成 4-处理失败',
+    ADD COLUMN `variants` TEXT NULL COMMENT '响应式图片变体（JSON，宽度 -> URL）';
+
+-- 后台补偿任务按状态和更新时间扫描待处理记录
+CREATE INDEX `idx_media_file_process_status` ON `media_file` (`process_status`, `update_time`);
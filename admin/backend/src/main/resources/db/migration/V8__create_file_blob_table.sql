@@ -0,0 +1,15 @@
+-- 上传文件按内容SHA-256去重存储：内容块表记录大小和引用计数
+CREATE TABLE IF NOT EXISTS `file_blob` (
+    `hash` CHAR(64) NOT NULL COMMENT '内容SHA-256',
+    `file_size` BIGINT NOT NULL COMMENT '内容大小（字节）',
+    `ref_count` INT NOT NULL DEFAULT 0 COMMENT '引用计数（指向该内容的文件路径数）',
+    `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time` DATETIME NULL ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`hash`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='文件内容块表';
+
+-- 媒体文件记录引用的内容块，历史文件为空
+ALTER TABLE `media_file`
+    ADD COLUMN `blob_hash` CHAR(64) NULL COMMENT '内容SHA-256（去重存储）';
+
+CREATE INDEX `idx_media_file_blob_hash` ON `media_file` (`blob_hash`);
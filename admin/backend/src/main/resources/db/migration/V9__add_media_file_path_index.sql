@@ -0,0 +1,2 @@
+-- 访问计数按文件路径批量写回浏览/下载次数，file_path 需要索引（前缀索引，避免超出索引长度限制）
+CREATE INDEX `idx_media_file_file_path` ON `media_file` (`file_path`(191));
@@ -0,0 +1,90 @@
+package com.manage.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FacetIndex 测试类
+ * 测试分面筛选、计数、增量更新和位置复用
+ */
+class FacetIndexTest {
+
+    private static Map<String, List<String>> values(String category, String material, String... tags) {
+        Map<String, List<String>> values = new HashMap<>();
+        values.put("category", Collections.singletonList(category));
+        values.put("material", Collections.singletonList(material));
+        values.put("tag", Arrays.asList(tags));
+        return values;
+    }
+
+    private FacetIndex createIndex() {
+        FacetIndex index = new FacetIndex();
+        index.put(1L, values("牛仔裤", "棉", "修身", "高腰"));
+        index.put(2L, values("牛仔裤", "棉", "宽松"));
+        index.put(3L, values("牛仔外套", "棉", "修身"));
+        index.put(4L, values("牛仔外套", "涤纶", "宽松"));
+        return index;
+    }
+
+    @Test
+    void testQueryWithoutSelection() {
+        FacetIndex.Result result = createIndex().query(Collections.emptyMap());
+
+        assertEquals(Arrays.asList(4L, 3L, 2L, 1L), result.getIds());
+        assertEquals(Integer.valueOf(3), result.getCounts().get("material").get("棉"));
+        assertEquals(Integer.valueOf(2), result.getCounts().get("tag").get("修身"));
+        // 按数量降序
+        assertEquals("棉", result.getCounts().get("material").keySet().iterator().next());
+    }
+
+    @Test
+    void testSelectionIntersectsAcrossFacetsAndUnionsWithinFacet() {
+        Map<String, List<String>> selected = new HashMap<>();
+        selected.put("category", Arrays.asList("牛仔裤", "牛仔外套"));
+        selected.put("tag", Collections.singletonList("修身"));
+
+        FacetIndex.Result result = createIndex().query(selected);
+
+        assertEquals(Arrays.asList(3L, 1L), result.getIds());
+        // 标签计数不受标签自身筛选影响，仍显示其他标签可选数量
+        assertEquals(Integer.valueOf(2), result.getCounts().get("tag").get("宽松"));
+        // 分类计数受标签筛选影响
+        assertEquals(Integer.valueOf(1), result.getCounts().get("category").get("牛仔裤"));
+        // 材质未被筛选，按全部筛选条件计数
+        assertEquals(Integer.valueOf(2), result.getCounts().get("material").get("棉"));
+        assertNull(result.getCounts().get("material").get("涤纶"));
+    }
+
+    @Test
+    void testUnknownSelectedValueMatchesNothingButIsCounted() {
+        FacetIndex.Result result = createIndex().query(
+                Collections.singletonMap("material", Collections.singletonList("羊毛")));
+
+        assertTrue(result.getIds().isEmpty());
+        assertEquals(Integer.valueOf(0), result.getCounts().get("material").get("羊毛"));
+        assertEquals(Integer.valueOf(3), result.getCounts().get("material").get("棉"));
+    }
+
+    @Test
+    void testUpdateAndRemoveReuseSlots() {
+        FacetIndex index = createIndex();
+
+        index.put(1L, values("牛仔外套", "涤纶"));
+        index.remove(2L);
+        index.put(5L, values("牛仔裤", "棉", "高腰"));
+
+        assertEquals(4, index.size());
+        FacetIndex.Result result = index.query(
+                Collections.singletonMap("category", Collections.singletonList("牛仔裤")));
+        assertEquals(Collections.singletonList(5L), result.getIds());
+        assertEquals(Integer.valueOf(1), result.getCounts().get("tag").get("高腰"));
+        assertNull(result.getCounts().get("tag").get("宽松"));
+    }
+}
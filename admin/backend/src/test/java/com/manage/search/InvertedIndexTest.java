@@ -0,0 +1,76 @@
+package com.manage.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * InvertedIndex 测试类
+ * 测试中英文分词、交集检索、相关度排序和高亮
+ */
+class InvertedIndexTest {
+
+    private InvertedIndex createIndex() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(new SearchDocument(1L, 1, true, "高腰修身牛仔裤", "经典款<b>牛仔裤</b>，适合四季穿着", null)
+                .field("高腰修身牛仔裤", 3f)
+                .field("经典款牛仔裤，适合四季穿着", 1f));
+        index.put(new SearchDocument(2L, 1, true, "牛仔外套", "牛仔面料外套，裤子另售", null)
+                .field("牛仔外套", 3f)
+                .field("牛仔面料外套，裤子另售", 1f));
+        index.put(new SearchDocument(3L, 0, false, "Slim Fit Jeans", "Denim slim jeans", null)
+                .field("Slim Fit Jeans", 3f)
+                .field("Denim slim jeans", 1f));
+        return index;
+    }
+
+    @Test
+    void testAnalyzeMixedText() {
+        // 中文产生单字和二元组，英文转小写，全角字符规范化为半角
+        List<String> terms = TextAnalyzer.analyze("高腰Slim牛仔 ＡＢＣ");
+        assertTrue(terms.contains("高腰"));
+        assertTrue(terms.contains("牛仔"));
+        assertTrue(terms.contains("仔"));
+        assertTrue(terms.contains("slim"));
+        assertTrue(terms.contains("abc"));
+
+        // 查询时中文只取二元组
+        assertEquals(java.util.Arrays.asList("牛仔", "仔裤", "slim"), TextAnalyzer.analyzeQuery("牛仔裤 SLIM"));
+    }
+
+    @Test
+    void testSearchRequiresAllTerms() {
+        InvertedIndex index = createIndex();
+
+        List<InvertedIndex.Hit> hits = index.search(TextAnalyzer.analyzeQuery("牛仔裤"), null);
+        assertEquals(1, hits.size());
+        assertEquals(1L, hits.get(0).getDocument().getId());
+
+        // 中英文混合查询没有同时命中的文档
+        assertTrue(index.search(TextAnalyzer.analyzeQuery("jeans 牛仔"), null).isEmpty());
+    }
+
+    @Test
+    void testSearchWithFilterAndRemove() {
+        InvertedIndex index = createIndex();
+
+        assertEquals(1, index.search(TextAnalyzer.analyzeQuery("slim"), null).size());
+        assertTrue(index.search(TextAnalyzer.analyzeQuery("slim"), SearchDocument::isVisible).isEmpty());
+
+        index.remove(1L);
+        assertEquals(2, index.size());
+        assertTrue(index.search(TextAnalyzer.analyzeQuery("牛仔裤"), null).isEmpty());
+    }
+
+    @Test
+    void testHighlight() {
+        List<String> terms = TextAnalyzer.analyzeQuery("牛仔裤");
+
+        // 相邻命中合并为一段，原文中的HTML被转义
+        assertEquals("高腰修身<em>牛仔裤</em>", Highlighter.highlight("高腰修身牛仔裤", terms));
+        assertEquals("经典款&lt;b&gt;<em>牛仔裤</em>&lt;/b&gt;，适合四季穿着",
+                Highlighter.snippet("经典款<b>牛仔裤</b>，适合四季穿着", terms, 100));
+    }
+}
@@ -0,0 +1,69 @@
+package com.manage.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RebuildableIndex 测试类
+ * 测试增量更新、重建期间变更的补放和加载失败时保留旧索引
+ */
+class RebuildableIndexTest {
+
+    @Test
+    void testApplyUpdatesCurrentIndex() {
+        RebuildableIndex<List<String>, String> index = new RebuildableIndex<>("测试索引",
+                new ArrayList<>(), ArrayList::new, List::add);
+
+        index.apply("a");
+
+        assertEquals(Collections.singletonList("a"), index.get());
+        assertFalse(index.isReady());
+    }
+
+    @Test
+    void testEventsDuringRebuildAreReplayed() {
+        AtomicReference<RebuildableIndex<List<String>, String>> holder = new AtomicReference<>();
+        RebuildableIndex<List<String>, String> index = new RebuildableIndex<>("测试索引", new ArrayList<>(),
+                () -> {
+                    List<String> fresh = new ArrayList<>(Collections.singletonList("loaded"));
+                    // 加载期间到达的变更：已应用到旧索引，切换前须补放到新索引
+                    holder.get().apply("late");
+                    return fresh;
+                }, List::add);
+        holder.set(index);
+
+        RebuildableIndex.Rebuild<List<String>> rebuild = index.rebuild();
+
+        assertNotNull(rebuild);
+        assertEquals(1, rebuild.getReplayed());
+        assertEquals(Arrays.asList("loaded", "late"), index.get());
+        assertTrue(index.isReady());
+        assertFalse(index.isRebuilding());
+        assertTrue(index.getLastRebuildTime() > 0);
+    }
+
+    @Test
+    void testFailedLoadKeepsCurrentIndex() {
+        List<String> initial = new ArrayList<>(Collections.singletonList("old"));
+        RebuildableIndex<List<String>, String> index = new RebuildableIndex<>("测试索引", initial,
+                () -> {
+                    throw new IllegalStateException("数据库不可用");
+                }, List::add);
+
+        assertNull(index.rebuild());
+        assertSame(initial, index.get());
+        assertFalse(index.isReady());
+        assertFalse(index.isRebuilding());
+
+        // 失败后不再记录补放事件，后续变更照常应用
+        index.apply("new");
+        assertEquals(Arrays.asList("old", "new"), index.get());
+    }
+}
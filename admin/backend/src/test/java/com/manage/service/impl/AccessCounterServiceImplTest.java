@@ -0,0 +1,151 @@
+package com.manage.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * AccessCounterServiceImpl 测试类
+ * 测试迟到计数的并回、写回失败后的增量保留和批量行的主键顺序
+ */
+class AccessCounterServiceImplTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * 每次batchUpdate调用提交的SQL和参数行
+     */
+    private final List<String> sqls = new ArrayList<>();
+    private final List<List<Object[]>> batches = new ArrayList<>();
+
+    private RuntimeException nextFailure;
+
+    private AccessCounterServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            sqls.add(invocation.getArgument(0));
+            batches.add(new ArrayList<>(invocation.<List<Object[]>>getArgument(1)));
+            if (nextFailure != null) {
+                RuntimeException failure = nextFailure;
+                nextFailure = null;
+                throw failure;
+            }
+            return new int[0];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        service = new AccessCounterServiceImpl(jdbcTemplate, meterRegistry);
+        service.init();
+    }
+
+    @Test
+    void testRowsAreIssuedInKeyOrder() {
+        for (long id : new long[]{30, 10, 20}) {
+            service.recordContentView(id);
+        }
+        service.recordMediaView("/uploads/c.jpg");
+        service.recordMediaDownload("/uploads/a.jpg");
+        service.recordMediaView("/uploads/b.jpg");
+
+        assertEquals(6, service.flush());
+
+        assertEquals(2, batches.size());
+        assertTrue(sqls.get(0).startsWith("UPDATE rich_content"));
+        assertTrue(sqls.get(1).startsWith("UPDATE media_file"));
+        assertEquals(Arrays.asList(10L, 20L, 30L), column(0, 1));
+        assertEquals(Arrays.asList("/uploads/a.jpg", "/uploads/b.jpg", "/uploads/c.jpg"), column(1, 3));
+        assertEquals(6.0, meterRegistry.counter("access.counter.flushed.rows").count());
+    }
+
+    @Test
+    void testLateIncrementOnRetiredCounterIsMergedNextFlush() {
+        service.recordContentView(1L);
+        assertEquals(1, service.flush());
+
+        // 请求线程在条目移出前取到计数器，移出后才累加
+        LongAdder stale = contentViews().get(1L);
+        assertEquals(0, service.flush());
+        assertFalse(contentViews().containsKey(1L));
+        stale.increment();
+
+        assertEquals(1, service.flush());
+        List<Object[]> last = batches.get(batches.size() - 1);
+        assertEquals(1, last.size());
+        assertArrayEquals(new Object[]{1L, 1L}, last.get(0));
+        assertEquals(0, service.getPendingContentViews(1L));
+    }
+
+    @Test
+    void testFailedBatchIsRestored() {
+        service.recordContentView(1L);
+        service.recordContentView(1L);
+        service.recordMediaDownload("/uploads/a.jpg");
+        nextFailure = new QueryTimeoutException("数据库超时");
+
+        // 内容浏览批次失败，媒体文件批次照常写回
+        assertEquals(1, service.flush());
+        assertEquals(2, service.getPendingContentViews(1L));
+        assertEquals(1.0, meterRegistry.counter("access.counter.flush.failures").count());
+
+        service.recordContentView(1L);
+        assertEquals(1, service.flush());
+
+        List<Object[]> retried = batches.get(batches.size() - 1);
+        assertEquals(1, retried.size());
+        assertArrayEquals(new Object[]{3L, 1L}, retried.get(0));
+        assertEquals(0, service.getPendingContentViews(1L));
+    }
+
+    @Test
+    void testFailedMediaBatchKeepsCounts() {
+        service.recordMediaView("/uploads/a.jpg");
+        service.recordMediaDownload("/uploads/a.jpg");
+        nextFailure = new QueryTimeoutException("数据库超时");
+
+        assertEquals(0, service.flush());
+        Map<String, Long> pending = service.getPendingMediaCounts("/uploads/a.jpg");
+        assertEquals(1L, pending.get("views"));
+        assertEquals(1L, pending.get("downloads"));
+
+        assertEquals(1, service.flush());
+        Object[] row = batches.get(batches.size() - 1).get(0);
+        assertEquals(1L, row[0]);
+        assertEquals(1L, row[1]);
+        assertEquals("/uploads/a.jpg", row[3]);
+    }
+
+    @Test
+    void testNothingToFlushSkipsDatabase() {
+        assertEquals(0, service.flush());
+        assertEquals(Collections.emptyList(), batches);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, LongAdder> contentViews() {
+        return (Map<Long, LongAdder>) ReflectionTestUtils.getField(service, "contentViews");
+    }
+
+    private List<Object> column(int batch, int index) {
+        return batches.get(batch).stream().map(row -> row[index]).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,304 @@
+package com.manage.service.impl;
+
+import com.manage.common.ResultCode;
+import com.manage.entity.MediaFile;
+import com.manage.entity.UploadSession;
+import com.manage.exception.BusinessException;
+import com.manage.repository.UploadSessionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.BeanUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ChunkedUploadServiceImpl 测试类
+ * 测试分片按偏移写入、重试分片的暂存覆盖，以及重试或写入与完成操作并发时的处理
+ */
+class ChunkedUploadServiceImplTest {
+
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private ChunkedUploadServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        // 内存中的会话仓库，读写都复制一份，模拟每次从数据库重新加载
+        UploadSessionRepository repository = mock(UploadSessionRepository.class);
+        when(repository.save(any(UploadSession.class))).thenAnswer(invocation -> {
+            UploadSession session = invocation.getArgument(0);
+            sessions.put(session.getUploadId(), copy(session));
+            return session;
+        });
+        when(repository.findById(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(sessions.get(invocation.<String>getArgument(0))).map(this::copy));
+
+        service = new ChunkedUploadServiceImpl(repository);
+        ReflectionTestUtils.setField(service, "tempPath", tempDir.toString());
+        ReflectionTestUtils.setField(service, "defaultChunkSize", CHUNK_SIZE);
+        ReflectionTestUtils.setField(service, "maxFileSize", 1024L * 1024 * 1024);
+        ReflectionTestUtils.setField(service, "sessionTtlHours", 24L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testPartsWrittenOutOfOrderAssembleFile() throws IOException {
+        byte[] content = content(CHUNK_SIZE + 100, (byte) 'a');
+        UploadSession session = createSession(content.length);
+        assertEquals(2, session.getTotalParts());
+
+        service.writePart(session.getUploadId(), 2, part(content, 2));
+        assertEquals(Arrays.asList(1), service.getMissingParts(sessions.get(session.getUploadId())));
+        service.writePart(session.getUploadId(), 1, part(content, 1));
+
+        AtomicReference<byte[]> assembled = new AtomicReference<>();
+        UploadSession completed = service.completeSession(session.getUploadId(), null, (s, file) -> {
+            assembled.set(readAll(file));
+            return mediaFile();
+        });
+
+        assertEquals(UploadSession.STATUS_COMPLETED, completed.getStatus());
+        assertArrayEquals(content, assembled.get());
+        assertEquals(0, listFiles().length);
+    }
+
+    @Test
+    void testRetriedPartIsStagedAndReplacesContent() throws IOException {
+        byte[] first = content(CHUNK_SIZE + 100, (byte) 'a');
+        byte[] retried = content(CHUNK_SIZE + 100, (byte) 'b');
+        UploadSession session = createSession(first.length);
+
+        service.writePart(session.getUploadId(), 1, part(first, 1));
+        service.writePart(session.getUploadId(), 2, part(first, 2));
+        service.writePart(session.getUploadId(), 1, part(retried, 1));
+
+        byte[] assembled = readAll(partFile(session));
+        assertArrayEquals(Arrays.copyOfRange(retried, 0, CHUNK_SIZE), Arrays.copyOfRange(assembled, 0, CHUNK_SIZE));
+        assertArrayEquals(Arrays.copyOfRange(first, CHUNK_SIZE, first.length),
+                Arrays.copyOfRange(assembled, CHUNK_SIZE, assembled.length));
+        // 暂存文件用完即删，只剩会话的临时文件
+        assertEquals(1, listFiles().length);
+    }
+
+    @Test
+    void testIncompleteRetryKeepsReceivedPart() throws IOException {
+        byte[] content = content(100, (byte) 'a');
+        UploadSession session = createSession(content.length);
+        service.writePart(session.getUploadId(), 1, part(content, 1));
+
+        BusinessException e = assertThrows(BusinessException.class, () ->
+                service.writePart(session.getUploadId(), 1, new ByteArrayInputStream(new byte[10])));
+
+        assertEquals(ResultCode.VALIDATE_FAILED.getCode(), e.getCode());
+        assertTrue(sessions.get(session.getUploadId()).isPartReceived(1));
+        assertArrayEquals(content, readAll(partFile(session)));
+        assertEquals(1, listFiles().length);
+    }
+
+    @Test
+    void testCompleteWaitsForDirectWriteOfSamePart() throws Exception {
+        byte[] content = content(100, (byte) 'a');
+        UploadSession session = createSession(content.length);
+        BlockingInputStream slow = new BlockingInputStream(content, 50);
+
+        // 首个请求直接写入到一半被阻塞，同一分片的重复请求走暂存路径并先完成
+        Future<UploadSession> direct = executor.submit(() -> service.writePart(session.getUploadId(), 1, slow));
+        assertTrue(slow.blocked.await(5, TimeUnit.SECONDS));
+        service.writePart(session.getUploadId(), 1, part(content, 1));
+        assertTrue(sessions.get(session.getUploadId()).isPartReceived(1));
+
+        BusinessException e = assertThrows(BusinessException.class, () ->
+                service.completeSession(session.getUploadId(), null, (s, file) -> mediaFile()));
+        assertEquals(ResultCode.CONFLICT.getCode(), e.getCode());
+
+        slow.release.countDown();
+        direct.get(5, TimeUnit.SECONDS);
+
+        AtomicReference<byte[]> assembled = new AtomicReference<>();
+        service.completeSession(session.getUploadId(), null, (s, file) -> {
+            assembled.set(readAll(file));
+            return mediaFile();
+        });
+        assertArrayEquals(content, assembled.get());
+    }
+
+    @Test
+    void testRetryDuringCompleteDoesNotTouchAssembledFile() throws Exception {
+        byte[] content = content(100, (byte) 'a');
+        byte[] retried = content(100, (byte) 'b');
+        UploadSession session = createSession(content.length);
+        service.writePart(session.getUploadId(), 1, part(content, 1));
+
+        CountDownLatch handling = new CountDownLatch(1);
+        AtomicReference<Thread> retryThread = new AtomicReference<>();
+        AtomicReference<Throwable> retryError = new AtomicReference<>();
+        AtomicReference<byte[]> assembled = new AtomicReference<>();
+        Future<UploadSession> complete = executor.submit(() ->
+                service.completeSession(session.getUploadId(), null, (s, file) -> {
+                    handling.countDown();
+                    // 完成操作持锁期间，重试请求只能等待同一把锁，不会写入正在交出的文件
+                    awaitBlocked(retryThread);
+                    assembled.set(readAll(file));
+                    return mediaFile();
+                }));
+        assertTrue(handling.await(5, TimeUnit.SECONDS));
+
+        Thread retry = new Thread(() -> {
+            try {
+                service.writePart(session.getUploadId(), 1, new ByteArrayInputStream(retried));
+            } catch (Throwable e) {
+                retryError.set(e);
+            }
+        });
+        retryThread.set(retry);
+        retry.start();
+        retry.join(5000);
+
+        assertEquals(UploadSession.STATUS_COMPLETED, complete.get(5, TimeUnit.SECONDS).getStatus());
+        assertTrue(retryError.get() instanceof BusinessException);
+        assertEquals(ResultCode.CONFLICT.getCode(), ((BusinessException) retryError.get()).getCode());
+        assertArrayEquals(content, assembled.get());
+        assertEquals(0, listFiles().length);
+    }
+
+    private UploadSession createSession(long fileSize) {
+        return service.createSession("test.bin", "test.bin", "general", "application/octet-stream",
+                fileSize, CHUNK_SIZE, 1L);
+    }
+
+    private InputStream part(byte[] content, int partNumber) {
+        int offset = (partNumber - 1) * CHUNK_SIZE;
+        return new ByteArrayInputStream(content, offset, Math.min(CHUNK_SIZE, content.length - offset));
+    }
+
+    private byte[] content(int length, byte seed) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) (seed + i % 7);
+        }
+        return content;
+    }
+
+    private Path partFile(UploadSession session) {
+        return tempDir.resolve(session.getUploadId() + ".part");
+    }
+
+    private Path[] listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.toArray(Path[]::new);
+        }
+    }
+
+    private byte[] readAll(Path file) {
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void awaitBlocked(AtomicReference<Thread> thread) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thread.get() == null || thread.get().getState() != Thread.State.BLOCKED) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("等待重试请求阻塞超时");
+            }
+            Thread.yield();
+        }
+    }
+
+    private MediaFile mediaFile() {
+        MediaFile mediaFile = new MediaFile();
+        mediaFile.setId(1L);
+        mediaFile.setFileUrl("/uploads/general/test.bin");
+        return mediaFile;
+    }
+
+    private UploadSession copy(UploadSession session) {
+        UploadSession copy = new UploadSession();
+        BeanUtils.copyProperties(session, copy);
+        return copy;
+    }
+
+    /**
+     * 读到指定位置后阻塞，直到测试放行，用于模拟慢速客户端
+     */
+    private static class BlockingInputStream extends InputStream {
+
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final byte[] content;
+        private final int blockAt;
+        private int position;
+
+        BlockingInputStream(byte[] content, int blockAt) {
+            this.content = content;
+            this.blockAt = blockAt;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position == blockAt) {
+                blocked.countDown();
+                try {
+                    if (!release.await(5, TimeUnit.SECONDS)) {
+                        throw new IOException("等待放行超时");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            if (position >= content.length) {
+                return -1;
+            }
+            int limit = position < blockAt ? blockAt : content.length;
+            int count = Math.min(length, limit - position);
+            System.arraycopy(content, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.manage.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AcceptEncodingUtil 测试类
+ * 测试gzip识别、q=0 的处理及gzip表示的ETag
+ */
+class AcceptEncodingUtilTest {
+
+    @Test
+    void testAcceptsGzip() {
+        assertTrue(AcceptEncodingUtil.acceptsGzip("gzip, deflate, br"));
+        assertTrue(AcceptEncodingUtil.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertFalse(AcceptEncodingUtil.acceptsGzip(null));
+        assertFalse(AcceptEncodingUtil.acceptsGzip("deflate, br"));
+    }
+
+    @Test
+    void testRejectsGzipWithZeroQuality() {
+        assertFalse(AcceptEncodingUtil.acceptsGzip("gzip;q=0"));
+        assertFalse(AcceptEncodingUtil.acceptsGzip("br, gzip; q=0.0"));
+        assertTrue(AcceptEncodingUtil.acceptsGzip("gzip;q=0.01"));
+    }
+
+    @Test
+    void testGzipETag() {
+        assertEquals("\"1a-2b-gzip\"", AcceptEncodingUtil.gzipETag("\"1a-2b\""));
+        assertEquals("W/\"1a-gzip\"", AcceptEncodingUtil.gzipETag("W/\"1a\""));
+        assertNotEquals("\"1a\"", AcceptEncodingUtil.gzipETag("\"1a\""));
+    }
+}
@@ -0,0 +1,178 @@
+package com.manage.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * FileResponseWriter 测试类
+ * 测试各类Range请求、If-Range校验和无法满足时的416响应
+ */
+class FileResponseWriterTest {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @TempDir
+    Path tempDir;
+
+    private final FileResponseWriter writer = new FileResponseWriter();
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = tempDir.resolve("test.txt");
+        Files.write(file, CONTENT.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testNoRangeReturnsFullContent() throws IOException {
+        MockHttpServletResponse response = write(request(null));
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertNotNull(response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testSingleRange() throws IOException {
+        MockHttpServletResponse response = write(request("bytes=2-5"));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("2345", response.getContentAsString());
+        assertEquals("bytes 2-5/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(4, response.getContentLengthLong());
+    }
+
+    @Test
+    void testSuffixRange() throws IOException {
+        MockHttpServletResponse response = write(request("bytes=-3"));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("hij", response.getContentAsString());
+        assertEquals("bytes 17-19/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testOpenEndedRange() throws IOException {
+        MockHttpServletResponse response = write(request("bytes=15-"));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("fghij", response.getContentAsString());
+        assertEquals("bytes 15-19/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testRangeEndBeyondLengthIsClamped() throws IOException {
+        MockHttpServletResponse response = write(request("bytes=18-100"));
+
+        assertEquals(206, response.getStatus());
+        assertEquals("ij", response.getContentAsString());
+        assertEquals("bytes 18-19/20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testOverlappingRangesWithinLengthReturnMultipart() throws IOException {
+        MockHttpServletResponse response = write(request("bytes=0-9,5-14"));
+
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges; boundary="));
+        String body = response.getContentAsString();
+        assertTrue(body.contains("Content-Range: bytes 0-9/20\r\n\r\n0123456789"));
+        assertTrue(body.contains("Content-Range: bytes 5-14/20\r\n\r\n56789abcde"));
+        assertEquals(response.getContentAsByteArray().length, response.getContentLengthLong());
+    }
+
+    @Test
+    void testRangesLongerThanFileAreRejected() throws IOException {
+        MockHttpServletResponse response = write(request("bytes=0-15,5-19"));
+
+        assertRangeNotSatisfiable(response);
+    }
+
+    @Test
+    void testTooManyRangesAreRejected() throws IOException {
+        StringBuilder header = new StringBuilder("bytes=0-0");
+        for (int i = 1; i <= 16; i++) {
+            header.append(',').append(i).append('-').append(i);
+        }
+
+        MockHttpServletResponse response = write(request(header.toString()));
+
+        assertRangeNotSatisfiable(response);
+    }
+
+    @Test
+    void testStartBeyondLengthIsNotSatisfiable() throws IOException {
+        MockHttpServletResponse response = write(request("bytes=20-25"));
+
+        assertRangeNotSatisfiable(response);
+    }
+
+    @Test
+    void testIfRangeMatchReturnsPartialContent() throws IOException {
+        String etag = write(request(null)).getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest request = request("bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, etag);
+
+        MockHttpServletResponse response = write(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("01", response.getContentAsString());
+    }
+
+    @Test
+    void testIfRangeMismatchReturnsFullContent() throws IOException {
+        MockHttpServletRequest request = request("bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+
+        MockHttpServletResponse response = write(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void testWeakIfRangeReturnsFullContent() throws IOException {
+        String etag = write(request(null)).getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest request = request("bytes=0-1");
+        request.addHeader(HttpHeaders.IF_RANGE, "W/" + etag);
+
+        MockHttpServletResponse response = write(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    private MockHttpServletRequest request(String range) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/test.txt");
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse write(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        writer.write(request, response, file, "text/plain", false);
+        return response;
+    }
+
+    private void assertRangeNotSatisfiable(MockHttpServletResponse response) {
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+}
@@ -10,6 +10,8 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -77,6 +79,68 @@ class ImageCompressionUtilTest {
         assertTrue(info.getSizeMB() > 0);
     }
 
+    @Test
+    @DisplayName("测试降采样倍数计算")
+    void testSubsamplingFactor() {
+        ImageCompressionUtil.ImageInfo info = ImageCompressionUtil.ImageInfo.builder()
+            .width(6000).height(4000).build();
+
+        assertEquals(5, ImageCompressionUtil.subsamplingFactor(info, 1200, 0));
+        // 等比缩放到框内（Thumbnails.size）时由较大的缩放比决定结果尺寸：6000x4000 放进 300x300 得到 300x200，
+        // 按 max(6000/300, 4000/300) = 20 倍降采样后恰好仍能覆盖
+        assertEquals(20, ImageCompressionUtil.subsamplingFactor(info, 300, 300));
+        assertEquals(5, ImageCompressionUtil.subsamplingFactor(info, 1200, 800));
+        assertEquals(1, ImageCompressionUtil.subsamplingFactor(info, 8000, 0));
+        assertEquals(1, ImageCompressionUtil.subsamplingFactor(info, 0, 0));
+    }
+
+    @Test
+    @DisplayName("测试降采样解码")
+    void testDecodeImageWithSubsampling() throws IOException {
+        BufferedImage image = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB);
+        Path file = Files.createTempFile("probe-", ".png");
+        try {
+            ImageIO.write(image, "png", file.toFile());
+
+            ImageCompressionUtil.ImageInfo info = ImageCompressionUtil.probeImageInfo(file);
+            assertEquals(2000, info.getWidth());
+            assertEquals(1000, info.getHeight());
+            assertEquals("png", info.getFormat());
+            assertEquals(1, info.getOrientation());
+
+            int subsampling = ImageCompressionUtil.subsamplingFactor(info, 640, 0);
+            BufferedImage decoded = ImageCompressionUtil.decodeImage(file, subsampling);
+            assertEquals(3, subsampling);
+            assertEquals(667, decoded.getWidth());
+            assertEquals(334, decoded.getHeight());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("测试EXIF方向解析与校正")
+    void testExifOrientation() {
+        // Exif头 + 大端TIFF头 + IFD0中只有一个方向标签(值为6)
+        byte[] app1 = {
+            'E', 'x', 'i', 'f', 0, 0,
+            'M', 'M', 0, 42, 0, 0, 0, 8,
+            0, 1,
+            0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, 6, 0, 0,
+            0, 0, 0, 0
+        };
+        assertEquals(6, ImageCompressionUtil.readExifOrientation(app1));
+        assertEquals(0, ImageCompressionUtil.readExifOrientation("http://ns.adobe.com/xap/1.0/".getBytes()));
+
+        // 方向6表示需要顺时针旋转90度：原图左上角的像素应出现在右上角
+        BufferedImage image = new BufferedImage(4, 2, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, 0xFF0000);
+        BufferedImage rotated = ImageCompressionUtil.applyOrientation(image, 6);
+        assertEquals(2, rotated.getWidth());
+        assertEquals(4, rotated.getHeight());
+        assertEquals(0xFF0000, rotated.getRGB(1, 0) & 0xFFFFFF);
+    }
+
     @Test
     @DisplayName("测试智能压缩 - 超小文件无需压缩")
     void testSmartCompressTinyFile() throws IOException {